@@ -0,0 +1,65 @@
+package com.waalterGar.projects.ecommerce.benchmarks;
+
+import com.waalterGar.projects.ecommerce.entity.Cart;
+import com.waalterGar.projects.ecommerce.entity.CartItem;
+import com.waalterGar.projects.ecommerce.entity.Customer;
+import com.waalterGar.projects.ecommerce.entity.Order;
+import com.waalterGar.projects.ecommerce.testsupport.builders.CustomerBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.OrderBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.OrderItemBuilder;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** Realistic orders and carts: distinct SKUs, mixed prices and quantities, timestamps set as after a save. */
+final class BenchmarkFixtures {
+    private static final String[] PRICES = {"4.99", "9.99", "19.99", "24.50", "129.00"};
+
+    private BenchmarkFixtures() {}
+
+    static Order order(int items) {
+        Customer customer = new CustomerBuilder().withExternalId(UUID.randomUUID().toString()).build();
+        OrderBuilder builder = new OrderBuilder().withCustomer(customer);
+        for (int i = 0; i < items; i++) {
+            builder.addItem(new OrderItemBuilder()
+                    .withSku(sku(i))
+                    .withName("Product " + i)
+                    .withUnitPrice(price(i))
+                    .withQuantity(1 + i % 4)
+                    .withCurrency(Currency.EUR)
+                    .build());
+        }
+        Order order = builder.build();
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUpdatedAt(order.getCreatedAt());
+        return order;
+    }
+
+    static Cart cart(int items) {
+        Cart cart = new Cart();
+        cart.setExternalId(UUID.randomUUID().toString());
+        cart.setCurrency(Currency.EUR);
+        cart.setCreatedAt(LocalDateTime.now());
+        cart.setUpdatedAt(cart.getCreatedAt());
+        for (int i = 0; i < items; i++) {
+            CartItem item = new CartItem();
+            item.setProductSku(sku(i));
+            item.setProductName("Product " + i);
+            item.setUnitPrice(price(i));
+            item.setQuantity(1 + i % 4);
+            item.computeLineTotal();
+            cart.addItem(item);
+        }
+        return cart;
+    }
+
+    static String sku(int i) {
+        return String.format("SKU-%05d", i);
+    }
+
+    static BigDecimal price(int i) {
+        return new BigDecimal(PRICES[i % PRICES.length]);
+    }
+}
@@ -0,0 +1,64 @@
+package com.waalterGar.projects.ecommerce.benchmarks;
+
+import com.waalterGar.projects.ecommerce.Dto.CartDto;
+import com.waalterGar.projects.ecommerce.Dto.CreateCustomerDto;
+import com.waalterGar.projects.ecommerce.Dto.OrderDto;
+import com.waalterGar.projects.ecommerce.entity.Cart;
+import com.waalterGar.projects.ecommerce.entity.Customer;
+import com.waalterGar.projects.ecommerce.entity.Order;
+import com.waalterGar.projects.ecommerce.mapper.CartMapper;
+import com.waalterGar.projects.ecommerce.mapper.CustomerMapper;
+import com.waalterGar.projects.ecommerce.mapper.OrderMapper;
+import com.waalterGar.projects.ecommerce.utils.CountryCode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity → DTO mapping on the read paths. {@code CartMapper.toDto} includes {@code computeTotals};
+ * {@code CustomerMapper.toEntity} is the public entry to {@code normalizeName}/{@code normalizeEmail}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"1", "10", "100"})
+    int items;
+
+    private Order order;
+    private Cart cart;
+    private CreateCustomerDto createCustomer;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkFixtures.order(items);
+        cart = BenchmarkFixtures.cart(items);
+
+        createCustomer = new CreateCustomerDto();
+        createCustomer.setFirstName("  maría josé ");
+        createCustomer.setLastName(" garcía-lópez");
+        createCustomer.setEmail("  Maria.Garcia@Example.COM ");
+        createCustomer.setCity(" Madrid ");
+        createCustomer.setZipCode("28001 ");
+        createCustomer.setCountryCode(CountryCode.ES);
+    }
+
+    @Benchmark
+    public OrderDto orderToDto() {
+        return OrderMapper.toDto(order);
+    }
+
+    @Benchmark
+    public CartDto cartToDto() {
+        return CartMapper.toDto(cart);
+    }
+
+    @Benchmark
+    public Customer customerFromCreateDto() {
+        return CustomerMapper.toEntity(createCustomer);
+    }
+}
@@ -0,0 +1,39 @@
+package com.waalterGar.projects.ecommerce.benchmarks;
+
+import com.waalterGar.projects.ecommerce.entity.Order;
+import com.waalterGar.projects.ecommerce.entity.OrderItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/** Line totals and the order total as {@code OrderServiceImpl.createOrder} computes them. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"1", "10", "100"})
+    int items;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkFixtures.order(items);
+    }
+
+    @Benchmark
+    public BigDecimal orderTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : order.getItems()) {
+            item.computeLineTotal();
+            total = total.add(item.getLineTotal());
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+}
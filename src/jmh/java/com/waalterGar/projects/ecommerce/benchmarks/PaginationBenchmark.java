@@ -0,0 +1,50 @@
+package com.waalterGar.projects.ecommerce.benchmarks;
+
+import com.waalterGar.projects.ecommerce.api.pagination.AllowedSorts;
+import com.waalterGar.projects.ecommerce.api.pagination.PageableFactory;
+import com.waalterGar.projects.ecommerce.api.pagination.SortDirective;
+import com.waalterGar.projects.ecommerce.api.pagination.SortParser;
+import com.waalterGar.projects.ecommerce.config.PaginationProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** Per-request sort parsing and Pageable construction done by every list endpoint. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginationBenchmark {
+
+    private static final PaginationProperties PROPS = new PaginationProperties(20, 100,
+            new PaginationProperties.Defaults("createdAt,desc", "createdAt,desc", "createdAt,desc"));
+    private static final AllowedSorts ORDER_SORTS = new AllowedSorts(Set.of("createdAt", "totalAmount", "status"));
+
+    private final List<String> rawSort = List.of("totalAmount,DESC", " createdAt , asc");
+    private List<SortDirective> directives;
+
+    @Setup
+    public void setUp() {
+        directives = SortParser.parse(rawSort);
+    }
+
+    @Benchmark
+    public List<SortDirective> parseSort() {
+        return SortParser.parse(rawSort);
+    }
+
+    @Benchmark
+    public Pageable pageableFromDirectives() {
+        return PageableFactory.from(2, 50, directives, ORDER_SORTS, PROPS.defaults().orders(), PROPS);
+    }
+
+    @Benchmark
+    public Pageable pageableFromDefaultSort() {
+        return PageableFactory.from(0, 20, List.of(), ORDER_SORTS, PROPS.defaults().orders(), PROPS);
+    }
+}
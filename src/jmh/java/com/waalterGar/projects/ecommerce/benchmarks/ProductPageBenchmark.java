@@ -0,0 +1,113 @@
+package com.waalterGar.projects.ecommerce.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
+import com.waalterGar.projects.ecommerce.config.ProductPageCacheProperties;
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.mapper.ProductMapper;
+import com.waalterGar.projects.ecommerce.service.cache.ProductPageCache;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One {@code GET /products} page as the controller produces it: mapped and serialized (and gzipped, as
+ * {@code server.compression} would) on every request, against a hit in {@link ProductPageCache}.
+ * The score is requests/s on one thread, so its inverse is the CPU time per request; {@code bytes}
+ * is the response bytes/s written. {@code -prof gc} adds the allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductPageBenchmark {
+
+    @Param({"20", "100"})
+    int size;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private Page<Product> page;
+    private ProductPageCache cache;
+    private ProductPageCache.Key key;
+
+    /** Response bytes written, reported as a rate next to the request rate. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Written {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product product = new ProductBuilder()
+                    .withSku(BenchmarkFixtures.sku(i))
+                    .withName("Product " + i)
+                    .withPrice(BenchmarkFixtures.price(i).toPlainString())
+                    .withStockQuantity(100 + i)
+                    .build();
+            product.setDescription("Description of product " + i + ", long enough to look like catalog copy.");
+            products.add(product);
+        }
+        PageRequest pageable = PageRequest.of(0, size, Sort.by("createdAt").descending());
+        page = new PageImpl<>(products, pageable, 10_000);
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        cache = new ProductPageCache(objectMapper,
+                new ProductPageCacheProperties(true, 64L * 1024 * 1024, Duration.ofHours(1), 2048),
+                beans.getBeanProvider(MeterRegistry.class));
+        key = ProductPageCache.Key.page(pageable, true);
+        cache.get(key, this::envelope);
+    }
+
+    private PageEnvelope<?> envelope() {
+        return PageEnvelope.of(page.map(ProductMapper::toDto));
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize(Written written) throws IOException {
+        return count(objectMapper.writeValueAsBytes(envelope()), written);
+    }
+
+    @Benchmark
+    public byte[] mapSerializeAndGzip(Written written) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(envelope());
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return count(out.toByteArray(), written);
+    }
+
+    @Benchmark
+    public byte[] cachedJson(Written written) {
+        return count(cache.get(key, this::envelope).json(), written);
+    }
+
+    @Benchmark
+    public byte[] cachedGzip(Written written) {
+        return count(cache.get(key, this::envelope).gzip(), written);
+    }
+
+    private static byte[] count(byte[] body, Written written) {
+        written.bytes += body.length;
+        return body;
+    }
+}
@@ -1,5 +1,6 @@
 package com.waalterGar.projects.ecommerce.Dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.waalterGar.projects.ecommerce.utils.CartStatus;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import lombok.EqualsAndHashCode;
@@ -28,4 +29,9 @@ public class CartDto {
     private BigDecimal subtotal;
     private BigDecimal tax;
     private BigDecimal total;
+
+    /** Backs the ETag header; not part of the body. */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
 }
@@ -0,0 +1,30 @@
+package com.waalterGar.projects.ecommerce.Dto;
+
+import com.waalterGar.projects.ecommerce.utils.CartItemOperationType;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One line change in {@code PATCH /carts/{id}/items}: ADD adds {@code qty} to the line (creating it),
+ * SET makes the line exactly {@code qty} (creating it), REMOVE drops the line if present.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemOperationDto {
+    @NotNull(message = "op is required")
+    private CartItemOperationType op;
+
+    @NotBlank(message = "sku is required")
+    private String sku;
+
+    /** Required for ADD and SET; ignored for REMOVE. */
+    @Min(value = 1, message = "qty must be at least 1")
+    private Integer qty;
+}
@@ -0,0 +1,24 @@
+package com.waalterGar.projects.ecommerce.Dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemOperationsDto {
+    public static final int MAX_OPERATIONS = 100;
+
+    @NotEmpty(message = "operations must not be empty")
+    @Size(max = MAX_OPERATIONS, message = "at most " + MAX_OPERATIONS + " operations per request")
+    private List<@Valid @NotNull CartItemOperationDto> operations;
+}
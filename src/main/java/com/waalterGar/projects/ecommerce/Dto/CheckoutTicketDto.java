@@ -0,0 +1,23 @@
+package com.waalterGar.projects.ecommerce.Dto;
+
+import com.waalterGar.projects.ecommerce.utils.CheckoutStatus;
+import lombok.*;
+import org.springframework.http.ProblemDetail;
+
+import java.time.LocalDateTime;
+
+@EqualsAndHashCode
+@Getter
+@Setter
+@NoArgsConstructor
+public class CheckoutTicketDto {
+    private String ticket;
+    private CheckoutStatus status;
+    private String cartExternalId;
+    /** Set once the checkout is COMPLETED. */
+    private OrderDto order;
+    /** Set once the checkout is FAILED, with the ProblemDetail a synchronous checkout would have returned. */
+    private ProblemDetail error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
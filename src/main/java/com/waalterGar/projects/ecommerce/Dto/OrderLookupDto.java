@@ -0,0 +1,17 @@
+package com.waalterGar.projects.ecommerce.Dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@EqualsAndHashCode
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLookupDto {
+    /** Found orders, in the order their ids were requested. */
+    private List<OrderDto> orders;
+    /** Requested ids with no order. */
+    private List<String> missing;
+}
@@ -1,5 +1,6 @@
 package com.waalterGar.projects.ecommerce.Dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import com.waalterGar.projects.ecommerce.utils.PriceFormatter;
 import lombok.EqualsAndHashCode;
@@ -23,6 +24,11 @@ public class ProductDto {
     private Integer stockQuantity;
     private Boolean isActive;
 
+    /** Backs the ETag header; not part of the body. */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
     public ProductDto(String sku, String name, String description, BigDecimal price,
                       Currency currency, Integer stockQuantity, Boolean isActive) {
         this.sku = sku;
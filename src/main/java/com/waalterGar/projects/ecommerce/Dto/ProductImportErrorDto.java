@@ -0,0 +1,19 @@
+package com.waalterGar.projects.ecommerce.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@EqualsAndHashCode
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportErrorDto {
+    /** 1-based data row (the CSV header and blank NDJSON lines are not rows). */
+    private long row;
+    private String sku;
+    private String message;
+}
@@ -0,0 +1,24 @@
+package com.waalterGar.projects.ecommerce.Dto;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@EqualsAndHashCode
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductImportResultDto {
+    private long rowsRead;
+    /** Rows inserted or updated. */
+    private long imported;
+    private long failed;
+    /** The first {@code products.import.max-reported-errors} failures, in row order. */
+    private List<ProductImportErrorDto> errors = new ArrayList<>();
+    private long durationMs;
+    private double rowsPerSecond;
+}
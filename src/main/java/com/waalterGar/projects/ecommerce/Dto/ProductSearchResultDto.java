@@ -0,0 +1,20 @@
+package com.waalterGar.projects.ecommerce.Dto;
+
+import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+import lombok.*;
+
+import java.util.Map;
+
+@EqualsAndHashCode
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDto {
+    private PageEnvelope<ProductDto> results;
+    /** Matches per currency, counted with every filter except {@code currency}. */
+    private Map<Currency, Long> currencies;
+    /** Matches per isActive value, counted with every filter except {@code active}. */
+    private Map<Boolean, Long> active;
+}
@@ -2,14 +2,20 @@ package com.waalterGar.projects.ecommerce.api;
 
 import com.waalterGar.projects.ecommerce.api.problem.InvalidPaginationException;
 import com.waalterGar.projects.ecommerce.api.problem.InvalidSortException;
+import com.waalterGar.projects.ecommerce.service.exception.CheckoutQueueFullException;
 import com.waalterGar.projects.ecommerce.service.exception.InactiveProductException;
 import com.waalterGar.projects.ecommerce.service.exception.InsufficientStockException;
+import com.waalterGar.projects.ecommerce.service.exception.PreconditionFailedException;
+import com.waalterGar.projects.ecommerce.service.metrics.CheckoutFunnelMetrics;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.UnexpectedTypeException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -41,6 +47,13 @@ public class GlobalExceptionHandler {
     private static final URI TYPE_NOT_ACCEPTABLE    = URI.create("urn:problem:not-acceptable");
     private static final URI TYPE_INSUFFICIENT_STOCK = URI.create("urn:problem:insufficient-stock");
 
+    /** Rejections are counted here, where they reach the client; absent in web-slice tests. */
+    private final ObjectProvider<CheckoutFunnelMetrics> funnelMetrics;
+
+    public GlobalExceptionHandler(ObjectProvider<CheckoutFunnelMetrics> funnelMetrics) {
+        this.funnelMetrics = funnelMetrics;
+    }
+
 
     @ExceptionHandler(NoSuchElementException.class)
     public ProblemDetail handleNotFound(NoSuchElementException ex, HttpServletRequest req) {
@@ -128,9 +141,22 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(InsufficientStockException.class)
     public ProblemDetail handleInsufficientStock(InsufficientStockException ex, HttpServletRequest req) {
+        funnelMetrics.ifAvailable(m -> m.failed(ex));
         return pd(HttpStatus.UNPROCESSABLE_ENTITY, "Insufficient Stock", ex.getMessage(), TYPE_INSUFFICIENT_STOCK, req);
     }
 
+    @ExceptionHandler(CheckoutQueueFullException.class)
+    public ResponseEntity<ProblemDetail> handleCheckoutQueueFull(CheckoutQueueFullException ex, HttpServletRequest req) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(pd(HttpStatus.TOO_MANY_REQUESTS, "Checkout Queue Full", ex.getMessage(), URI.create("urn:problem:checkout-queue-full"), req));
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ProblemDetail handlePreconditionFailed(PreconditionFailedException ex, HttpServletRequest req) {
+        return pd(HttpStatus.PRECONDITION_FAILED, "Precondition Failed", ex.getMessage(), URI.create("urn:problem:precondition-failed"), req);
+    }
+
     @ExceptionHandler(Exception.class)
     public ProblemDetail handleUnexpected(Exception ex, HttpServletRequest req) {
         return pd(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", "Unexpected error.", TYPE_UNEXPECTED, req);
@@ -138,11 +164,13 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(OptimisticLockingFailureException.class)
     public ProblemDetail handleOptimisticLock(OptimisticLockingFailureException ex, HttpServletRequest req) {
+        funnelMetrics.ifAvailable(m -> m.failed(ex));
         return pd(HttpStatus.CONFLICT, "Optimistic Lock Conflict", "Concurrent update conflict. Please retry.", URI.create("urn:problem:conflict"), req);
     }
 
     @ExceptionHandler(InactiveProductException.class)
     public ProblemDetail handleInactiveProduct(InactiveProductException ex, HttpServletRequest req) {
+        funnelMetrics.ifAvailable(m -> m.failed(ex));
         return pd(HttpStatus.UNPROCESSABLE_ENTITY,"Inactive Product", ex.getMessage(), URI.create("urn:problem:inactive-product"), req);
     }
 
@@ -0,0 +1,58 @@
+package com.waalterGar.projects.ecommerce.api.cache;
+
+import com.waalterGar.projects.ecommerce.service.cache.SerializedPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Writes a {@link SerializedPage} as-is: the cached array goes straight to the response through
+ * {@code ByteArrayHttpMessageConverter}, with no copy and no Jackson. The gzipped copy is sent with
+ * {@code Content-Encoding: gzip} to clients that accept it; Tomcat does not compress a response that
+ * already has a {@code Content-Encoding}.
+ */
+public final class SerializedResponses {
+    private static final String GZIP = "gzip";
+
+    private SerializedResponses() {}
+
+    public static ResponseEntity<byte[]> json(SerializedPage page, String acceptEncoding) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (page.gzip() == null) {
+            return builder.body(page.json());
+        }
+        builder.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(page.gzip());
+        }
+        return builder.body(page.json());
+    }
+
+    /** {@code gzip} or {@code *} listed in {@code Accept-Encoding} without {@code q=0}. */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase(GZIP) && !coding.equals("*")) {
+                continue;
+            }
+            return parts.length < 2 || !isZeroWeight(parts[1]);
+        }
+        return false;
+    }
+
+    private static boolean isZeroWeight(String parameter) {
+        String p = parameter.trim();
+        if (!p.startsWith("q=")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(p.substring(2).trim()) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
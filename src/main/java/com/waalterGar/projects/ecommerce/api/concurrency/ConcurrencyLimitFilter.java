@@ -0,0 +1,159 @@
+package com.waalterGar.projects.ecommerce.api.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Caps the database-bound requests running at once to about what the connection pool can serve.
+ * <p>
+ * On virtual threads Tomcat no longer limits concurrency with its worker pool, so without this every
+ * request would start and then queue inside Hikari for a connection, each holding its memory and timing
+ * out only after {@code connection-timeout}. Here a request waits up to {@code acquireTimeout} for a
+ * permit and otherwise gets 503 with {@code Retry-After}. Async requests (NDJSON exports) keep their
+ * permit until the async response completes.
+ * <p>
+ * Catalog reads that are normally answered from memory ({@code ProductPageCache}, {@code ProductSearchIndex},
+ * {@code ProductCache}) are not limited: on a miss they take a connection unqueued, like background work does.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final URI TYPE_BUSY = URI.create("urn:problem:server-busy");
+    private static final Pattern SINGLE_PRODUCT = Pattern.compile("/products/[^/]+");
+
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitFilter(int maxConcurrent, Duration acquireTimeout, ObjectMapper objectMapper) {
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.objectMapper = objectMapper;
+    }
+
+    /** Requests currently holding a permit. */
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/actuator") || path.startsWith("/v3/api-docs") || path.startsWith("/swagger-ui")
+                || isCatalogRead(request, path);
+    }
+
+    /**
+     * GET /products, /products/search, /products/all (JSON, not the NDJSON export) and /products/{sku}.
+     * A conditional GET of one product always reads its version from the row, so it stays limited.
+     */
+    private static boolean isCatalogRead(HttpServletRequest request, String path) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return false;
+        }
+        if (path.equals("/products") || path.equals("/products/search")) {
+            return true;
+        }
+        if (path.equals("/products/all")) {
+            String accept = request.getHeader(HttpHeaders.ACCEPT);
+            return accept == null || !accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        }
+        return SINGLE_PRODUCT.matcher(path).matches() && request.getHeader(HttpHeaders.IF_NONE_MATCH) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            writeBusy(request, response);
+            return;
+        }
+
+        Permit permit = new Permit();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    /** Same shape as the ProblemDetails from GlobalExceptionHandler; this runs before the DispatcherServlet. */
+    private void writeBusy(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                "The server is handling too many requests. Retry later.");
+        pd.setTitle("Service Busy");
+        pd.setType(TYPE_BUSY);
+        pd.setProperty("path", request.getRequestURI());
+        pd.setProperty("timestamp", Instant.now());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), pd);
+    }
+
+    /** Gives the permit back exactly once, however the request ends. */
+    private final class Permit implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.waalterGar.projects.ecommerce.api.etag;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+
+/**
+ * Strong entity tags of the form {@code "<id>-v<version>"}, built from a resource's public id and its
+ * JPA {@code @Version}. The version changes on every committed write, so the tag changes with the body
+ * without hashing it; the id keeps tags of different resources from matching each other.
+ */
+public final class ETags {
+    private static final String VERSION_SEPARATOR = "-v";
+
+    private ETags() {}
+
+    public static String of(String id, Number version) {
+        return "\"" + id + VERSION_SEPARATOR + version + "\"";
+    }
+
+    /** 200 carrying {@code body}, tagged when its version is known. */
+    public static <T> ResponseEntity<T> ok(String id, Number version, T body) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version != null) {
+            builder.eTag(of(id, version));
+        }
+        return builder.body(body);
+    }
+
+    /**
+     * 304 when {@code ifNoneMatch} still matches the current version. {@code version} is only asked for
+     * when the header is present, so unconditional requests cost nothing extra. Empty means the caller
+     * should serve the full representation (also when the resource is gone, so it can answer 404).
+     */
+    public static <T> Optional<ResponseEntity<T>> notModified(String ifNoneMatch, String id,
+                                                              Supplier<Optional<Long>> version) {
+        if (ifNoneMatch == null) {
+            return Optional.empty();
+        }
+        return version.get()
+                .map(v -> of(id, v))
+                .filter(tag -> matchesAny(ifNoneMatch, tag))
+                .map(tag -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build());
+    }
+
+    /**
+     * Weak comparison against an {@code If-None-Match} header, as RFC 9110 asks for:
+     * {@code *} matches anything and a {@code W/} prefix is ignored.
+     */
+    public static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The version an {@code If-Match} header asks for on resource {@code id}: the first strong tag issued
+     * for that id. Empty when no tag in the header could have been issued for it (weak, foreign or malformed
+     * tags), which fails the precondition. {@code *} is not a version; callers check it first.
+     */
+    public static OptionalLong versionFor(String ifMatch, String id) {
+        if (ifMatch == null) {
+            return OptionalLong.empty();
+        }
+        String prefix = "\"" + id + VERSION_SEPARATOR;
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() <= prefix.length() + 1) {
+                continue;
+            }
+            try {
+                return OptionalLong.of(Long.parseLong(tag.substring(prefix.length(), tag.length() - 1)));
+            } catch (NumberFormatException ignored) {
+                // not one of ours
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    public static boolean isWildcard(String ifMatch) {
+        return ifMatch != null && ifMatch.trim().equals("*");
+    }
+}
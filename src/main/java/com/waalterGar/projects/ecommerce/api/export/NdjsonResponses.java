@@ -0,0 +1,52 @@
+package com.waalterGar.projects.ecommerce.api.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Builds {@code application/x-ndjson} responses written one line per item as the producer emits them.
+ * Exports run as long as the table takes to read, so these responses, and only these, have no async timeout.
+ */
+public final class NdjsonResponses {
+    private static final byte NEWLINE = '\n';
+    // AsyncContext: zero or less means the container never times the request out
+    private static final long NO_TIMEOUT = 0;
+
+    private NdjsonResponses() {}
+
+    /**
+     * {@code producer} is handed the line sink on the async request thread, so any transaction it
+     * needs must be opened inside it (e.g. a {@code @Transactional} service method).
+     */
+    public static <T> ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper,
+                                                                   Consumer<Consumer<T>> producer) {
+        ObjectWriter writer = objectMapper.writer();
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        StreamingResponseBody body = out -> {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().setTimeout(NO_TIMEOUT);
+            }
+            producer.accept(item -> {
+                try {
+                    out.write(writer.writeValueAsBytes(item));
+                    out.write(NEWLINE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
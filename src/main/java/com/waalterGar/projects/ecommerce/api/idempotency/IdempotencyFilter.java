@@ -0,0 +1,233 @@
+package com.waalterGar.projects.ecommerce.api.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waalterGar.projects.ecommerce.entity.IdempotencyRecord;
+import com.waalterGar.projects.ecommerce.service.exception.IdempotencyKeyInProgressException;
+import com.waalterGar.projects.ecommerce.service.exception.IdempotencyKeyReuseException;
+import com.waalterGar.projects.ecommerce.service.idempotency.IdempotencyStore;
+import com.waalterGar.projects.ecommerce.service.idempotency.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Makes the order-creating POSTs safe to retry: with an {@code Idempotency-Key} header, the first
+ * request runs and its response is recorded; retries with the same key and the same request get
+ * that response back (marked {@code Idempotent-Replayed: true}) without running the handler again.
+ * <p>
+ * Server errors, 409 and 429 are not recorded, so the client can retry them with the same key.
+ * Requests without the header are not affected.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Pattern IDEMPOTENT_PATHS =
+            Pattern.compile("/orders|/orders/[^/]+/pay|/carts/[^/]+/checkout");
+
+    private static final URI TYPE_INVALID = URI.create("urn:problem:invalid-request");
+    private static final URI TYPE_KEY_REUSED = URI.create("urn:problem:idempotency-key-reused");
+    private static final URI TYPE_KEY_IN_PROGRESS = URI.create("urn:problem:idempotency-key-in-progress");
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !IDEMPOTENT_PATHS.matcher(pathWithinApplication(request)).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > IdempotencyRecord.MAX_KEY_LENGTH) {
+            writeProblem(request, response, HttpStatus.BAD_REQUEST, "Invalid Request",
+                    HEADER + " must be 1 to " + IdempotencyRecord.MAX_KEY_LENGTH + " characters.", TYPE_INVALID);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        String requestHash = hash(request, body);
+
+        Optional<StoredResponse> replay;
+        try {
+            replay = store.begin(key, requestHash);
+        } catch (IdempotencyKeyReuseException e) {
+            writeProblem(request, response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency Key Reused",
+                    e.getMessage(), TYPE_KEY_REUSED);
+            return;
+        } catch (IdempotencyKeyInProgressException e) {
+            writeProblem(request, response, HttpStatus.CONFLICT, "Request In Progress",
+                    e.getMessage(), TYPE_KEY_IN_PROGRESS);
+            return;
+        }
+        if (replay.isPresent()) {
+            writeReplay(replay.get(), response);
+            return;
+        }
+
+        ContentCachingResponseWrapper recorded = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), recorded);
+            if (isFinal(recorded.getStatus())) {
+                store.complete(key, new StoredResponse(
+                        requestHash, recorded.getStatus(), recorded.getContentType(), recorded.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.release(key);
+            }
+            recorded.copyBodyToResponse();
+        }
+    }
+
+    static boolean isFinal(int status) {
+        return status < 500
+                && status != HttpStatus.CONFLICT.value()
+                && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    /** SHA-256 over everything that identifies the operation, so a key can't be replayed for another one. */
+    static String hash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(pathWithinApplication(request).getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static void writeReplay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    /** Same shape as the ProblemDetails from GlobalExceptionHandler; this runs before the DispatcherServlet. */
+    private void writeProblem(HttpServletRequest request, HttpServletResponse response,
+                              HttpStatus status, String title, String detail, URI type) throws IOException {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(status, detail);
+        pd.setTitle(title);
+        pd.setType(type);
+        pd.setProperty("path", request.getRequestURI());
+        pd.setProperty("timestamp", Instant.now());
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), pd);
+    }
+
+    /** Serves the body that was already read for hashing to the rest of the chain. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /** The body is already in memory, so all of it is available as soon as the listener is set. */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
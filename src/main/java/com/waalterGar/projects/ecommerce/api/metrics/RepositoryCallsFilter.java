@@ -0,0 +1,65 @@
+package com.waalterGar.projects.ecommerce.api.metrics;
+
+import com.waalterGar.projects.ecommerce.service.metrics.RepositoryCallCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records how many repository calls each request made as {@code http.server.requests.repository.calls{uri}},
+ * tagged with the matched route template (as {@code http.server.requests} is), so the series stay one per
+ * endpoint. Work continued on another thread (async checkouts, NDJSON exports) is not included.
+ */
+public class RepositoryCallsFilter extends OncePerRequestFilter {
+    static final String METER = "http.server.requests.repository.calls";
+    static final String UNKNOWN = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, DistributionSummary> byUri = new ConcurrentHashMap<>();
+
+    public RepositoryCallsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/actuator") || path.startsWith("/v3/api-docs") || path.startsWith("/swagger-ui");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RepositoryCallCounter.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int calls = RepositoryCallCounter.end();
+            if (calls >= 0) {
+                summary(request).record(calls);
+            }
+        }
+    }
+
+    private DistributionSummary summary(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern instanceof String s ? s : UNKNOWN;
+        DistributionSummary summary = byUri.get(uri);
+        if (summary == null) {
+            summary = byUri.computeIfAbsent(uri, u -> DistributionSummary.builder(METER)
+                    .description("Repository calls per request")
+                    .tag("uri", u)
+                    .register(meterRegistry));
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,96 @@
+package com.waalterGar.projects.ecommerce.api.metrics;
+
+import com.waalterGar.projects.ecommerce.service.diagnostics.SqlStatementStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the SQL cost of each request, per route template: {@code http.server.requests.sql.statements}
+ * (round trips) and {@code http.server.requests.sql.time} (time inside JDBC calls). A request over
+ * {@code sql.budget.max-statements} or {@code sql.budget.max-time} is logged and counted on
+ * {@code http.server.requests.sql.budget.exceeded}.
+ * <p>
+ * Only statements run on the request thread are seen; async checkouts and streamed exports are not included.
+ */
+@Slf4j
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    static final String STATEMENTS = "http.server.requests.sql.statements";
+    static final String TIME = "http.server.requests.sql.time";
+    static final String EXCEEDED = "http.server.requests.sql.budget.exceeded";
+    static final String UNKNOWN = "UNKNOWN";
+
+    private final int maxStatements;
+    private final long maxNanos;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Meters> byUri = new ConcurrentHashMap<>();
+
+    private record Meters(DistributionSummary statements, Timer time, Counter exceeded) {}
+
+    public SqlBudgetFilter(int maxStatements, Duration maxTime, MeterRegistry meterRegistry) {
+        this.maxStatements = maxStatements;
+        this.maxNanos = maxTime.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/actuator") || path.startsWith("/v3/api-docs") || path.startsWith("/swagger-ui");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long statementsBefore = SqlStatementStats.statements();
+        long nanosBefore = SqlStatementStats.nanos();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long statements = SqlStatementStats.statements() - statementsBefore;
+            long nanos = SqlStatementStats.nanos() - nanosBefore;
+            String uri = uri(request);
+            Meters m = meters(uri);
+            m.statements().record(statements);
+            m.time().record(nanos, TimeUnit.NANOSECONDS);
+            if (statements > maxStatements || nanos > maxNanos) {
+                m.exceeded().increment();
+                log.warn("SQL budget exceeded by {} {}: {} statements in {} ms (budget {} statements, {} ms)",
+                        request.getMethod(), uri, statements, nanos / 1_000_000, maxStatements, maxNanos / 1_000_000);
+            }
+        }
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern instanceof String s ? s : UNKNOWN;
+    }
+
+    private Meters meters(String uri) {
+        Meters m = byUri.get(uri);
+        if (m == null) {
+            m = byUri.computeIfAbsent(uri, u -> new Meters(
+                    DistributionSummary.builder(STATEMENTS).description("JDBC round trips per request")
+                            .tag("uri", u).register(meterRegistry),
+                    Timer.builder(TIME).description("Time in JDBC calls per request")
+                            .tag("uri", u).register(meterRegistry),
+                    Counter.builder(EXCEEDED).description("Requests over the SQL budget")
+                            .tag("uri", u).register(meterRegistry)));
+        }
+        return m;
+    }
+}
@@ -0,0 +1,63 @@
+package com.waalterGar.projects.ecommerce.api.pagination;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waalterGar.projects.ecommerce.api.problem.InvalidPaginationException;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque keyset position: the sort it was produced for plus the last row's value for each sort key.
+ * Serialized as base64url JSON; clients must treat it as an opaque token.
+ */
+public record Cursor(List<String> sort, List<String> values) {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    public static Cursor after(Sort sort, Object lastRow) {
+        BeanWrapperImpl row = new BeanWrapperImpl(lastRow);
+        List<String> values = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            values.add(format(row.getPropertyValue(order.getProperty())));
+        }
+        return new Cursor(PageEnvelope.sortTokens(sort), values);
+    }
+
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(JSON.writeValueAsBytes(this));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode cursor", e);
+        }
+    }
+
+    public static Cursor decode(String token) {
+        try {
+            Cursor cursor = JSON.readValue(Base64.getUrlDecoder().decode(token), Cursor.class);
+            if (cursor.sort() == null || cursor.values() == null || cursor.sort().size() != cursor.values().size()) {
+                throw new InvalidPaginationException("Invalid cursor");
+            }
+            return cursor;
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidPaginationException("Invalid cursor");
+        }
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            throw new IllegalStateException("Cursor sort keys must not be null");
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (value instanceof Enum<?> e) {
+            return e.name();
+        }
+        return value.toString();
+    }
+}
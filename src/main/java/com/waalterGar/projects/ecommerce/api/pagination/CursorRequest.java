@@ -0,0 +1,9 @@
+package com.waalterGar.projects.ecommerce.api.pagination;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * A keyset page request: {@code sort} always ends with the {@code id} tiebreaker and
+ * {@code after} is null for the first page.
+ */
+public record CursorRequest(int size, Sort sort, Cursor after) {}
@@ -0,0 +1,48 @@
+package com.waalterGar.projects.ecommerce.api.pagination;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.List;
+import java.util.function.Function;
+
+public final class KeysetPager {
+    private KeysetPager() {}
+
+    /**
+     * Fetches {@code size + 1} rows after the cursor (no COUNT query); the extra row only tells
+     * whether there is a next page.
+     */
+    public static <E, D> PageEnvelope<D> fetch(
+            JpaSpecificationExecutor<E> repository,
+            Specification<E> filter,
+            CursorRequest request,
+            Function<E, D> mapper
+    ) {
+        return fetchPage(repository, filter, request, page -> page.stream().map(mapper).toList());
+    }
+
+    /**
+     * Same as {@link #fetch}, but maps the whole page at once so associations can be loaded for all of its
+     * rows in one query instead of lazily per row. {@code pageMapper} must keep the rows' order.
+     */
+    public static <E, D> PageEnvelope<D> fetchPage(
+            JpaSpecificationExecutor<E> repository,
+            Specification<E> filter,
+            CursorRequest request,
+            Function<List<E>, List<D>> pageMapper
+    ) {
+        Specification<E> spec = KeysetSpecifications.after(request.sort(), request.after());
+        if (filter != null) {
+            spec = filter.and(spec);
+        }
+
+        List<E> rows = repository.findBy(spec, q -> q.sortBy(request.sort()).limit(request.size() + 1).all());
+
+        boolean hasNext = rows.size() > request.size();
+        List<E> page = hasNext ? rows.subList(0, request.size()) : rows;
+        String nextCursor = hasNext ? Cursor.after(request.sort(), page.get(page.size() - 1)).encode() : null;
+
+        return PageEnvelope.ofCursor(pageMapper.apply(page), request, hasNext, nextCursor);
+    }
+}
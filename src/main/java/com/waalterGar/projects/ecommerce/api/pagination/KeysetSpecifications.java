@@ -0,0 +1,64 @@
+package com.waalterGar.projects.ecommerce.api.pagination;
+
+import com.waalterGar.projects.ecommerce.api.problem.InvalidPaginationException;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class KeysetSpecifications {
+    private KeysetSpecifications() {}
+
+    /**
+     * Rows strictly after {@code cursor} in {@code sort} order, expanded as
+     * {@code (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ...} so mixed directions work.
+     * Matches everything when {@code cursor} is null.
+     */
+    public static <T> Specification<T> after(Sort sort, Cursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return null;
+            }
+            List<Sort.Order> orders = sort.toList();
+            List<Predicate> alternatives = new ArrayList<>();
+            for (int i = 0; i < orders.size(); i++) {
+                List<Predicate> conjuncts = new ArrayList<>();
+                for (int j = 0; j < i; j++) {
+                    String property = orders.get(j).getProperty();
+                    Path<Comparable<Object>> path = root.get(property);
+                    conjuncts.add(cb.equal(path, value(path, property, cursor.values().get(j))));
+                }
+                Sort.Order order = orders.get(i);
+                Path<Comparable<Object>> path = root.get(order.getProperty());
+                Comparable<Object> value = value(path, order.getProperty(), cursor.values().get(i));
+                conjuncts.add(order.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value));
+                alternatives.add(cb.and(conjuncts.toArray(Predicate[]::new)));
+            }
+            return cb.or(alternatives.toArray(Predicate[]::new));
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparable<Object> value(Path<?> path, String property, String raw) {
+        Class<?> type = path.getJavaType();
+        try {
+            if (type == String.class) return (Comparable) raw;
+            if (type == UUID.class) return (Comparable) UUID.fromString(raw);
+            if (type == LocalDateTime.class) return (Comparable) LocalDateTime.parse(raw);
+            if (type == BigDecimal.class) return (Comparable) new BigDecimal(raw);
+            if (type == Integer.class || type == int.class) return (Comparable) Integer.valueOf(raw);
+            if (type == Long.class || type == long.class) return (Comparable) Long.valueOf(raw);
+        } catch (RuntimeException e) {
+            throw new InvalidPaginationException("Invalid cursor");
+        }
+        // MySQL orders ENUM columns by declaration index but compares them as strings,
+        // so a seek on an enum could skip or repeat rows.
+        throw new InvalidPaginationException("sort by '" + property + "' is not supported with cursor");
+    }
+}
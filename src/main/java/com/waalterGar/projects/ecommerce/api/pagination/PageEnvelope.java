@@ -1,18 +1,39 @@
 package com.waalterGar.projects.ecommerce.api.pagination;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
+/**
+ * Offset pages carry {@code totalItems}/{@code totalPages}; cursor pages omit them
+ * and carry {@code nextCursor} instead (absent on the last page). Pages fetched without
+ * a count may carry a background-refreshed {@code estimatedTotalItems}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record PageEnvelope<T>(
         List<T> items,
         int page,
         int size,
-        long totalItems,
-        int totalPages,
+        Long totalItems,
+        Integer totalPages,
         boolean hasNext,
         boolean hasPrevious,
-        List<String> sort
+        List<String> sort,
+        String nextCursor,
+        Long estimatedTotalItems
 ) {
+    public PageEnvelope(List<T> items, int page, int size, long totalItems, int totalPages,
+                        boolean hasNext, boolean hasPrevious, List<String> sort) {
+        this(items, page, size, totalItems, totalPages, hasNext, hasPrevious, sort, null, null);
+    }
+
+    public PageEnvelope(List<T> items, int page, int size, Long totalItems, Integer totalPages,
+                        boolean hasNext, boolean hasPrevious, List<String> sort, String nextCursor) {
+        this(items, page, size, totalItems, totalPages, hasNext, hasPrevious, sort, nextCursor, null);
+    }
+
     public static <T> PageEnvelope<T> of(Page<T> page) {
         return new PageEnvelope<>(
                 page.getContent(),
@@ -22,9 +43,44 @@ public record PageEnvelope<T>(
                 page.getTotalPages(),
                 page.hasNext(),
                 page.hasPrevious(),
-                page.getSort().stream()
-                        .map(o -> o.getProperty() + "," + o.getDirection().name().toLowerCase())
-                        .toList()
+                sortTokens(page.getSort())
+        );
+    }
+
+    /** A page fetched as a {@link Slice}: {@code hasNext} comes from reading one extra row, not from a count. */
+    public static <T> PageEnvelope<T> of(Slice<T> slice, Long estimatedTotalItems) {
+        return new PageEnvelope<>(
+                slice.getContent(),
+                slice.getNumber(),
+                slice.getSize(),
+                null,
+                null,
+                slice.hasNext(),
+                slice.hasPrevious(),
+                sortTokens(slice.getSort()),
+                null,
+                estimatedTotalItems
         );
     }
+
+    public static <T> PageEnvelope<T> ofCursor(List<T> items, CursorRequest request, boolean hasNext, String nextCursor) {
+        return new PageEnvelope<>(
+                items,
+                0,
+                request.size(),
+                null,
+                null,
+                hasNext,
+                request.after() != null,
+                sortTokens(request.sort()),
+                nextCursor
+        );
+    }
+
+    /** {@code field,dir} tokens, the same shape clients send in {@code ?sort=}. */
+    public static List<String> sortTokens(Sort sort) {
+        return sort.stream()
+                .map(o -> o.getProperty() + "," + o.getDirection().name().toLowerCase())
+                .toList();
+    }
 }
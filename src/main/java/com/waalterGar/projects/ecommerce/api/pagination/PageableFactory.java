@@ -1,6 +1,7 @@
 package com.waalterGar.projects.ecommerce.api.pagination;
 
 
+import com.waalterGar.projects.ecommerce.api.problem.InvalidPaginationException;
 import com.waalterGar.projects.ecommerce.config.PaginationProperties;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -26,6 +27,35 @@ public final class PageableFactory {
         return PageRequest.of(Math.max(0, page), clampedSize, sort);
     }
 
+    /**
+     * Keyset variant of {@link #from}: same sort resolution, plus an {@code id} tiebreaker so every
+     * position is unique. A blank {@code cursor} asks for the first page.
+     */
+    public static CursorRequest cursorFrom(
+            String cursor,
+            int size,
+            List<SortDirective> directives,
+            String defaultSort,
+            PaginationProperties props
+    ) {
+        int clampedSize = Math.max(1, Math.min(size, props.maxSize()));
+        Sort sort = (directives == null || directives.isEmpty())
+                ? parseDefault(defaultSort)
+                : toSpringSort(directives);
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by("id").ascending());
+        }
+
+        if (cursor == null || cursor.isBlank()) {
+            return new CursorRequest(clampedSize, sort, null);
+        }
+        Cursor after = Cursor.decode(cursor);
+        if (!after.sort().equals(PageEnvelope.sortTokens(sort))) {
+            throw new InvalidPaginationException("cursor does not match the requested sort");
+        }
+        return new CursorRequest(clampedSize, sort, after);
+    }
+
     private static Sort parseDefault(String def) {
         if (def == null || def.isBlank()) return Sort.unsorted();
         String[] parts = def.split(",", -1);
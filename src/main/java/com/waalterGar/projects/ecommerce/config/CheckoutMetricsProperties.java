@@ -0,0 +1,18 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param maxSkuTags distinct SKUs tagged on {@code checkout.rejections}; rejections for further SKUs
+ *                   are tagged {@code sku=other} so a large catalog cannot blow up the series count
+ */
+@ConfigurationProperties("metrics.checkout")
+public record CheckoutMetricsProperties(
+        int maxSkuTags
+) {
+    public CheckoutMetricsProperties {
+        if (maxSkuTags < 0) {
+            maxSkuTags = 0;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param workers       worker threads, each draining its own share of the queue
+ * @param queueCapacity checkouts waiting across all workers before new ones get 429
+ * @param batchSize     checkouts a worker commits in one transaction
+ * @param resultTtl     how long a finished ticket can still be polled
+ */
+@ConfigurationProperties("checkout.async")
+public record CheckoutQueueProperties(
+        int workers,
+        int queueCapacity,
+        int batchSize,
+        Duration resultTtl
+) {
+    public CheckoutQueueProperties {
+        if (workers <= 0) {
+            workers = 4;
+        }
+        if (queueCapacity <= 0) {
+            queueCapacity = 1_000;
+        }
+        if (batchSize <= 0) {
+            batchSize = 20;
+        }
+        if (resultTtl == null) {
+            resultTtl = Duration.ofHours(1);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waalterGar.projects.ecommerce.api.concurrency.ConcurrencyLimitFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "concurrency.limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    /** Runs ahead of the idempotency filter so requests waiting for a slot don't hold an idempotency claim. */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ConcurrencyLimitProperties properties,
+                                                                                 CheckoutQueueProperties checkoutQueue,
+                                                                                 InventoryLedgerProperties ledger,
+                                                                                 DataSource dataSource,
+                                                                                 ObjectMapper objectMapper,
+                                                                                 MeterRegistry meterRegistry) {
+        int maxConcurrent = properties.maxConcurrent() > 0
+                ? properties.maxConcurrent()
+                : requestShare(poolSize(dataSource), checkoutQueue, ledger);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(maxConcurrent, properties.acquireTimeout(), objectMapper);
+        Gauge.builder("http.server.requests.in.flight", filter, ConcurrencyLimitFilter::inFlight)
+                .description("Requests holding a concurrency-limit permit")
+                .register(meterRegistry);
+        log.info("Limiting to {} concurrent requests", maxConcurrent);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/*");
+        registration.setName("concurrencyLimitFilter");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+
+    /**
+     * What is left of the pool for requests once the background users that hold a connection for a whole
+     * batch have theirs: one per async checkout worker, and the ledger flush when the ledger is on.
+     * Occasional jobs (count estimates, idempotency purge, index rebuild) are not reserved for.
+     */
+    static int requestShare(int poolSize, CheckoutQueueProperties checkoutQueue, InventoryLedgerProperties ledger) {
+        int background = checkoutQueue.workers() + (ledger.enabled() ? 1 : 0);
+        return Math.max(1, poolSize - background);
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        } catch (Exception e) {
+            return DEFAULT_POOL_SIZE;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param enabled        turns the request limiter off entirely
+ * @param maxConcurrent  database-bound requests allowed to run at once; 0 sizes it to the Hikari pool less the
+ *                       connections held by async checkout workers and the inventory ledger flush
+ * @param acquireTimeout how long a request waits for a slot before answering 503
+ */
+@ConfigurationProperties("concurrency.limit")
+public record ConcurrencyLimitProperties(
+        boolean enabled,
+        int maxConcurrent,
+        Duration acquireTimeout
+) {
+    public ConcurrencyLimitProperties {
+        if (maxConcurrent < 0) {
+            maxConcurrent = 0;
+        }
+        if (acquireTimeout == null) {
+            acquireTimeout = Duration.ofSeconds(2);
+        }
+    }
+}
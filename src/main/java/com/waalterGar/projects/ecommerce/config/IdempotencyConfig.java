@@ -0,0 +1,22 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waalterGar.projects.ecommerce.api.idempotency.IdempotencyFilter;
+import com.waalterGar.projects.ecommerce.service.idempotency.IdempotencyStore;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdempotencyConfig {
+
+    /** Only the POSTs that create orders go through the filter; it narrows the paths further itself. */
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(store, objectMapper));
+        registration.addUrlPatterns("/orders", "/orders/*", "/carts/*");
+        registration.setName("idempotencyFilter");
+        return registration;
+    }
+}
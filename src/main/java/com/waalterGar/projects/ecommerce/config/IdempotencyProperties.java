@@ -0,0 +1,34 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param ttl          how long a completed response is replayed for the same key
+ * @param waitTimeout  how long a duplicate waits for the first request before answering 409
+ * @param lockTimeout  after this long an IN_PROGRESS key is considered abandoned and can be taken over
+ * @param cacheMaxSize completed responses kept in memory in front of the table
+ */
+@ConfigurationProperties("idempotency")
+public record IdempotencyProperties(
+        Duration ttl,
+        Duration waitTimeout,
+        Duration lockTimeout,
+        long cacheMaxSize
+) {
+    public IdempotencyProperties {
+        if (ttl == null) {
+            ttl = Duration.ofHours(24);
+        }
+        if (waitTimeout == null) {
+            waitTimeout = Duration.ofSeconds(10);
+        }
+        if (lockTimeout == null) {
+            lockTimeout = Duration.ofMinutes(1);
+        }
+        if (cacheMaxSize <= 0) {
+            cacheMaxSize = 10_000;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * In-memory ledger for flash-sale SKUs. Stock for {@code skus} is reserved in memory and
+ * written back to {@code products.stock_quantity} every {@code flushInterval}.
+ */
+@ConfigurationProperties("inventory.ledger")
+public record InventoryLedgerProperties(
+        boolean enabled,
+        Set<String> skus,
+        Duration flushInterval
+) {
+    public InventoryLedgerProperties {
+        skus = skus == null ? Set.of() : Set.copyOf(skus);
+        if (flushInterval == null) {
+            flushInterval = Duration.ofSeconds(1);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import com.waalterGar.projects.ecommerce.utils.InventoryStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * How stock is reserved when an order is placed:
+ * <ul>
+ *   <li>{@code optimistic}: read the products, decrement in memory and rely on {@code @Version} at flush.</li>
+ *   <li>{@code pessimistic}: read the products with SELECT ... FOR UPDATE, then decrement in memory.</li>
+ *   <li>{@code atomic}: one conditional {@code UPDATE ... WHERE stock_quantity >= ?} per SKU.</li>
+ * </ul>
+ */
+@ConfigurationProperties("inventory")
+public record InventoryProperties(InventoryStrategy strategy) {
+    public InventoryProperties {
+        if (strategy == null) {
+            strategy = InventoryStrategy.PESSIMISTIC;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import com.waalterGar.projects.ecommerce.api.metrics.RepositoryCallsFilter;
+import com.waalterGar.projects.ecommerce.service.metrics.CheckoutFunnelMetrics;
+import com.waalterGar.projects.ecommerce.service.metrics.RepositoryCallCounter;
+import com.waalterGar.projects.ecommerce.service.metrics.ServiceMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Service timers, funnel steps and per-request repository call counts. The advisors are plain
+ * {@link org.aopalliance.intercept.MethodInterceptor}s rather than {@code @Aspect}s so a call does not
+ * allocate a join point.
+ */
+@Configuration
+public class MetricsConfig {
+    private static final String SERVICE_PACKAGE = "com.waalterGar.projects.ecommerce.service.Implementation";
+
+    /** Ahead of the transaction advisor (lowest precedence), so timings include the commit. */
+    @Bean
+    public static Advisor serviceMetricsAdvisor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                ObjectProvider<CheckoutFunnelMetrics> funnel) {
+        ClassFilter serviceImpls = type -> SERVICE_PACKAGE.equals(type.getPackageName())
+                && type.getSimpleName().endsWith("ServiceImpl");
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new ComposablePointcut(serviceImpls),
+                new ServiceMetricsInterceptor(meterRegistry, funnel));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return advisor;
+    }
+
+    @Bean
+    public static Advisor repositoryCallsAdvisor() {
+        return new DefaultPointcutAdvisor(new ComposablePointcut(new RootClassFilter(Repository.class)),
+                new RepositoryCallCounter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<RepositoryCallsFilter> repositoryCallsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RepositoryCallsFilter> registration =
+                new FilterRegistrationBean<>(new RepositoryCallsFilter(meterRegistry));
+        registration.addUrlPatterns("/*");
+        registration.setName("repositoryCallsFilter");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,15 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** JDBC batching for Hibernate flushes; see {@link PersistenceTuningConfig}. */
+@ConfigurationProperties("persistence.jdbc")
+public record PersistenceProperties(
+        int batchSize
+) {
+    public PersistenceProperties {
+        if (batchSize <= 0) {
+            batchSize = 50;
+        }
+    }
+}
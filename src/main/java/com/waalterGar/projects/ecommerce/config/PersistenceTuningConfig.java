@@ -0,0 +1,30 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Groups the INSERT/UPDATE statements of a flush into JDBC batches, so saving an order (or a cart)
+ * with N lines costs one round trip per table instead of one per row.
+ * <p>
+ * Ordering inserts and updates by entity keeps same-table statements adjacent, which is what lets
+ * them share a batch. Ids come from {@code @UuidV7} before the insert, so nothing forces a flush per
+ * row. On MySQL the driver also needs {@code rewriteBatchedStatements=true} (set on the datasource)
+ * to send a batch as one multi-row INSERT.
+ */
+@Configuration
+public class PersistenceTuningConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer jdbcBatchingCustomizer(PersistenceProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.STATEMENT_BATCH_SIZE, properties.batchSize());
+            hibernateProperties.put(AvailableSettings.ORDER_INSERTS, true);
+            hibernateProperties.put(AvailableSettings.ORDER_UPDATES, true);
+            // Cart, CartItem and Product are @Versioned; their updates are batched too
+            hibernateProperties.put(AvailableSettings.BATCH_VERSIONED_DATA, true);
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier (inside {@code synchronized} or native code).
+ *
+ * @param enabled   streams {@code jdk.VirtualThreadPinned} JFR events while the application runs
+ * @param threshold pins shorter than this are ignored
+ */
+@ConfigurationProperties("virtual-threads.pinning")
+public record PinningMonitorProperties(
+        boolean enabled,
+        Duration threshold
+) {
+    public PinningMonitorProperties {
+        if (threshold == null) {
+            threshold = Duration.ofMillis(20);
+        }
+    }
+}
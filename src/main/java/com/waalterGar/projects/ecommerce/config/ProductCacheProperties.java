@@ -0,0 +1,20 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("products.cache")
+public record ProductCacheProperties(
+        long maxSize,
+        Duration ttl
+) {
+    public ProductCacheProperties {
+        if (maxSize <= 0) {
+            maxSize = 10_000;
+        }
+        if (ttl == null) {
+            ttl = Duration.ofSeconds(30);
+        }
+    }
+}
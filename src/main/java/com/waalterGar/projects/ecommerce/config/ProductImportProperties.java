@@ -0,0 +1,27 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param batchSize         rows upserted per JDBC batch and transaction
+ * @param maxReportedErrors row errors listed in the response; the rest are only counted
+ * @param progressInterval  rows between progress log lines
+ */
+@ConfigurationProperties("products.import")
+public record ProductImportProperties(
+        int batchSize,
+        int maxReportedErrors,
+        int progressInterval
+) {
+    public ProductImportProperties {
+        if (batchSize <= 0) {
+            batchSize = 500;
+        }
+        if (maxReportedErrors < 0) {
+            maxReportedErrors = 1_000;
+        }
+        if (progressInterval <= 0) {
+            progressInterval = 50_000;
+        }
+    }
+}
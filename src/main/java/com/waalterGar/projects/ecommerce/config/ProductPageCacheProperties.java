@@ -0,0 +1,25 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("products.page-cache")
+public record ProductPageCacheProperties(
+        boolean enabled,
+        long maxBytes,
+        Duration ttl,
+        int gzipMinBytes
+) {
+    public ProductPageCacheProperties {
+        if (maxBytes <= 0) {
+            maxBytes = 64L * 1024 * 1024;
+        }
+        if (ttl == null) {
+            ttl = Duration.ofSeconds(5);
+        }
+        if (gzipMinBytes <= 0) {
+            gzipMinBytes = 2048;
+        }
+    }
+}
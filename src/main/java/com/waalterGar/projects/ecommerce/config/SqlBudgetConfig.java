@@ -0,0 +1,56 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import com.waalterGar.projects.ecommerce.api.metrics.SqlBudgetFilter;
+import com.waalterGar.projects.ecommerce.service.diagnostics.SqlStatementStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource with datasource-proxy so {@link SqlStatementStats} sees every JDBC round
+ * trip, and checks each request against the budget in {@link SqlBudgetFilter}. The proxy still unwraps to
+ * the Hikari pool for pool metrics and {@link ConcurrencyLimitConfig}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.budget.enabled", havingValue = "true")
+public class SqlBudgetConfig {
+
+    @Bean
+    public SqlStatementStats sqlStatementStats(SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        return new SqlStatementStats(properties.slowQuery(), meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlStatementStatsDataSource(ObjectProvider<SqlStatementStats> stats) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("sql-budget")
+                            .listener(stats.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlBudgetFilter> sqlBudgetFilter(SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SqlBudgetFilter> registration = new FilterRegistrationBean<>(
+                new SqlBudgetFilter(properties.maxStatements(), properties.maxTime(), meterRegistry));
+        registration.addUrlPatterns("/*");
+        registration.setName("sqlBudgetFilter");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,31 @@
+package com.waalterGar.projects.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param enabled       wraps the DataSource to count statements; off removes the proxy entirely
+ * @param maxStatements JDBC round trips a request may make before it is reported
+ * @param maxTime       cumulative time a request may spend in JDBC calls before it is reported
+ * @param slowQuery     a single statement slower than this is logged with its SQL
+ */
+@ConfigurationProperties("sql.budget")
+public record SqlBudgetProperties(
+        boolean enabled,
+        int maxStatements,
+        Duration maxTime,
+        Duration slowQuery
+) {
+    public SqlBudgetProperties {
+        if (maxStatements <= 0) {
+            maxStatements = 10;
+        }
+        if (maxTime == null) {
+            maxTime = Duration.ofMillis(500);
+        }
+        if (slowQuery == null) {
+            slowQuery = Duration.ofMillis(200);
+        }
+    }
+}
@@ -2,18 +2,26 @@ package com.waalterGar.projects.ecommerce.controller;
 
 import com.waalterGar.projects.ecommerce.Dto.AddCartItemDto;
 import com.waalterGar.projects.ecommerce.Dto.CartDto;
+import com.waalterGar.projects.ecommerce.Dto.CartItemOperationsDto;
+import com.waalterGar.projects.ecommerce.Dto.CheckoutTicketDto;
 import com.waalterGar.projects.ecommerce.Dto.OrderDto;
 import com.waalterGar.projects.ecommerce.Dto.UpdateCartItemDto;
+import com.waalterGar.projects.ecommerce.api.etag.ETags;
 import com.waalterGar.projects.ecommerce.service.CartService;
 import com.waalterGar.projects.ecommerce.service.CheckoutService;
+import com.waalterGar.projects.ecommerce.service.checkout.CheckoutQueue;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
 
 @Tag(name = "Carts", description = "Create, retrieve and modify carts")
 @RequestMapping("/carts")
@@ -22,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 public class CartController {
     private final CartService cartService;
     private final CheckoutService checkoutService;
+    private final CheckoutQueue checkoutQueue;
 
     @Operation(summary = "Create a new cart")
     @PostMapping
@@ -31,10 +40,16 @@ public class CartController {
         return new ResponseEntity<>(createdCart, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Get cart (ETag; If-None-Match answers 304 without loading the cart)")
     @GetMapping("/{externalId}")
-    public ResponseEntity<CartDto> getCart(@PathVariable("externalId") String externalId) {
-        CartDto createdCart  = cartService.getCartByExternalId(externalId);
-        return new ResponseEntity<>(createdCart, HttpStatus.OK);
+    public ResponseEntity<CartDto> getCart(
+            @PathVariable("externalId") String externalId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ETags.<CartDto>notModified(ifNoneMatch, externalId, () -> cartService.findVersion(externalId))
+                .orElseGet(() -> {
+                    CartDto cart = cartService.getCartByExternalId(externalId);
+                    return ETags.ok(externalId, cart.getVersion(), cart);
+                });
     }
 
     @PostMapping("/{externalId}/items")
@@ -47,6 +62,13 @@ public class CartController {
         return ResponseEntity.ok(cartService.updateQty(id, sku, body.getQty()));
     }
 
+    @Operation(summary = "Apply several item changes at once",
+            description = "Operations (ADD, SET, REMOVE) are applied in order in one transaction; if one fails none is applied.")
+    @PatchMapping("/{externalId}/items")
+    public ResponseEntity<CartDto> applyItemOperations(@PathVariable("externalId") String externalId, @Valid @RequestBody CartItemOperationsDto body) {
+        return ResponseEntity.ok(cartService.applyItemOperations(externalId, body.getOperations()));
+    }
+
     @DeleteMapping("/{externalId}/items/{sku}")
     public ResponseEntity<CartDto> removeItem(@PathVariable("externalId") String externalId, @PathVariable("sku")  String sku) {
         return ResponseEntity.ok(cartService.removeItem(externalId, sku));
@@ -57,11 +79,28 @@ public class CartController {
         return ResponseEntity.ok(cartService.clearCart(externalId));
     }
 
-    @Operation(summary = "Checkout cart")
+    @Operation(summary = "Checkout cart",
+            description = "mode=sync (default) places the order and returns it (201). mode=async queues the checkout and "
+                    + "returns a ticket (202) to poll at GET /checkouts/{ticket}; 429 when the queue is full.")
     @PostMapping("/{externalId}/checkout")
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<OrderDto> checkout(@PathVariable("externalId") String externalId, @RequestParam("customerId") String customerId) {
-        OrderDto createdOrder = checkoutService.checkout(externalId, customerId);
-        return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
+    public ResponseEntity<?> checkout(@PathVariable("externalId") String externalId,
+                                      @RequestParam("customerId") String customerId,
+                                      @RequestParam(name = "mode", defaultValue = "sync") String mode) {
+        switch (mode) {
+            case "sync" -> {
+                OrderDto createdOrder = checkoutService.checkout(externalId, customerId);
+                return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
+            }
+            case "async" -> {
+                CheckoutTicketDto ticket = checkoutQueue.submit(externalId, customerId);
+                URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/checkouts/{ticket}")
+                        .buildAndExpand(ticket.getTicket())
+                        .toUri();
+                return ResponseEntity.accepted().location(location).body(ticket);
+            }
+            default -> throw new IllegalArgumentException("mode must be 'sync' or 'async'");
+        }
     }
 }
@@ -0,0 +1,27 @@
+package com.waalterGar.projects.ecommerce.controller;
+
+import com.waalterGar.projects.ecommerce.Dto.CheckoutTicketDto;
+import com.waalterGar.projects.ecommerce.service.checkout.CheckoutQueue;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.NoSuchElementException;
+
+@Tag(name = "Checkouts", description = "Poll asynchronous checkouts")
+@RequestMapping("/checkouts")
+@RestController
+@AllArgsConstructor
+public class CheckoutController {
+    private final CheckoutQueue checkoutQueue;
+
+    @Operation(summary = "Get the status of an async checkout",
+            description = "PENDING until a worker has processed it, then COMPLETED with the order or FAILED with the error.")
+    @GetMapping("/{ticket}")
+    public ResponseEntity<CheckoutTicketDto> getTicket(@PathVariable("ticket") String ticket) {
+        return ResponseEntity.ok(checkoutQueue.find(ticket)
+                .orElseThrow(() -> new NoSuchElementException("Checkout ticket not found")));
+    }
+}
@@ -5,12 +5,14 @@ import com.waalterGar.projects.ecommerce.Dto.CreateCustomerDto;
 import com.waalterGar.projects.ecommerce.Dto.CustomerDto;
 import com.waalterGar.projects.ecommerce.Dto.OrderDto;
 import com.waalterGar.projects.ecommerce.Dto.UpdateCustomerDto;
+import com.waalterGar.projects.ecommerce.api.export.NdjsonResponses;
 import com.waalterGar.projects.ecommerce.api.pagination.*;
 import com.waalterGar.projects.ecommerce.api.problem.InvalidPaginationException;
 import com.waalterGar.projects.ecommerce.config.PaginationProperties;
 import com.waalterGar.projects.ecommerce.service.CustomerService;
 import com.waalterGar.projects.ecommerce.service.OrderService;
 import com.waalterGar.projects.ecommerce.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
@@ -22,6 +24,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -33,14 +36,17 @@ public class CustomerController {
     private final OrderService orderService;
     private final AllowedSorts customersAllowedSorts;
     private final PaginationProperties props;
+    private final ObjectMapper objectMapper;
 
     public CustomerController(CustomerService customerService, OrderService orderService,
                            @Qualifier("customersAllowedSorts") AllowedSorts customersAllowedSorts,
-                           PaginationProperties props) {
+                           PaginationProperties props,
+                           ObjectMapper objectMapper) {
         this.customerService = customerService;
         this.orderService = orderService;
         this.customersAllowedSorts = customersAllowedSorts;
         this.props = props;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Create customer")
@@ -69,23 +75,31 @@ public class CustomerController {
         return ResponseEntity.ok(updated);
     }
 
-    @GetMapping("/all")
+    @GetMapping(path = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<List<CustomerDto>> getAllCustomers() {
         List<CustomerDto> customers = customerService.getAllCustomers();
         return ResponseEntity.ok(customers);
     }
 
+    @Operation(summary = "Export all customers as NDJSON (streamed, one customer per line)")
+    @GetMapping(path = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllCustomers() {
+        return NdjsonResponses.stream(objectMapper, customerService::exportAllCustomers);
+    }
+
     @GetMapping("/{externalId}")
     public ResponseEntity<CustomerDto> getCustomerByExternalId(@PathVariable String externalId) {
         CustomerDto customer = customerService.getCustomerByExternalId(externalId);
         return new ResponseEntity<>(customer, HttpStatus.OK);
     }
 
-    @Operation(summary = "List customers (paged)")
+    @Operation(summary = "List customers (paged; pass cursor for keyset paging)")
     @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE })
     public ResponseEntity<PageEnvelope<CustomerDto>> listCustomers(
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withTotal,
             @RequestParam(required = false) String email,
             @RequestParam(required = false) String q,
             @RequestParam MultiValueMap<String, String> query
@@ -100,6 +114,18 @@ public class CustomerController {
         List<SortDirective> directives = SortParser.parse(sortRaw);
         SortValidator.ensureAllowed(directives, customersAllowedSorts);
 
+        if (cursor != null) {
+            if (page > 0) {
+                throw new InvalidPaginationException("page cannot be combined with cursor");
+            }
+            if (q != null && !q.isBlank()) {
+                throw new InvalidPaginationException("q cannot be combined with cursor");
+            }
+            CursorRequest request = PageableFactory.cursorFrom(
+                    cursor, effectiveSize, directives, props.defaults().customers(), props);
+            return ResponseEntity.ok(customerService.listAfter(email, request));
+        }
+
         Pageable pageable = PageableFactory.from(
                 page,
                 effectiveSize,
@@ -109,7 +135,9 @@ public class CustomerController {
                 props
         );
 
-        return ResponseEntity.ok(customerService.list(email, q, pageable));
+        return ResponseEntity.ok(withTotal
+                ? customerService.list(email, q, pageable)
+                : customerService.listWithoutTotal(email, q, pageable));
     }
 
     @Operation(summary = "List orders for a customer (paged)")
@@ -1,12 +1,15 @@
 package com.waalterGar.projects.ecommerce.controller;
 
 import com.waalterGar.projects.ecommerce.Dto.OrderDto;
+import com.waalterGar.projects.ecommerce.Dto.OrderLookupDto;
 import com.waalterGar.projects.ecommerce.Dto.PayOrderRequestDto;
 import com.waalterGar.projects.ecommerce.Dto.createOrderDto;
+import com.waalterGar.projects.ecommerce.api.export.NdjsonResponses;
 import com.waalterGar.projects.ecommerce.api.pagination.*;
 import com.waalterGar.projects.ecommerce.api.problem.InvalidPaginationException;
 import com.waalterGar.projects.ecommerce.config.PaginationProperties;
 import com.waalterGar.projects.ecommerce.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -22,6 +25,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -32,13 +36,16 @@ public class OrderController {
     private final OrderService orderService;
     private final AllowedSorts ordersAllowedSorts;   // Provided by OrderSortConfig
     private final PaginationProperties props;
+    private final ObjectMapper objectMapper;
 
     public OrderController(OrderService service,
                            @Qualifier("ordersAllowedSorts") AllowedSorts ordersAllowedSorts,
-                           PaginationProperties props) {
+                           PaginationProperties props,
+                           ObjectMapper objectMapper) {
         this.orderService = service;
         this.ordersAllowedSorts = ordersAllowedSorts;
         this.props = props;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Create a new order")
@@ -77,17 +84,36 @@ public class OrderController {
         return new ResponseEntity<>(order, HttpStatus.OK);
     }
 
-    @GetMapping("/all")
+    @Operation(summary = "Get several orders by externalId",
+            description = "Loads all of them in one query and returns them in the requested order; "
+                    + "ids with no order are listed in missing instead of failing the call.")
+    @GetMapping(params = "ids", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OrderLookupDto> getOrdersByExternalIds(@RequestParam List<String> ids) {
+        if (ids.size() > props.maxSize()) {
+            throw new IllegalArgumentException("ids accepts at most " + props.maxSize() + " values");
+        }
+        return ResponseEntity.ok(orderService.getOrdersByExternalIds(ids));
+    }
+
+    @GetMapping(path = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<java.util.List<OrderDto>> getAllOrders(){
         java.util.List<OrderDto> orders = orderService.getAllOrders();
         return new ResponseEntity<>(orders, HttpStatus.OK);
     }
 
-    @Operation(summary = "List orders (paged)")
+    @Operation(summary = "Export all orders as NDJSON (streamed, one order per line)")
+    @GetMapping(path = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllOrders() {
+        return NdjsonResponses.stream(objectMapper, orderService::exportAllOrders);
+    }
+
+    @Operation(summary = "List orders (paged; pass cursor for keyset paging)")
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<PageEnvelope<OrderDto>> listOrders(
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withTotal,
             @RequestParam MultiValueMap<String, String> query
     ) {
         int effectiveSize = (size == null) ? props.defaultSize() : size;
@@ -99,6 +125,15 @@ public class OrderController {
         List<SortDirective> directives = SortParser.parse(sortRaw);
         SortValidator.ensureAllowed(directives, ordersAllowedSorts);
 
+        if (cursor != null) {
+            if (page > 0) {
+                throw new InvalidPaginationException("page cannot be combined with cursor");
+            }
+            CursorRequest request = PageableFactory.cursorFrom(
+                    cursor, effectiveSize, directives, props.defaults().orders(), props);
+            return ResponseEntity.ok(orderService.listAfter(request));
+        }
+
         Pageable pageable = PageableFactory.from(
                 page,
                 effectiveSize,
@@ -108,6 +143,8 @@ public class OrderController {
                 props
         );
 
-        return ResponseEntity.ok(orderService.list(pageable));
+        return ResponseEntity.ok(withTotal
+                ? orderService.list(pageable)
+                : orderService.listWithoutTotal(pageable));
     }
 }
@@ -2,25 +2,43 @@ package com.waalterGar.projects.ecommerce.controller;
 
 import com.waalterGar.projects.ecommerce.Dto.ActivationProductDto;
 import com.waalterGar.projects.ecommerce.Dto.ProductDto;
+import com.waalterGar.projects.ecommerce.Dto.ProductSearchResultDto;
 import com.waalterGar.projects.ecommerce.Dto.UpdateProductDto;
+import com.waalterGar.projects.ecommerce.api.cache.SerializedResponses;
+import com.waalterGar.projects.ecommerce.api.etag.ETags;
+import com.waalterGar.projects.ecommerce.api.export.NdjsonResponses;
 import com.waalterGar.projects.ecommerce.api.pagination.*;
 import com.waalterGar.projects.ecommerce.api.problem.InvalidPaginationException;
 import com.waalterGar.projects.ecommerce.config.PaginationProperties;
 import com.waalterGar.projects.ecommerce.service.ProductService;
+import com.waalterGar.projects.ecommerce.service.cache.ProductPageCache;
+import com.waalterGar.projects.ecommerce.service.cache.SerializedPage;
+import com.waalterGar.projects.ecommerce.service.exception.PreconditionFailedException;
+import com.waalterGar.projects.ecommerce.service.search.ProductSearchCriteria;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 @Tag(name = "Products", description = "Manage products")
 
@@ -30,21 +48,31 @@ public class ProductController {
     private final ProductService productService;
     private final AllowedSorts productsAllowedSorts;   // Provided by ProductSortConfig
     private final PaginationProperties props;
+    private final ObjectMapper objectMapper;
+    private final ProductPageCache productPageCache;
 
     public ProductController(ProductService service,
                              @Qualifier("productsAllowedSorts") AllowedSorts productsAllowedSorts,
-                             PaginationProperties props) {
+                             PaginationProperties props,
+                             ObjectMapper objectMapper,
+                             ProductPageCache productPageCache) {
         this.productService = service;
         this.productsAllowedSorts = productsAllowedSorts;
         this.props = props;
+        this.objectMapper = objectMapper;
+        this.productPageCache = productPageCache;
     }
 
-    @Operation(summary = "List products (paged)")
+    @Operation(summary = "List products (paged; pass cursor for keyset paging)")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = PageEnvelope.class)))
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<PageEnvelope<ProductDto>> listProducts(
+    public ResponseEntity<?> listProducts(
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(required = false) Integer size,
-            @RequestParam MultiValueMap<String,String> query
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            @RequestParam MultiValueMap<String,String> query,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
         int effectiveSize = (size == null) ? props.defaultSize() : size;
         if (effectiveSize < 1 || effectiveSize > props.maxSize()) {
@@ -56,6 +84,15 @@ public class ProductController {
 
         SortValidator.ensureAllowed(directives, productsAllowedSorts);
 
+        if (cursor != null) {
+            if (page > 0) {
+                throw new InvalidPaginationException("page cannot be combined with cursor");
+            }
+            CursorRequest request = PageableFactory.cursorFrom(
+                    cursor, effectiveSize, directives, props.defaults().products(), props);
+            return ResponseEntity.ok(productService.listAfter(request));
+        }
+
         Pageable pageable = PageableFactory.from(
                 page,
                 effectiveSize,
@@ -65,14 +102,43 @@ public class ProductController {
                 props
         );
 
-        PageEnvelope<ProductDto> body = productService.list(pageable);
-        return ResponseEntity.ok(body);
+        SerializedPage body = productPageCache.get(ProductPageCache.Key.page(pageable, withTotal), () -> withTotal
+                ? productService.list(pageable)
+                : productService.listWithoutTotal(pageable));
+        return SerializedResponses.json(body, acceptEncoding);
+    }
+
+    @Operation(summary = "Search products by name and description, filtered by currency, active and price range")
+    @GetMapping(path = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductSearchResultDto> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Currency currency,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(required = false) Integer size
+    ) {
+        int effectiveSize = (size == null) ? props.defaultSize() : size;
+        if (effectiveSize < 1 || effectiveSize > props.maxSize()) {
+            throw new InvalidPaginationException("size must be between 1 and " + props.maxSize());
+        }
+        ProductSearchCriteria criteria = new ProductSearchCriteria(q, currency, active, minPrice, maxPrice);
+        return ResponseEntity.ok(productService.search(criteria, page, effectiveSize));
+    }
+
+    @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductDto.class))))
+    @GetMapping(path = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SerializedPage products = productPageCache.get(ProductPageCache.Key.all(), productService::getAllProducts);
+        return SerializedResponses.json(products, acceptEncoding);
     }
 
-    @GetMapping("/all")
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        List<ProductDto> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    @Operation(summary = "Export all products as NDJSON (streamed, one product per line)")
+    @GetMapping(path = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllProducts() {
+        return NdjsonResponses.stream(objectMapper, productService::exportAllProducts);
     }
 
     @PostMapping
@@ -81,19 +147,40 @@ public class ProductController {
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Get product by SKU")
+    @Operation(summary = "Get product by SKU (ETag; If-None-Match answers 304 from the version alone)")
     @GetMapping("/{sku}")
-    public ResponseEntity<ProductDto> getProductBySku(@PathVariable String sku) {
-        ProductDto product = productService.getProductBySku(sku);
-        return new ResponseEntity<>(product, HttpStatus.OK);
+    public ResponseEntity<ProductDto> getProductBySku(
+            @PathVariable String sku,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            ProductDto product = productService.getProductBySku(sku);
+            return ETags.ok(sku, product.getVersion(), product);
+        }
+        // The body comes from the snapshot cache: it must not be older than the version just compared
+        Optional<Long> current = productService.findVersion(sku);
+        return ETags.<ProductDto>notModified(ifNoneMatch, sku, () -> current)
+                .orElseGet(() -> {
+                    ProductDto product = current
+                            .map(version -> productService.getProductBySku(sku, version))
+                            .orElseGet(() -> productService.getProductBySku(sku));
+                    return ETags.ok(sku, product.getVersion(), product);
+                });
     }
 
+    @Operation(summary = "Update product (If-Match with the product's ETag: 412 if it changed since)")
     @PutMapping( path = "/{sku}",
             consumes = org.springframework.http.MediaType.APPLICATION_JSON_VALUE,
             produces = org.springframework.http.MediaType.APPLICATION_JSON_VALUE
     )
-    public ResponseEntity<ProductDto> updateProduct(@PathVariable("sku") String sku,@Valid @RequestBody UpdateProductDto dto){
-        ProductDto updatedProductDto = productService.updateProduct(sku, dto);
+    public ResponseEntity<ProductDto> updateProduct(@PathVariable("sku") String sku,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                    @Valid @RequestBody UpdateProductDto dto){
+        Long expectedVersion = null;
+        if (ifMatch != null && !ETags.isWildcard(ifMatch)) {
+            expectedVersion = ETags.versionFor(ifMatch, sku).orElseThrow(() ->
+                    new PreconditionFailedException("If-Match does not name a version of product " + sku));
+        }
+        ProductDto updatedProductDto = productService.updateProduct(sku, dto, expectedVersion);
         return ResponseEntity.ok(updatedProductDto);
     }
 
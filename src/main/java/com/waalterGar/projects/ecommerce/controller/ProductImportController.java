@@ -0,0 +1,38 @@
+package com.waalterGar.projects.ecommerce.controller;
+
+import com.waalterGar.projects.ecommerce.Dto.ProductImportResultDto;
+import com.waalterGar.projects.ecommerce.service.catalog.CatalogImporter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@Tag(name = "Products", description = "Manage products")
+@RestController
+@AllArgsConstructor
+public class ProductImportController {
+    static final String TEXT_CSV = "text/csv";
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final CatalogImporter catalogImporter;
+
+    @Operation(summary = "Create or update products in bulk from a CSV or NDJSON file",
+            description = "Rows are matched by SKU and upserted in batches as the body streams in. "
+                    + "Invalid rows are reported in errors and skipped; the other rows are still imported.")
+    @PostMapping(path = "/products:import", consumes = {TEXT_CSV, APPLICATION_NDJSON},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductImportResultDto> importProducts(HttpServletRequest request) throws IOException {
+        // Read the body directly rather than through a message converter, so it is never buffered whole
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV));
+        ProductImportResultDto result = csv
+                ? catalogImporter.importCsv(request.getInputStream())
+                : catalogImporter.importNdjson(request.getInputStream());
+        return ResponseEntity.ok(result);
+    }
+}
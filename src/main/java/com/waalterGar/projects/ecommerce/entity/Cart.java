@@ -1,6 +1,7 @@
 package com.waalterGar.projects.ecommerce.entity;
 
 
+import com.waalterGar.projects.ecommerce.entity.id.UuidV7;
 import com.waalterGar.projects.ecommerce.utils.CartStatus;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import jakarta.persistence.*;
@@ -25,7 +26,7 @@ import java.util.UUID;
 @NoArgsConstructor
 public class Cart {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     private UUID id;
 
     @Column(name = "external_id", nullable = false, length = 36, unique = true)
@@ -76,6 +77,14 @@ public class Cart {
         items.clear();
     }
 
+    /**
+     * Marks the cart itself as changed. Line edits only dirty the items, which would leave the cart's
+     * version (and its ETag) as it was.
+     */
+    public void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+
     @PrePersist
     public void prePersist() {
         createdAt = LocalDateTime.now();
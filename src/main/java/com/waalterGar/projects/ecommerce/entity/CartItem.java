@@ -1,6 +1,7 @@
 package com.waalterGar.projects.ecommerce.entity;
 
 
+import com.waalterGar.projects.ecommerce.entity.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,7 +14,6 @@ import java.util.UUID;
 @Table(
         name = "cart_items",
         indexes = {
-                @Index(name = "ix_cart_items_cart_id", columnList = "cart_id"),
                 @Index(name = "ix_cart_items_sku", columnList = "sku")
         },
         uniqueConstraints = {
@@ -26,7 +26,7 @@ import java.util.UUID;
 @NoArgsConstructor
 public class CartItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -1,5 +1,6 @@
 package com.waalterGar.projects.ecommerce.entity;
 
+import com.waalterGar.projects.ecommerce.entity.id.UuidV7;
 import com.waalterGar.projects.ecommerce.utils.CountryCode;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -18,9 +19,6 @@ import java.util.UUID;
         name = "customers",
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_customer_email", columnNames = "email")
-        },
-        indexes = {
-                @Index(name = "idx_customer_email", columnList = "email")
         }
 )
 @Getter
@@ -29,7 +27,7 @@ import java.util.UUID;
 @ToString
 public class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     private UUID id;
 
     @Column(nullable=false, unique=true, length=36)
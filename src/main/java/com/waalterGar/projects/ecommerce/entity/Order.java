@@ -1,6 +1,7 @@
 package com.waalterGar.projects.ecommerce.entity;
 
 
+import com.waalterGar.projects.ecommerce.entity.id.UuidV7;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import com.waalterGar.projects.ecommerce.utils.OrderStatus;
 import jakarta.persistence.Table;
@@ -16,21 +17,13 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(
-        name = "orders",
-        uniqueConstraints = {
-                @UniqueConstraint(name = "uk_order_number", columnNames = "order_number")
-        },
-        indexes = {
-                @Index(name = "idx_order_number", columnList = "order_number")
-        }
-)
+@Table(name = "orders")
 @Getter
 @Setter
 @NoArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     private UUID id;
 
     @Column(name = "external_id", nullable = false, length = 36, unique = true)
@@ -1,6 +1,7 @@
 package com.waalterGar.projects.ecommerce.entity;
 
 
+import com.waalterGar.projects.ecommerce.entity.id.UuidV7;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -19,7 +20,7 @@ import java.util.UUID;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
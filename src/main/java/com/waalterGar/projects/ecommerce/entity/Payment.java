@@ -1,5 +1,6 @@
 package com.waalterGar.projects.ecommerce.entity;
 
+import com.waalterGar.projects.ecommerce.entity.id.UuidV7;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -28,7 +29,7 @@ import java.util.UUID;
 @NoArgsConstructor
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
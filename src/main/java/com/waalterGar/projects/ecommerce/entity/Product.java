@@ -1,6 +1,7 @@
 package com.waalterGar.projects.ecommerce.entity;
 
 
+import com.waalterGar.projects.ecommerce.entity.id.UuidV7;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -22,7 +23,7 @@ import java.util.UUID;
 @ToString
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     private UUID id;
 
     @Column(nullable = false, unique = true, length = 50)
@@ -0,0 +1,31 @@
+package com.waalterGar.projects.ecommerce.entity.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Assigns a time-ordered UUIDv7 on insert. On MySQL the {@code UUID} column maps to {@code BINARY(16)}
+ * with the timestamp in the leading bytes, so new rows append to the right of the clustered index
+ * instead of landing on random pages.
+ * <p>
+ * Existing rows keep their random (v4) ids: the column type is unchanged, so old and new ids coexist
+ * and no rewrite of keys or foreign keys is needed.
+ * <p>
+ * Ids are compared by value: keyset pagination ({@code KeysetSpecifications}) uses {@code id}
+ * as the cursor's tiebreaker, and the order export walks ids in order. Old v4 ids sort randomly among the
+ * v7 ones, so rows that tie on {@code createdAt} come back in a mixed order. The cursor is still safe:
+ * the tiebreaker only decides between rows with the same {@code createdAt}, and both the ORDER BY and the
+ * seek predicate compare the same {@code BINARY(16)} bytes, so the order is total and stable and no row
+ * is skipped or repeated.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface UuidV7 {
+}
@@ -0,0 +1,65 @@
+package com.waalterGar.projects.ecommerce.entity.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * RFC 9562 UUIDv7: 48-bit Unix epoch milliseconds, version, a 12-bit counter in {@code rand_a}
+ * (method 1, "fixed-length dedicated counter") and 62 random bits.
+ * <p>
+ * Ids from one JVM are strictly increasing: within a millisecond the counter advances, and if it
+ * overflows (more than 4096 ids in one millisecond) or the clock steps back, the timestamp borrows
+ * from the next millisecond rather than going backwards.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+    private static final UuidV7Generator SHARED = new UuidV7Generator(System::currentTimeMillis);
+
+    private static final int COUNTER_BITS = 12;
+
+    private final LongSupplier clock;
+    /** Last issued {@code millis << 12 | counter}. */
+    private final AtomicLong last = new AtomicLong();
+
+    public UuidV7Generator() {
+        this(System::currentTimeMillis);
+    }
+
+    UuidV7Generator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /** Next id from the JVM-wide sequence shared by all entities. */
+    public static UUID next() {
+        return SHARED.nextUuid();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    UUID nextUuid() {
+        long now = clock.getAsLong() << COUNTER_BITS;
+        long stamp = last.accumulateAndGet(now, (prev, fresh) -> Math.max(prev + 1, fresh));
+
+        long millis = stamp >>> COUNTER_BITS;
+        long counter = stamp & ((1L << COUNTER_BITS) - 1);
+        long msb = (millis << 16) | 0x7000L | counter;
+        long lsb = (ThreadLocalRandom.current().nextLong() >>> 2) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+}
@@ -21,6 +21,7 @@ public class CartMapper {
         dto.setCreatedAt(cart.getCreatedAt());
         dto.setUpdatedAt(cart.getUpdatedAt());
         dto.setCheckedOutAt(cart.getCheckedOutAt());
+        dto.setVersion(cart.getVersion());
 
         dto.setItems(cart.getItems().stream()
                 .map(CartMapper::toItemDto)
@@ -2,10 +2,11 @@ package com.waalterGar.projects.ecommerce.mapper;
 
 import com.waalterGar.projects.ecommerce.Dto.ProductDto;
 import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.service.cache.ProductSnapshot;
 
 public class ProductMapper {
     public static ProductDto toDto(Product product) {
-        return new ProductDto(
+        ProductDto dto = new ProductDto(
                 product.getSku(),
                 product.getName(),
                 product.getDescription(),
@@ -14,6 +15,22 @@ public class ProductMapper {
                 product.getStockQuantity(),
                 product.getIsActive()
         );
+        dto.setVersion(product.getVersion() == null ? null : product.getVersion().longValue());
+        return dto;
+    }
+
+    public static ProductDto toDto(ProductSnapshot snapshot) {
+        ProductDto dto = new ProductDto(
+                snapshot.sku(),
+                snapshot.name(),
+                snapshot.description(),
+                snapshot.price(),
+                snapshot.currency(),
+                snapshot.stockQuantity(),
+                snapshot.isActive()
+        );
+        dto.setVersion(snapshot.version() == null ? null : snapshot.version().longValue());
+        return dto;
     }
 
     public static Product toEntity(ProductDto productDto) {
@@ -3,11 +3,23 @@ package com.waalterGar.projects.ecommerce.repository;
 import com.waalterGar.projects.ecommerce.entity.Cart;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface CartRepository extends JpaRepository<Cart, UUID>{
     @EntityGraph(attributePaths = "items")
     Optional<Cart> findByExternalId(String externalId);
+
+    /** Every SKU in the given carts, so a checkout batch can lock all of their rows up front. */
+    @Query("select distinct i.productSku from CartItem i where i.cart.externalId in :externalIds")
+    List<String> findSkusByCartExternalIdIn(@Param("externalIds") Collection<String> externalIds);
+
+    /** Just the version column, to answer conditional GETs without loading the cart or its items. */
+    @Query("select c.version from Cart c where c.externalId = :externalId")
+    Optional<Long> findVersionByExternalId(@Param("externalId") String externalId);
 }
@@ -1,22 +1,61 @@
 package com.waalterGar.projects.ecommerce.repository;
 
 import com.waalterGar.projects.ecommerce.entity.Customer;
+import com.waalterGar.projects.ecommerce.service.export.ChunkedExporter;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface CustomerRepository extends JpaRepository<Customer, UUID> {
+public interface CustomerRepository extends JpaRepository<Customer, UUID>, JpaSpecificationExecutor<Customer> {
     Optional<Customer> findByExternalId(String externalId);
     Optional<Customer> findByEmail(String email);
     boolean existsByEmail(String email);
+    boolean existsByExternalId(String externalId);
 
-    Page<Customer>
-    findByEmailContainingIgnoreCaseOrLastNameContainingIgnoreCaseOrFirstNameContainingIgnoreCase(
-            String emailLike, String lastNameLike, String firstNameLike, Pageable pageable);
+    /**
+     * Full-text search over email, first and last name (ngram index from V4), best matches first; the
+     * pageable's sort only breaks ties. {@code query} is in boolean mode, as built by {@code CustomerSearchQuery}.
+     */
+    @Query(value = """
+            select c from Customer c
+             where match_against(c.email, c.firstName, c.lastName, :query) > 0
+             order by match_against(c.email, c.firstName, c.lastName, :query) desc
+            """,
+            countQuery = """
+            select count(c) from Customer c
+             where match_against(c.email, c.firstName, c.lastName, :query) > 0
+            """)
+    Page<Customer> search(@Param("query") String query, Pageable pageable);
 
     Page<Customer>
     findByEmailContainingIgnoreCase(String emailLike, Pageable pageable);
+
+    // Slice variants skip the count query
+    Slice<Customer> findSliceBy(Pageable pageable);
+
+    @Query("""
+            select c from Customer c
+             where match_against(c.email, c.firstName, c.lastName, :query) > 0
+             order by match_against(c.email, c.firstName, c.lastName, :query) desc
+            """)
+    Slice<Customer> searchSlice(@Param("query") String query, Pageable pageable);
+
+    Slice<Customer>
+    findSliceByEmailContainingIgnoreCase(String emailLike, Pageable pageable);
+
+    /** Streams every customer for export as a MySQL row stream; see {@link ChunkedExporter#STREAMING_FETCH_SIZE}. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + ChunkedExporter.STREAMING_FETCH_SIZE))
+    @Query("select c from Customer c order by c.id")
+    Stream<Customer> streamAllBy();
 }
@@ -0,0 +1,28 @@
+package com.waalterGar.projects.ecommerce.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Makes MySQL's {@code MATCH ... AGAINST} usable from JPQL, so full-text queries still get a derived count
+ * query and the pageable's sort appended like any other repository query:
+ * {@code match_against(col1, col2, col3, :query)} is {@code MATCH(col1, col2, col3) AGAINST(:query IN BOOLEAN MODE)}
+ * and returns the relevance score (0 when the row does not match).
+ * <p>
+ * The columns must be exactly those of a FULLTEXT index, in its order. Registered through
+ * {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ */
+public class FullTextFunctionContributor implements FunctionContributor {
+    public static final String MATCH_AGAINST = "match_against";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder(MATCH_AGAINST, "match (?1, ?2, ?3) against (?4 in boolean mode)")
+                .setExactArgumentCount(4)
+                .setInvariantType(functionContributions.getTypeConfiguration()
+                        .getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE))
+                .register();
+    }
+}
@@ -0,0 +1,78 @@
+package com.waalterGar.projects.ecommerce.repository;
+
+import com.waalterGar.projects.ecommerce.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /** Inserts an IN_PROGRESS row; returns 0 (instead of failing) when the key already exists. */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert ignore into idempotency_keys (idempotency_key, request_hash, status, created_at, expires_at)
+            values (:key, :requestHash, 'IN_PROGRESS', :now, :expiresAt)
+            """, nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    /** Re-claims a key whose owner started before {@code staleBefore} and never finished. */
+    @Transactional
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r
+               set r.createdAt = :now
+             where r.idempotencyKey = :key
+               and r.requestHash = :requestHash
+               and r.status = com.waalterGar.projects.ecommerce.utils.IdempotencyStatus.IN_PROGRESS
+               and r.createdAt < :staleBefore
+            """)
+    int takeOver(@Param("key") String key,
+                 @Param("requestHash") String requestHash,
+                 @Param("now") LocalDateTime now,
+                 @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r
+               set r.status = com.waalterGar.projects.ecommerce.utils.IdempotencyStatus.COMPLETED,
+                   r.responseStatus = :status,
+                   r.responseContentType = :contentType,
+                   r.responseBody = :body,
+                   r.expiresAt = :expiresAt
+             where r.idempotencyKey = :key
+            """)
+    int complete(@Param("key") String key,
+                 @Param("status") int status,
+                 @Param("contentType") String contentType,
+                 @Param("body") byte[] body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    /** Gives the key back (the request failed with a retryable outcome) so the next attempt runs again. */
+    @Transactional
+    @Modifying
+    @Query("""
+            delete from IdempotencyRecord r
+             where r.idempotencyKey = :key
+               and r.status = com.waalterGar.projects.ecommerce.utils.IdempotencyStatus.IN_PROGRESS
+            """)
+    int release(@Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey = :key and r.expiresAt < :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
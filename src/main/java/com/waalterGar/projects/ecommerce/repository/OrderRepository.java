@@ -3,23 +3,55 @@ package com.waalterGar.projects.ecommerce.repository;
 import com.waalterGar.projects.ecommerce.entity.Order;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface OrderRepository  extends JpaRepository <Order, UUID> {
+public interface OrderRepository  extends JpaRepository <Order, UUID>, JpaSpecificationExecutor<Order> {
     @EntityGraph(attributePaths = {"items", "customer"})
     Optional<Order> findByExternalId(String externalId);
 
+    /** Multi-get counterpart of {@link #findByExternalId(String)}: one query, in no particular order. */
+    @EntityGraph(attributePaths = {"items", "customer"})
+    List<Order> findAllByExternalIdIn(Collection<String> externalIds);
+
     @EntityGraph(attributePaths = {"items", "customer"})
     @Query("select o from Order o")
     List<Order> findAllWithItemsAndCustomer();
 
-    @EntityGraph(attributePaths = { "items", "customer" })
-    Page<Order>
-    findByCustomer_ExternalId(String customerExternalId, Pageable pageable);
+    /**
+     * Pages order ids only, so LIMIT/OFFSET run in SQL. Fetching the items collection in the
+     * same query would make Hibernate read every row and paginate in memory (HHH90003004);
+     * hydrate the page afterwards with {@link #findAllWithItemsAndCustomerByIdIn(Collection)}.
+     */
+    @Query(value = "select o.id from Order o",
+            countQuery = "select count(o) from Order o")
+    Page<UUID> findIdsBy(Pageable pageable);
+
+    @Query("select o.id from Order o")
+    Slice<UUID> findIdSliceBy(Pageable pageable);
+
+    @Query(value = "select o.id from Order o where o.customer.externalId = :customerExternalId",
+            countQuery = "select count(o) from Order o where o.customer.externalId = :customerExternalId")
+    Page<UUID> findIdsByCustomerExternalId(@Param("customerExternalId") String customerExternalId, Pageable pageable);
+
+    /** Loads a page of orders with items and customer in one query; the result is in no particular order. */
+    @EntityGraph(attributePaths = {"items", "customer"})
+    List<Order> findAllWithItemsAndCustomerByIdIn(Collection<UUID> ids);
+
+    /**
+     * One export chunk of order ids after {@code after} ({@code null} for the first), in id order. Orders are
+     * exported by key rather than streamed because each chunk is hydrated with a second query.
+     */
+    @Query("select o.id from Order o where :after is null or o.id > :after order by o.id")
+    List<UUID> findIdsAfter(@Param("after") UUID after, Limit limit);
 }
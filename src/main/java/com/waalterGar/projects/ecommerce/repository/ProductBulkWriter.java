@@ -0,0 +1,75 @@
+package com.waalterGar.projects.ecommerce.repository;
+
+import com.waalterGar.projects.ecommerce.entity.id.UuidV7Generator;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Upserts products by SKU with plain JDBC batches: one {@code INSERT ... ON DUPLICATE KEY UPDATE} per row on
+ * {@code uk_product_sku}, which the MySQL driver rewrites into multi-row statements
+ * ({@code rewriteBatchedStatements}). Existing rows keep their id and {@code created_at}, and their
+ * {@code version} is bumped so concurrent JPA edits still fail their optimistic lock ({@code products.version}
+ * is nullable and rows that predate Flyway may hold null, hence the {@code coalesce}).
+ * <p>
+ * Uses {@code VALUES(col)} rather than a row alias: the driver only rewrites batches it can parse, and the
+ * deprecated form is still what it recognizes on MySQL 8.0.
+ */
+@Repository
+public class ProductBulkWriter {
+    static final String UPSERT = """
+            insert into products (id, sku, name, description, price, currency, stock_quantity, is_active,
+                                  created_at, updated_at, version)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+            on duplicate key update
+                name = values(name),
+                description = values(description),
+                price = values(price),
+                currency = values(currency),
+                stock_quantity = values(stock_quantity),
+                is_active = values(is_active),
+                updated_at = values(updated_at),
+                version = coalesce(version, 0) + 1
+            """;
+
+    public record Upsert(String sku, String name, String description, BigDecimal price, Currency currency,
+                         int stockQuantity, boolean isActive) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductBulkWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Runs in the caller's transaction; a failing row fails the whole call. */
+    public void upsert(List<Upsert> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT, rows, rows.size(), (ps, row) -> {
+            ps.setBytes(1, bytes(UuidV7Generator.next()));
+            ps.setString(2, row.sku());
+            ps.setString(3, row.name());
+            ps.setString(4, row.description());
+            ps.setBigDecimal(5, row.price());
+            // Product.currency is mapped ORDINAL (tinyint)
+            ps.setInt(6, row.currency().ordinal());
+            ps.setInt(7, row.stockQuantity());
+            ps.setBoolean(8, row.isActive());
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+        });
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
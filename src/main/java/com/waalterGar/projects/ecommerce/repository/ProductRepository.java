@@ -1,11 +1,74 @@
 package com.waalterGar.projects.ecommerce.repository;
 
 import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.service.export.ChunkedExporter;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
     Optional<Product> findBySku(String sku);
+
+    /** Just the version column, to answer conditional GETs without loading the product. */
+    @Query("select p.version from Product p where p.sku = :sku")
+    Optional<Integer> findVersionBySku(@Param("sku") String sku);
+
+    /** Like {@code findAll(Pageable)} without the count query: reads size + 1 rows to answer hasNext. */
+    Slice<Product> findSliceBy(Pageable pageable);
+
+    /**
+     * Loads every product in {@code skus} with one SELECT ... FOR UPDATE.
+     * Rows are read (and therefore locked) in SKU order, so two transactions
+     * reserving overlapping SKUs always lock them in the same sequence and cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.sku in :skus order by p.sku asc")
+    List<Product> findAllBySkuInForUpdate(@Param("skus") Collection<String> skus);
+
+    List<Product> findAllBySkuIn(Collection<String> skus);
+
+    /** Streams every product for export as a MySQL row stream; see {@link ChunkedExporter#STREAMING_FETCH_SIZE}. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + ChunkedExporter.STREAMING_FETCH_SIZE))
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAllBy();
+
+    /**
+     * Takes {@code quantity} units out of stock only if that many are available.
+     * Returns the number of rows updated: 0 means the SKU is missing or short on stock.
+     * The version is bumped so concurrent entity writes still see the change.
+     */
+    @Modifying
+    @Query("""
+            update Product p
+               set p.stockQuantity = p.stockQuantity - :quantity,
+                   p.version = p.version + 1,
+                   p.updatedAt = current_timestamp
+             where p.sku = :sku and p.stockQuantity >= :quantity
+            """)
+    int decrementStockIfAvailable(@Param("sku") String sku, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("""
+            update Product p
+               set p.stockQuantity = p.stockQuantity + :quantity,
+                   p.version = p.version + 1,
+                   p.updatedAt = current_timestamp
+             where p.sku = :sku
+            """)
+    int incrementStock(@Param("sku") String sku, @Param("quantity") int quantity);
 }
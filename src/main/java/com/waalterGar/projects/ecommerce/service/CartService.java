@@ -1,16 +1,26 @@
 package com.waalterGar.projects.ecommerce.service;
 
 import com.waalterGar.projects.ecommerce.Dto.CartDto;
+import com.waalterGar.projects.ecommerce.Dto.CartItemOperationDto;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface CartService {
     CartDto createCart(Currency currency);
 
     CartDto getCartByExternalId(String externalId);
 
+    /** Current version of the cart, read without loading it or its items; empty when the cart does not exist. */
+    Optional<Long> findVersion(String externalId);
+
     CartDto addItem(String externalId, String sku, int qty);
     CartDto updateQty(String externalId, String sku, int qty);
     CartDto removeItem(String externalId, String sku);
 
+    /** Applies {@code operations} in order, all or nothing. */
+    CartDto applyItemOperations(String externalId, List<CartItemOperationDto> operations);
+
     CartDto clearCart(String externalId);
 }
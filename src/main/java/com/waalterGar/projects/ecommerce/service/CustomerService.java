@@ -4,14 +4,19 @@ import com.waalterGar.projects.ecommerce.Dto.CreateCustomerDto;
 import com.waalterGar.projects.ecommerce.Dto.CustomerDto;
 import com.waalterGar.projects.ecommerce.Dto.ProductDto;
 import com.waalterGar.projects.ecommerce.Dto.UpdateCustomerDto;
+import com.waalterGar.projects.ecommerce.api.pagination.CursorRequest;
 import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CustomerService {
     List<CustomerDto> getAllCustomers();
 
+    /** Streams every customer to {@code sink} chunk by chunk, inside one read-only transaction. */
+    void exportAllCustomers(Consumer<CustomerDto> sink);
+
     CustomerDto createCustomer(CreateCustomerDto customerDto);
 
     CustomerDto getCustomerByExternalId(String externalId);
@@ -19,4 +24,8 @@ public interface CustomerService {
     CustomerDto updateCustomer(String externalId, UpdateCustomerDto dto);
 
     PageEnvelope<CustomerDto> list(String email, String q, Pageable pageable);
+
+    PageEnvelope<CustomerDto> listWithoutTotal(String email, String q, Pageable pageable);
+
+    PageEnvelope<CustomerDto> listAfter(String email, CursorRequest request);
 }
@@ -1,14 +1,18 @@
 package com.waalterGar.projects.ecommerce.service.Implementation;
 
 import com.waalterGar.projects.ecommerce.Dto.CartDto;
+import com.waalterGar.projects.ecommerce.Dto.CartItemOperationDto;
 import com.waalterGar.projects.ecommerce.entity.Cart;
 import com.waalterGar.projects.ecommerce.entity.CartItem;
-import com.waalterGar.projects.ecommerce.entity.Product;
 import com.waalterGar.projects.ecommerce.mapper.CartMapper;
 import com.waalterGar.projects.ecommerce.repository.CartRepository;
-import com.waalterGar.projects.ecommerce.repository.ProductRepository;
 import com.waalterGar.projects.ecommerce.service.CartService;
+import com.waalterGar.projects.ecommerce.service.cache.ProductCache;
+import com.waalterGar.projects.ecommerce.service.cache.ProductSnapshot;
 import com.waalterGar.projects.ecommerce.service.exception.InactiveProductException;
+import com.waalterGar.projects.ecommerce.service.metrics.CheckoutFunnelMetrics;
+import com.waalterGar.projects.ecommerce.service.metrics.FunnelStep;
+import com.waalterGar.projects.ecommerce.utils.CartItemOperationType;
 import com.waalterGar.projects.ecommerce.utils.CartStatus;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import jakarta.transaction.Transactional;
@@ -16,17 +20,24 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
 public class CartServiceImpl implements CartService {
     private final CartRepository cartRepository;
-    private final ProductRepository productRepository;
+    private final ProductCache productCache;
 
     @Override
+    @FunnelStep(CheckoutFunnelMetrics.Step.CART_CREATED)
     public CartDto createCart(Currency currency) {
         Cart cart = new Cart();
         cart.setExternalId(UUID.randomUUID().toString());
@@ -42,8 +53,14 @@ public class CartServiceImpl implements CartService {
         return CartMapper.toDto(cart);
     }
 
+    @Override
+    public Optional<Long> findVersion(String externalId) {
+        return cartRepository.findVersionByExternalId(externalId);
+    }
+
     @Transactional
     @Override
+    @FunnelStep(CheckoutFunnelMetrics.Step.ITEM_ADDED)
     public CartDto addItem(String externalId, String sku, int qty) {
         if (qty <= 0) {
             throw new IllegalArgumentException("Quantity must be greater than zero");
@@ -58,16 +75,16 @@ public class CartServiceImpl implements CartService {
 
         if (cart.getStatus() != CartStatus.NEW) throw new IllegalStateException("Cart is not editable");
 
-        Product product = productRepository.findBySku(sku)
+        ProductSnapshot product = productCache.get(sku)
                 .orElseThrow(() -> new NoSuchElementException("Product not found"));
 
-        if (Boolean.FALSE.equals(product.getIsActive())) {
-            throw new InactiveProductException("Product is inactive: " + product.getSku());
+        if (Boolean.FALSE.equals(product.isActive())) {
+            throw new InactiveProductException(product.sku(), "Product is inactive: " + product.sku());
         }
 
         if (cart.getCurrency() == null) {
-            cart.setCurrency(product.getCurrency());
-        } else if (product.getCurrency() != cart.getCurrency()) {
+            cart.setCurrency(product.currency());
+        } else if (product.currency() != cart.getCurrency()) {
             throw new IllegalArgumentException("Product currency does not match cart currency");
         }
 
@@ -78,18 +95,19 @@ public class CartServiceImpl implements CartService {
         if (existing.isPresent()) {
             CartItem item = existing.get();
             item.setQuantity(item.getQuantity() + qty);
-            item.setUnitPrice(product.getPrice().setScale(2, RoundingMode.HALF_UP)); // snapshot current unit price on update
+            item.setUnitPrice(product.price().setScale(2, RoundingMode.HALF_UP)); // snapshot current unit price on update
             item.computeLineTotal();
         } else {
             CartItem item = new CartItem();
-            item.setProductSku(product.getSku());
-            item.setProductName(product.getName());
+            item.setProductSku(product.sku());
+            item.setProductName(product.name());
             item.setQuantity(qty);
-            item.setUnitPrice(product.getPrice().setScale(2, RoundingMode.HALF_UP));
+            item.setUnitPrice(product.price().setScale(2, RoundingMode.HALF_UP));
             item.computeLineTotal();
 
             cart.addItem(item);
         }
+        cart.touch();
         return CartMapper.toDto(cartRepository.save(cart));
     }
 
@@ -115,19 +133,20 @@ public class CartServiceImpl implements CartService {
         if (qty == 0) {
             cart.removeItem(item);
         } else {
-            Product product = productRepository.findBySku(sku)
+            ProductSnapshot product = productCache.get(sku)
                     .orElseThrow(() -> new NoSuchElementException("Product not found"));
 
-            if (Boolean.FALSE.equals(product.getIsActive())) {
-                throw new InactiveProductException("Product is inactive: " + product.getSku());
+            if (Boolean.FALSE.equals(product.isActive())) {
+                throw new InactiveProductException(product.sku(), "Product is inactive: " + product.sku());
             }
             // Keep latest snapshot price/name
             item.setQuantity(qty);
-            item.setUnitPrice(product.getPrice().setScale(2, RoundingMode.HALF_UP));
-            item.setProductName(product.getName());
+            item.setUnitPrice(product.price().setScale(2, RoundingMode.HALF_UP));
+            item.setProductName(product.name());
             item.computeLineTotal();
         }
 
+        cart.touch();
         Cart saved = cartRepository.save(cart);
         return CartMapper.toDto(saved);
 
@@ -149,10 +168,95 @@ public class CartServiceImpl implements CartService {
                 .findFirst()
                 .ifPresent(cart::removeItem);
 
+        cart.touch();
         Cart saved = cartRepository.save(cart);
         return CartMapper.toDto(saved);
     }
 
+    /**
+     * One cart load, one product lookup for all SKUs and one save, however many lines change.
+     * A failing operation rolls back the whole request; its message says which one failed.
+     */
+    @Transactional
+    @Override
+    public CartDto applyItemOperations(String externalId, List<CartItemOperationDto> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("operations must not be empty");
+        }
+
+        Cart cart = cartRepository.findByExternalId(externalId)
+                .orElseThrow(() -> new NoSuchElementException("Cart not found"));
+
+        if (cart.getStatus() != CartStatus.NEW) throw new IllegalStateException("Cart is not editable");
+
+        Set<String> skus = operations.stream()
+                .filter(op -> op.getOp() != CartItemOperationType.REMOVE)
+                .map(CartItemOperationDto::getSku)
+                .collect(Collectors.toSet());
+        Map<String, ProductSnapshot> products = skus.isEmpty() ? Map.of() : productCache.getAll(skus);
+
+        Map<String, CartItem> lines = new HashMap<>();
+        for (CartItem item : cart.getItems()) {
+            lines.put(item.getProductSku(), item);
+        }
+        // Removals are applied at the end so a line removed and added back keeps its row:
+        // Hibernate flushes inserts before deletes, which would trip uk_cart_items_cart_sku
+        Set<String> removed = new HashSet<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            CartItemOperationDto op = operations.get(i);
+            String where = "operations[" + i + "]: ";
+            if (op.getOp() == null || op.getSku() == null || op.getSku().isEmpty()) {
+                throw new IllegalArgumentException(where + "op and sku are required");
+            }
+
+            if (op.getOp() == CartItemOperationType.REMOVE) {
+                if (lines.containsKey(op.getSku())) {
+                    removed.add(op.getSku());
+                }
+                continue;
+            }
+
+            if (op.getQty() == null || op.getQty() <= 0) {
+                throw new IllegalArgumentException(where + "Quantity must be greater than zero");
+            }
+            ProductSnapshot product = products.get(op.getSku());
+            if (product == null) {
+                throw new NoSuchElementException(where + "Product not found: " + op.getSku());
+            }
+            if (Boolean.FALSE.equals(product.isActive())) {
+                throw new InactiveProductException(product.sku(), where + "Product is inactive: " + product.sku());
+            }
+            if (cart.getCurrency() == null) {
+                cart.setCurrency(product.currency());
+            } else if (product.currency() != cart.getCurrency()) {
+                throw new IllegalArgumentException(where + "Product currency does not match cart currency");
+            }
+
+            CartItem item = lines.get(op.getSku());
+            if (removed.remove(op.getSku())) {
+                item.setQuantity(0);
+            }
+            if (item == null) {
+                item = new CartItem();
+                item.setProductSku(product.sku());
+                item.setQuantity(0);
+                cart.addItem(item);
+                lines.put(product.sku(), item);
+            }
+            item.setQuantity(op.getOp() == CartItemOperationType.ADD ? item.getQuantity() + op.getQty() : op.getQty());
+            item.setProductName(product.name());
+            item.setUnitPrice(product.price().setScale(2, RoundingMode.HALF_UP));
+            item.computeLineTotal();
+        }
+        for (String sku : removed) {
+            cart.removeItem(lines.get(sku));
+        }
+
+        cart.touch();
+        return CartMapper.toDto(cartRepository.save(cart));
+    }
+
     @Override
     public CartDto clearCart(String externalId) {
         Cart cart = cartRepository.findByExternalId(externalId)
@@ -161,6 +265,7 @@ public class CartServiceImpl implements CartService {
         if (cart.getStatus() != CartStatus.NEW) throw new IllegalStateException("Cart is not editable");
 
         cart.clearItems();
+        cart.touch();
         Cart saved = cartRepository.save(cart);
         return CartMapper.toDto(saved);
     }
@@ -10,6 +10,8 @@ import com.waalterGar.projects.ecommerce.repository.OrderRepository;
 import com.waalterGar.projects.ecommerce.repository.ProductRepository;
 import com.waalterGar.projects.ecommerce.service.CheckoutService;
 import com.waalterGar.projects.ecommerce.service.OrderService;
+import com.waalterGar.projects.ecommerce.service.metrics.CheckoutFunnelMetrics;
+import com.waalterGar.projects.ecommerce.service.metrics.FunnelStep;
 import com.waalterGar.projects.ecommerce.utils.CartStatus;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +31,7 @@ public class CheckoutServiceImpl implements CheckoutService {
 
     @Override
     @Transactional
+    @FunnelStep(CheckoutFunnelMetrics.Step.CHECKOUT)
     public OrderDto checkout(String cartExternalId, String customerExternalId) {
         if (cartExternalId == null || cartExternalId.isBlank()) {
             throw new IllegalArgumentException("cartExternalId is required");
@@ -3,26 +3,37 @@ package com.waalterGar.projects.ecommerce.service.Implementation;
 import com.waalterGar.projects.ecommerce.Dto.CreateCustomerDto;
 import com.waalterGar.projects.ecommerce.Dto.CustomerDto;
 import com.waalterGar.projects.ecommerce.Dto.UpdateCustomerDto;
+import com.waalterGar.projects.ecommerce.api.pagination.CursorRequest;
+import com.waalterGar.projects.ecommerce.api.pagination.KeysetPager;
 import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
 import com.waalterGar.projects.ecommerce.entity.Customer;
 import com.waalterGar.projects.ecommerce.mapper.CustomerMapper;
 import com.waalterGar.projects.ecommerce.repository.CustomerRepository;
 import com.waalterGar.projects.ecommerce.service.CustomerService;
+import com.waalterGar.projects.ecommerce.service.cache.CountEstimates;
+import com.waalterGar.projects.ecommerce.service.export.ChunkedExporter;
+import com.waalterGar.projects.ecommerce.service.search.CustomerSearchQuery;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
 public class CustomerServiceImpl implements CustomerService {
     private final CustomerRepository customerRepository;
+    private final CountEstimates countEstimates;
+    private final ChunkedExporter chunkedExporter;
 
     @Override
     public List<CustomerDto> getAllCustomers() {
@@ -30,6 +41,13 @@ public class CustomerServiceImpl implements CustomerService {
         return customers.stream().map(customer -> CustomerMapper.toDto(customer)).collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAllCustomers(Consumer<CustomerDto> sink) {
+        chunkedExporter.export(customerRepository.streamAllBy(),
+                chunk -> chunk.stream().map(CustomerMapper::toDto).toList(), sink);
+    }
+
     @Override
     public CustomerDto getCustomerByExternalId(String externalId) {
         Customer customer = customerRepository.findByExternalId(externalId)
@@ -79,12 +97,40 @@ public class CustomerServiceImpl implements CustomerService {
         if (email != null && !email.isBlank()) {
             page = customerRepository.findByEmailContainingIgnoreCase(email.trim(), pageable);
         } else if (q != null && !q.isBlank()) {
-            String like = q.trim();
-            page = customerRepository.findByEmailContainingIgnoreCaseOrLastNameContainingIgnoreCaseOrFirstNameContainingIgnoreCase(
-                    like, like, like, pageable);
+            page = CustomerSearchQuery.from(q)
+                    .map(query -> customerRepository.search(query, pageable))
+                    .orElseGet(() -> Page.empty(pageable));
         } else {
             page = customerRepository.findAll(pageable);
         }
         return PageEnvelope.of(page.map(CustomerMapper::toDto));
     }
+
+    @Override
+    public PageEnvelope<CustomerDto> listWithoutTotal(String email, String q, Pageable pageable) {
+        Slice<Customer> slice;
+        Long estimate = null;
+        if (email != null && !email.isBlank()) {
+            slice = customerRepository.findSliceByEmailContainingIgnoreCase(email.trim(), pageable);
+        } else if (q != null && !q.isBlank()) {
+            slice = CustomerSearchQuery.from(q)
+                    .<Slice<Customer>>map(query -> customerRepository.searchSlice(query, pageable))
+                    .orElseGet(() -> new SliceImpl<>(List.of(), pageable, false));
+        } else {
+            slice = customerRepository.findSliceBy(pageable);
+            // The estimate is for the whole table, so it is only meaningful unfiltered
+            estimate = countEstimates.get(CountEstimates.CUSTOMERS);
+        }
+        return PageEnvelope.of(slice.map(CustomerMapper::toDto), estimate);
+    }
+
+    @Override
+    public PageEnvelope<CustomerDto> listAfter(String email, CursorRequest request) {
+        Specification<Customer> filter = null;
+        if (email != null && !email.isBlank()) {
+            String like = "%" + email.trim().toLowerCase() + "%";
+            filter = (root, query, cb) -> cb.like(cb.lower(root.get("email")), like);
+        }
+        return KeysetPager.fetch(customerRepository, filter, request, CustomerMapper::toDto);
+    }
 }
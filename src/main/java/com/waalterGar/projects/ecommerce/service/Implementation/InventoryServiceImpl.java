@@ -0,0 +1,159 @@
+package com.waalterGar.projects.ecommerce.service.Implementation;
+
+import com.waalterGar.projects.ecommerce.config.InventoryProperties;
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.InventoryService;
+import com.waalterGar.projects.ecommerce.service.exception.InsufficientStockException;
+import com.waalterGar.projects.ecommerce.service.inventory.InventoryLedger;
+import com.waalterGar.projects.ecommerce.utils.InventoryStrategy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+@Transactional
+@RequiredArgsConstructor
+@Service
+public class InventoryServiceImpl implements InventoryService {
+    private final ProductRepository productRepository;
+    private final InventoryProperties inventoryProperties;
+    private final InventoryLedger inventoryLedger;
+
+    /**
+     * Loads all products keyed by SKU. Rows are locked only for the pessimistic strategy,
+     * and never for ledger SKUs, whose stock is not taken from the row.
+     */
+    @Override
+    public Map<String, Product> loadProducts(Collection<String> skus) {
+        Set<String> ledgerSkus = new TreeSet<>();
+        Set<String> rowSkus = new TreeSet<>();
+        for (String sku : skus) {
+            (inventoryLedger.isManaged(sku) ? ledgerSkus : rowSkus).add(sku);
+        }
+
+        Map<String, Product> bySku = new HashMap<>();
+        if (!rowSkus.isEmpty()) {
+            List<Product> products = strategy() == InventoryStrategy.PESSIMISTIC
+                    ? productRepository.findAllBySkuInForUpdate(rowSkus)
+                    : productRepository.findAllBySkuIn(rowSkus);
+            products.forEach(product -> bySku.put(product.getSku(), product));
+        }
+        if (!ledgerSkus.isEmpty()) {
+            productRepository.findAllBySkuIn(ledgerSkus).forEach(product -> bySku.put(product.getSku(), product));
+        }
+        return bySku;
+    }
+
+    /** Stock the caller may plan with: the ledger for flagged SKUs (the row lags behind it), else the row. */
+    @Override
+    public int availableStock(Product product) {
+        return inventoryLedger.isManaged(product.getSku())
+                ? Math.toIntExact(inventoryLedger.available(product.getSku()))
+                : product.getStockQuantity();
+    }
+
+    @Override
+    public void reserve(Map<String, Product> products, Map<String, Integer> quantities) {
+        // SKU order keeps row locks (FOR UPDATE or UPDATE) in the same sequence across transactions
+        Map<String, Integer> ordered = new TreeMap<>(quantities);
+        reserveFromLedger(ordered);
+
+        if (strategy() == InventoryStrategy.ATOMIC) {
+            // The loaded entities are left untouched: dirtying them would trigger a second, version-checked UPDATE
+            ordered.forEach((sku, quantity) -> {
+                if (productRepository.decrementStockIfAvailable(sku, quantity) == 0) {
+                    throw new InsufficientStockException(sku,
+                            "Insufficient stock for SKU " + sku + " (requested " + quantity + ")");
+                }
+            });
+            return;
+        }
+
+        ordered.forEach((sku, quantity) -> {
+            Product product = products.get(sku);
+            if (product == null) {
+                throw new NoSuchElementException("Product not found: " + sku);
+            }
+            int availableStock = product.getStockQuantity();
+            if (quantity > availableStock) {
+                throw new InsufficientStockException(sku,
+                        "Insufficient stock for SKU " + sku +
+                        " (requested " + quantity +
+                        ", available " + availableStock + ")");
+            }
+            product.setStockQuantity(availableStock - quantity);
+        });
+    }
+
+    @Override
+    public void release(Map<String, Integer> quantities) {
+        Map<String, Integer> ordered = new TreeMap<>(quantities);
+        ordered.keySet().removeIf(sku -> {
+            if (!inventoryLedger.isManaged(sku)) {
+                return false;
+            }
+            inventoryLedger.release(sku, ordered.get(sku));
+            return true;
+        });
+        if (ordered.isEmpty()) {
+            return;
+        }
+
+        if (strategy() == InventoryStrategy.ATOMIC) {
+            ordered.forEach((sku, quantity) -> {
+                if (productRepository.incrementStock(sku, quantity) == 0) {
+                    throw new NoSuchElementException("Product not found: " + sku);
+                }
+            });
+            return;
+        }
+
+        Map<String, Product> products = loadProducts(ordered.keySet());
+        ordered.forEach((sku, quantity) -> {
+            Product product = products.get(sku);
+            if (product == null) {
+                throw new NoSuchElementException("Product not found: " + sku);
+            }
+            product.setStockQuantity(product.getStockQuantity() + quantity);
+        });
+    }
+
+    @Override
+    public void lockRows(Collection<String> skus) {
+        Set<String> rowSkus = new TreeSet<>(skus);
+        rowSkus.removeIf(inventoryLedger::isManaged);
+        if (!rowSkus.isEmpty()) {
+            productRepository.findAllBySkuInForUpdate(rowSkus);
+        }
+    }
+
+    /** Reserves ledger SKUs in memory and removes them from {@code quantities}; a rollback gives the stock back. */
+    private void reserveFromLedger(Map<String, Integer> quantities) {
+        quantities.keySet().removeIf(sku -> {
+            if (!inventoryLedger.isManaged(sku)) {
+                return false;
+            }
+            int quantity = quantities.get(sku);
+            if (!inventoryLedger.tryReserve(sku, quantity)) {
+                throw new InsufficientStockException(sku,
+                        "Insufficient stock for SKU " + sku +
+                        " (requested " + quantity +
+                        ", available " + inventoryLedger.available(sku) + ")");
+            }
+            return true;
+        });
+    }
+
+    private InventoryStrategy strategy() {
+        return inventoryProperties.strategy();
+    }
+}
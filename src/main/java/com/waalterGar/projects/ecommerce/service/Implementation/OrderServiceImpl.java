@@ -1,6 +1,8 @@
 package com.waalterGar.projects.ecommerce.service.Implementation;
 
 import com.waalterGar.projects.ecommerce.Dto.*;
+import com.waalterGar.projects.ecommerce.api.pagination.CursorRequest;
+import com.waalterGar.projects.ecommerce.api.pagination.KeysetPager;
 import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
 import com.waalterGar.projects.ecommerce.entity.*;
 import com.waalterGar.projects.ecommerce.mapper.OrderMapper;
@@ -8,23 +10,36 @@ import com.waalterGar.projects.ecommerce.mapper.ProductMapper;
 import com.waalterGar.projects.ecommerce.repository.CustomerRepository;
 import com.waalterGar.projects.ecommerce.repository.OrderRepository;
 import com.waalterGar.projects.ecommerce.repository.PaymentRepository;
-import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.InventoryService;
 import com.waalterGar.projects.ecommerce.service.OrderService;
+import com.waalterGar.projects.ecommerce.service.cache.CountEstimates;
 import com.waalterGar.projects.ecommerce.service.exception.InactiveProductException;
+import com.waalterGar.projects.ecommerce.service.export.ChunkedExporter;
 import com.waalterGar.projects.ecommerce.service.exception.InsufficientStockException;
+import com.waalterGar.projects.ecommerce.service.metrics.CheckoutFunnelMetrics;
+import com.waalterGar.projects.ecommerce.service.metrics.FunnelStep;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import com.waalterGar.projects.ecommerce.utils.OrderStatus;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static java.math.RoundingMode.HALF_UP;
 
@@ -34,8 +49,10 @@ import static java.math.RoundingMode.HALF_UP;
 public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final CustomerRepository customerRepository;
-    private final ProductRepository productRepository;
     private final PaymentRepository paymentRepository;
+    private final InventoryService inventoryService;
+    private final CountEstimates countEstimates;
+    private final ChunkedExporter chunkedExporter;
 
     @Transactional
     @Override
@@ -52,19 +69,25 @@ public class OrderServiceImpl implements OrderService {
         BigDecimal totalAmount = BigDecimal.ZERO;
         Currency orderCurrency = null;
 
+        Map<String, Integer> quantities = requestedQuantities(orderDto.getItems());
+        Map<String, Product> products = inventoryService.loadProducts(quantities.keySet());
+        Map<String, Integer> remainingStock = new HashMap<>();
+
         for (createOrderItemDto itm : orderDto.getItems()) {
-            Product product = productRepository.findBySku(itm.getProductSku())
-                    .orElseThrow(() -> new NoSuchElementException("Product not found: " + itm.getProductSku()));
+            Product product = products.get(itm.getProductSku());
+            if (product == null) {
+                throw new NoSuchElementException("Product not found: " + itm.getProductSku());
+            }
 
             if (Boolean.FALSE.equals(product.getIsActive())) {
-                throw new InactiveProductException("Product is inactive: " + product.getSku());
+                throw new InactiveProductException(product.getSku(), "Product is inactive: " + product.getSku());
             }
 
             int requestedQuantity = itm.getQuantity();
-            int availableStock = product.getStockQuantity();
+            int availableStock = remainingStock.getOrDefault(product.getSku(), inventoryService.availableStock(product));
 
             if (requestedQuantity > availableStock) {
-                throw new InsufficientStockException(
+                throw new InsufficientStockException(product.getSku(),
                         "Insufficient stock for SKU " + product.getSku() +
                         " (requested " + requestedQuantity +
                         ", available " + availableStock + ")");
@@ -77,7 +100,7 @@ public class OrderServiceImpl implements OrderService {
                 throw new IllegalArgumentException("Currency mismatch for SKU " + product.getSku());
             }
 
-            product.setStockQuantity(availableStock - requestedQuantity);
+            remainingStock.put(product.getSku(), availableStock - requestedQuantity);
 
             OrderItem item = new OrderItem();
             item.setProductSku(product.getSku());
@@ -91,6 +114,9 @@ public class OrderServiceImpl implements OrderService {
             totalAmount = totalAmount.add(item.getLineTotal());
         }
 
+        // One stock UPDATE per distinct SKU; the checks above only fail fast on what was read
+        inventoryService.reserve(products, quantities);
+
         order.setTotalAmount(totalAmount.setScale(2, HALF_UP));
         return OrderMapper.toDto(orderRepository.save(order));
     }
@@ -102,8 +128,43 @@ public class OrderServiceImpl implements OrderService {
         return OrderMapper.toDto(order);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public OrderLookupDto getOrdersByExternalIds(List<String> externalIds) {
+        // Trimmed, blank ids dropped, duplicates collapsed, request order kept
+        Set<String> requested = new LinkedHashSet<>();
+        if (externalIds != null) {
+            for (String id : externalIds) {
+                if (id != null && !id.isBlank()) {
+                    requested.add(id.trim());
+                }
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("ids must not be empty");
+        }
+
+        Map<String, Order> byExternalId = new HashMap<>();
+        for (Order order : orderRepository.findAllByExternalIdIn(requested)) {
+            byExternalId.put(order.getExternalId(), order);
+        }
+
+        List<OrderDto> orders = new ArrayList<>(byExternalId.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : requested) {
+            Order order = byExternalId.get(id);
+            if (order == null) {
+                missing.add(id);
+            } else {
+                orders.add(OrderMapper.toDto(order));
+            }
+        }
+        return new OrderLookupDto(orders, missing);
+    }
+
     @Transactional
     @Override
+    @FunnelStep(CheckoutFunnelMetrics.Step.PAYMENT)
     public OrderDto pay(String externalId, PayOrderRequestDto dto) {
         if (externalId == null || externalId.isBlank()) {
             throw new IllegalArgumentException("Invalid externalId");
@@ -174,6 +235,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @FunnelStep(CheckoutFunnelMetrics.Step.CANCEL)
     public OrderDto cancelOrder(String externalId) {
         if (externalId == null || externalId.isBlank()) {
             throw new IllegalArgumentException("Invalid externalId");
@@ -189,12 +251,13 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("Only orders in CREATED status can be canceled");
         }
 
-        for(OrderItem item : order.getItems()) {
-            Product product = productRepository.findBySku(item.getProductSku())
-                    .orElseThrow(() -> new NoSuchElementException("Product not found: " + item.getProductSku()));
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
+        Map<String, Integer> restock = new TreeMap<>();
+        for (OrderItem item : order.getItems()) {
+            restock.merge(item.getProductSku(), item.getQuantity(), Integer::sum);
         }
 
+        inventoryService.release(restock);
+
         order.setStatus(OrderStatus.CANCELED);
         order.setCanceledAt(LocalDateTime.now());
 
@@ -203,9 +266,23 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public PageEnvelope<OrderDto> list(Pageable pageable) {
-        Page<Order> page = orderRepository.findAll(pageable);
-        Page<OrderDto> dtoPage = page.map(OrderMapper::toDto);
-        return PageEnvelope.of(dtoPage);
+        Page<UUID> ids = orderRepository.findIdsBy(pageable);
+        return PageEnvelope.of(ids.map(hydrate(ids.getContent())::get));
+    }
+
+    @Override
+    public PageEnvelope<OrderDto> listWithoutTotal(Pageable pageable) {
+        Slice<UUID> ids = orderRepository.findIdSliceBy(pageable);
+        Slice<OrderDto> slice = ids.map(hydrate(ids.getContent())::get);
+        return PageEnvelope.of(slice, countEstimates.get(CountEstimates.ORDERS));
+    }
+
+    @Override
+    public PageEnvelope<OrderDto> listAfter(CursorRequest request) {
+        return KeysetPager.fetchPage(orderRepository, null, request, page -> {
+            List<UUID> ids = page.stream().map(Order::getId).toList();
+            return ids.stream().map(hydrate(ids)::get).toList();
+        });
     }
 
     @Override
@@ -214,11 +291,12 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("Invalid customerExternalId");
         }
 
-        customerRepository.findByExternalId(customerExternalId)
-                .orElseThrow(() -> new NoSuchElementException("Customer not found"));
-
-        Page<Order> page = orderRepository.findByCustomer_ExternalId(customerExternalId, pageable);
-        return PageEnvelope.of(page.map(OrderMapper::toDto));
+        Page<UUID> ids = orderRepository.findIdsByCustomerExternalId(customerExternalId, pageable);
+        // The customer is only looked up to tell "no orders here" from "no such customer"
+        if (ids.isEmpty() && !customerRepository.existsByExternalId(customerExternalId)) {
+            throw new NoSuchElementException("Customer not found");
+        }
+        return PageEnvelope.of(ids.map(hydrate(ids.getContent())::get));
     }
 
     @Override
@@ -230,4 +308,36 @@ public class OrderServiceImpl implements OrderService {
                 .toList();
 
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAllOrders(Consumer<OrderDto> sink) {
+        chunkedExporter.<UUID, OrderDto>exportByKey(
+                after -> orderRepository.findIdsAfter(after, Limit.of(ChunkedExporter.CHUNK_SIZE)),
+                ids -> ids.stream().map(hydrate(ids)::get).toList(), sink);
+    }
+
+    /**
+     * Second phase of id paging: loads the orders for one page of ids with a single
+     * entity-graph query and maps them, keyed by id so callers keep the page's sort order.
+     */
+    private Map<UUID, OrderDto> hydrate(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, OrderDto> byId = new HashMap<>();
+        for (Order order : orderRepository.findAllWithItemsAndCustomerByIdIn(ids)) {
+            byId.put(order.getId(), OrderMapper.toDto(order));
+        }
+        return byId;
+    }
+
+    /** Total quantity per SKU, sorted by SKU so locks are always taken in the same order. */
+    private static Map<String, Integer> requestedQuantities(List<createOrderItemDto> items) {
+        Map<String, Integer> quantities = new TreeMap<>();
+        for (createOrderItemDto itm : items) {
+            quantities.merge(itm.getProductSku(), itm.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
 }
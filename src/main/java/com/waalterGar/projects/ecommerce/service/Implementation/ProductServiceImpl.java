@@ -2,15 +2,29 @@ package com.waalterGar.projects.ecommerce.service.Implementation;
 
 import com.waalterGar.projects.ecommerce.Dto.ActivationProductDto;
 import com.waalterGar.projects.ecommerce.Dto.ProductDto;
+import com.waalterGar.projects.ecommerce.Dto.ProductSearchResultDto;
 import com.waalterGar.projects.ecommerce.Dto.UpdateProductDto;
+import com.waalterGar.projects.ecommerce.api.pagination.CursorRequest;
+import com.waalterGar.projects.ecommerce.api.pagination.KeysetPager;
 import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
 import com.waalterGar.projects.ecommerce.entity.Product;
 import com.waalterGar.projects.ecommerce.mapper.ProductMapper;
 import com.waalterGar.projects.ecommerce.repository.ProductRepository;
 import com.waalterGar.projects.ecommerce.service.ProductService;
+import com.waalterGar.projects.ecommerce.service.cache.CountEstimates;
+import com.waalterGar.projects.ecommerce.service.cache.ProductCache;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import com.waalterGar.projects.ecommerce.service.exception.PreconditionFailedException;
+import com.waalterGar.projects.ecommerce.service.export.ChunkedExporter;
+import com.waalterGar.projects.ecommerce.service.search.ProductSearchCriteria;
+import com.waalterGar.projects.ecommerce.service.search.ProductSearchIndex;
 import com.waalterGar.projects.ecommerce.utils.Currency;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -21,12 +35,18 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
 public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCache productCache;
+    private final CountEstimates countEstimates;
+    private final ChunkedExporter chunkedExporter;
+    private final ProductSearchIndex productSearchIndex;
 
     @Override
     public List<ProductDto> getAllProducts() {
@@ -34,6 +54,13 @@ public class ProductServiceImpl implements ProductService {
        return products.stream().map((product) -> ProductMapper.toDto(product)).collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAllProducts(Consumer<ProductDto> sink) {
+        chunkedExporter.export(productRepository.streamAllBy(),
+                chunk -> chunk.stream().map(ProductMapper::toDto).toList(), sink);
+    }
+
     @Override
     public PageEnvelope<ProductDto> list(Pageable pageable) {
         Page<Product> page = productRepository.findAll(pageable);
@@ -41,23 +68,55 @@ public class ProductServiceImpl implements ProductService {
         return PageEnvelope.of(dtoPage);
     }
 
+    @Override
+    public PageEnvelope<ProductDto> listWithoutTotal(Pageable pageable) {
+        Slice<ProductDto> slice = productRepository.findSliceBy(pageable).map(ProductMapper::toDto);
+        return PageEnvelope.of(slice, countEstimates.get(CountEstimates.PRODUCTS));
+    }
+
+    @Override
+    public PageEnvelope<ProductDto> listAfter(CursorRequest request) {
+        return KeysetPager.fetch(productRepository, null, request, ProductMapper::toDto);
+    }
+
+    @Override
+    public ProductSearchResultDto search(ProductSearchCriteria criteria, int page, int size) {
+        ProductSearchIndex.Result result = productSearchIndex.search(criteria, page, size);
+        List<ProductDto> items = result.items().stream().map(ProductMapper::toDto).toList();
+        PageEnvelope<ProductDto> results = PageEnvelope.of(new PageImpl<>(items, PageRequest.of(page, size), result.total()));
+        return new ProductSearchResultDto(results, result.currencies(), result.active());
+    }
+
     @Override
     public ProductDto createProduct(ProductDto productDto) {
         Product product = ProductMapper.toEntity(productDto);
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(savedProduct.getSku()));
         return ProductMapper.toDto(savedProduct);
     }
 
     @Override
     public ProductDto getProductBySku(String sku) {
-        Product product = productRepository.findBySku(sku)
+        return productCache.get(sku)
+                .map(ProductMapper::toDto)
+                .orElseThrow(() -> new NoSuchElementException("Product not found"));
+    }
+
+    @Override
+    public ProductDto getProductBySku(String sku, long minVersion) {
+        return productCache.get(sku, minVersion)
+                .map(ProductMapper::toDto)
                 .orElseThrow(() -> new NoSuchElementException("Product not found"));
-        return ProductMapper.toDto(product);
+    }
+
+    @Override
+    public Optional<Long> findVersion(String sku) {
+        return productRepository.findVersionBySku(sku).map(Integer::longValue);
     }
 
     @Transactional
     @Override
-    public ProductDto updateProduct(String sku, UpdateProductDto dto) {
+    public ProductDto updateProduct(String sku, UpdateProductDto dto, Long expectedVersion) {
         if (sku == null || sku.isBlank()) {
             throw new IllegalArgumentException("Invalid sku");
         }
@@ -65,12 +124,19 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findBySku(sku)
                 .orElseThrow(() -> new NoSuchElementException("Product not found"));
 
+        // A write racing this check still fails on the @Version column at flush
+        Integer current = product.getVersion();
+        if (expectedVersion != null && (current == null || current.longValue() != expectedVersion)) {
+            throw new PreconditionFailedException("Product " + sku + " has changed since version " + expectedVersion);
+        }
+
         product.setName(dto.getName().trim());
         product.setDescription(dto.getDescription());
         product.setPrice(dto.getPrice().setScale(2, RoundingMode.HALF_UP));
         product.setStockQuantity(dto.getStockQuantity());
         product.setIsActive(dto.getIsActive());
 
+        eventPublisher.publishEvent(ProductsChangedEvent.of(product.getSku()));
         return ProductMapper.toDto(product);
     }
 
@@ -89,6 +155,7 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new NoSuchElementException("Product not found"));
 
         product.setIsActive(dto.getIsActive());
+        eventPublisher.publishEvent(ProductsChangedEvent.of(product.getSku()));
         return ProductMapper.toDto(product);
     }
 }
\ No newline at end of file
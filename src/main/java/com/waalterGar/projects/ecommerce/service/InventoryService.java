@@ -0,0 +1,22 @@
+package com.waalterGar.projects.ecommerce.service;
+
+import com.waalterGar.projects.ecommerce.entity.Product;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface InventoryService {
+    Map<String, Product> loadProducts(Collection<String> skus);
+
+    int availableStock(Product product);
+
+    void reserve(Map<String, Product> products, Map<String, Integer> quantities);
+
+    void release(Map<String, Integer> quantities);
+
+    /**
+     * Locks the product rows of {@code skus} (ledger SKUs excepted) in SKU order until the transaction ends,
+     * for transactions that reserve for several orders and would otherwise lock in one sequence per order.
+     */
+    void lockRows(Collection<String> skus);
+}
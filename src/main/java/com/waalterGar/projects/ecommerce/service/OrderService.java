@@ -2,20 +2,29 @@ package com.waalterGar.projects.ecommerce.service;
 
 
 import com.waalterGar.projects.ecommerce.Dto.OrderDto;
+import com.waalterGar.projects.ecommerce.Dto.OrderLookupDto;
 import com.waalterGar.projects.ecommerce.Dto.PayOrderRequestDto;
 import com.waalterGar.projects.ecommerce.Dto.ProductDto;
 import com.waalterGar.projects.ecommerce.Dto.createOrderDto;
+import com.waalterGar.projects.ecommerce.api.pagination.CursorRequest;
 import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OrderService {
     OrderDto createOrder(createOrderDto orderDto);
     List<OrderDto> getAllOrders();
+    /** Streams every order to {@code sink} chunk by chunk, inside one read-only transaction. */
+    void exportAllOrders(Consumer<OrderDto> sink);
     OrderDto getOrderByExternalId(String orderNumber);
+    /** Loads several orders in one query; ids without an order are listed in {@code missing}. */
+    OrderLookupDto getOrdersByExternalIds(List<String> externalIds);
     OrderDto pay(String externalId, PayOrderRequestDto dto);
     OrderDto cancelOrder(String externalId);
     PageEnvelope<OrderDto> list(Pageable pageable);
+    PageEnvelope<OrderDto> listWithoutTotal(Pageable pageable);
+    PageEnvelope<OrderDto> listAfter(CursorRequest request);
     PageEnvelope<OrderDto> listByCustomer(String customerExternalId, Pageable pageable);
 }
\ No newline at end of file
@@ -2,22 +2,47 @@ package com.waalterGar.projects.ecommerce.service;
 
 import com.waalterGar.projects.ecommerce.Dto.ActivationProductDto;
 import com.waalterGar.projects.ecommerce.Dto.ProductDto;
+import com.waalterGar.projects.ecommerce.Dto.ProductSearchResultDto;
 import com.waalterGar.projects.ecommerce.Dto.UpdateProductDto;
+import com.waalterGar.projects.ecommerce.api.pagination.CursorRequest;
 import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
+import com.waalterGar.projects.ecommerce.service.search.ProductSearchCriteria;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductService {
     List<ProductDto> getAllProducts();
 
+    /** Streams every product to {@code sink} chunk by chunk, inside one read-only transaction. */
+    void exportAllProducts(Consumer<ProductDto> sink);
+
     ProductDto createProduct(ProductDto productDto);
 
     ProductDto getProductBySku(String sku);
 
-    ProductDto updateProduct(String sku, UpdateProductDto dto);
+    /** {@link #getProductBySku(String)}, reloading a cached copy older than {@code minVersion}. */
+    ProductDto getProductBySku(String sku, long minVersion);
+
+    /** Current version of the product, read without loading it; empty when the SKU does not exist. */
+    Optional<Long> findVersion(String sku);
+
+    /**
+     * @param expectedVersion version the caller last saw (from {@code If-Match}), or null to update unconditionally
+     * @throws com.waalterGar.projects.ecommerce.service.exception.PreconditionFailedException the product has changed since
+     */
+    ProductDto updateProduct(String sku, UpdateProductDto dto, Long expectedVersion);
 
     ProductDto setProductActive(String sku, @Valid ActivationProductDto dto);
 
     PageEnvelope<ProductDto> list(Pageable pageable);
+
+    PageEnvelope<ProductDto> listWithoutTotal(Pageable pageable);
+
+    PageEnvelope<ProductDto> listAfter(CursorRequest request);
+
+    /** Served from the in-memory search index; never queries the database. */
+    ProductSearchResultDto search(ProductSearchCriteria criteria, int page, int size);
 }
@@ -0,0 +1,48 @@
+package com.waalterGar.projects.ecommerce.service.cache;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate row counts per resource, so listings that skip {@code COUNT(*)} can still show a total.
+ * Read from InnoDB's table statistics ({@code information_schema.TABLES.TABLE_ROWS}) instead of counting,
+ * so a refresh costs one metadata lookup however large the tables grow. The figure can be off by a few
+ * percent and lags behind until MySQL refreshes its statistics. Null until the first refresh.
+ */
+@Component
+public class CountEstimates {
+    public static final String PRODUCTS = "products";
+    public static final String ORDERS = "orders";
+    public static final String CUSTOMERS = "customers";
+
+    // Resource names match the table names
+    static final String TABLE_ROWS = """
+            select table_name as name, table_rows as estimate
+            from information_schema.tables
+            where table_schema = database() and table_name in ('products', 'orders', 'customers')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Long> estimates = new ConcurrentHashMap<>();
+
+    public CountEstimates(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Long get(String resource) {
+        return estimates.get(resource);
+    }
+
+    @Scheduled(fixedDelayString = "${pagination.count-refresh-interval:PT1M}")
+    public void refresh() {
+        for (Map<String, Object> row : jdbcTemplate.queryForList(TABLE_ROWS)) {
+            if (row.get("estimate") instanceof Number estimate) {
+                estimates.put(((String) row.get("name")).toLowerCase(), estimate.longValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.waalterGar.projects.ecommerce.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.waalterGar.projects.ecommerce.config.ProductCacheProperties;
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of {@link ProductSnapshot}s keyed by SKU, bounded by size and TTL.
+ * Hit/miss/eviction counts are published as {@code cache.*} metrics tagged {@code cache=products}.
+ */
+@Component
+public class ProductCache {
+    private final ProductRepository productRepository;
+    private final Cache<String, ProductSnapshot> cache;
+
+    public ProductCache(ProductRepository productRepository, ProductCacheProperties properties, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    /** Missing SKUs are not cached, so a product created later is visible on the next read. */
+    public Optional<ProductSnapshot> get(String sku) {
+        return Optional.ofNullable(cache.get(sku, key -> productRepository.findBySku(key)
+                .map(ProductSnapshot::of)
+                .orElse(null)));
+    }
+
+    /**
+     * Like {@link #get(String)}, but a cached snapshot older than {@code minVersion} (a version just read
+     * from the row) is reloaded first, so a response never carries an older version than the caller saw.
+     */
+    public Optional<ProductSnapshot> get(String sku, long minVersion) {
+        Optional<ProductSnapshot> cached = get(sku);
+        if (cached.isEmpty() || (cached.get().version() != null && cached.get().version() >= minVersion)) {
+            return cached;
+        }
+        Optional<ProductSnapshot> fresh = productRepository.findBySku(sku).map(ProductSnapshot::of);
+        fresh.ifPresentOrElse(this::put, () -> cache.invalidate(sku));
+        return fresh;
+    }
+
+    /**
+     * Snapshots for every SKU in {@code skus} that exists; the ones not cached yet are loaded with
+     * a single {@code findAllBySkuIn}. Missing SKUs are left out of the result and not cached.
+     */
+    public Map<String, ProductSnapshot> getAll(Collection<String> skus) {
+        return cache.getAll(skus, missing -> productRepository.findAllBySkuIn(Set.copyOf(missing)).stream()
+                .map(ProductSnapshot::of)
+                .collect(Collectors.toMap(ProductSnapshot::sku, Function.identity())));
+    }
+
+    /**
+     * Replaces cached entries with what was just committed. A snapshot only replaces one with
+     * an older or equal {@code version}, so a slow reader can never put back a stale copy.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        Set<String> missing = new HashSet<>(event.skus());
+        for (Product product : productRepository.findAllBySkuIn(event.skus())) {
+            put(ProductSnapshot.of(product));
+            missing.remove(product.getSku());
+        }
+        cache.invalidateAll(missing);
+    }
+
+    void put(ProductSnapshot snapshot) {
+        cache.asMap().merge(snapshot.sku(), snapshot,
+                (cached, fresh) -> fresh.isNewerThanOrSameAs(cached) ? fresh : cached);
+    }
+}
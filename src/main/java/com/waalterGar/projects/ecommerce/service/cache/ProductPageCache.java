@@ -0,0 +1,122 @@
+package com.waalterGar.projects.ecommerce.service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.waalterGar.projects.ecommerce.config.ProductPageCacheProperties;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Product list responses ({@code GET /products}, {@code GET /products/all}) kept as serialized JSON,
+ * plus a gzipped copy when the body is at least {@code gzip-min-bytes}, so repeated reads skip the
+ * query, the mapper and Jackson, and compression happens once per page instead of once per request.
+ * <p>
+ * Entries are keyed by page, size, sort and a catalog version that moves after every committed
+ * {@link ProductsChangedEvent}, so a page loaded before a change is never served after it. Stock
+ * taken by checkouts does not publish that event; {@code ttl} bounds how stale it can be on these pages.
+ * Weighted by bytes up to {@code max-bytes}; metrics are the {@code cache.*} meters tagged {@code cache=product-pages}.
+ */
+@Component
+public class ProductPageCache {
+    private final ObjectMapper objectMapper;
+    private final ProductPageCacheProperties properties;
+    private final Cache<VersionedKey, SerializedPage> cache;
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    /** What was asked for: {@code view} is the endpoint, the rest the normalized paging. */
+    public record Key(String view, int page, int size, String sort, boolean withTotal) {
+        public static Key all() {
+            return new Key("all", 0, 0, "", true);
+        }
+
+        public static Key page(Pageable pageable, boolean withTotal) {
+            return new Key("page", pageable.getPageNumber(), pageable.getPageSize(),
+                    pageable.getSort().toString(), withTotal);
+        }
+    }
+
+    private record VersionedKey(Key key, long catalogVersion) {}
+
+    public ProductPageCache(ObjectMapper objectMapper, ProductPageCacheProperties properties,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.maxBytes())
+                .weigher((VersionedKey key, SerializedPage page) -> page.weight())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        // Absent in web slice tests, which import this cache for ProductController
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "product-pages"));
+    }
+
+    /**
+     * The cached body for {@code key}, or {@code loader}'s result serialized (and cached) on a miss.
+     * Concurrent misses on the same key run {@code loader} once. When disabled, every call loads and
+     * serializes, and compression is left to the server.
+     */
+    public SerializedPage get(Key key, Supplier<?> loader) {
+        if (!properties.enabled()) {
+            return new SerializedPage(toJson(loader.get()), null);
+        }
+        // Read before loading: whatever the loader sees is at least as new as this version
+        VersionedKey versioned = new VersionedKey(key, catalogVersion.get());
+        return cache.get(versioned, k -> serialize(loader.get()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        catalogVersion.incrementAndGet();
+        // Old keys can no longer be hit; drop them now rather than wait for the TTL
+        cache.invalidateAll();
+    }
+
+    private SerializedPage serialize(Object body) {
+        byte[] json = toJson(body);
+        if (json.length < properties.gzipMinBytes()) {
+            return new SerializedPage(json, null);
+        }
+        byte[] gzip = gzip(json);
+        return new SerializedPage(json, gzip.length < json.length ? gzip : null);
+    }
+
+    private byte[] toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Best compression: it is paid once per page, not once per request. */
+    static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,41 @@
+package com.waalterGar.projects.ecommerce.service.cache;
+
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable copy of a product as cached by {@link ProductCache}.
+ * {@code stockQuantity} is for display only and may lag by up to the cache TTL:
+ * reservations always read the row (or the inventory ledger), never this.
+ */
+public record ProductSnapshot(
+        String sku,
+        String name,
+        String description,
+        BigDecimal price,
+        Currency currency,
+        Integer stockQuantity,
+        Boolean isActive,
+        Integer version
+) {
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(
+                product.getSku(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getCurrency(),
+                product.getStockQuantity(),
+                product.getIsActive(),
+                product.getVersion()
+        );
+    }
+
+    public boolean isNewerThanOrSameAs(ProductSnapshot other) {
+        int mine = version == null ? -1 : version;
+        int theirs = other.version == null ? -1 : other.version;
+        return mine >= theirs;
+    }
+}
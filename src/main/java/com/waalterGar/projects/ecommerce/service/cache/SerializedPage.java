@@ -0,0 +1,13 @@
+package com.waalterGar.projects.ecommerce.service.cache;
+
+/**
+ * A response body serialized once: the JSON bytes and, when it was worth compressing, the same bytes
+ * gzipped ({@code null} otherwise). The arrays are shared between requests and must not be modified.
+ */
+public record SerializedPage(byte[] json, byte[] gzip) {
+
+    /** Bytes held in memory, used as the cache weight. */
+    int weight() {
+        return json.length + (gzip == null ? 0 : gzip.length);
+    }
+}
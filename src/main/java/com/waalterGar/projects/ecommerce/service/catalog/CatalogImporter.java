@@ -0,0 +1,287 @@
+package com.waalterGar.projects.ecommerce.service.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.waalterGar.projects.ecommerce.Dto.ProductImportErrorDto;
+import com.waalterGar.projects.ecommerce.Dto.ProductImportResultDto;
+import com.waalterGar.projects.ecommerce.config.ProductImportProperties;
+import com.waalterGar.projects.ecommerce.repository.ProductBulkWriter;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a catalog file (CSV with a header row, or NDJSON) into {@link ProductBulkWriter}.
+ * <p>
+ * Rows are parsed one at a time and upserted in batches of {@code products.import.batch-size}, each batch
+ * in its own transaction, so memory stays flat however large the file is. A row that does not validate is
+ * reported and skipped; if the database rejects a batch it is rolled back and replayed one row per
+ * transaction, so only the offending rows are reported and the rest of the batch still lands. Batches
+ * already committed stay committed if a later one fails.
+ */
+@Slf4j
+@Component
+public class CatalogImporter {
+    static final String ROWS = "products.import.rows";
+    static final String BATCH = "products.import.batch";
+    static final String ACTIVE = "products.import.active";
+    static final Set<String> REQUIRED_COLUMNS = Set.of("sku", "name", "price", "currency", "stockQuantity");
+
+    private final ProductBulkWriter writer;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final ProductImportProperties properties;
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    private final Counter importedRows;
+    private final Counter failedRows;
+    private final Timer batchTimer;
+    private final AtomicInteger active = new AtomicInteger();
+
+    public CatalogImporter(ProductBulkWriter writer,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           ObjectMapper objectMapper,
+                           ProductImportProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.writer = writer;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.importedRows = Counter.builder(ROWS).description("Catalog import rows").tag("result", "imported")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder(ROWS).description("Catalog import rows").tag("result", "failed")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder(BATCH).description("Catalog import batch upserts").register(meterRegistry);
+        Gauge.builder(ACTIVE, active, AtomicInteger::get).description("Catalog imports in progress")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param in CSV whose first line names the columns ({@code sku,name,description,price,currency,stockQuantity,isActive})
+     * @throws IllegalArgumentException the header is missing one of the required columns
+     */
+    public ProductImportResultDto importCsv(InputStream in) {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<Map<String, String>> it = csvMapper.readerForMapOf(String.class)
+                .with(schema)
+                .with(CsvParser.Feature.TRIM_SPACES)
+                .readValues(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            if (!it.hasNextValue()) {
+                return run(sink -> false);
+            }
+            CsvSchema header = ((CsvParser) it.getParser()).getSchema();
+            List<String> missing = REQUIRED_COLUMNS.stream()
+                    .filter(column -> header.column(column) == null)
+                    .sorted()
+                    .toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("CSV header is missing columns: " + String.join(", ", missing));
+            }
+            return run(sink -> {
+                if (!it.hasNext()) {
+                    return false;
+                }
+                try {
+                    sink.accept(it.next(), null);
+                } catch (RuntimeJsonMappingException e) {
+                    sink.accept(null, e.getCause() instanceof JsonProcessingException cause
+                            ? cause.getOriginalMessage() : e.getMessage());
+                }
+                return true;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** @param in one JSON object per line, with the same field names as the CSV columns; blank lines are skipped */
+    public ProductImportResultDto importNdjson(InputStream in) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return run(sink -> {
+                String line;
+                do {
+                    line = readLine(reader);
+                    if (line == null) {
+                        return false;
+                    }
+                } while (line.isBlank());
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    if (!node.isObject()) {
+                        sink.accept(null, "line is not a JSON object");
+                        return true;
+                    }
+                    Map<String, String> fields = new LinkedHashMap<>();
+                    node.properties().forEach(f ->
+                            fields.put(f.getKey(), f.getValue().isNull() ? null : f.getValue().asText()));
+                    sink.accept(fields, null);
+                } catch (JsonProcessingException e) {
+                    sink.accept(null, "malformed JSON: " + e.getOriginalMessage());
+                }
+                return true;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String readLine(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Pulls one record per call; {@code false} at end of input. */
+    @FunctionalInterface
+    interface RowSource {
+        boolean next(RowSink sink);
+    }
+
+    /** Receives either the record's fields or why it could not be read. */
+    @FunctionalInterface
+    interface RowSink {
+        void accept(Map<String, String> fields, String unreadable);
+    }
+
+    private ProductImportResultDto run(RowSource source) {
+        Progress progress = new Progress();
+        List<ProductImportRow> batch = new ArrayList<>(properties.batchSize());
+        active.incrementAndGet();
+        try {
+            RowSink sink = (fields, unreadable) -> {
+                long row = ++progress.rowsRead;
+                if (unreadable != null) {
+                    progress.failed(row, null, unreadable);
+                    return;
+                }
+                try {
+                    batch.add(ProductImportRow.parse(row, fields));
+                } catch (IllegalArgumentException e) {
+                    progress.failed(row, fields.get("sku"), e.getMessage());
+                }
+            };
+            while (source.next(sink)) {
+                if (batch.size() >= properties.batchSize()) {
+                    flush(batch, progress);
+                }
+                if (progress.rowsRead % properties.progressInterval() == 0) {
+                    log.info("Catalog import: {} rows read, {} imported, {} failed ({} rows/s)",
+                            progress.rowsRead, progress.imported, progress.failed, (long) progress.rowsPerSecond());
+                }
+            }
+            flush(batch, progress);
+        } finally {
+            active.decrementAndGet();
+        }
+
+        ProductImportResultDto result = progress.result();
+        log.info("Catalog import finished: {} rows read, {} imported, {} failed in {} ms",
+                result.getRowsRead(), result.getImported(), result.getFailed(), result.getDurationMs());
+        return result;
+    }
+
+    private void flush(List<ProductImportRow> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            batchTimer.record(() -> write(batch));
+            progress.imported(batch.size());
+        } catch (RuntimeException e) {
+            log.debug("Catalog import batch of {} rolled back, retrying row by row", batch.size(), e);
+            for (ProductImportRow row : batch) {
+                try {
+                    write(List.of(row));
+                    progress.imported(1);
+                } catch (RuntimeException rowFailure) {
+                    progress.failed(row.row(), row.sku(), NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private void write(List<ProductImportRow> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            writer.upsert(rows.stream()
+                    .map(r -> new ProductBulkWriter.Upsert(r.sku(), r.name(), r.description(), r.price(),
+                            r.currency(), r.stockQuantity(), r.isActive()))
+                    .toList());
+            // Listeners run after commit: caches drop these SKUs, the inventory ledger reloads their stock
+            eventPublisher.publishEvent(new ProductsChangedEvent(rows.stream()
+                    .map(ProductImportRow::sku)
+                    .collect(Collectors.toSet())));
+        });
+    }
+
+    private final class Progress {
+        final long startedAt = System.nanoTime();
+        final List<ProductImportErrorDto> errors = new ArrayList<>();
+        long rowsRead;
+        long imported;
+        long failed;
+
+        void imported(int rows) {
+            imported += rows;
+            importedRows.increment(rows);
+        }
+
+        void failed(long row, String sku, String message) {
+            failed++;
+            failedRows.increment();
+            if (errors.size() < properties.maxReportedErrors()) {
+                errors.add(new ProductImportErrorDto(row, sku, message));
+            }
+        }
+
+        double rowsPerSecond() {
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            return seconds > 0 ? rowsRead / seconds : 0;
+        }
+
+        ProductImportResultDto result() {
+            ProductImportResultDto dto = new ProductImportResultDto();
+            dto.setRowsRead(rowsRead);
+            dto.setImported(imported);
+            dto.setFailed(failed);
+            // Rows fail out of order when a batch is replayed row by row
+            errors.sort((a, b) -> Long.compare(a.getRow(), b.getRow()));
+            dto.setErrors(errors);
+            dto.setDurationMs((System.nanoTime() - startedAt) / 1_000_000);
+            dto.setRowsPerSecond(Math.round(rowsPerSecond() * 10) / 10.0);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.waalterGar.projects.ecommerce.service.catalog;
+
+import com.waalterGar.projects.ecommerce.utils.Currency;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One validated product line of a catalog import. Field names are the ones of {@code ProductDto}
+ * (CSV header or NDJSON keys); {@code description} and {@code isActive} (default true) are optional.
+ */
+record ProductImportRow(
+        long row,
+        String sku,
+        String name,
+        String description,
+        BigDecimal price,
+        Currency currency,
+        int stockQuantity,
+        boolean isActive
+) {
+    static final int MAX_SKU = 50;
+    static final int MAX_TEXT = 255;
+    /** decimal(10,2) */
+    static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    /** @throws IllegalArgumentException with a message fit for the import report */
+    static ProductImportRow parse(long row, Map<String, String> fields) {
+        String sku = required(fields, "sku");
+        if (sku.length() > MAX_SKU) {
+            throw new IllegalArgumentException("sku longer than " + MAX_SKU + " characters");
+        }
+        String name = required(fields, "name");
+        if (name.length() > MAX_TEXT) {
+            throw new IllegalArgumentException("name longer than " + MAX_TEXT + " characters");
+        }
+        String description = optional(fields, "description");
+        if (description != null && description.length() > MAX_TEXT) {
+            throw new IllegalArgumentException("description longer than " + MAX_TEXT + " characters");
+        }
+
+        BigDecimal price;
+        try {
+            price = new BigDecimal(required(fields, "price")).setScale(2, RoundingMode.HALF_UP);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price is not a number");
+        }
+        if (price.signum() < 0 || price.compareTo(MAX_PRICE) > 0) {
+            throw new IllegalArgumentException("price must be between 0 and " + MAX_PRICE);
+        }
+
+        Currency currency;
+        try {
+            currency = Currency.valueOf(required(fields, "currency").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("currency must be one of EUR, USD");
+        }
+
+        int stock;
+        try {
+            stock = Integer.parseInt(required(fields, "stockQuantity"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("stockQuantity is not an integer");
+        }
+        if (stock < 0) {
+            throw new IllegalArgumentException("stockQuantity must not be negative");
+        }
+
+        String active = optional(fields, "isActive");
+        boolean isActive = active == null || Boolean.parseBoolean(active);
+
+        return new ProductImportRow(row, sku, name, description, price, currency, stock, isActive);
+    }
+
+    private static String required(Map<String, String> fields, String field) {
+        String value = optional(fields, field);
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> fields, String field) {
+        String value = fields.get(field);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+}
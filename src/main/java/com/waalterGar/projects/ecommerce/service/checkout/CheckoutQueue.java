@@ -0,0 +1,302 @@
+package com.waalterGar.projects.ecommerce.service.checkout;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.waalterGar.projects.ecommerce.Dto.CheckoutTicketDto;
+import com.waalterGar.projects.ecommerce.Dto.OrderDto;
+import com.waalterGar.projects.ecommerce.config.CheckoutQueueProperties;
+import com.waalterGar.projects.ecommerce.entity.Cart;
+import com.waalterGar.projects.ecommerce.entity.CartItem;
+import com.waalterGar.projects.ecommerce.repository.CartRepository;
+import com.waalterGar.projects.ecommerce.service.CheckoutService;
+import com.waalterGar.projects.ecommerce.service.InventoryService;
+import com.waalterGar.projects.ecommerce.service.exception.CheckoutQueueFullException;
+import com.waalterGar.projects.ecommerce.service.exception.InactiveProductException;
+import com.waalterGar.projects.ecommerce.service.exception.InsufficientStockException;
+import com.waalterGar.projects.ecommerce.service.metrics.CheckoutFunnelMetrics;
+import com.waalterGar.projects.ecommerce.utils.CartStatus;
+import com.waalterGar.projects.ecommerce.utils.CheckoutStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Intake queue for {@code POST /carts/{id}/checkout?mode=async}.
+ * <p>
+ * Checkouts are routed to one of {@code checkout.async.workers} bounded queues by their first SKU, so
+ * checkouts competing for the same hot product are handled by one worker instead of queueing on its row
+ * lock. Each worker drains up to {@code batch-size} checkouts and commits them in one transaction; if any
+ * of them fails the batch is rolled back and replayed one checkout per transaction, so only the failing
+ * checkouts are reported as FAILED.
+ * <p>
+ * A batch transaction first locks the rows of every SKU in the batch in SKU order. Each checkout only sorts
+ * its own SKUs, so without that two workers' batches could take overlapping rows in different orders and
+ * deadlock each other.
+ * <p>
+ * Pending tickets are held until their checkout finishes (at most the queued ones plus one batch per worker);
+ * finished ones stay pollable for {@code result-ttl}, and only those are evicted when there are too many.
+ */
+@Slf4j
+@Component
+public class CheckoutQueue {
+    static final Duration POLL_INTERVAL = Duration.ofMillis(200);
+    static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+    private static final long MAX_TICKETS = 100_000;
+
+    private final CartRepository cartRepository;
+    private final CheckoutService checkoutService;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final CheckoutFunnelMetrics funnelMetrics;
+    private final int batchSize;
+
+    private final List<BlockingQueue<Job>> partitions;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Map<String, CheckoutTicketDto> pendingTickets = new ConcurrentHashMap<>();
+    private final Cache<String, CheckoutTicketDto> tickets;
+    private volatile boolean accepting = true;
+    private volatile boolean running;
+
+    record Job(String ticket, String cartExternalId, String customerExternalId, String routingSku, LocalDateTime createdAt) {}
+
+    public CheckoutQueue(CartRepository cartRepository,
+                         CheckoutService checkoutService,
+                         InventoryService inventoryService,
+                         TransactionTemplate transactionTemplate,
+                         CheckoutFunnelMetrics funnelMetrics,
+                         CheckoutQueueProperties properties) {
+        this.cartRepository = cartRepository;
+        this.checkoutService = checkoutService;
+        this.inventoryService = inventoryService;
+        this.transactionTemplate = transactionTemplate;
+        this.funnelMetrics = funnelMetrics;
+        this.batchSize = properties.batchSize();
+
+        int perWorker = Math.max(1, properties.queueCapacity() / properties.workers());
+        this.partitions = new ArrayList<>(properties.workers());
+        for (int i = 0; i < properties.workers(); i++) {
+            partitions.add(new ArrayBlockingQueue<>(perWorker));
+        }
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(MAX_TICKETS)
+                .expireAfterWrite(properties.resultTtl())
+                .build();
+    }
+
+    /**
+     * Checks the cart the same way a synchronous checkout would and queues it.
+     *
+     * @throws CheckoutQueueFullException the worker for this cart's SKUs has no room left
+     */
+    public CheckoutTicketDto submit(String cartExternalId, String customerExternalId) {
+        if (cartExternalId == null || cartExternalId.isBlank()) {
+            throw new IllegalArgumentException("cartExternalId is required");
+        }
+        if (customerExternalId == null || customerExternalId.isBlank()) {
+            throw new IllegalArgumentException("customerExternalId is required");
+        }
+
+        Cart cart = cartRepository.findByExternalId(cartExternalId)
+                .orElseThrow(() -> new NoSuchElementException("Cart not found"));
+        if (cart.getStatus() != null && cart.getStatus() != CartStatus.NEW) {
+            throw new IllegalStateException("Cart is not editable or already checked out");
+        }
+        String routingSku = cart.getItems().stream()
+                .map(CartItem::getProductSku)
+                .min(Comparator.naturalOrder())
+                .orElseThrow(() -> new IllegalArgumentException("Cart is empty"));
+
+        Job job = new Job(UUID.randomUUID().toString(), cartExternalId, customerExternalId, routingSku, LocalDateTime.now());
+        CheckoutTicketDto pending = ticket(job, CheckoutStatus.PENDING);
+        pendingTickets.put(job.ticket(), pending);
+        if (!accepting || !partitions.get(partitionOf(routingSku)).offer(job)) {
+            pendingTickets.remove(job.ticket());
+            throw new CheckoutQueueFullException();
+        }
+        return pending;
+    }
+
+    public Optional<CheckoutTicketDto> find(String ticket) {
+        CheckoutTicketDto pending = pendingTickets.get(ticket);
+        return Optional.ofNullable(pending != null ? pending : tickets.getIfPresent(ticket));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < partitions.size(); i++) {
+            BlockingQueue<Job> queue = partitions.get(i);
+            Thread worker = Thread.ofPlatform().name("checkout-worker-" + i).daemon().unstarted(() -> work(queue));
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /** Stops taking new checkouts and lets the workers finish the ones already queued. */
+    @PreDestroy
+    public synchronized void stop() {
+        accepting = false;
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(SHUTDOWN_TIMEOUT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        workers.clear();
+    }
+
+    int partitionOf(String sku) {
+        return Math.floorMod(sku.hashCode(), partitions.size());
+    }
+
+    /** Processes whatever is queued on one partition right now, one batch at a time. */
+    void drain(int partition) {
+        BlockingQueue<Job> queue = partitions.get(partition);
+        List<Job> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            process(batch);
+            batch.clear();
+        }
+    }
+
+    private void work(BlockingQueue<Job> queue) {
+        List<Job> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Job first = queue.poll(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Checkout worker failed on a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Job> batch) {
+        try {
+            List<OrderDto> orders = transactionTemplate.execute(status -> {
+                if (batch.size() > 1) {
+                    // Carts are read again by each checkout in this transaction, from the same snapshot
+                    inventoryService.lockRows(cartRepository.findSkusByCartExternalIdIn(
+                            batch.stream().map(Job::cartExternalId).toList()));
+                }
+                return batch.stream()
+                        .map(job -> checkoutService.checkout(job.cartExternalId(), job.customerExternalId()))
+                        .toList();
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                completed(batch.get(i), orders.get(i));
+            }
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed(batch.get(0), e);
+                return;
+            }
+            log.debug("Checkout batch of {} rolled back, retrying one by one", batch.size(), e);
+        }
+
+        for (Job job : batch) {
+            try {
+                completed(job, transactionTemplate.execute(status ->
+                        checkoutService.checkout(job.cartExternalId(), job.customerExternalId())));
+            } catch (RuntimeException e) {
+                failed(job, e);
+            }
+        }
+    }
+
+    private void completed(Job job, OrderDto order) {
+        CheckoutTicketDto done = ticket(job, CheckoutStatus.COMPLETED);
+        done.setOrder(order);
+        done.setCompletedAt(LocalDateTime.now());
+        finish(done);
+    }
+
+    private void failed(Job job, RuntimeException e) {
+        funnelMetrics.failed(e);
+        CheckoutTicketDto done = ticket(job, CheckoutStatus.FAILED);
+        done.setError(problemFor(e));
+        done.setCompletedAt(LocalDateTime.now());
+        finish(done);
+    }
+
+    /** Stored before the pending entry goes, so a poll in between never finds neither. */
+    private void finish(CheckoutTicketDto done) {
+        tickets.put(done.getTicket(), done);
+        pendingTickets.remove(done.getTicket());
+    }
+
+    private static CheckoutTicketDto ticket(Job job, CheckoutStatus status) {
+        CheckoutTicketDto dto = new CheckoutTicketDto();
+        dto.setTicket(job.ticket());
+        dto.setStatus(status);
+        dto.setCartExternalId(job.cartExternalId());
+        dto.setCreatedAt(job.createdAt());
+        return dto;
+    }
+
+    /** Same status, title and type GlobalExceptionHandler gives these exceptions on the synchronous path. */
+    private static ProblemDetail problemFor(RuntimeException e) {
+        if (e instanceof InsufficientStockException) {
+            return problem(HttpStatus.UNPROCESSABLE_ENTITY, "Insufficient Stock", e.getMessage(), "insufficient-stock");
+        }
+        if (e instanceof InactiveProductException) {
+            return problem(HttpStatus.UNPROCESSABLE_ENTITY, "Inactive Product", e.getMessage(), "inactive-product");
+        }
+        if (e instanceof NoSuchElementException) {
+            return problem(HttpStatus.NOT_FOUND, "Resource Not Found", e.getMessage(), "not-found");
+        }
+        if (e instanceof IllegalArgumentException || e instanceof IllegalStateException) {
+            return problem(HttpStatus.BAD_REQUEST, "Invalid Request", e.getMessage(), "invalid-request");
+        }
+        if (e instanceof ConcurrencyFailureException) {
+            return problem(HttpStatus.CONFLICT, "Optimistic Lock Conflict", "Concurrent update conflict. Please retry.", "conflict");
+        }
+        log.error("Async checkout failed", e);
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", "Unexpected error.", "unexpected");
+    }
+
+    private static ProblemDetail problem(HttpStatus status, String title, String detail, String type) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(status, detail);
+        pd.setTitle(title);
+        pd.setType(URI.create("urn:problem:" + type));
+        return pd;
+    }
+}
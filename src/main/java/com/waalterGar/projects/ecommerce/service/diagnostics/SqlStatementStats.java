@@ -0,0 +1,79 @@
+package com.waalterGar.projects.ecommerce.service.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Counts JDBC round trips (one {@code execute*} or {@code executeBatch}) and the time spent in them, per thread,
+ * and logs statements slower than {@code sql.budget.slow-query}.
+ * <p>
+ * Counts only ever grow: whoever wants the cost of a unit of work (a request in {@code SqlBudgetFilter}, a test
+ * in {@code SqlBudgetExtension}) reads {@link #statements()} and {@link #nanos()} before and after it, so nested
+ * measurements don't reset each other and measuring allocates nothing.
+ */
+@Slf4j
+public class SqlStatementStats implements QueryExecutionListener {
+    static final String SLOW = "sql.slow.queries";
+    private static final int LOGGED_SQL_CHARS = 500;
+
+    private static final ThreadLocal<Counts> CURRENT = ThreadLocal.withInitial(Counts::new);
+
+    private static final class Counts {
+        long statements;
+        long nanos;
+        long startedAt;
+    }
+
+    private final long slowQueryNanos;
+    private final Counter slowQueries;
+
+    public SqlStatementStats(Duration slowQuery, MeterRegistry meterRegistry) {
+        this.slowQueryNanos = slowQuery.toNanos();
+        this.slowQueries = Counter.builder(SLOW)
+                .description("Statements slower than sql.budget.slow-query")
+                .register(meterRegistry);
+    }
+
+    /** Round trips made so far by the current thread. */
+    public static long statements() {
+        return CURRENT.get().statements;
+    }
+
+    /** Nanoseconds the current thread has spent in JDBC calls so far. */
+    public static long nanos() {
+        return CURRENT.get().nanos;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        CURRENT.get().startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Counts counts = CURRENT.get();
+        long elapsed = System.nanoTime() - counts.startedAt;
+        counts.statements++;
+        counts.nanos += elapsed;
+        if (elapsed > slowQueryNanos) {
+            slowQueries.increment();
+            log.warn("Slow query ({} ms{}): {}", elapsed / 1_000_000,
+                    execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "", sql(queryInfoList));
+        }
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return "";
+        }
+        String sql = queryInfoList.get(0).getQuery().strip().replaceAll("\\s+", " ");
+        return sql.length() > LOGGED_SQL_CHARS ? sql.substring(0, LOGGED_SQL_CHARS) + "..." : sql;
+    }
+}
@@ -0,0 +1,87 @@
+package com.waalterGar.projects.ecommerce.service.diagnostics;
+
+import com.waalterGar.projects.ecommerce.config.PinningMonitorProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Streams {@code jdk.VirtualThreadPinned} JFR events and reports each one as a warning plus the
+ * {@code jvm.threads.virtual.pinned} counter, tagged by where the pin happened: {@code mysql-driver}
+ * (a {@code synchronized} block in Connector/J), {@code application}, or {@code other}.
+ * <p>
+ * A pinned virtual thread keeps its carrier while it blocks, so a few long pins on the JDBC path are
+ * enough to stall every request once all carriers are taken.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+    static final String EVENT = "jdk.VirtualThreadPinned";
+    static final String METER = "jvm.threads.virtual.pinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final PinningMonitorProperties properties;
+    private final MeterRegistry meterRegistry;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(PinningMonitorProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.enabled() || stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(properties.threshold()).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for more than {}", properties.threshold());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String location = location(frames);
+        Counter.builder(METER)
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .tag("location", location)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Virtual thread pinned for {} ms ({}):\n{}", event.getDuration().toMillis(), location, frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(f -> "\tat " + f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .collect(Collectors.joining("\n")));
+    }
+
+    static String location(List<RecordedFrame> frames) {
+        boolean application = false;
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("com.mysql.cj.")) {
+                return "mysql-driver";
+            }
+            application |= type.startsWith("com.waalterGar.");
+        }
+        return application ? "application" : "other";
+    }
+}
@@ -0,0 +1,17 @@
+package com.waalterGar.projects.ecommerce.service.event;
+
+import java.util.Set;
+
+/**
+ * Published whenever products are created or edited outside the order flow.
+ * Listeners react after commit, so anything they reload from the database already sees the change.
+ */
+public record ProductsChangedEvent(Set<String> skus) {
+    public ProductsChangedEvent {
+        skus = Set.copyOf(skus);
+    }
+
+    public static ProductsChangedEvent of(String sku) {
+        return new ProductsChangedEvent(Set.of(sku));
+    }
+}
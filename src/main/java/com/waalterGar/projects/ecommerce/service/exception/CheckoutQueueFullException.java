@@ -0,0 +1,7 @@
+package com.waalterGar.projects.ecommerce.service.exception;
+
+public class CheckoutQueueFullException extends RuntimeException {
+    public CheckoutQueueFullException() {
+        super("Too many checkouts are waiting to be processed. Retry later.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.waalterGar.projects.ecommerce.service.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException() {
+        super("A request with this Idempotency-Key is still being processed. Retry later.");
+    }
+}
@@ -1,7 +1,18 @@
 package com.waalterGar.projects.ecommerce.service.exception;
 
 public class InactiveProductException extends RuntimeException {
+    private final String sku;
+
     public InactiveProductException(String message) {
+        this(null, message);
+    }
+    public InactiveProductException(String sku, String message) {
         super(message);
+        this.sku = sku;
+    }
+
+    /** The inactive product's SKU, when known. */
+    public String getSku() {
+        return sku;
     }
 }
@@ -1,10 +1,23 @@
 package com.waalterGar.projects.ecommerce.service.exception;
 
 public class InsufficientStockException extends RuntimeException {
+    private final String sku;
+
     public InsufficientStockException() {
         super("Insufficient stock for one or more items.");
+        this.sku = null;
     }
     public InsufficientStockException(String message) {
         super(message);
+        this.sku = null;
+    }
+    public InsufficientStockException(String sku, String message) {
+        super(message);
+        this.sku = sku;
+    }
+
+    /** The SKU that ran out, when known. */
+    public String getSku() {
+        return sku;
     }
 }
@@ -0,0 +1,76 @@
+package com.waalterGar.projects.ecommerce.service.export;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Drains a repository {@link Stream} in fixed-size chunks: each chunk is mapped, handed to the sink
+ * and then detached from the persistence context, so heap use stays flat however large the table is.
+ * Must run inside a (read-only) transaction that outlives the stream.
+ * <p>
+ * Repository streams are MySQL row streams ({@link #STREAMING_FETCH_SIZE}): the connection can run nothing
+ * else until the stream is closed, so exports that need further queries per chunk use
+ * {@link #exportByKey} instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChunkedExporter {
+    /** Rows per chunk. */
+    public static final int CHUNK_SIZE = 500;
+
+    /**
+     * JDBC fetch size for repository export streams: Connector/J streams rows one at a time for this value
+     * only, on that statement only, without server-side cursors ({@code useCursorFetch}) for the whole pool.
+     */
+    public static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private final EntityManager entityManager;
+
+    public <E, D> void export(Stream<E> rows, Function<List<E>, List<D>> mapChunk, Consumer<D> sink) {
+        try (rows) {
+            List<E> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (var it = rows.iterator(); it.hasNext(); ) {
+                chunk.add(it.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    drain(chunk, mapChunk, sink);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                drain(chunk, mapChunk, sink);
+            }
+        }
+    }
+
+    /**
+     * Walks a table in key order, {@link #CHUNK_SIZE} keys at a time: {@code nextKeys} gets the last key of
+     * the previous chunk ({@code null} for the first) and no result set stays open between chunks.
+     */
+    public <K, D> void exportByKey(Function<K, List<K>> nextKeys, Function<List<K>, List<D>> mapChunk, Consumer<D> sink) {
+        K after = null;
+        while (true) {
+            List<K> keys = new ArrayList<>(nextKeys.apply(after));
+            if (keys.isEmpty()) {
+                return;
+            }
+            boolean last = keys.size() < CHUNK_SIZE;
+            after = keys.get(keys.size() - 1);
+            drain(keys, mapChunk, sink);
+            if (last) {
+                return;
+            }
+        }
+    }
+
+    private <E, D> void drain(List<E> chunk, Function<List<E>, List<D>> mapChunk, Consumer<D> sink) {
+        mapChunk.apply(chunk).forEach(sink);
+        chunk.clear();
+        entityManager.clear();
+    }
+}
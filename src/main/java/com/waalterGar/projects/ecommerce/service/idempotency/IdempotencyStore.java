@@ -0,0 +1,193 @@
+package com.waalterGar.projects.ecommerce.service.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.waalterGar.projects.ecommerce.config.IdempotencyProperties;
+import com.waalterGar.projects.ecommerce.entity.IdempotencyRecord;
+import com.waalterGar.projects.ecommerce.repository.IdempotencyRecordRepository;
+import com.waalterGar.projects.ecommerce.service.exception.IdempotencyKeyInProgressException;
+import com.waalterGar.projects.ecommerce.service.exception.IdempotencyKeyReuseException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tracks {@code Idempotency-Key}s so a retried POST gets the first response back instead of running again.
+ * <p>
+ * Completed responses are served from an in-memory cache in front of {@code idempotency_keys}.
+ * Duplicates arriving while the first request is still running wait for it: on the same instance
+ * through a shared future, across instances by polling the row until it completes.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+    static final Duration POLL_INTERVAL = Duration.ofMillis(25);
+
+    private final IdempotencyRecordRepository repository;
+    private final IdempotencyProperties properties;
+    private final Cache<String, StoredResponse> completed;
+
+    /** Keys owned by a request running on this instance; completes with its response, or null if released. */
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyRecordRepository repository, IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(properties.cacheMaxSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotency");
+    }
+
+    /**
+     * Returns the stored response to replay, or empty when the caller now owns the key and must
+     * finish with {@link #complete} or {@link #release}.
+     *
+     * @throws IdempotencyKeyReuseException      the key belongs to a request with a different hash
+     * @throws IdempotencyKeyInProgressException the first request did not finish within {@code idempotency.wait-timeout}
+     */
+    public Optional<StoredResponse> begin(String key, String requestHash) {
+        long deadline = System.nanoTime() + properties.waitTimeout().toNanos();
+        while (true) {
+            StoredResponse done = completed.getIfPresent(key);
+            if (done != null) {
+                return Optional.of(matching(done, requestHash));
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                StoredResponse result = await(running, deadline);
+                if (result != null) {
+                    return Optional.of(matching(result, requestHash));
+                }
+                continue; // released: try to become the owner
+            }
+
+            try {
+                Optional<StoredResponse> elsewhere = claimOrAwait(key, requestHash, deadline);
+                if (elsewhere.isEmpty()) {
+                    return Optional.empty();
+                }
+                completed.put(key, elsewhere.get());
+                finish(key, mine, elsewhere.get());
+                return Optional.of(matching(elsewhere.get(), requestHash));
+            } catch (RuntimeException e) {
+                finish(key, mine, null);
+                throw e;
+            }
+        }
+    }
+
+    /** Records the owner's response; every waiting and future duplicate gets it back. */
+    public void complete(String key, StoredResponse response) {
+        try {
+            repository.complete(key, response.status(), response.contentType(), response.body(),
+                    LocalDateTime.now().plus(properties.ttl()));
+        } finally {
+            // Even if the write failed, duplicates on this instance can still be answered from memory
+            completed.put(key, response);
+            finish(key, inFlight.get(key), response);
+        }
+    }
+
+    /** Gives the key up after a failed attempt, so the next retry runs the request again. */
+    public void release(String key) {
+        try {
+            repository.release(key);
+        } finally {
+            finish(key, inFlight.get(key), null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /** Empty once this thread holds the row; otherwise the response another instance recorded. */
+    private Optional<StoredResponse> claimOrAwait(String key, String requestHash, long deadline) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            if (repository.claim(key, requestHash, now, now.plus(properties.ttl())) == 1) {
+                return Optional.empty();
+            }
+            IdempotencyRecord row = repository.findById(key).orElse(null);
+            if (row == null) {
+                continue; // released between the insert and the read
+            }
+            if (row.getExpiresAt().isBefore(now)) {
+                repository.deleteIfExpired(key, now);
+                continue;
+            }
+            if (!row.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReuseException();
+            }
+            if (row.isCompleted()) {
+                return Optional.of(StoredResponse.of(row));
+            }
+            if (row.getCreatedAt().isBefore(now.minus(properties.lockTimeout()))
+                    && repository.takeOver(key, requestHash, now, now.minus(properties.lockTimeout())) == 1) {
+                log.warn("Taking over idempotency key {} abandoned since {}", key, row.getCreatedAt());
+                return Optional.empty();
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new IdempotencyKeyInProgressException();
+            }
+            sleep();
+        }
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> running, long deadline) {
+        try {
+            return running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException();
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private void finish(String key, CompletableFuture<StoredResponse> future, StoredResponse response) {
+        if (future != null) {
+            inFlight.remove(key, future);
+            future.complete(response);
+        }
+    }
+
+    private static StoredResponse matching(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReuseException();
+        }
+        return stored;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException();
+        }
+    }
+}
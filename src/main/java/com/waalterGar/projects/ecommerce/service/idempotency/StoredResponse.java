@@ -0,0 +1,15 @@
+package com.waalterGar.projects.ecommerce.service.idempotency;
+
+import com.waalterGar.projects.ecommerce.entity.IdempotencyRecord;
+
+/** The response recorded for an idempotency key, replayed byte for byte on retries. */
+public record StoredResponse(String requestHash, int status, String contentType, byte[] body) {
+
+    static StoredResponse of(IdempotencyRecord record) {
+        return new StoredResponse(
+                record.getRequestHash(),
+                record.getResponseStatus(),
+                record.getResponseContentType(),
+                record.getResponseBody() == null ? new byte[0] : record.getResponseBody());
+    }
+}
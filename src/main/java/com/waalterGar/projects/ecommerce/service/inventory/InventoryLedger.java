@@ -0,0 +1,259 @@
+package com.waalterGar.projects.ecommerce.service.inventory;
+
+import com.waalterGar.projects.ecommerce.config.InventoryLedgerProperties;
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds available stock for flash-sale SKUs ({@code inventory.ledger.skus}) in memory so that
+ * order placement reserves with a CAS instead of queueing on one MySQL row.
+ * <p>
+ * Each SKU's stock is spread over {@link #STRIPES} counters; a reservation tries the caller's stripe
+ * first and only takes the entry monitor when no single stripe can cover it. Reservations are
+ * compensated if the surrounding transaction rolls back, and only committed deltas are written
+ * back to {@code products.stock_quantity} by {@link #flush()}.
+ * <p>
+ * Each entry remembers the stock column as of its last load or flush, so product edits only move the
+ * ledger by however much they changed that column; committed but unflushed reservations stay pending.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InventoryLedger {
+    static final int STRIPES = 8;
+
+    private final InventoryLedgerProperties properties;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Serializes flushes with product edits so the stock an edit is compared against includes every flush
+    private final Object flushLock = new Object();
+
+    public boolean isManaged(String sku) {
+        return properties.enabled() && entries.containsKey(sku);
+    }
+
+    public long available(String sku) {
+        return entry(sku).total();
+    }
+
+    /** Takes {@code quantity} out of the ledger; returns false (and changes nothing) if not enough is left. */
+    public boolean tryReserve(String sku, int quantity) {
+        Entry entry = entry(sku);
+        if (!entry.tryTake(quantity)) {
+            return false;
+        }
+        afterCompletion(entry, -quantity);
+        return true;
+    }
+
+    public void release(String sku, int quantity) {
+        Entry entry = entry(sku);
+        entry.put(quantity);
+        afterCompletion(entry, quantity);
+    }
+
+    /** Loads the flagged SKUs from the database. Stock for SKUs that don't exist yet is picked up on creation. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!properties.enabled() || properties.skus().isEmpty()) {
+            return;
+        }
+        entries.clear();
+        for (Product product : productRepository.findAllBySkuIn(properties.skus())) {
+            entries.put(product.getSku(), new Entry(product.getStockQuantity()));
+        }
+        log.info("Inventory ledger managing {} of {} flagged SKUs", entries.size(), properties.skus().size());
+    }
+
+    /**
+     * Admin edits and catalog imports write an absolute stock value: the ledger moves by the difference
+     * from the last known column value. Edits that leave the stock column alone don't touch the ledger.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        Set<String> flagged = new HashSet<>(event.skus());
+        flagged.retainAll(properties.skus());
+        if (flagged.isEmpty()) {
+            return;
+        }
+        synchronized (flushLock) {
+            for (Product product : productRepository.findAllBySkuIn(flagged)) {
+                Entry entry = entries.putIfAbsent(product.getSku(), new Entry(product.getStockQuantity()));
+                if (entry != null) {
+                    entry.rebase(product.getStockQuantity());
+                }
+            }
+        }
+    }
+
+    /** Writes every committed delta accumulated since the last flush in one transaction. */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval:PT1S}")
+    public void flush() {
+        synchronized (flushLock) {
+            Map<String, Long> deltas = new TreeMap<>();
+            entries.forEach((sku, entry) -> {
+                long delta = entry.pending.sumThenReset();
+                if (delta != 0) {
+                    deltas.put(sku, delta);
+                }
+            });
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                // incrementStock takes a signed delta; reservations flush as negative values
+                transactionTemplate.executeWithoutResult(status ->
+                        deltas.forEach((sku, delta) -> productRepository.incrementStock(sku, Math.toIntExact(delta))));
+            } catch (RuntimeException e) {
+                deltas.forEach((sku, delta) -> entries.get(sku).pending.add(delta));
+                log.warn("Inventory ledger flush failed for {} SKUs, will retry", deltas.size(), e);
+                return;
+            }
+            deltas.forEach((sku, delta) -> entries.get(sku).persisted += delta);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private Entry entry(String sku) {
+        Entry entry = entries.get(sku);
+        if (entry == null) {
+            throw new IllegalStateException("SKU is not managed by the inventory ledger: " + sku);
+        }
+        return entry;
+    }
+
+    /** Commits the delta for the next flush, or undoes the in-memory change if the transaction rolls back. */
+    private static void afterCompletion(Entry entry, int delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entry.pending.add(delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    entry.pending.add(delta);
+                } else if (delta < 0) {
+                    entry.put(-delta);
+                } else {
+                    entry.tryTake(delta);
+                }
+            }
+        });
+    }
+
+    static final class Entry {
+        private final AtomicLong[] stripes = new AtomicLong[STRIPES];
+        private final LongAdder pending = new LongAdder();
+        // products.stock_quantity as of the last load or flush; guarded by the ledger's flushLock
+        private long persisted;
+
+        Entry(long stock) {
+            persisted = stock;
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new AtomicLong();
+            }
+            spread(stock);
+        }
+
+        long total() {
+            long total = 0;
+            for (AtomicLong stripe : stripes) {
+                total += stripe.get();
+            }
+            return total;
+        }
+
+        boolean tryTake(long quantity) {
+            int start = home();
+            for (int i = 0; i < STRIPES; i++) {
+                AtomicLong stripe = stripes[(start + i) & (STRIPES - 1)];
+                long current;
+                while ((current = stripe.get()) >= quantity) {
+                    if (stripe.compareAndSet(current, current - quantity)) {
+                        return true;
+                    }
+                }
+            }
+            // No single stripe can cover it: pool everything and decide under the monitor
+            synchronized (this) {
+                long total = drain();
+                if (total < quantity) {
+                    spread(total);
+                    return false;
+                }
+                spread(total - quantity);
+                return true;
+            }
+        }
+
+        void put(long quantity) {
+            stripes[home()].addAndGet(quantity);
+        }
+
+        /**
+         * Shifts available stock by however much the column moved since it was last seen. Pending and
+         * in-flight reservations were taken from the old value and stay valid against the new one.
+         */
+        synchronized void rebase(long stock) {
+            long change = stock - persisted;
+            if (change == 0) {
+                return;
+            }
+            persisted = stock;
+            spread(drain() + change);
+        }
+
+        private long drain() {
+            long total = 0;
+            for (AtomicLong stripe : stripes) {
+                total += stripe.getAndSet(0);
+            }
+            return total;
+        }
+
+        // add, not set: releases may land on a stripe while it is being drained
+        private void spread(long total) {
+            long share = total / STRIPES;
+            stripes[0].addAndGet(share + total % STRIPES);
+            for (int i = 1; i < STRIPES; i++) {
+                stripes[i].addAndGet(share);
+            }
+        }
+
+        private static int home() {
+            return (int) (Thread.currentThread().threadId() & (STRIPES - 1));
+        }
+    }
+}
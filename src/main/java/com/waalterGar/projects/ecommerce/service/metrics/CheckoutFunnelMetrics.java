@@ -0,0 +1,110 @@
+package com.waalterGar.projects.ecommerce.service.metrics;
+
+import com.waalterGar.projects.ecommerce.config.CheckoutMetricsProperties;
+import com.waalterGar.projects.ecommerce.service.exception.InactiveProductException;
+import com.waalterGar.projects.ecommerce.service.exception.InsufficientStockException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Counters for the checkout funnel: {@code checkout.funnel{step}} for carts created, items added, checkouts,
+ * payments and cancels, {@code checkout.rejections{reason,sku}} for stock and inactive-product failures,
+ * and {@code checkout.conflicts{entity}} for optimistic-lock conflicts.
+ * <p>
+ * Every counter is created once and then looked up, so counting allocates nothing. SKU tags are capped by
+ * {@code metrics.checkout.max-sku-tags}; later SKUs share {@code sku=other}.
+ */
+@Component
+public class CheckoutFunnelMetrics {
+    static final String FUNNEL = "checkout.funnel";
+    static final String REJECTIONS = "checkout.rejections";
+    static final String CONFLICTS = "checkout.conflicts";
+    static final String OTHER = "other";
+
+    public enum Step { CART_CREATED, ITEM_ADDED, CHECKOUT, PAYMENT, CANCEL }
+
+    public enum Rejection { INSUFFICIENT_STOCK, INACTIVE_PRODUCT }
+
+    private final MeterRegistry meterRegistry;
+    private final int maxSkuTags;
+    private final Map<Step, Counter> steps = new EnumMap<>(Step.class);
+    private final Map<Rejection, ConcurrentMap<String, Counter>> rejections = new EnumMap<>(Rejection.class);
+    private final ConcurrentMap<String, Counter> conflicts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Boolean> taggedSkus = new ConcurrentHashMap<>();
+
+    public CheckoutFunnelMetrics(MeterRegistry meterRegistry, CheckoutMetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.maxSkuTags = properties.maxSkuTags();
+        for (Step step : Step.values()) {
+            steps.put(step, Counter.builder(FUNNEL)
+                    .description("Checkout funnel steps completed")
+                    .tag("step", tag(step))
+                    .register(meterRegistry));
+        }
+        for (Rejection reason : Rejection.values()) {
+            rejections.put(reason, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void step(Step step) {
+        steps.get(step).increment();
+    }
+
+    public void rejected(Rejection reason, String sku) {
+        String skuTag = skuTag(sku);
+        rejections.get(reason).computeIfAbsent(skuTag, s -> Counter.builder(REJECTIONS)
+                .description("Orders and cart changes rejected for a product")
+                .tag("reason", tag(reason))
+                .tag("sku", s)
+                .register(meterRegistry)).increment();
+    }
+
+    public void conflict(String entity) {
+        conflicts.computeIfAbsent(entity, e -> Counter.builder(CONFLICTS)
+                .description("Optimistic-lock conflicts")
+                .tag("entity", e)
+                .register(meterRegistry)).increment();
+    }
+
+    /** Counts {@code e} if it is one of the funnel failures; anything else is ignored. */
+    public void failed(Throwable e) {
+        if (e instanceof InsufficientStockException stock) {
+            rejected(Rejection.INSUFFICIENT_STOCK, stock.getSku());
+        } else if (e instanceof InactiveProductException inactive) {
+            rejected(Rejection.INACTIVE_PRODUCT, inactive.getSku());
+        } else if (e instanceof ObjectOptimisticLockingFailureException lock) {
+            String className = lock.getPersistentClassName();
+            conflict(className == null ? OTHER : className.substring(className.lastIndexOf('.') + 1));
+        } else if (e instanceof OptimisticLockingFailureException) {
+            conflict(OTHER);
+        }
+    }
+
+    private String skuTag(String sku) {
+        if (sku == null) {
+            return OTHER;
+        }
+        if (taggedSkus.containsKey(sku)) {
+            return sku;
+        }
+        // Racing threads may overshoot the cap by a few SKUs; that only costs a few extra series
+        if (taggedSkus.size() >= maxSkuTags) {
+            return OTHER;
+        }
+        taggedSkus.putIfAbsent(sku, Boolean.TRUE);
+        return sku;
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
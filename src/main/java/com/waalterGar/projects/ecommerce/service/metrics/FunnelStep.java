@@ -0,0 +1,17 @@
+package com.waalterGar.projects.ecommerce.service.metrics;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Counts a successful call of a {@code *ServiceImpl} method as one step of the checkout funnel
+ * ({@code checkout.funnel{step}}). Calls made inside an enclosing transaction count once it commits.
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface FunnelStep {
+    CheckoutFunnelMetrics.Step value();
+}
@@ -0,0 +1,48 @@
+package com.waalterGar.projects.ecommerce.service.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Counts Spring Data repository calls made by the current request thread, between {@link #begin()} and
+ * {@link #end()} ({@code RepositoryCallsFilter}). Calls outside a request (workers, schedulers) are not counted.
+ * <p>
+ * A platform thread reuses its holder across requests; a virtual thread gets one small holder per request.
+ */
+public class RepositoryCallCounter implements MethodInterceptor {
+    private static final ThreadLocal<Count> CURRENT = new ThreadLocal<>();
+
+    private static final class Count {
+        boolean active;
+        int calls;
+    }
+
+    public static void begin() {
+        Count count = CURRENT.get();
+        if (count == null) {
+            count = new Count();
+            CURRENT.set(count);
+        }
+        count.active = true;
+        count.calls = 0;
+    }
+
+    /** @return the calls counted since {@link #begin()}, or -1 if no count was started on this thread */
+    public static int end() {
+        Count count = CURRENT.get();
+        if (count == null || !count.active) {
+            return -1;
+        }
+        count.active = false;
+        return count.calls;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Count count = CURRENT.get();
+        if (count != null && count.active) {
+            count.calls++;
+        }
+        return invocation.proceed();
+    }
+}
@@ -0,0 +1,95 @@
+package com.waalterGar.projects.ecommerce.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call into a {@code *ServiceImpl} bean as {@code service.method{class,method,outcome}} and counts
+ * {@link FunnelStep} methods on {@link CheckoutFunnelMetrics}.
+ * <p>
+ * Applied through an advisor ordered ahead of the transaction interceptor, so the time includes the commit and
+ * a failed commit is an {@code error}. Meters are resolved once per {@link Method}; after that a call costs a
+ * map lookup and two {@link System#nanoTime()} reads.
+ */
+public class ServiceMetricsInterceptor implements MethodInterceptor {
+    static final String METER = "service.method";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<CheckoutFunnelMetrics> funnel;
+    private final ConcurrentMap<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    /** Timers for both outcomes, and the funnel step the method completes (if any). */
+    private record Meters(Timer success, Timer error, CheckoutFunnelMetrics funnel, CheckoutFunnelMetrics.Step step) {}
+
+    /** Both resolved on first call: advisors are created before most beans, the registry must not be. */
+    public ServiceMetricsInterceptor(ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<CheckoutFunnelMetrics> funnel) {
+        this.meterRegistry = meterRegistry;
+        this.funnel = funnel;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Meters m = meters.get(invocation.getMethod());
+        if (m == null) {
+            m = meters.computeIfAbsent(invocation.getMethod(), method -> meters(method, invocation.getThis()));
+        }
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            m.error().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        m.success().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (m.step() != null) {
+            countStep(m.funnel(), m.step());
+        }
+        return result;
+    }
+
+    /** Async checkouts run inside a batch transaction that may still roll back and be replayed. */
+    private static void countStep(CheckoutFunnelMetrics funnel, CheckoutFunnelMetrics.Step step) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            funnel.step(step);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                funnel.step(step);
+            }
+        });
+    }
+
+    private Meters meters(Method method, Object target) {
+        Class<?> targetClass = target == null ? method.getDeclaringClass() : AopUtils.getTargetClass(target);
+        Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+        String className = targetClass.getSimpleName();
+        FunnelStep step = AnnotatedElementUtils.findMergedAnnotation(specific, FunnelStep.class);
+        return new Meters(timer(className, method.getName(), "success"), timer(className, method.getName(), "error"),
+                step == null ? null : funnel.getObject(), step == null ? null : step.value());
+    }
+
+    private Timer timer(String className, String method, String outcome) {
+        return Timer.builder(METER)
+                .description("Service method calls")
+                .tag("class", className)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(meterRegistry.getObject());
+    }
+}
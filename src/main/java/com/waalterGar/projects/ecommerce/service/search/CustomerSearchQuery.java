@@ -0,0 +1,39 @@
+package com.waalterGar.projects.ecommerce.service.search;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the free text of {@code GET /customers?q=} into a boolean-mode full-text query for
+ * {@code CustomerRepository.search}: every word is required, and each ends in {@code *} so a word shorter
+ * than an ngram still matches as a prefix. Everything but letters and digits separates words, which also
+ * strips the boolean-mode operators ({@code + - < > ( ) ~ * " @}) a client could send.
+ * <p>
+ * {@code "ana garcía"} becomes {@code "+ana* +garcía*"}; {@code "ana@shop.es"} becomes
+ * {@code "+ana* +shop* +es*"}.
+ */
+public final class CustomerSearchQuery {
+    /** Words beyond this are ignored; each one is another index lookup. */
+    static final int MAX_TERMS = 8;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private CustomerSearchQuery() {
+    }
+
+    /** Empty when {@code q} has no letters or digits to search for. */
+    public static Optional<String> from(String q) {
+        if (q == null) {
+            return Optional.empty();
+        }
+        String query = Arrays.stream(SEPARATORS.split(q.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .limit(MAX_TERMS)
+                .map(term -> "+" + term + "*")
+                .collect(Collectors.joining(" "));
+        return query.isEmpty() ? Optional.empty() : Optional.of(query);
+    }
+}
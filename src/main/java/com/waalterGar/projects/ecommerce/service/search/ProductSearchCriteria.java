@@ -0,0 +1,26 @@
+package com.waalterGar.projects.ecommerce.service.search;
+
+import com.waalterGar.projects.ecommerce.utils.Currency;
+
+import java.math.BigDecimal;
+
+/**
+ * Filters of {@code GET /products/search}; every one is optional and they all apply together.
+ *
+ * @param q        words that must each prefix a word of the name or description
+ * @param minPrice inclusive
+ * @param maxPrice inclusive
+ */
+public record ProductSearchCriteria(
+        String q,
+        Currency currency,
+        Boolean active,
+        BigDecimal minPrice,
+        BigDecimal maxPrice
+) {
+    public ProductSearchCriteria {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.waalterGar.projects.ecommerce.service.search;
+
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.cache.ProductSnapshot;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import com.waalterGar.projects.ecommerce.service.export.ChunkedExporter;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index behind {@code GET /products/search}; searching never touches MySQL.
+ * <p>
+ * Each product gets a dense int id (its "doc"). Every word of the name and of the description maps to a
+ * {@link RoaringBitmap} of docs, in sorted maps so that a query word matches every indexed word it is a
+ * prefix of. Currency and isActive keep one bitmap per value, and prices sit in a sorted array so a range
+ * is two binary searches. A search ANDs the bitmaps, then ranks what is left by how many query words
+ * matched in the name rather than only in the description; ties keep indexing order.
+ * <p>
+ * Built from the database once the application is ready and kept current from {@link ProductsChangedEvent}
+ * after commit; like {@link com.waalterGar.projects.ecommerce.service.cache.ProductCache}, an entry is only
+ * replaced by one with an equal or newer version. Orders change stock without that event, so
+ * {@code stockQuantity} in results is as of the last catalog edit.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+    /** Query words beyond this are ignored. */
+    static final int MAX_TERMS = 8;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final RoaringBitmap NONE = new RoaringBitmap();
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChunkedExporter chunkedExporter;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> docsBySku = new HashMap<>();
+    /** Indexed by doc; null once a product is gone. */
+    private final List<ProductSnapshot> docs = new ArrayList<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final NavigableMap<String, RoaringBitmap> nameWords = new TreeMap<>();
+    private final NavigableMap<String, RoaringBitmap> descriptionWords = new TreeMap<>();
+    private final Map<Currency, RoaringBitmap> byCurrency = new EnumMap<>(Currency.class);
+    private final RoaringBitmap active = new RoaringBitmap();
+    private final PriceIndex prices = new PriceIndex();
+
+    /**
+     * One page of matches.
+     *
+     * @param currencies matches per currency with every filter applied except currency
+     * @param active     matches per isActive value with every filter applied except active
+     */
+    public record Result(List<ProductSnapshot> items, long total, Map<Currency, Long> currencies, Map<Boolean, Long> active) {}
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              TransactionTemplate transactionTemplate,
+                              ChunkedExporter chunkedExporter,
+                              MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkedExporter = chunkedExporter;
+        Gauge.builder("products.search.indexed", this, ProductSearchIndex::size)
+                .description("Products in the in-memory search index")
+                .register(meterRegistry);
+    }
+
+    /** Loads every product, chunk by chunk. Changes committed meanwhile are applied by version, so none are lost. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long startedAt = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> chunkedExporter.export(productRepository.streamAllBy(),
+                chunk -> chunk.stream().map(ProductSnapshot::of).toList(), this::put));
+        log.info("Product search index built with {} products in {} ms", size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        Set<String> missing = new HashSet<>(event.skus());
+        for (Product product : productRepository.findAllBySkuIn(event.skus())) {
+            put(ProductSnapshot.of(product));
+            missing.remove(product.getSku());
+        }
+        missing.forEach(this::remove);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result search(ProductSearchCriteria criteria, int page, int size) {
+        List<String> terms = words(criteria.q()).stream().limit(MAX_TERMS).toList();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = live.clone();
+            List<RoaringBitmap> inName = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                RoaringBitmap name = prefixedBy(nameWords, term);
+                inName.add(name);
+                matches.and(RoaringBitmap.or(name, prefixedBy(descriptionWords, term)));
+            }
+            if (criteria.minPrice() != null || criteria.maxPrice() != null) {
+                matches.and(prices.between(
+                        criteria.minPrice() == null ? Long.MIN_VALUE : cents(criteria.minPrice(), RoundingMode.CEILING),
+                        criteria.maxPrice() == null ? Long.MAX_VALUE : cents(criteria.maxPrice(), RoundingMode.FLOOR)));
+            }
+
+            RoaringBitmap currencyFilter = criteria.currency() == null ? null : byCurrency.getOrDefault(criteria.currency(), NONE);
+            RoaringBitmap activeFilter = criteria.active() == null ? null
+                    : criteria.active() ? active : RoaringBitmap.andNot(live, active);
+
+            // Each facet is counted with the other filters only, so its counts show what choosing another value would give
+            RoaringBitmap forCurrencies = activeFilter == null ? matches : RoaringBitmap.and(matches, activeFilter);
+            Map<Currency, Long> currencies = new EnumMap<>(Currency.class);
+            for (Currency currency : Currency.values()) {
+                currencies.put(currency, (long) RoaringBitmap.andCardinality(forCurrencies, byCurrency.getOrDefault(currency, NONE)));
+            }
+            RoaringBitmap forActive = currencyFilter == null ? matches : RoaringBitmap.and(matches, currencyFilter);
+            long activeCount = RoaringBitmap.andCardinality(forActive, active);
+            Map<Boolean, Long> activeCounts = Map.of(true, activeCount, false, forActive.getLongCardinality() - activeCount);
+
+            if (currencyFilter != null) {
+                matches.and(currencyFilter);
+            }
+            if (activeFilter != null) {
+                matches.and(activeFilter);
+            }
+            return new Result(page(matches, inName, page, size), matches.getLongCardinality(), currencies, activeCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void put(ProductSnapshot product) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docsBySku.get(product.sku());
+            if (doc == null) {
+                doc = docs.size();
+                docs.add(null);
+                docsBySku.put(product.sku(), doc);
+                live.add(doc);
+            } else {
+                ProductSnapshot indexed = docs.get(doc);
+                if (!product.isNewerThanOrSameAs(indexed)) {
+                    return;
+                }
+                unindex(doc, indexed);
+            }
+            docs.set(doc, product);
+            index(doc, product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String sku) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docsBySku.remove(sku);
+            if (doc != null) {
+                unindex(doc, docs.get(doc));
+                docs.set(doc, null);
+                live.remove(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(int doc, ProductSnapshot product) {
+        for (String word : words(product.name())) {
+            nameWords.computeIfAbsent(word, w -> new RoaringBitmap()).add(doc);
+        }
+        for (String word : words(product.description())) {
+            descriptionWords.computeIfAbsent(word, w -> new RoaringBitmap()).add(doc);
+        }
+        if (product.currency() != null) {
+            byCurrency.computeIfAbsent(product.currency(), c -> new RoaringBitmap()).add(doc);
+        }
+        if (Boolean.TRUE.equals(product.isActive())) {
+            active.add(doc);
+        }
+        if (product.price() != null) {
+            prices.add(cents(product.price(), RoundingMode.HALF_UP), doc);
+        }
+    }
+
+    private void unindex(int doc, ProductSnapshot product) {
+        removeFrom(nameWords, words(product.name()), doc);
+        removeFrom(descriptionWords, words(product.description()), doc);
+        if (product.currency() != null) {
+            byCurrency.get(product.currency()).remove(doc);
+        }
+        active.remove(doc);
+        if (product.price() != null) {
+            prices.remove(cents(product.price(), RoundingMode.HALF_UP), doc);
+        }
+    }
+
+    private static void removeFrom(Map<String, RoaringBitmap> words, Set<String> indexed, int doc) {
+        for (String word : indexed) {
+            RoaringBitmap docs = words.get(word);
+            docs.remove(doc);
+            if (docs.isEmpty()) {
+                words.remove(word);
+            }
+        }
+    }
+
+    private static RoaringBitmap prefixedBy(NavigableMap<String, RoaringBitmap> words, String prefix) {
+        return RoaringBitmap.or(words.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values().iterator());
+    }
+
+    /**
+     * Ranks matches by how many query words they have in the name, then by doc, without sorting: one pass
+     * counts the docs at each level, the next one places only the docs that land on the requested page.
+     */
+    private List<ProductSnapshot> page(RoaringBitmap matches, List<RoaringBitmap> inName, int page, int size) {
+        int total = matches.getCardinality();
+        long offset = (long) page * size;
+        if (offset >= total) {
+            return List.of();
+        }
+        int pageSize = (int) Math.min(size, total - offset);
+        ProductSnapshot[] window = new ProductSnapshot[pageSize];
+
+        byte[] nameHits = new byte[total];
+        int[] startOfLevel = new int[inName.size() + 1];
+        int i = 0;
+        for (IntIterator it = matches.getIntIterator(); it.hasNext(); i++) {
+            int doc = it.next();
+            int hits = 0;
+            for (RoaringBitmap name : inName) {
+                if (name.contains(doc)) {
+                    hits++;
+                }
+            }
+            nameHits[i] = (byte) hits;
+            startOfLevel[hits]++;
+        }
+        int rank = 0;
+        for (int hits = inName.size(); hits >= 0; hits--) {
+            int count = startOfLevel[hits];
+            startOfLevel[hits] = rank;
+            rank += count;
+        }
+
+        i = 0;
+        for (IntIterator it = matches.getIntIterator(); it.hasNext(); i++) {
+            int doc = it.next();
+            long at = startOfLevel[nameHits[i]]++ - offset;
+            if (at >= 0 && at < pageSize) {
+                window[(int) at] = docs.get(doc);
+            }
+        }
+        return Arrays.asList(window);
+    }
+
+    /** Lower-cased words without accents, so "Camiseta" and "camisetá" index and match alike. */
+    static Set<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        String plain = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : SEPARATORS.split(plain.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static long cents(BigDecimal price, RoundingMode rounding) {
+        return price.setScale(2, rounding).unscaledValue().longValueExact();
+    }
+
+    /** Docs ordered by price in cents, then by doc; inserts and removals shift the arrays. */
+    static final class PriceIndex {
+        private long[] cents = new long[1024];
+        private int[] docs = new int[1024];
+        private int size;
+
+        void add(long price, int doc) {
+            int at = -indexOf(price, doc) - 1;
+            if (at < 0) {
+                return;
+            }
+            if (size == cents.length) {
+                cents = Arrays.copyOf(cents, size * 2);
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(cents, at, cents, at + 1, size - at);
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            cents[at] = price;
+            docs[at] = doc;
+            size++;
+        }
+
+        void remove(long price, int doc) {
+            int at = indexOf(price, doc);
+            if (at < 0) {
+                return;
+            }
+            System.arraycopy(cents, at + 1, cents, at, size - at - 1);
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            size--;
+        }
+
+        /** Docs priced from {@code min} to {@code max} cents, both inclusive. */
+        RoaringBitmap between(long min, long max) {
+            int from = -indexOf(min, Integer.MIN_VALUE) - 1;
+            int to = max == Long.MAX_VALUE ? size : -indexOf(max + 1, Integer.MIN_VALUE) - 1;
+            RoaringBitmap result = new RoaringBitmap();
+            if (from < to) {
+                result.addN(docs, from, to - from);
+            }
+            return result;
+        }
+
+        /** Position of (price, doc), or {@code -(insertion point) - 1} like {@link Arrays#binarySearch}. */
+        private int indexOf(long price, int doc) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = cents[mid] != price ? Long.compare(cents[mid], price) : Integer.compare(docs[mid], doc);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.waalterGar.projects.ecommerce.utils;
+
+public enum CheckoutStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
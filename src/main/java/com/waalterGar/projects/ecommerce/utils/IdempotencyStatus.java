@@ -0,0 +1,6 @@
+package com.waalterGar.projects.ecommerce.utils;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
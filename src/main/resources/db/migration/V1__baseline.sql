@@ -0,0 +1,115 @@
+-- Baseline: the schema Hibernate generated (ddl-auto=update) before migrations took over.
+-- Existing databases are baselined at this version and skip it (spring.flyway.baseline-on-migrate).
+
+create table customers (
+    id            binary(16)   not null,
+    external_id   varchar(36)  not null,
+    first_name    varchar(80)  not null,
+    last_name     varchar(80)  not null,
+    email         varchar(180) not null,
+    phone_number  varchar(30),
+    address       varchar(120),
+    city          varchar(80),
+    state         varchar(80),
+    zip_code      varchar(20),
+    country_code  enum ('AR','BR','CA','DE','ES','FR','IT','MX','UK','US') not null,
+    is_active     bit          not null,
+    created_at    datetime(6)  not null,
+    updated_at    datetime(6)  not null,
+    primary key (id),
+    constraint uk_customer_email unique (email),
+    constraint uk_customers_external_id unique (external_id)
+) engine=InnoDB;
+
+create index idx_customer_email on customers (email);
+
+create table products (
+    id              binary(16)    not null,
+    sku             varchar(50)   not null,
+    name            varchar(255)  not null,
+    description     varchar(255),
+    price           decimal(10,2) not null,
+    currency        tinyint       not null,
+    stock_quantity  integer       not null,
+    is_active       bit           not null,
+    created_at      datetime(6)   not null,
+    updated_at      datetime(6)   not null,
+    version         integer,
+    primary key (id),
+    constraint uk_product_sku unique (sku)
+) engine=InnoDB;
+
+create table orders (
+    id            binary(16)    not null,
+    external_id   varchar(36)   not null,
+    customer_id   binary(16)    not null,
+    status        enum ('CANCELED','CREATED','DELIVERED','PAID','SHIPPED') not null,
+    currency      enum ('EUR','USD') not null,
+    total_amount  decimal(12,2) not null,
+    created_at    datetime(6)   not null,
+    updated_at    datetime(6)   not null,
+    paid_at       datetime(6),
+    canceled_at   datetime(6),
+    primary key (id),
+    constraint uk_orders_external_id unique (external_id),
+    constraint fk_order_customer foreign key (customer_id) references customers (id)
+) engine=InnoDB;
+
+create table order_items (
+    id            binary(16)    not null,
+    order_id      binary(16)    not null,
+    product_sku   varchar(50)   not null,
+    product_name  varchar(255)  not null,
+    quantity      integer       not null,
+    unit_price    decimal(12,2) not null,
+    currency      enum ('EUR','USD') not null,
+    line_total    decimal(12,2) not null,
+    primary key (id),
+    constraint fk_orderitem_order foreign key (order_id) references orders (id)
+) engine=InnoDB;
+
+create table payments (
+    id                     binary(16)    not null,
+    order_id               binary(16)    not null,
+    amount                 decimal(12,2) not null,
+    currency               enum ('EUR','USD') not null,
+    provider               varchar(100),
+    transaction_reference  varchar(200),
+    paid_at                datetime(6)   not null,
+    version                integer       not null,
+    primary key (id),
+    constraint uk_payments_order_txref unique (order_id, transaction_reference),
+    constraint fk_payments_order foreign key (order_id) references orders (id)
+) engine=InnoDB;
+
+create index idx_payments_tx_ref on payments (transaction_reference);
+
+create table carts (
+    id              binary(16)  not null,
+    external_id     varchar(36) not null,
+    currency        enum ('EUR','USD') not null,
+    status          enum ('CHECKED_OUT','NEW') not null,
+    version         bigint,
+    created_at      datetime(6) not null,
+    updated_at      datetime(6) not null,
+    checked_out_at  datetime(6),
+    primary key (id),
+    constraint ix_carts_external_id unique (external_id)
+) engine=InnoDB;
+
+create table cart_items (
+    id            binary(16)    not null,
+    cart_id       binary(16)    not null,
+    sku           varchar(50)   not null,
+    product_name  varchar(255)  not null,
+    quantity      integer       not null,
+    unit_price    decimal(12,2) not null,
+    line_total    decimal(12,2) not null,
+    version       bigint,
+    primary key (id),
+    constraint uk_cart_items_cart_sku unique (cart_id, sku),
+    constraint fk_CartItem_order foreign key (cart_id) references carts (id)
+) engine=InnoDB;
+
+create index ix_cart_items_cart_id on cart_items (cart_id);
+create index ix_cart_items_sku on cart_items (sku);
@@ -0,0 +1,27 @@
+-- One index per hot access path: every repository finder, and every field in the AllowedSorts
+-- whitelists (ProductSortConfig, OrderSortConfig, CustomerSortConfig). InnoDB appends the primary
+-- key to each secondary index, so "order by <field>, id" (the keyset tiebreaker) is covered too.
+-- created_at is the default sort (desc) and keyset pages add "id asc", so those indexes are declared
+-- in exactly that order; ascending createdAt reads them backwards.
+-- QueryPlanIT runs EXPLAIN on the finders and fails if any of them falls back to a full scan.
+
+-- orders: GET /customers/{id}/orders filters on customer and sorts by createdAt desc
+create index ix_orders_customer_created on orders (customer_id, created_at);
+create index ix_orders_created_at on orders (created_at desc, id);
+create index ix_orders_updated_at on orders (updated_at);
+create index ix_orders_status_created on orders (status, created_at);
+create index ix_orders_total_amount on orders (total_amount);
+
+-- products: sku and id are already unique
+create index ix_products_created_at on products (created_at desc, id);
+create index ix_products_updated_at on products (updated_at);
+create index ix_products_name on products (name);
+create index ix_products_price on products (price);
+
+-- customers: email is already unique
+create index ix_customers_created_at on customers (created_at desc, id);
+create index ix_customers_last_name on customers (last_name);
+
+-- Duplicates of a unique constraint (or its leading column)
+drop index idx_customer_email on customers;
+drop index ix_cart_items_cart_id on cart_items;
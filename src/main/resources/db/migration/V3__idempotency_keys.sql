@@ -0,0 +1,16 @@
+-- Idempotency-Key store for POST /orders, /orders/{id}/pay and /carts/{id}/checkout (IdempotencyStore).
+-- Rows are claimed with INSERT IGNORE, completed with the response to replay, and purged after expires_at.
+
+create table idempotency_keys (
+    idempotency_key        varchar(255) not null,
+    request_hash           varchar(64)  not null,
+    status                 enum ('COMPLETED','IN_PROGRESS') not null,
+    response_status        integer,
+    response_content_type  varchar(100),
+    response_body          mediumblob,
+    created_at             datetime(6)  not null,
+    expires_at             datetime(6)  not null,
+    primary key (idempotency_key)
+) engine=InnoDB;
+
+create index ix_idempotency_keys_expires_at on idempotency_keys (expires_at);
@@ -0,0 +1,13 @@
+-- Customer search (GET /customers?q=): one FULLTEXT index over the three searched columns replaces
+-- LIKE '%x%' on each of them, which could not use any index. The ngram parser indexes every run of
+-- ngram_token_size (default 2) characters, so a term matches anywhere inside an email or name, and a
+-- shorter term (a single letter) matches as a prefix.
+-- The column list must stay in this order: MATCH() in CustomerRepository names the same columns.
+
+-- Stopwords are fixed when the index is built. The default English list contains "a" and "i", and the
+-- ngram parser drops every token containing a stopword, so most bigrams of Latin names would be lost.
+set session innodb_ft_enable_stopword = off;
+
+create fulltext index ft_customers_search on customers (email, first_name, last_name) with parser ngram;
+
+set session innodb_ft_enable_stopword = on;
@@ -0,0 +1,286 @@
+package com.waalterGar.projects.ecommerce;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waalterGar.projects.ecommerce.entity.Order;
+import com.waalterGar.projects.ecommerce.entity.OrderItem;
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.repository.CartRepository;
+import com.waalterGar.projects.ecommerce.repository.CustomerRepository;
+import com.waalterGar.projects.ecommerce.repository.OrderRepository;
+import com.waalterGar.projects.ecommerce.repository.PaymentRepository;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.testsupport.builders.CustomerBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the full checkout flow over HTTP against a MySQL Testcontainer: create cart, add items,
+ * checkout, pay. Records an HdrHistogram per endpoint and the 409/422 rates, then checks that no
+ * request failed with a 5xx and that stock was never oversold.
+ * <p>
+ * Tunable with system properties (defaults in brackets):
+ * {@code load.concurrency} [16], {@code load.checkouts} [400], {@code load.skus} [50],
+ * {@code load.skew} [1.0, Zipf exponent; 0 = uniform], {@code load.items-per-cart} [3],
+ * {@code load.stock} [1000 per SKU], {@code load.strategy} [pessimistic] and
+ * {@code load.max-p99-ms} [unset; when set, checkout and pay p99 must stay below it].
+ * Percentile distributions are written to {@code target/checkout-load/*.hgrm}.
+ * <p>
+ * Run with: ./mvnw -Dtest=CheckoutLoadIT -Dload.concurrency=32 -Dload.skew=1.2 test
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CheckoutLoadIT {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.37");
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+    private static final int CHECKOUTS = Integer.getInteger("load.checkouts", 400);
+    private static final int SKUS = Integer.getInteger("load.skus", 50);
+    private static final double SKEW = Double.parseDouble(System.getProperty("load.skew", "1.0"));
+    private static final int ITEMS_PER_CART = Integer.getInteger("load.items-per-cart", 3);
+    private static final int STOCK = Integer.getInteger("load.stock", 1000);
+    private static final String MAX_P99_MS = System.getProperty("load.max-p99-ms");
+    private static final int CUSTOMERS = 20;
+
+    private static final List<String> ENDPOINTS = List.of("createCart", "addItem", "checkout", "pay");
+
+    @DynamicPropertySource
+    static void inventoryStrategy(DynamicPropertyRegistry registry) {
+        registry.add("inventory.strategy", () -> System.getProperty("load.strategy", "pessimistic"));
+    }
+
+    @LocalServerPort int port;
+
+    @Autowired ObjectMapper objectMapper;
+    @Autowired ProductRepository productRepository;
+    @Autowired CustomerRepository customerRepository;
+    @Autowired OrderRepository orderRepository;
+    @Autowired PaymentRepository paymentRepository;
+    @Autowired CartRepository cartRepository;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final Map<String, Histogram> latencies = new LinkedHashMap<>();
+    private final Map<String, Map<Integer, LongAdder>> statuses = new ConcurrentHashMap<>();
+
+    @AfterEach
+    void cleanup() {
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartRepository.deleteAll();
+        productRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void checkoutFlow_underLoad_neverFailsOrOversells() throws Exception {
+        List<String> skus = new ArrayList<>();
+        for (int i = 0; i < SKUS; i++) {
+            String sku = String.format("LOAD-%04d", i);
+            productRepository.save(new ProductBuilder().withSku(sku).withPrice("9.99").withStockQuantity(STOCK).build());
+            skus.add(sku);
+        }
+        List<String> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String externalId = "load-cust-" + i;
+            customerRepository.save(new CustomerBuilder().withExternalId(externalId)
+                    .withEmail("load" + i + "@example.com").build());
+            customers.add(externalId);
+        }
+        for (String endpoint : ENDPOINTS) {
+            // microseconds, up to one minute, 3 significant digits
+            latencies.put(endpoint, new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3));
+        }
+
+        ZipfSampler sampler = new ZipfSampler(SKUS, SKEW);
+        AtomicInteger remaining = new AtomicInteger(CHECKOUTS);
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < CONCURRENCY; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                while (remaining.getAndDecrement() > 0) {
+                    String customer = customers.get(ThreadLocalRandom.current().nextInt(customers.size()));
+                    runFlow(customer, skus, sampler);
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : futures) f.get(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        pool.shutdown();
+
+        report(System.out, seconds);
+        writeHistograms(Path.of("target", "checkout-load"));
+
+        for (String endpoint : ENDPOINTS) {
+            assertThat(statuses.getOrDefault(endpoint, Map.of()).keySet())
+                    .as("5xx responses from %s", endpoint)
+                    .allMatch(status -> status < 500);
+        }
+        assertStockMatchesOrders(skus);
+        if (MAX_P99_MS != null) {
+            long maxMicros = TimeUnit.MILLISECONDS.toMicros(Long.parseLong(MAX_P99_MS));
+            assertThat(latencies.get("checkout").getValueAtPercentile(99)).isLessThanOrEqualTo(maxMicros);
+            assertThat(latencies.get("pay").getValueAtPercentile(99)).isLessThanOrEqualTo(maxMicros);
+        }
+    }
+
+    private void runFlow(String customer, List<String> skus, ZipfSampler sampler) throws Exception {
+        Response cart = call("createCart", "POST", "/carts?currency=EUR", null);
+        if (cart.status() != 201) {
+            return;
+        }
+        String cartId = cart.body().get("externalId").asText();
+
+        for (int i = 0; i < ITEMS_PER_CART; i++) {
+            String sku = skus.get(sampler.next());
+            int qty = 1 + ThreadLocalRandom.current().nextInt(3);
+            call("addItem", "POST", "/carts/" + cartId + "/items",
+                    "{\"sku\":\"" + sku + "\",\"qty\":" + qty + "}");
+        }
+
+        Response order = call("checkout", "POST", "/carts/" + cartId + "/checkout?customerId=" + customer, null);
+        if (order.status() != 201) {
+            return;
+        }
+        String orderId = order.body().get("externalId").asText();
+        call("pay", "POST", "/orders/" + orderId + "/pay", "{}");
+    }
+
+    private Response call(String endpoint, String method, String path, String json) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api" + path))
+                .header("Accept", "application/json");
+        if (json != null) {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(json));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        long started = System.nanoTime();
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        latencies.get(endpoint).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started));
+        statuses.computeIfAbsent(endpoint, e -> new ConcurrentHashMap<>())
+                .computeIfAbsent(response.statusCode(), s -> new LongAdder()).increment();
+
+        JsonNode body = response.body().isEmpty() ? null : objectMapper.readTree(response.body());
+        return new Response(response.statusCode(), body);
+    }
+
+    private void assertStockMatchesOrders(List<String> skus) {
+        Map<String, Integer> sold = new HashMap<>();
+        for (Order order : orderRepository.findAllWithItemsAndCustomer()) {
+            for (OrderItem item : order.getItems()) {
+                sold.merge(item.getProductSku(), item.getQuantity(), Integer::sum);
+            }
+        }
+        for (Product product : productRepository.findAllBySkuIn(skus)) {
+            int soldQty = sold.getOrDefault(product.getSku(), 0);
+            assertThat(product.getStockQuantity()).as("stock of %s", product.getSku())
+                    .isEqualTo(STOCK - soldQty)
+                    .isGreaterThanOrEqualTo(0);
+        }
+    }
+
+    private void report(PrintStream out, double seconds) {
+        out.printf("[checkout-load] concurrency=%d checkouts=%d skus=%d skew=%.2f items/cart=%d in %.2fs (%.1f flows/s)%n",
+                CONCURRENCY, CHECKOUTS, SKUS, SKEW, ITEMS_PER_CART, seconds, CHECKOUTS / seconds);
+        for (String endpoint : ENDPOINTS) {
+            Histogram h = latencies.get(endpoint);
+            Map<Integer, LongAdder> byStatus = statuses.getOrDefault(endpoint, Map.of());
+            long total = h.getTotalCount();
+            out.printf("[checkout-load] %-10s n=%-6d p50=%7.2fms p99=%7.2fms p99.9=%7.2fms max=%7.2fms 409=%5.2f%% 422=%5.2f%% statuses=%s%n",
+                    endpoint, total,
+                    h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                    h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0,
+                    rate(byStatus, 409, total), rate(byStatus, 422, total), byStatus);
+        }
+    }
+
+    private static double rate(Map<Integer, LongAdder> byStatus, int status, long total) {
+        LongAdder count = byStatus.get(status);
+        return total == 0 || count == null ? 0 : 100.0 * count.sum() / total;
+    }
+
+    private void writeHistograms(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        for (String endpoint : ENDPOINTS) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(endpoint + ".hgrm")))) {
+                // values recorded in µs; scale so the file reads in ms
+                latencies.get(endpoint).outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    record Response(int status, JsonNode body) {}
+
+    /** Picks SKU indexes with probability proportional to 1 / (rank + 1)^skew. */
+    static final class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double skew) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, skew);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next() {
+            double r = ThreadLocalRandom.current().nextDouble();
+            int idx = Arrays.binarySearch(cumulative, r);
+            return Math.min(idx >= 0 ? idx : -idx - 1, cumulative.length - 1);
+        }
+    }
+}
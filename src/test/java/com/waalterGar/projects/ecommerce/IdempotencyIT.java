@@ -0,0 +1,138 @@
+package com.waalterGar.projects.ecommerce;
+
+import com.waalterGar.projects.ecommerce.api.idempotency.IdempotencyFilter;
+import com.waalterGar.projects.ecommerce.repository.CustomerRepository;
+import com.waalterGar.projects.ecommerce.repository.IdempotencyRecordRepository;
+import com.waalterGar.projects.ecommerce.repository.OrderRepository;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.testsupport.builders.CustomerBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** POST /orders retried with the same Idempotency-Key creates one order and takes stock once. */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class IdempotencyIT {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.37");
+
+    private static final String CUSTOMER = "cust-idem";
+    private static final String SKU = "IDEM-001";
+    private static final int STOCK = 50;
+    private static final String ORDER_JSON = """
+            {"customerExternalId":"%s","items":[{"productSku":"%s","quantity":2}]}
+            """.formatted(CUSTOMER, SKU);
+
+    @Autowired MockMvc mvc;
+    @Autowired CustomerRepository customerRepository;
+    @Autowired ProductRepository productRepository;
+    @Autowired OrderRepository orderRepository;
+    @Autowired IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @BeforeEach
+    void seed() {
+        customerRepository.save(new CustomerBuilder().withExternalId(CUSTOMER).build());
+        productRepository.save(new ProductBuilder().withSku(SKU).withStockQuantity(STOCK).build());
+    }
+
+    @AfterEach
+    void cleanup() {
+        idempotencyRecordRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    private MvcResult createOrder(String key) throws Exception {
+        return mvc.perform(post("/orders")
+                        .header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ORDER_JSON))
+                .andReturn();
+    }
+
+    @Test
+    void retry_returnsFirstResponse_withoutPlacingAnotherOrder() throws Exception {
+        MvcResult first = createOrder("retry-1");
+        mvc.perform(post("/orders")
+                        .header(IdempotencyFilter.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ORDER_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+        MvcResult second = createOrder("retry-1");
+
+        assertThat(first.getResponse().getStatus()).isEqualTo(201);
+        assertThat(second.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+        assertThat(orderRepository.count()).isEqualTo(1);
+        assertThat(productRepository.findBySku(SKU).orElseThrow().getStockQuantity()).isEqualTo(STOCK - 2);
+    }
+
+    @Test
+    void sameKey_differentBody_isRejected() throws Exception {
+        createOrder("reuse-1");
+
+        mvc.perform(post("/orders")
+                        .header(IdempotencyFilter.HEADER, "reuse-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ORDER_JSON.replace("\"quantity\":2", "\"quantity\":3")))
+                .andExpect(status().isUnprocessableEntity());
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentDuplicates_waitForTheFirst_andAllGetTheSameOrder() throws Exception {
+        int clients = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MvcResult>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return createOrder("burst-1");
+            }));
+        }
+        start.countDown();
+        List<String> bodies = new ArrayList<>();
+        for (Future<MvcResult> f : futures) {
+            MvcResult result = f.get(30, TimeUnit.SECONDS);
+            assertThat(result.getResponse().getStatus()).isEqualTo(201);
+            bodies.add(result.getResponse().getContentAsString());
+        }
+        pool.shutdown();
+
+        assertThat(bodies).containsOnly(bodies.get(0));
+        assertThat(orderRepository.count()).isEqualTo(1);
+        assertThat(productRepository.findBySku(SKU).orElseThrow().getStockQuantity()).isEqualTo(STOCK - 2);
+    }
+}
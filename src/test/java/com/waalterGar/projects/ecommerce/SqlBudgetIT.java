@@ -0,0 +1,139 @@
+package com.waalterGar.projects.ecommerce;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waalterGar.projects.ecommerce.repository.CustomerRepository;
+import com.waalterGar.projects.ecommerce.repository.OrderRepository;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.testsupport.builders.CustomerBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.jdbc.SqlBudget;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL budget per endpoint: each test makes one request and {@link SqlBudget} fails it if the endpoint needs
+ * more round trips than that, e.g. because a lazy association started loading per row. Orders have several
+ * items each so an N+1 shows up as going over the budget.
+ */
+@SpringBootTest(properties = "sql.budget.enabled=true")
+@AutoConfigureMockMvc
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SqlBudgetIT {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.37");
+
+    private static final String CUSTOMER = "cust-budget";
+    private static final int ORDERS = 5;
+    private static final List<String> SKUS = List.of("BUDGET-001", "BUDGET-002", "BUDGET-003");
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired CustomerRepository customerRepository;
+    @Autowired ProductRepository productRepository;
+    @Autowired OrderRepository orderRepository;
+
+    private final List<String> orders = new ArrayList<>();
+
+    @BeforeEach
+    void seed() throws Exception {
+        customerRepository.save(new CustomerBuilder().withExternalId(CUSTOMER).build());
+        for (String sku : SKUS) {
+            productRepository.save(new ProductBuilder().withSku(sku).withStockQuantity(1_000).build());
+        }
+        String items = SKUS.stream()
+                .map(sku -> "{\"productSku\":\"" + sku + "\",\"quantity\":1}")
+                .reduce((a, b) -> a + "," + b).orElseThrow();
+        for (int i = 0; i < ORDERS; i++) {
+            String body = mvc.perform(post("/orders")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"customerExternalId\":\"" + CUSTOMER + "\",\"items\":[" + items + "]}"))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            orders.add(objectMapper.readTree(body).get("externalId").asText());
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    @SqlBudget(maxStatements = 2)
+    void getOrder() throws Exception {
+        mvc.perform(get("/orders/{id}", orders.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(SKUS.size()));
+    }
+
+    @Test
+    @SqlBudget(maxStatements = 2)
+    void getOrdersByIds() throws Exception {
+        mvc.perform(get("/orders").param("ids", String.join(",", orders)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(ORDERS));
+    }
+
+    @Test
+    @SqlBudget(maxStatements = 2)
+    void listOrdersByCursor() throws Exception {
+        mvc.perform(get("/orders").param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(ORDERS))
+                .andExpect(jsonPath("$.items[0].items.length()").value(SKUS.size()));
+    }
+
+    @Test
+    @SqlBudget(maxStatements = 3)
+    void listCustomerOrders() throws Exception {
+        mvc.perform(get("/customers/{id}/orders", CUSTOMER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(ORDERS));
+    }
+
+    @Test
+    @SqlBudget(maxStatements = 3)
+    void listCustomerOrders_unknownCustomer() throws Exception {
+        mvc.perform(get("/customers/{id}/orders", "nobody"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @SqlBudget(maxStatements = 2)
+    void getProduct() throws Exception {
+        mvc.perform(get("/products/{sku}", SKUS.get(0)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SqlBudget(maxStatements = 8)
+    void cancelOrder() throws Exception {
+        mvc.perform(post("/orders/{id}/cancel", orders.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELED"));
+    }
+}
@@ -0,0 +1,258 @@
+package com.waalterGar.projects.ecommerce;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waalterGar.projects.ecommerce.repository.CartRepository;
+import com.waalterGar.projects.ecommerce.repository.CustomerRepository;
+import com.waalterGar.projects.ecommerce.repository.OrderRepository;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.testsupport.builders.CustomerBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares Tomcat on platform threads with Tomcat on virtual threads (plus the concurrency limiter)
+ * under the same load: {@code GET /products/{sku}} lookups, then cart checkouts. Both runs share one
+ * MySQL Testcontainer; each boots its own application context. Prints throughput, p50/p99/p99.9,
+ * the 503 rate (requests shed by the limiter) and pinned virtual threads per run, and writes the
+ * distributions to {@code target/thread-model/<threads>-<phase>.hgrm}.
+ * <p>
+ * Tunable with system properties (defaults in brackets): {@code load.clients} [400 concurrent clients],
+ * {@code load.lookups} [20000], {@code load.checkouts} [1000], {@code load.skus} [50].
+ * <p>
+ * Run with: ./mvnw -Dtest=ThreadModelLoadIT -Dload.clients=1000 test
+ */
+@Testcontainers
+class ThreadModelLoadIT {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.37");
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 400);
+    private static final int LOOKUPS = Integer.getInteger("load.lookups", 20_000);
+    private static final int CHECKOUTS = Integer.getInteger("load.checkouts", 1_000);
+    private static final int SKUS = Integer.getInteger("load.skus", 50);
+    private static final int CUSTOMERS = 20;
+
+    /** One summary line per run, printed side by side once both have finished. */
+    private static final Map<String, String> SUMMARY = new ConcurrentSkipListMap<>();
+
+    @AfterAll
+    static void compare() {
+        SUMMARY.values().forEach(System.out::println);
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = {"spring.threads.virtual.enabled=false", "concurrency.limit.enabled=false"})
+    @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+    class PlatformThreads extends Workload {
+        PlatformThreads() {
+            super("platform");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = {"spring.threads.virtual.enabled=true", "concurrency.limit.enabled=true"})
+    @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+    class VirtualThreads extends Workload {
+        VirtualThreads() {
+            super("virtual");
+        }
+    }
+
+    abstract static class Workload {
+        private final String threads;
+        private final HttpClient http = HttpClient.newHttpClient();
+        private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+        private final Map<String, Map<Integer, LongAdder>> statuses = new ConcurrentHashMap<>();
+        private final List<String> skus = new ArrayList<>();
+        private final List<String> customers = new ArrayList<>();
+
+        @LocalServerPort int port;
+
+        @Autowired ObjectMapper objectMapper;
+        @Autowired MeterRegistry meterRegistry;
+        @Autowired ProductRepository productRepository;
+        @Autowired CustomerRepository customerRepository;
+        @Autowired OrderRepository orderRepository;
+        @Autowired CartRepository cartRepository;
+
+        Workload(String threads) {
+            this.threads = threads;
+        }
+
+        @BeforeEach
+        void seed() {
+            for (int i = 0; i < SKUS; i++) {
+                String sku = String.format("TM-%04d", i);
+                productRepository.save(new ProductBuilder().withSku(sku).withPrice("9.99").withStockQuantity(1_000_000).build());
+                skus.add(sku);
+            }
+            for (int i = 0; i < CUSTOMERS; i++) {
+                String externalId = "tm-cust-" + i;
+                customerRepository.save(new CustomerBuilder().withExternalId(externalId)
+                        .withEmail("tm" + i + "@example.com").build());
+                customers.add(externalId);
+            }
+        }
+
+        @AfterEach
+        void cleanup() {
+            orderRepository.deleteAll();
+            cartRepository.deleteAll();
+            productRepository.deleteAll();
+            customerRepository.deleteAll();
+        }
+
+        @Test
+        void productLookupsAndCheckouts() throws Exception {
+            double lookupSeconds = run(LOOKUPS, () ->
+                    call("lookup", "GET", "/products/" + randomOf(skus), null));
+            double checkoutSeconds = run(CHECKOUTS, this::checkoutFlow);
+
+            PrintStream out = System.out;
+            out.printf("[thread-model] %s: clients=%d lookups=%d in %.2fs, checkouts=%d in %.2fs%n",
+                    threads, CLIENTS, LOOKUPS, lookupSeconds, CHECKOUTS, checkoutSeconds);
+            SUMMARY.put(threads + "-1", line("lookup", LOOKUPS / lookupSeconds));
+            SUMMARY.put(threads + "-2", line("checkout", CHECKOUTS / checkoutSeconds));
+            SUMMARY.values().forEach(out::println);
+            writeHistograms(Path.of("target", "thread-model"));
+
+            for (Map.Entry<String, Map<Integer, LongAdder>> byEndpoint : statuses.entrySet()) {
+                assertThat(byEndpoint.getValue().keySet())
+                        .as("5xx responses from %s other than 503 (shed by the limiter)", byEndpoint.getKey())
+                        .allMatch(status -> status < 500 || status == 503);
+            }
+        }
+
+        private void checkoutFlow() throws Exception {
+            Response cart = call("createCart", "POST", "/carts?currency=EUR", null);
+            if (cart.status() != 201) {
+                return;
+            }
+            String cartId = cart.body().get("externalId").asText();
+            call("addItem", "POST", "/carts/" + cartId + "/items", "{\"sku\":\"" + randomOf(skus) + "\",\"qty\":1}");
+            call("checkout", "POST", "/carts/" + cartId + "/checkout?customerId=" + randomOf(customers), null);
+        }
+
+        /** Runs {@code total} iterations of {@code body} from {@link #CLIENTS} clients; returns elapsed seconds. */
+        private double run(int total, Step body) throws Exception {
+            AtomicInteger remaining = new AtomicInteger(total);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            // Clients on virtual threads so the load generator itself is never the bottleneck
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int t = 0; t < CLIENTS; t++) {
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        while (remaining.getAndDecrement() > 0) {
+                            body.run();
+                        }
+                        return null;
+                    }));
+                }
+                long startedAt = System.nanoTime();
+                start.countDown();
+                for (Future<?> f : futures) f.get(10, TimeUnit.MINUTES);
+                return (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            }
+        }
+
+        private Response call(String endpoint, String method, String path, String json) throws IOException, InterruptedException {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api" + path))
+                    .header("Accept", "application/json");
+            if (json != null) {
+                request.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofString(json));
+            } else {
+                request.method(method, HttpRequest.BodyPublishers.noBody());
+            }
+
+            long started = System.nanoTime();
+            HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            latencies.computeIfAbsent(endpoint, e -> new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3))
+                    .recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started));
+            statuses.computeIfAbsent(endpoint, e -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(response.statusCode(), s -> new LongAdder()).increment();
+
+            JsonNode body = response.body().isEmpty() ? null : objectMapper.readTree(response.body());
+            return new Response(response.statusCode(), body);
+        }
+
+        private String line(String endpoint, double perSecond) {
+            Histogram h = latencies.get(endpoint);
+            Map<Integer, LongAdder> byStatus = statuses.getOrDefault(endpoint, Map.of());
+            LongAdder shed = byStatus.get(503);
+            double pinned = meterRegistry.find("jvm.threads.virtual.pinned").counters().stream()
+                    .mapToDouble(c -> c.count()).sum();
+            return String.format("[thread-model] %-8s %-8s %8.1f req/s p50=%7.2fms p99=%7.2fms p99.9=%7.2fms 503=%5.2f%% pinned=%.0f",
+                    threads, endpoint, perSecond,
+                    h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                    h.getValueAtPercentile(99.9) / 1000.0,
+                    shed == null ? 0 : 100.0 * shed.sum() / h.getTotalCount(), pinned);
+        }
+
+        private void writeHistograms(Path dir) throws IOException {
+            Files.createDirectories(dir);
+            for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+                try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(threads + "-" + entry.getKey() + ".hgrm")))) {
+                    // values recorded in µs; scale so the file reads in ms
+                    entry.getValue().outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+
+        private static String randomOf(List<String> values) {
+            return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+        }
+    }
+
+    @FunctionalInterface
+    interface Step {
+        void run() throws Exception;
+    }
+
+    record Response(int status, JsonNode body) {}
+}
@@ -0,0 +1,38 @@
+package com.waalterGar.projects.ecommerce.api.cache;
+
+import com.waalterGar.projects.ecommerce.service.cache.SerializedPage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerializedResponsesTest {
+
+    private final byte[] json = "[{\"sku\":\"SKU-1\"}]".getBytes();
+    private final byte[] gzip = {0x1f, (byte) 0x8b, 1, 2, 3};
+
+    @Test
+    @DisplayName("json: sends the pre-gzipped array as-is to clients that accept gzip")
+    void json_acceptsGzip_sendsGzippedArray() {
+        ResponseEntity<byte[]> response = SerializedResponses.json(new SerializedPage(json, gzip), "br, gzip;q=0.8");
+
+        assertThat(response.getBody()).isSameAs(gzip);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    @DisplayName("json: plain JSON without Accept-Encoding, with gzip;q=0, or when there is no gzipped copy")
+    void json_noGzip_sendsJsonArray() {
+        assertThat(SerializedResponses.json(new SerializedPage(json, gzip), null).getBody()).isSameAs(json);
+        assertThat(SerializedResponses.json(new SerializedPage(json, gzip), "gzip;q=0, identity").getBody()).isSameAs(json);
+
+        ResponseEntity<byte[]> small = SerializedResponses.json(new SerializedPage(json, null), "gzip");
+        assertThat(small.getBody()).isSameAs(json);
+        assertThat(small.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+    }
+}
@@ -0,0 +1,135 @@
+package com.waalterGar.projects.ecommerce.api.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimitFilter filter;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(100), new ObjectMapper().registerModule(new JavaTimeModule()));
+        pool = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static MockHttpServletRequest get(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api" + path);
+        request.setContextPath("/api");
+        return request;
+    }
+
+    private static FilterChain ok(int[] calls) {
+        return (req, res) -> {
+            calls[0]++;
+            ((HttpServletResponse) res).setStatus(200);
+        };
+    }
+
+    @Test
+    @DisplayName("a request within the limit runs and gives its permit back")
+    void withinLimit_runsAndReleases() throws Exception {
+        int[] calls = {0};
+
+        filter.doFilter(get("/orders/ORD-1"), new MockHttpServletResponse(), ok(calls));
+        filter.doFilter(get("/orders/ORD-1"), new MockHttpServletResponse(), ok(calls));
+
+        assertThat(calls[0]).isEqualTo(2);
+        assertThat(filter.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("no permit within acquire-timeout -> 503 ProblemDetail with Retry-After, handler not called")
+    void saturated_returns503() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Future<?> slow = pool.submit(() -> {
+            filter.doFilter(get("/orders"), new MockHttpServletResponse(), (req, res) -> {
+                holding.countDown();
+                try {
+                    done.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            return null;
+        });
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        int[] calls = {0};
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(get("/orders"), response, ok(calls));
+        done.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+
+        assertThat(calls[0]).isZero();
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(response.getContentAsString()).contains("urn:problem:server-busy");
+        assertThat(filter.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("an async request keeps its permit until the async response completes")
+    void asyncRequest_releasesOnComplete() throws Exception {
+        MockHttpServletRequest request = get("/orders/all");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+        assertThat(filter.inFlight()).isEqualTo(1);
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertThat(filter.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("actuator requests are never limited")
+    void actuator_isNotLimited() throws Exception {
+        assertThat(filter.shouldNotFilter(get("/actuator/health"))).isTrue();
+        assertThat(filter.shouldNotFilter(get("/orders"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("catalog reads served from memory are not limited; writes, exports and conditional GETs are")
+    void catalogReads_areNotLimited() throws Exception {
+        assertThat(filter.shouldNotFilter(get("/products"))).isTrue();
+        assertThat(filter.shouldNotFilter(get("/products/search"))).isTrue();
+        assertThat(filter.shouldNotFilter(get("/products/all"))).isTrue();
+        assertThat(filter.shouldNotFilter(get("/products/SKU-1"))).isTrue();
+
+        MockHttpServletRequest export = get("/products/all");
+        export.addHeader("Accept", "application/x-ndjson");
+        MockHttpServletRequest conditional = get("/products/SKU-1");
+        conditional.addHeader("If-None-Match", "\"SKU-1-v3\"");
+        MockHttpServletRequest update = new MockHttpServletRequest("PUT", "/api/products/SKU-1");
+        update.setContextPath("/api");
+        assertThat(filter.shouldNotFilter(export)).isFalse();
+        assertThat(filter.shouldNotFilter(conditional)).isFalse();
+        assertThat(filter.shouldNotFilter(update)).isFalse();
+    }
+}
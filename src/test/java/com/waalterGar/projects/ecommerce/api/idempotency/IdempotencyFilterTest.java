@@ -0,0 +1,209 @@
+package com.waalterGar.projects.ecommerce.api.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.waalterGar.projects.ecommerce.service.exception.IdempotencyKeyInProgressException;
+import com.waalterGar.projects.ecommerce.service.exception.IdempotencyKeyReuseException;
+import com.waalterGar.projects.ecommerce.service.idempotency.IdempotencyStore;
+import com.waalterGar.projects.ecommerce.service.idempotency.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+
+    @Mock IdempotencyStore store;
+
+    private static final String KEY = "8d0f2a4e-retry-1";
+    private static final String ORDER_JSON = "{\"externalId\":\"ord-1\"}";
+
+    private IdempotencyFilter filter;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter(store, new ObjectMapper().registerModule(new JavaTimeModule()));
+        response = new MockHttpServletResponse();
+    }
+
+    private static MockHttpServletRequest post(String path, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api" + path);
+        request.setContextPath("/api");
+        request.addHeader(IdempotencyFilter.HEADER, KEY);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    /** A handler that reads the body and answers with {@code status}, counting its invocations. */
+    private static FilterChain handler(int status, int[] calls) {
+        return (req, res) -> {
+            calls[0]++;
+            assertThat(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"items\":[]}");
+            res.setContentType("application/json");
+            ((HttpServletResponse) res).setStatus(status);
+            res.getOutputStream().write(ORDER_JSON.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    @Test
+    @DisplayName("first request: runs the handler with the original body and records its response")
+    void firstRequest_runsAndRecords() throws Exception {
+        when(store.begin(eq(KEY), anyString())).thenReturn(Optional.empty());
+        int[] calls = {0};
+
+        filter.doFilter(post("/orders", "{\"items\":[]}"), response, handler(201, calls));
+
+        assertThat(calls[0]).isEqualTo(1);
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(response.getContentAsString()).isEqualTo(ORDER_JSON);
+        ArgumentCaptor<StoredResponse> stored = ArgumentCaptor.forClass(StoredResponse.class);
+        verify(store).complete(eq(KEY), stored.capture());
+        assertThat(stored.getValue().status()).isEqualTo(201);
+        assertThat(new String(stored.getValue().body(), StandardCharsets.UTF_8)).isEqualTo(ORDER_JSON);
+        verify(store, never()).release(any());
+    }
+
+    @Test
+    @DisplayName("non-blocking read: a ReadListener gets the buffered body, then onAllDataRead")
+    void readListener_receivesBufferedBody() throws Exception {
+        when(store.begin(eq(KEY), anyString())).thenReturn(Optional.empty());
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean[] allRead = {false};
+
+        filter.doFilter(post("/orders", "{\"items\":[]}"), response, (req, res) -> {
+            ServletInputStream in = req.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[4];
+                    while (in.isReady() && !in.isFinished()) {
+                        read.write(buffer, 0, in.read(buffer));
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allRead[0] = true;
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail("unexpected read error", t);
+                }
+            });
+            ((HttpServletResponse) res).setStatus(201);
+        });
+
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo("{\"items\":[]}");
+        assertThat(allRead[0]).isTrue();
+    }
+
+    @Test
+    @DisplayName("retry: the stored response is replayed and the handler never runs")
+    void retry_replaysWithoutHandler() throws Exception {
+        when(store.begin(eq(KEY), anyString())).thenReturn(Optional.of(
+                new StoredResponse("h", 201, "application/json", ORDER_JSON.getBytes(StandardCharsets.UTF_8))));
+        int[] calls = {0};
+
+        filter.doFilter(post("/orders", "{\"items\":[]}"), response, handler(201, calls));
+
+        assertThat(calls[0]).isZero();
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(response.getContentAsString()).isEqualTo(ORDER_JSON);
+        assertThat(response.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    @DisplayName("server error: nothing is recorded and the key is released for the next retry")
+    void serverError_releasesKey() throws Exception {
+        when(store.begin(eq(KEY), anyString())).thenReturn(Optional.empty());
+
+        filter.doFilter(post("/carts/cart-1/checkout", "{\"items\":[]}"), response, handler(503, new int[1]));
+
+        verify(store).release(KEY);
+        verify(store, never()).complete(any(), any());
+    }
+
+    @Test
+    @DisplayName("client error: a 422 is final and is recorded like a success")
+    void clientError_isRecorded() throws Exception {
+        when(store.begin(eq(KEY), anyString())).thenReturn(Optional.empty());
+
+        filter.doFilter(post("/orders/ord-1/pay", "{\"items\":[]}"), response, handler(422, new int[1]));
+
+        verify(store).complete(eq(KEY), argThat(r -> r.status() == 422));
+    }
+
+    @Test
+    @DisplayName("reused key: 422 problem, handler not invoked")
+    void reusedKey_unprocessable() throws Exception {
+        when(store.begin(eq(KEY), anyString())).thenThrow(new IdempotencyKeyReuseException());
+        int[] calls = {0};
+
+        filter.doFilter(post("/orders", "{\"items\":[]}"), response, handler(201, calls));
+
+        assertThat(calls[0]).isZero();
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(response.getContentType()).isEqualTo("application/problem+json");
+        assertThat(response.getContentAsString()).contains("urn:problem:idempotency-key-reused");
+    }
+
+    @Test
+    @DisplayName("still running elsewhere: 409 problem")
+    void inProgress_conflict() throws Exception {
+        when(store.begin(eq(KEY), anyString())).thenThrow(new IdempotencyKeyInProgressException());
+
+        filter.doFilter(post("/orders", "{\"items\":[]}"), response, handler(201, new int[1]));
+
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(response.getContentAsString()).contains("urn:problem:idempotency-key-in-progress");
+    }
+
+    @Test
+    @DisplayName("requests without the header, other methods and other paths pass straight through")
+    void notApplicable_passesThrough() throws Exception {
+        MockHttpServletRequest noHeader = new MockHttpServletRequest("POST", "/api/orders");
+        noHeader.setContextPath("/api");
+        MockHttpServletRequest cancel = post("/orders/ord-1/cancel", "{\"items\":[]}");
+        MockHttpServletRequest get = post("/orders", "{\"items\":[]}");
+        get.setMethod("GET");
+
+        for (MockHttpServletRequest request : new MockHttpServletRequest[]{noHeader, cancel, get}) {
+            int[] calls = {0};
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> calls[0]++);
+            assertThat(calls[0]).isEqualTo(1);
+        }
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    @DisplayName("hash: covers path and body, so the same key on another request does not match")
+    void hash_coversPathAndBody() {
+        String base = IdempotencyFilter.hash(post("/orders", "{}"), "{}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(IdempotencyFilter.hash(post("/orders", "{}"), "{}".getBytes(StandardCharsets.UTF_8))).isEqualTo(base);
+        assertThat(IdempotencyFilter.hash(post("/orders/x/pay", "{}"), "{}".getBytes(StandardCharsets.UTF_8))).isNotEqualTo(base);
+        assertThat(IdempotencyFilter.hash(post("/orders", "{ }"), "{ }".getBytes(StandardCharsets.UTF_8))).isNotEqualTo(base);
+    }
+}
@@ -0,0 +1,58 @@
+package com.waalterGar.projects.ecommerce.api.metrics;
+
+import com.waalterGar.projects.ecommerce.service.metrics.RepositoryCallCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RepositoryCallsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RepositoryCallsFilter filter = new RepositoryCallsFilter(registry);
+    private final RepositoryCallCounter counter = new RepositoryCallCounter();
+
+    @Test
+    @DisplayName("records the repository calls made while handling the request, tagged by route template")
+    void recordsCallsPerRequest_byRouteTemplate() throws Throwable {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/ord-1");
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/orders/{orderNumber}");
+            repositoryCall();
+            repositoryCall();
+        });
+        filter.doFilter(new MockHttpServletRequest("GET", "/orders/ord-2"), new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/orders/{orderNumber}");
+            repositoryCall();
+        });
+
+        DistributionSummary summary = registry.get(RepositoryCallsFilter.METER).tag("uri", "/orders/{orderNumber}").summary();
+        assertThat(summary.count()).isEqualTo(2);
+        assertThat(summary.totalAmount()).isEqualTo(3);
+        assertThat(summary.max()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("calls outside a request are not counted")
+    void callsOutsideRequest_areIgnored() throws Throwable {
+        repositoryCall();
+
+        assertThat(RepositoryCallCounter.end()).isEqualTo(-1);
+        assertThat(registry.find(RepositoryCallsFilter.METER).summaries()).isEmpty();
+    }
+
+    private void repositoryCall() {
+        try {
+            counter.invoke(mock(MethodInvocation.class));
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
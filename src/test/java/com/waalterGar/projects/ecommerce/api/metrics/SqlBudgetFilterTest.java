@@ -0,0 +1,60 @@
+package com.waalterGar.projects.ecommerce.api.metrics;
+
+import com.waalterGar.projects.ecommerce.service.diagnostics.SqlStatementStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlBudgetFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlBudgetFilter filter = new SqlBudgetFilter(2, Duration.ofSeconds(10), registry);
+    private final SqlStatementStats stats = new SqlStatementStats(Duration.ofSeconds(10), registry);
+
+    @Test
+    @DisplayName("records the statements run while handling the request, tagged by route template")
+    void recordsStatementsPerRequest_byRouteTemplate() throws Exception {
+        statement();
+        filter.doFilter(new MockHttpServletRequest("GET", "/orders/ord-1"), new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/orders/{orderNumber}");
+            statement();
+            statement();
+        });
+
+        DistributionSummary summary = registry.get(SqlBudgetFilter.STATEMENTS).tag("uri", "/orders/{orderNumber}").summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(2);
+        assertThat(registry.get(SqlBudgetFilter.TIME).tag("uri", "/orders/{orderNumber}").timer().count()).isEqualTo(1);
+        assertThat(registry.get(SqlBudgetFilter.EXCEEDED).tag("uri", "/orders/{orderNumber}").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("a request over the statement budget is counted as exceeded")
+    void overBudget_isCounted() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/customers/c-1/orders"), new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/customers/{externalId}/orders");
+            for (int i = 0; i < 3; i++) {
+                statement();
+            }
+        });
+
+        assertThat(registry.get(SqlBudgetFilter.EXCEEDED).tag("uri", "/customers/{externalId}/orders").counter().count())
+                .isEqualTo(1);
+    }
+
+    private void statement() {
+        ExecutionInfo info = new ExecutionInfo();
+        stats.beforeQuery(info, List.of());
+        stats.afterQuery(info, List.of());
+    }
+}
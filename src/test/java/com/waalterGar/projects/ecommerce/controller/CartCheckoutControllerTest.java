@@ -1,12 +1,16 @@
 package com.waalterGar.projects.ecommerce.controller;
 
 
+import com.waalterGar.projects.ecommerce.Dto.CheckoutTicketDto;
 import com.waalterGar.projects.ecommerce.Dto.OrderDto;
 import com.waalterGar.projects.ecommerce.api.GlobalExceptionHandler;
 import com.waalterGar.projects.ecommerce.service.CartService;
 import com.waalterGar.projects.ecommerce.service.CheckoutService;
+import com.waalterGar.projects.ecommerce.service.checkout.CheckoutQueue;
+import com.waalterGar.projects.ecommerce.service.exception.CheckoutQueueFullException;
 import com.waalterGar.projects.ecommerce.service.exception.InactiveProductException;
 import com.waalterGar.projects.ecommerce.service.exception.InsufficientStockException;
+import com.waalterGar.projects.ecommerce.utils.CheckoutStatus;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -44,6 +48,8 @@ public class CartCheckoutControllerTest {
 
     @MockitoBean CheckoutService checkoutService;
 
+    @MockitoBean CheckoutQueue checkoutQueue;
+
     @Test
     @DisplayName("POST /carts/{id}/checkout?customerId=... -> 201 Created with Location and body")
     void checkout_happyPath_returns201_withLocation_andBody() throws Exception {
@@ -147,6 +153,53 @@ public class CartCheckoutControllerTest {
         verifyNoMoreInteractions(checkoutService);
     }
 
+    @Test
+    @DisplayName("POST /carts/{id}/checkout?mode=async -> 202 with ticket and Location to poll")
+    void checkout_async_returns202_withTicket() throws Exception {
+        when(checkoutQueue.submit(CART_ID, CUSTOMER_ID)).thenReturn(pendingTicket("tkt-1"));
+
+        mvc.perform(post(BASE_URL + "/" + CART_ID + "/checkout")
+                        .param("customerId", CUSTOMER_ID)
+                        .param("mode", "async")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/checkouts/tkt-1"))
+                .andExpect(jsonPath("$.ticket").value("tkt-1"))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.cartExternalId").value(CART_ID));
+
+        verify(checkoutQueue).submit(CART_ID, CUSTOMER_ID);
+        verifyNoInteractions(checkoutService);
+    }
+
+    @Test
+    @DisplayName("POST /carts/{id}/checkout?mode=async -> 429 with Retry-After when the queue is full")
+    void checkout_async_queueFull_returns429_problem() throws Exception {
+        when(checkoutQueue.submit(anyString(), anyString())).thenThrow(new CheckoutQueueFullException());
+
+        mvc.perform(post(BASE_URL + "/" + CART_ID + "/checkout")
+                        .param("customerId", CUSTOMER_ID)
+                        .param("mode", "async")
+                        .accept(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value("urn:problem:checkout-queue-full"));
+    }
+
+    @Test
+    @DisplayName("POST /carts/{id}/checkout?mode=later -> 400 ProblemDetail")
+    void checkout_unknownMode_returns400_problem() throws Exception {
+        mvc.perform(post(BASE_URL + "/" + CART_ID + "/checkout")
+                        .param("customerId", CUSTOMER_ID)
+                        .param("mode", "later")
+                        .accept(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type").value("urn:problem:invalid-request"));
+
+        verifyNoInteractions(checkoutService, checkoutQueue);
+    }
+
     // Helper method
     private static OrderDto order(String externalId) {
         OrderDto dto = new OrderDto();
@@ -154,4 +207,12 @@ public class CartCheckoutControllerTest {
         return dto;
     }
 
+    private static CheckoutTicketDto pendingTicket(String ticket) {
+        CheckoutTicketDto dto = new CheckoutTicketDto();
+        dto.setTicket(ticket);
+        dto.setStatus(CheckoutStatus.PENDING);
+        dto.setCartExternalId(CART_ID);
+        return dto;
+    }
+
 }
@@ -2,13 +2,17 @@ package com.waalterGar.projects.ecommerce.controller;
 
 import com.waalterGar.projects.ecommerce.Dto.CartDto;
 import com.waalterGar.projects.ecommerce.Dto.CartItemDto;
+import com.waalterGar.projects.ecommerce.Dto.CartItemOperationDto;
 import com.waalterGar.projects.ecommerce.api.GlobalExceptionHandler;
 import com.waalterGar.projects.ecommerce.service.CartService;
 import com.waalterGar.projects.ecommerce.service.CheckoutService;
+import com.waalterGar.projects.ecommerce.service.checkout.CheckoutQueue;
 import com.waalterGar.projects.ecommerce.service.exception.InactiveProductException;
+import com.waalterGar.projects.ecommerce.utils.CartItemOperationType;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -20,7 +24,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,6 +46,8 @@ public class CartControllerTest {
     CartService cartService;
     @MockitoBean
     CheckoutService checkoutService;
+    @MockitoBean
+    CheckoutQueue checkoutQueue;
 
     @Test
     @DisplayName("POST /carts -> 200 with new cart")
@@ -75,6 +83,39 @@ public class CartControllerTest {
         verifyNoMoreInteractions(cartService);
     }
 
+    @Test
+    @DisplayName("GET /carts/{id} -> ETag from id and version; If-None-Match with it -> 304 from the version alone")
+    void getCart_etag_thenIfNoneMatch_returns304() throws Exception {
+        CartDto cart = cartWithOneItem(CART_ID, SKU, "Logo Mug", "19.99", 2);
+        cart.setVersion(7L);
+        when(cartService.getCartByExternalId(CART_ID)).thenReturn(cart);
+        when(cartService.findVersion(CART_ID)).thenReturn(Optional.of(7L));
+
+        String etag = mvc.perform(get(BASE_URL + "/" + CART_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + CART_ID + "-v7\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get(BASE_URL + "/" + CART_ID).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(cartService, times(1)).getCartByExternalId(CART_ID);
+        verify(cartService).findVersion(CART_ID);
+        verifyNoMoreInteractions(cartService);
+    }
+
+    @Test
+    @DisplayName("GET /carts/{id} with If-None-Match on a missing cart -> 404")
+    void getCart_ifNoneMatch_missing_returns404() throws Exception {
+        when(cartService.findVersion(CART_ID)).thenReturn(Optional.empty());
+        when(cartService.getCartByExternalId(CART_ID)).thenThrow(new NoSuchElementException("Cart not found"));
+
+        mvc.perform(get(BASE_URL + "/" + CART_ID).header("If-None-Match", "\"" + CART_ID + "-v7\""))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.type").value("urn:problem:not-found"));
+    }
+
     @Test
     @DisplayName("GET /carts/{id} -> 404 ProblemDetail when missing")
     void getCart_missing_returns404_problem() throws Exception {
@@ -133,6 +174,50 @@ public class CartControllerTest {
         verifyNoInteractions(cartService);
     }
 
+    @Test
+    @DisplayName("PATCH /carts/{id}/items -> 200 with the cart after all operations")
+    void applyItemOperations_valid_returns200() throws Exception {
+        String payload = """
+        { "operations": [
+            { "op": "SET", "sku": "MUG-LOGO-001", "qty": 2 },
+            { "op": "REMOVE", "sku": "TSHIRT-LOGO-001" }
+        ] }
+        """;
+        when(cartService.applyItemOperations(eq(CART_ID), anyList()))
+                .thenReturn(cartWithOneItem(CART_ID, SKU, "Logo Mug", "19.99", 2));
+
+        mvc.perform(patch(BASE_URL + "/" + CART_ID + "/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].productSku").value(SKU))
+                .andExpect(handler().methodName("applyItemOperations"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CartItemOperationDto>> ops = ArgumentCaptor.forClass(List.class);
+        verify(cartService).applyItemOperations(eq(CART_ID), ops.capture());
+        assertThat(ops.getValue()).extracting(CartItemOperationDto::getOp)
+                .containsExactly(CartItemOperationType.SET, CartItemOperationType.REMOVE);
+    }
+
+    @Test
+    @DisplayName("PATCH /carts/{id}/items -> 400 ProblemDetail when an operation is invalid")
+    void applyItemOperations_invalidOperation_returns400_problem() throws Exception {
+        String bad = """
+        { "operations": [ { "op": "ADD", "sku": "", "qty": 0 } ] }
+        """;
+
+        mvc.perform(patch(BASE_URL + "/" + CART_ID + "/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_PROBLEM_JSON)
+                        .content(bad))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type").value("urn:problem:validation"));
+
+        verifyNoInteractions(cartService);
+    }
+
     @Test
     @DisplayName("POST /carts/{id}/items -> 422 ProblemDetail when product inactive")
     void addItem_inactive_returns422_problem() throws Exception {
@@ -0,0 +1,61 @@
+package com.waalterGar.projects.ecommerce.controller;
+
+import com.waalterGar.projects.ecommerce.Dto.CheckoutTicketDto;
+import com.waalterGar.projects.ecommerce.Dto.OrderDto;
+import com.waalterGar.projects.ecommerce.api.GlobalExceptionHandler;
+import com.waalterGar.projects.ecommerce.service.checkout.CheckoutQueue;
+import com.waalterGar.projects.ecommerce.utils.CheckoutStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = CheckoutController.class)
+@Import(GlobalExceptionHandler.class)
+@AutoConfigureMockMvc(addFilters = false)
+class CheckoutControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockitoBean
+    CheckoutQueue checkoutQueue;
+
+    @Test
+    @DisplayName("GET /checkouts/{ticket} -> 200 with the order once completed")
+    void getTicket_completed_returnsOrder() throws Exception {
+        CheckoutTicketDto ticket = new CheckoutTicketDto();
+        ticket.setTicket("tkt-1");
+        ticket.setStatus(CheckoutStatus.COMPLETED);
+        OrderDto order = new OrderDto();
+        order.setExternalId("ord-1");
+        ticket.setOrder(order);
+        when(checkoutQueue.find("tkt-1")).thenReturn(Optional.of(ticket));
+
+        mvc.perform(get("/checkouts/tkt-1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.order.externalId").value("ord-1"));
+    }
+
+    @Test
+    @DisplayName("GET /checkouts/{ticket} -> 404 for an unknown or expired ticket")
+    void getTicket_unknown_returns404_problem() throws Exception {
+        when(checkoutQueue.find("nope")).thenReturn(Optional.empty());
+
+        mvc.perform(get("/checkouts/nope").accept(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.type").value("urn:problem:not-found"));
+    }
+}
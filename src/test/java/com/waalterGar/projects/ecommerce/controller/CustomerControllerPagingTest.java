@@ -24,6 +24,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -184,5 +185,27 @@ public class CustomerControllerPagingTest {
                 CountryCode.ES, true
         );
     }
-}
 
+    @Test
+    @DisplayName("GET /customers?cursor= with email filter uses keyset paging")
+    void list_cursorMode_withEmail() throws Exception {
+        when(customerService.listAfter(eq("acme"), any())).thenReturn(new PageEnvelope<>(
+                List.of(), 0, 20, null, null, false, false, List.of("createdAt,desc", "id,asc"), null));
+
+        mvc.perform(get(BASE_URL).param("cursor", "").param("email", "acme").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sort[1]").value("id,asc"))
+                .andExpect(jsonPath("$.totalItems").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /customers returns 400 when cursor is combined with q")
+    void list_cursorMode_withQ_rejected() throws Exception {
+        mvc.perform(get(BASE_URL).param("cursor", "").param("q", "smith").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type").value("urn:problem:invalid-pagination"))
+                .andExpect(jsonPath("$.detail").value("q cannot be combined with cursor"));
+
+        verifyNoInteractions(customerService);
+    }
+}
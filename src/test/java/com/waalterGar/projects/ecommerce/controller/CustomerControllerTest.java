@@ -19,11 +19,19 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -307,6 +315,51 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.length()").value(0));
     }
 
+    @Test
+    @DisplayName("GET /customers/all without Accept header → 200 with JSON array, not NDJSON")
+    void getAllCustomers_noAcceptHeader_returnsJsonArray() throws Exception {
+        CustomerDto c1 = sampleDto("cust-001", "Jane", "Doe", "jane@example.com", "+34 600 000 001",
+                "Calle 1", "Madrid", "M", "28001", CountryCode.ES, true);
+        when(customerService.getAllCustomers()).thenReturn(java.util.List.of(c1));
+
+        mvc.perform(get("/customers/all"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].externalId").value("cust-001"));
+
+        verify(customerService, never()).exportAllCustomers(any());
+    }
+
+    @Test
+    @DisplayName("GET /customers/all as NDJSON → 200 streaming one customer per line")
+    void exportAllCustomers_ndjson_streamsOnePerLine() throws Exception {
+        CustomerDto c1 = sampleDto("cust-001", "Jane", "Doe", "jane@example.com", "+34 600 000 001",
+                "Calle 1", "Madrid", "M", "28001", CountryCode.ES, true);
+        CustomerDto c2 = sampleDto("cust-002", "John", "Smith", "john@example.com", "+34 600 000 002",
+                "Calle 2", "Barcelona", "B", "08001", CountryCode.ES, true);
+        doAnswer(inv -> {
+            Consumer<CustomerDto> sink = inv.getArgument(0);
+            sink.accept(c1);
+            sink.accept(c2);
+            return null;
+        }).when(customerService).exportAllCustomers(any());
+
+        MvcResult started = mvc.perform(get("/customers/all").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(5_000);
+
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.split("\n")).hasSize(2);
+        assertThat(body).startsWith("{\"externalId\":\"cust-001\"").endsWith("}\n");
+        verify(customerService, never()).getAllCustomers();
+    }
+
     // ------- helper -------
     private static CustomerDto sampleDto(String externalId, String firstName, String lastName, String email, String phone, String address, String city, String state, String zip, CountryCode country, Boolean isActive
     ) {
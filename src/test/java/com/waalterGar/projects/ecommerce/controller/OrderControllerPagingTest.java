@@ -25,6 +25,8 @@ import jakarta.annotation.Resource;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -131,4 +133,22 @@ public class OrderControllerPagingTest {
                 .andExpect(jsonPath("$.title").value("Invalid sort parameter"))
                 .andExpect(jsonPath("$.allowedFields").isArray());
     }
+
+    @Test
+    @DisplayName("GET /orders?withTotal=false skips the count: no totals, estimate instead")
+    void list_withoutTotal() throws Exception {
+        var envelope = new PageEnvelope<>(
+                List.of(orderDto("O-1")), 0, 20, null, null, true, false, List.of("createdAt,desc"), null, 5000L
+        );
+        when(orderService.listWithoutTotal(any())).thenReturn(envelope);
+
+        mvc.perform(get(BASE_URL).param("withTotal", "false").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalItems").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist())
+                .andExpect(jsonPath("$.estimatedTotalItems").value(5000));
+
+        verify(orderService, never()).list(any());
+    }
 }
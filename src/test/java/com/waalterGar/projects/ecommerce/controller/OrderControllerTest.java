@@ -1,6 +1,7 @@
 package com.waalterGar.projects.ecommerce.controller;
 
 import com.waalterGar.projects.ecommerce.Dto.OrderDto;
+import com.waalterGar.projects.ecommerce.Dto.OrderLookupDto;
 import com.waalterGar.projects.ecommerce.api.GlobalExceptionHandler;
 import com.waalterGar.projects.ecommerce.api.pagination.config.OrderSortConfig;
 import com.waalterGar.projects.ecommerce.api.pagination.config.ProductSortConfig;
@@ -19,6 +20,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import static org.junit.Assert.fail;
@@ -60,6 +63,51 @@ class OrderControllerTest {
         verifyNoMoreInteractions(orderService);
     }
 
+    @Test
+    void getByExternalIds_returnsFoundAndMissing() throws Exception {
+        OrderDto dto = new OrderDto();
+        dto.setExternalId(ORDER_ID);
+        when(orderService.getOrdersByExternalIds(List.of(ORDER_ID, UNKNOWN_ORDER_ID)))
+                .thenReturn(new OrderLookupDto(List.of(dto), List.of(UNKNOWN_ORDER_ID)));
+
+        mvc.perform(get(BASE_URL).param("ids", ORDER_ID + "," + UNKNOWN_ORDER_ID))
+                .andExpect(status().isOk())
+                .andExpect(handler().methodName("getOrdersByExternalIds"))
+                .andExpect(jsonPath("$.orders[0].externalId").value(ORDER_ID))
+                .andExpect(jsonPath("$.missing[0]").value(UNKNOWN_ORDER_ID));
+
+        verify(orderService).getOrdersByExternalIds(List.of(ORDER_ID, UNKNOWN_ORDER_ID));
+        verifyNoMoreInteractions(orderService);
+    }
+
+    @Test
+    void getAll_noAcceptHeader_returnsJsonArray() throws Exception {
+        OrderDto dto = new OrderDto();
+        dto.setExternalId(ORDER_ID);
+        when(orderService.getAllOrders()).thenReturn(List.of(dto));
+
+        mvc.perform(get(BASE_URL + "/all"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(handler().methodName("getAllOrders"))
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].externalId").value(ORDER_ID));
+
+        verify(orderService).getAllOrders();
+        verifyNoMoreInteractions(orderService);
+    }
+
+    @Test
+    void getByExternalIds_tooMany_returns400_problem() throws Exception {
+        String ids = String.join(",", Collections.nCopies(101, ORDER_ID));
+
+        mvc.perform(get(BASE_URL).param("ids", ids))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type").value("urn:problem:invalid-request"));
+
+        verifyNoInteractions(orderService);
+    }
+
     @Test
     void getByExternalId_missing_returns404_problem() throws Exception {
 
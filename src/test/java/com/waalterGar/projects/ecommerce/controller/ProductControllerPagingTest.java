@@ -2,13 +2,18 @@ package com.waalterGar.projects.ecommerce.controller;
 
 import com.waalterGar.projects.ecommerce.Dto.ProductDto;
 import com.waalterGar.projects.ecommerce.api.GlobalExceptionHandler;
+import com.waalterGar.projects.ecommerce.api.pagination.Cursor;
+import com.waalterGar.projects.ecommerce.api.pagination.CursorRequest;
 import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
 import com.waalterGar.projects.ecommerce.api.pagination.config.OrderSortConfig;
 import com.waalterGar.projects.ecommerce.api.pagination.config.ProductSortConfig;
 import com.waalterGar.projects.ecommerce.config.PaginationProperties;
+import com.waalterGar.projects.ecommerce.config.ProductPageCacheProperties;
 import com.waalterGar.projects.ecommerce.service.ProductService;
+import com.waalterGar.projects.ecommerce.service.cache.ProductPageCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -26,13 +31,16 @@ import java.math.BigDecimal;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ProductController.class)
-@Import({ GlobalExceptionHandler.class, ProductSortConfig.class })
-@EnableConfigurationProperties(PaginationProperties.class)
+@Import({ GlobalExceptionHandler.class, ProductSortConfig.class, ProductPageCache.class })
+@EnableConfigurationProperties({ PaginationProperties.class, ProductPageCacheProperties.class })
 @AutoConfigureMockMvc(addFilters = false)
 @ActiveProfiles("test")
 class ProductControllerPagingTest {
@@ -145,4 +153,80 @@ class ProductControllerPagingTest {
                 .andExpect(jsonPath("$.title").value("Invalid sort parameter"))
                 .andExpect(jsonPath("$.allowedFields").isArray());
     }
+
+    @Test
+    @DisplayName("GET /products?cursor= (blank) starts keyset paging: no totals, nextCursor, id tiebreaker")
+    void list_cursorMode_firstPage() throws Exception {
+        var items = List.of(product("SKU-1","Alpha","9.99"));
+        var envelope = new PageEnvelope<>(
+                items, 0, 5, null, null, true, false, List.of("name,asc", "id,asc"), "opaque-next"
+        );
+        when(productService.listAfter(any())).thenReturn(envelope);
+
+        mvc.perform(get(BASE_URL)
+                        .param("cursor", "")
+                        .param("size", "5")
+                        .param("sort", "name,asc")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("opaque-next"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalItems").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist())
+                .andExpect(jsonPath("$.items[0].sku").value("SKU-1"));
+
+        ArgumentCaptor<CursorRequest> captor = ArgumentCaptor.forClass(CursorRequest.class);
+        verify(productService).listAfter(captor.capture());
+        verify(productService, never()).list(any());
+        assertThat(captor.getValue().size()).isEqualTo(5);
+        assertThat(captor.getValue().after()).isNull();
+        assertThat(PageEnvelope.sortTokens(captor.getValue().sort())).containsExactly("name,asc", "id,asc");
+    }
+
+    @Test
+    @DisplayName("GET /products?cursor=... decodes the cursor issued for the same sort")
+    void list_cursorMode_nextPage() throws Exception {
+        String token = new Cursor(List.of("name,asc", "id,asc"),
+                List.of("Alpha", "00000000-0000-0000-0000-000000000001")).encode();
+        when(productService.listAfter(any())).thenReturn(new PageEnvelope<>(
+                List.of(), 0, 20, null, null, false, true, List.of("name,asc", "id,asc"), null));
+
+        mvc.perform(get(BASE_URL)
+                        .param("cursor", token)
+                        .param("sort", "name,asc")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasPrevious").value(true))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        ArgumentCaptor<CursorRequest> captor = ArgumentCaptor.forClass(CursorRequest.class);
+        verify(productService).listAfter(captor.capture());
+        assertThat(captor.getValue().after().values()).containsExactly("Alpha", "00000000-0000-0000-0000-000000000001");
+    }
+
+    @Test
+    @DisplayName("GET /products returns 400 when the cursor was issued for another sort")
+    void list_cursorMode_sortMismatch() throws Exception {
+        String token = new Cursor(List.of("price,desc", "id,asc"), List.of("9.99", "00000000-0000-0000-0000-000000000001")).encode();
+
+        mvc.perform(get(BASE_URL)
+                        .param("cursor", token)
+                        .param("sort", "name,asc")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type").value("urn:problem:invalid-pagination"))
+                .andExpect(jsonPath("$.detail").value("cursor does not match the requested sort"));
+    }
+
+    @Test
+    @DisplayName("GET /products returns 400 for a malformed cursor or cursor combined with page")
+    void list_cursorMode_invalid() throws Exception {
+        mvc.perform(get(BASE_URL).param("cursor", "not*base64").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Invalid cursor"));
+
+        mvc.perform(get(BASE_URL).param("cursor", "").param("page", "2").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type").value("urn:problem:invalid-pagination"));
+    }
 }
@@ -2,12 +2,18 @@ package com.waalterGar.projects.ecommerce.controller;
 
 import com.waalterGar.projects.ecommerce.Dto.ActivationProductDto;
 import com.waalterGar.projects.ecommerce.Dto.ProductDto;
+import com.waalterGar.projects.ecommerce.Dto.ProductSearchResultDto;
 import com.waalterGar.projects.ecommerce.Dto.UpdateProductDto;
 import com.waalterGar.projects.ecommerce.api.GlobalExceptionHandler;
+import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
 import com.waalterGar.projects.ecommerce.api.pagination.config.OrderSortConfig;
 import com.waalterGar.projects.ecommerce.api.pagination.config.ProductSortConfig;
 import com.waalterGar.projects.ecommerce.config.PaginationProperties;
+import com.waalterGar.projects.ecommerce.config.ProductPageCacheProperties;
 import com.waalterGar.projects.ecommerce.service.ProductService;
+import com.waalterGar.projects.ecommerce.service.cache.ProductPageCache;
+import com.waalterGar.projects.ecommerce.service.exception.PreconditionFailedException;
+import com.waalterGar.projects.ecommerce.service.search.ProductSearchCriteria;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,24 +22,30 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
 @WebMvcTest(controllers = ProductController.class)
-@Import({ GlobalExceptionHandler.class, ProductSortConfig.class })
-@EnableConfigurationProperties(PaginationProperties.class)
+@Import({ GlobalExceptionHandler.class, ProductSortConfig.class, ProductPageCache.class })
+@EnableConfigurationProperties({ PaginationProperties.class, ProductPageCacheProperties.class })
 @AutoConfigureMockMvc(addFilters = false)
 public class ProductControllerTest {
     private static final String BASE_URL = "/products";
@@ -58,7 +70,7 @@ public class ProductControllerTest {
         returned.setStockQuantity(180);
         returned.setIsActive(true);
 
-        when(productService.updateProduct(eq(SKU), any(UpdateProductDto.class))).thenReturn(returned);
+        when(productService.updateProduct(eq(SKU), any(UpdateProductDto.class), isNull())).thenReturn(returned);
 
         mvc.perform(put(URL)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -71,7 +83,7 @@ public class ProductControllerTest {
                 .andExpect(handler().handlerType(ProductController.class))
                 .andExpect(handler().methodName("updateProduct"));
 
-        verify(productService).updateProduct(eq(SKU), any(UpdateProductDto.class));
+        verify(productService).updateProduct(eq(SKU), any(UpdateProductDto.class), isNull());
         verifyNoMoreInteractions(productService);
     }
 
@@ -99,7 +111,7 @@ public class ProductControllerTest {
         { "name":"Mug v2","description":"d","price":10.99,"stockQuantity":180,"isActive":true }
         """;
 
-        when(productService.updateProduct(eq(SKU), any(UpdateProductDto.class)))
+        when(productService.updateProduct(eq(SKU), any(UpdateProductDto.class), isNull()))
                 .thenThrow(new NoSuchElementException("Product not found: " + SKU));
 
         mvc.perform(put(URL)
@@ -110,7 +122,7 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.type").value("urn:problem:not-found"))
                 .andExpect(jsonPath("$.title").value("Resource Not Found"));
 
-        verify(productService).updateProduct(eq(SKU), any(UpdateProductDto.class));
+        verify(productService).updateProduct(eq(SKU), any(UpdateProductDto.class), isNull());
         verifyNoMoreInteractions(productService);
     }
 
@@ -120,7 +132,7 @@ public class ProductControllerTest {
         { "name":"Mug v2","description":"d","price":10.99,"stockQuantity":180,"isActive":true }
         """;
 
-        when(productService.updateProduct(eq(SKU), any(UpdateProductDto.class)))
+        when(productService.updateProduct(eq(SKU), any(UpdateProductDto.class), isNull()))
                 .thenThrow(new OptimisticLockingFailureException("conflict"));
 
         mvc.perform(put(URL)
@@ -131,7 +143,7 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.type").value("urn:problem:conflict"))
                 .andExpect(jsonPath("$.title").value("Optimistic Lock Conflict"));
 
-        verify(productService).updateProduct(eq(SKU), any(UpdateProductDto.class));
+        verify(productService).updateProduct(eq(SKU), any(UpdateProductDto.class), isNull());
         verifyNoMoreInteractions(productService);
     }
 
@@ -163,6 +175,103 @@ public class ProductControllerTest {
         verifyNoInteractions(productService);
     }
 
+    @Test
+    void get_returnsStrongETag_fromSkuAndVersion() throws Exception {
+        ProductDto product = new ProductDto();
+        product.setSku(SKU);
+        product.setName("Mug");
+        product.setVersion(3L);
+        when(productService.getProductBySku(SKU)).thenReturn(product);
+
+        mvc.perform(get(URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + SKU + "-v3\""))
+                .andExpect(jsonPath("$.sku").value(SKU))
+                .andExpect(jsonPath("$.version").doesNotExist());
+
+        verify(productService).getProductBySku(SKU);
+        verifyNoMoreInteractions(productService);
+    }
+
+    @Test
+    void get_ifNoneMatchCurrent_returns304_fromVersionOnly() throws Exception {
+        when(productService.findVersion(SKU)).thenReturn(Optional.of(3L));
+
+        mvc.perform(get(URL).header("If-None-Match", "\"" + SKU + "-v3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"" + SKU + "-v3\""))
+                .andExpect(content().string(""));
+
+        verify(productService).findVersion(SKU);
+        verifyNoMoreInteractions(productService);
+    }
+
+    @Test
+    void get_ifNoneMatchStale_returns200_withCurrentETag() throws Exception {
+        ProductDto product = new ProductDto();
+        product.setSku(SKU);
+        product.setVersion(4L);
+        when(productService.findVersion(SKU)).thenReturn(Optional.of(4L));
+        when(productService.getProductBySku(SKU, 4L)).thenReturn(product);
+
+        mvc.perform(get(URL).header("If-None-Match", "\"" + SKU + "-v3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + SKU + "-v4\""))
+                .andExpect(jsonPath("$.sku").value(SKU));
+    }
+
+    @Test
+    void put_ifMatch_passesExpectedVersion() throws Exception {
+        String payload = """
+        { "name":"Mug v2","description":"d","price":10.99,"stockQuantity":180,"isActive":true }
+        """;
+        ProductDto returned = new ProductDto();
+        returned.setSku(SKU);
+        when(productService.updateProduct(eq(SKU), any(UpdateProductDto.class), eq(3L))).thenReturn(returned);
+
+        mvc.perform(put(URL)
+                        .header("If-Match", "\"" + SKU + "-v3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isOk());
+
+        verify(productService).updateProduct(eq(SKU), any(UpdateProductDto.class), eq(3L));
+    }
+
+    @Test
+    void put_ifMatchStale_returns412_problem() throws Exception {
+        String payload = """
+        { "name":"Mug v2","description":"d","price":10.99,"stockQuantity":180,"isActive":true }
+        """;
+        when(productService.updateProduct(eq(SKU), any(UpdateProductDto.class), eq(3L)))
+                .thenThrow(new PreconditionFailedException("Product " + SKU + " has changed since version 3"));
+
+        mvc.perform(put(URL)
+                        .header("If-Match", "\"" + SKU + "-v3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value("urn:problem:precondition-failed"))
+                .andExpect(jsonPath("$.title").value("Precondition Failed"));
+    }
+
+    @Test
+    void put_ifMatchForAnotherResource_returns412_withoutUpdating() throws Exception {
+        String payload = """
+        { "name":"Mug v2","description":"d","price":10.99,"stockQuantity":180,"isActive":true }
+        """;
+
+        mvc.perform(put(URL)
+                        .header("If-Match", "\"OTHER-SKU-v3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.type").value("urn:problem:precondition-failed"));
+
+        verifyNoInteractions(productService);
+    }
+
     @Test
     void patch_activation_valid_returns200() throws Exception {
         String sku = "MUG-LOGO-001";
@@ -201,4 +310,37 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.type").value("urn:problem:validation"));
         verifyNoInteractions(productService);
     }
+
+    @Test
+    void search_passesFiltersAndPaging_returnsResultsWithFacets() throws Exception {
+        ProductDto mug = new ProductDto();
+        mug.setSku(SKU);
+        mug.setName("Mug logo");
+        ProductSearchResultDto result = new ProductSearchResultDto(
+                PageEnvelope.of(new PageImpl<>(List.of(mug), PageRequest.of(1, 5), 6)),
+                Map.of(Currency.EUR, 6L, Currency.USD, 2L),
+                Map.of(true, 6L, false, 0L));
+        ProductSearchCriteria criteria = new ProductSearchCriteria("mug", Currency.EUR, true,
+                new BigDecimal("5"), new BigDecimal("20.50"));
+        when(productService.search(criteria, 1, 5)).thenReturn(result);
+
+        mvc.perform(get(BASE_URL + "/search")
+                        .param("q", "mug").param("currency", "EUR").param("active", "true")
+                        .param("minPrice", "5").param("maxPrice", "20.50")
+                        .param("page", "1").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.items[0].sku").value(SKU))
+                .andExpect(jsonPath("$.results.totalItems").value(6))
+                .andExpect(jsonPath("$.currencies.USD").value(2))
+                .andExpect(jsonPath("$.active.true").value(6))
+                .andExpect(handler().methodName("searchProducts"));
+    }
+
+    @Test
+    void search_minPriceAboveMaxPrice_returns400_problem() throws Exception {
+        mvc.perform(get(BASE_URL + "/search").param("minPrice", "20").param("maxPrice", "10"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type").value("urn:problem:invalid-request"));
+        verifyNoInteractions(productService);
+    }
 }
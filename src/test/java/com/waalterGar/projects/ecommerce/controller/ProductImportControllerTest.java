@@ -0,0 +1,86 @@
+package com.waalterGar.projects.ecommerce.controller;
+
+import com.waalterGar.projects.ecommerce.Dto.ProductImportErrorDto;
+import com.waalterGar.projects.ecommerce.Dto.ProductImportResultDto;
+import com.waalterGar.projects.ecommerce.api.GlobalExceptionHandler;
+import com.waalterGar.projects.ecommerce.service.catalog.CatalogImporter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ProductImportController.class)
+@Import(GlobalExceptionHandler.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ProductImportControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockitoBean
+    CatalogImporter catalogImporter;
+
+    @Test
+    @DisplayName("POST /products:import (text/csv) -> 200 with counts and row errors")
+    void importCsv_returnsReport() throws Exception {
+        ProductImportResultDto result = new ProductImportResultDto();
+        result.setRowsRead(2);
+        result.setImported(1);
+        result.setFailed(1);
+        result.setErrors(List.of(new ProductImportErrorDto(2, "MUG-002", "name is required")));
+        when(catalogImporter.importCsv(any())).thenReturn(result);
+
+        mvc.perform(post("/products:import")
+                        .contentType("text/csv")
+                        .content("sku,name,price,currency,stockQuantity\nMUG-001,Mug,9.99,EUR,1\nMUG-002,,9.99,EUR,1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("name is required"));
+        verify(catalogImporter, never()).importNdjson(any());
+    }
+
+    @Test
+    @DisplayName("POST /products:import (application/x-ndjson) -> read as NDJSON")
+    void importNdjson_usesNdjsonReader() throws Exception {
+        when(catalogImporter.importNdjson(any())).thenReturn(new ProductImportResultDto());
+
+        mvc.perform(post("/products:import")
+                        .contentType("application/x-ndjson")
+                        .content("{\"sku\":\"MUG-001\"}\n"))
+                .andExpect(status().isOk());
+        verify(catalogImporter).importNdjson(any());
+    }
+
+    @Test
+    @DisplayName("POST /products:import -> 400 when the CSV header lacks required columns")
+    void importCsv_badHeader_returns400() throws Exception {
+        when(catalogImporter.importCsv(any()))
+                .thenThrow(new IllegalArgumentException("CSV header is missing columns: price"));
+
+        mvc.perform(post("/products:import").contentType("text/csv").content("sku,name\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type").value("urn:problem:invalid-request"));
+    }
+
+    @Test
+    @DisplayName("POST /products:import (application/json) -> 415")
+    void import_unsupportedType_returns415() throws Exception {
+        mvc.perform(post("/products:import").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+        verifyNoInteractions(catalogImporter);
+    }
+}
@@ -0,0 +1,83 @@
+package com.waalterGar.projects.ecommerce.entity.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    @DisplayName("next: version 7, RFC variant, and the embedded timestamp is the current time")
+    void next_isVersion7_withCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after + 1);
+    }
+
+    @Test
+    @DisplayName("nextUuid: strictly increasing within one millisecond and across counter overflow")
+    void nextUuid_sameMillis_strictlyIncreasing() {
+        UuidV7Generator generator = new UuidV7Generator(() -> 1_700_000_000_000L);
+
+        UUID previous = generator.nextUuid();
+        for (int i = 0; i < 10_000; i++) {
+            UUID current = generator.nextUuid();
+            assertThat(unsignedCompare(current, previous)).isPositive();
+            previous = current;
+        }
+    }
+
+    @Test
+    @DisplayName("nextUuid: a clock stepping backwards never produces a smaller id")
+    void nextUuid_clockGoesBack_stillIncreasing() {
+        AtomicLong clock = new AtomicLong(1_700_000_000_500L);
+        UuidV7Generator generator = new UuidV7Generator(clock::get);
+
+        UUID first = generator.nextUuid();
+        clock.set(1_700_000_000_000L);
+        UUID second = generator.nextUuid();
+
+        assertThat(unsignedCompare(second, first)).isPositive();
+    }
+
+    @Test
+    @DisplayName("next: unique across threads")
+    void next_concurrent_unique() throws Exception {
+        Set<UUID> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    seen.add(UuidV7Generator.next());
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertThat(seen).hasSize(8 * 20_000);
+    }
+
+    /** Byte order as stored in BINARY(16); UUID.compareTo compares signed longs. */
+    private static int unsignedCompare(UUID a, UUID b) {
+        int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
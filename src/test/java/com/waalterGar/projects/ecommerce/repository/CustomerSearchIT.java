@@ -0,0 +1,109 @@
+package com.waalterGar.projects.ecommerce.repository;
+
+import com.waalterGar.projects.ecommerce.entity.Customer;
+import com.waalterGar.projects.ecommerce.service.search.CustomerSearchQuery;
+import com.waalterGar.projects.ecommerce.testsupport.builders.CustomerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The ngram FULLTEXT index from V4 behind {@code GET /customers?q=}. Runs without a test transaction:
+ * InnoDB only adds rows to a full-text index when they commit.
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerSearchIT {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.37");
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20, Sort.by("createdAt").descending());
+
+    @Autowired CustomerRepository customerRepository;
+
+    @BeforeEach
+    void seed() {
+        customerRepository.saveAll(List.of(
+                customer("c-1", "Ana", "García", "ana.garcia@shop.es"),
+                customer("c-2", "Anabel", "Ortiz", "abel@example.com"),
+                customer("c-3", "Mariana", "Lopez", "mlopez@example.com"),
+                customer("c-4", "Walter", "Garrido", "walter@example.com")));
+    }
+
+    @AfterEach
+    void cleanup() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void matchesInsideWords_acrossEmailAndNames() {
+        assertThat(search("ana")).extracting(Customer::getExternalId).containsExactlyInAnyOrder("c-1", "c-2", "c-3");
+        assertThat(search("example.com")).extracting(Customer::getExternalId).containsExactlyInAnyOrder("c-2", "c-3", "c-4");
+    }
+
+    @Test
+    void everyWordIsRequired() {
+        assertThat(search("ana garcía")).extracting(Customer::getExternalId).containsExactly("c-1");
+        assertThat(search("ana.garcia@shop.es")).extracting(Customer::getExternalId).containsExactly("c-1");
+    }
+
+    @Test
+    void singleLetter_matchesAsPrefix() {
+        assertThat(search("w")).extracting(Customer::getExternalId).containsExactly("c-4");
+    }
+
+    @Test
+    void bestMatchFirst() {
+        // "ana" appears in c-1's first name and email, once in the others
+        assertThat(search("ana")).extracting(Customer::getExternalId).first().isEqualTo("c-1");
+    }
+
+    @Test
+    void booleanModeOperators_areNotInterpreted() {
+        assertThat(search("-walter")).extracting(Customer::getExternalId).containsExactly("c-4");
+        assertThat(CustomerSearchQuery.from("\"()~<>")).isEmpty();
+    }
+
+    @Test
+    void sliceVariant_returnsTheSameRows() {
+        String query = CustomerSearchQuery.from("gar").orElseThrow();
+        assertThat(customerRepository.searchSlice(query, FIRST_PAGE).getContent())
+                .extracting(Customer::getExternalId)
+                .containsExactlyElementsOf(customerRepository.search(query, FIRST_PAGE).map(Customer::getExternalId));
+    }
+
+    private List<Customer> search(String q) {
+        Page<Customer> page = customerRepository.search(CustomerSearchQuery.from(q).orElseThrow(), FIRST_PAGE);
+        assertThat(page.getTotalElements()).isEqualTo(page.getNumberOfElements());
+        return page.getContent();
+    }
+
+    private static Customer customer(String externalId, String firstName, String lastName, String email) {
+        return new CustomerBuilder()
+                .withExternalId(externalId)
+                .withFirstName(firstName)
+                .withLastName(lastName)
+                .withEmail(email)
+                .build();
+    }
+}
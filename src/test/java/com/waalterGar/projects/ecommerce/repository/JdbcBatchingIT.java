@@ -0,0 +1,115 @@
+package com.waalterGar.projects.ecommerce.repository;
+
+import com.waalterGar.projects.ecommerce.config.PersistenceProperties;
+import com.waalterGar.projects.ecommerce.config.PersistenceTuningConfig;
+import com.waalterGar.projects.ecommerce.entity.Cart;
+import com.waalterGar.projects.ecommerce.entity.CartItem;
+import com.waalterGar.projects.ecommerce.entity.Customer;
+import com.waalterGar.projects.ecommerce.entity.Order;
+import com.waalterGar.projects.ecommerce.testsupport.builders.CustomerBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.OrderBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.OrderItemBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.jdbc.StatementCounter;
+import com.waalterGar.projects.ecommerce.testsupport.jdbc.StatementCountingConfig;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Saving N lines costs one INSERT round trip per table, whatever N is (up to the batch size). */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PersistenceTuningConfig.class, StatementCountingConfig.class})
+@EnableConfigurationProperties(PersistenceProperties.class)
+class JdbcBatchingIT {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.37");
+
+    @Autowired OrderRepository orderRepository;
+    @Autowired CustomerRepository customerRepository;
+    @Autowired CartRepository cartRepository;
+    @Autowired StatementCounter statements;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void savingOrder_insertsOrderAndAllItems_inTwoRoundTrips(int lines) {
+        Customer customer = customerRepository.saveAndFlush(
+                new CustomerBuilder().withExternalId("cust-" + lines).withEmail("batch" + lines + "@example.com").build());
+        OrderBuilder builder = new OrderBuilder().withCustomer(customer);
+        for (int i = 0; i < lines; i++) {
+            builder.addItem(new OrderItemBuilder()
+                    .withSku("SKU-" + i)
+                    .withUnitPrice(new BigDecimal("9.99"))
+                    .withCurrency(Currency.EUR)
+                    .build());
+        }
+        Order order = builder.build();
+        statements.reset();
+
+        orderRepository.saveAndFlush(order);
+
+        assertThat(statements.roundTrips("insert")).isEqualTo(2);
+        assertThat(statements.roundTrips()).isEqualTo(2);
+    }
+
+    @Test
+    void savingCart_insertsCartAndAllItems_inTwoRoundTrips() {
+        Cart cart = new Cart();
+        cart.setExternalId(UUID.randomUUID().toString());
+        cart.setCurrency(Currency.EUR);
+        for (int i = 0; i < 50; i++) {
+            CartItem item = new CartItem();
+            item.setProductSku("SKU-" + i);
+            item.setProductName("Item " + i);
+            item.setQuantity(1);
+            item.setUnitPrice(new BigDecimal("9.99"));
+            item.computeLineTotal();
+            cart.addItem(item);
+        }
+        statements.reset();
+
+        cartRepository.saveAndFlush(cart);
+
+        assertThat(statements.roundTrips("insert")).isEqualTo(2);
+    }
+
+    @Test
+    void clearingCart_deletesAllItems_inOneRoundTrip() {
+        Cart cart = new Cart();
+        cart.setExternalId(UUID.randomUUID().toString());
+        cart.setCurrency(Currency.EUR);
+        for (int i = 0; i < 20; i++) {
+            CartItem item = new CartItem();
+            item.setProductSku("SKU-" + i);
+            item.setProductName("Item " + i);
+            item.setQuantity(1);
+            item.setUnitPrice(new BigDecimal("9.99"));
+            item.computeLineTotal();
+            cart.addItem(item);
+        }
+        cart = cartRepository.saveAndFlush(cart);
+        statements.reset();
+
+        cart.clearItems();
+        cartRepository.saveAndFlush(cart);
+
+        assertThat(statements.roundTrips("delete")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.waalterGar.projects.ecommerce.repository;
+
+import com.waalterGar.projects.ecommerce.Dto.ProductDto;
+import com.waalterGar.projects.ecommerce.api.pagination.CursorRequest;
+import com.waalterGar.projects.ecommerce.api.pagination.KeysetPager;
+import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
+import com.waalterGar.projects.ecommerce.api.pagination.PageableFactory;
+import com.waalterGar.projects.ecommerce.api.pagination.SortDirective;
+import com.waalterGar.projects.ecommerce.config.PaginationProperties;
+import com.waalterGar.projects.ecommerce.mapper.ProductMapper;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class KeysetPaginationIT {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.37");
+
+    @Autowired ProductRepository productRepository;
+
+    private static final PaginationProperties PROPS = new PaginationProperties(20, 100, null);
+
+    @Test
+    void cursorWalk_visitsEveryRowOnce_inSortOrder_withDuplicateSortKeys() {
+        // 23 products over 5 distinct prices: the id tiebreaker must keep equal prices apart
+        List<String> prices = List.of("1.00", "2.00", "3.00", "4.00", "5.00");
+        for (int i = 0; i < 23; i++) {
+            productRepository.save(new ProductBuilder()
+                    .withSku(String.format("SKU-%02d", i))
+                    .withPrice(prices.get(i % prices.size()))
+                    .build());
+        }
+
+        List<SortDirective> directives = List.of(new SortDirective("price", false));
+        List<ProductDto> seen = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            CursorRequest request = PageableFactory.cursorFrom(cursor, 5, directives, null, PROPS);
+            PageEnvelope<ProductDto> page = KeysetPager.fetch(productRepository, null, request, ProductMapper::toDto);
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+            pages++;
+            assertThat(page.totalItems()).isNull();
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(seen).hasSize(23);
+        assertThat(seen).extracting(ProductDto::getSku).doesNotHaveDuplicates();
+        assertThat(seen).extracting(ProductDto::getPrice)
+                .isSortedAccordingTo(Comparator.reverseOrder());
+    }
+}
@@ -12,12 +12,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -118,6 +124,51 @@ class OrderRepositoryIT {
         assertThat(getByExternalId(result, ORDER_EXT_ID_1).getItems()).hasSize(initialSize - 1);
     }
 
+    @Test
+    void idPaging_limitsInSql_andHydratesOnlyThatPage() {
+        // Arrange: 3 orders with 2 items each; a join-fetched page of 2 would otherwise read all 6 rows
+        Customer c = savedCustomer(CUSTOMER_EXT_ID_A);
+        for (String ext : List.of(ORDER_EXT_ID_1, ORDER_EXT_ID_2, ORDER_EXT_ID_3)) {
+            orderRepository.save(orderWith(c, ext,
+                    item(SKU_MUG, NAME_MUG, QTY_TWO, PRICE_MUG),
+                    item(SKU_TSHIRT, NAME_TSHIRT, QTY_ONE, PRICE_TSHIRT)));
+        }
+        orderRepository.flush();
+
+        // Act
+        Page<UUID> ids = orderRepository.findIdsByCustomerExternalId(
+                CUSTOMER_EXT_ID_A, PageRequest.of(0, 2, Sort.by("externalId")));
+        List<Order> page = orderRepository.findAllWithItemsAndCustomerByIdIn(ids.getContent());
+
+        // Assert
+        assertThat(ids.getTotalElements()).isEqualTo(3);
+        assertThat(ids.getContent()).hasSize(2);
+        assertThat(page).extracting(Order::getExternalId)
+                .containsExactlyInAnyOrder(ORDER_EXT_ID_1, ORDER_EXT_ID_2);
+        assertThat(page).allSatisfy(o -> assertThat(o.getItems()).hasSize(2));
+    }
+
+    @Test
+    void findIdsAfter_walksEveryOrderInIdOrder() {
+        // Arrange
+        Customer c = savedCustomer(CUSTOMER_EXT_ID_A);
+        Order first = orderRepository.save(orderWith(c, ORDER_EXT_ID_1, item(SKU_MUG, NAME_MUG, QTY_ONE, PRICE_MUG)));
+        Order second = orderRepository.save(orderWith(c, ORDER_EXT_ID_2, item(SKU_MUG, NAME_MUG, QTY_TWO, PRICE_MUG)));
+        orderRepository.flush();
+
+        // Act
+        List<UUID> firstChunk = orderRepository.findIdsAfter(null, Limit.of(1));
+        List<UUID> secondChunk = orderRepository.findIdsAfter(firstChunk.get(0), Limit.of(1));
+        List<UUID> rest = orderRepository.findIdsAfter(secondChunk.get(0), Limit.of(1));
+
+        // Assert
+        assertThat(firstChunk).hasSize(1);
+        assertThat(secondChunk).hasSize(1);
+        assertThat(Stream.concat(firstChunk.stream(), secondChunk.stream()))
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(rest).isEmpty();
+    }
+
     private Customer savedCustomer(String externalId) {
         return customerRepository.save(
                 new CustomerBuilder().withExternalId(externalId).build()
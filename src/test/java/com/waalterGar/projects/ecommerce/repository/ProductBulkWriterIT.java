@@ -0,0 +1,61 @@
+package com.waalterGar.projects.ecommerce.repository;
+
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductBulkWriter.class)
+class ProductBulkWriterIT {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.37");
+
+    @Autowired ProductBulkWriter writer;
+    @Autowired ProductRepository productRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    void upsert_existingRow_bumpsVersion() {
+        productRepository.saveAndFlush(new ProductBuilder().withSku("BULK-001").build());
+
+        writer.upsert(List.of(upsert("BULK-001")));
+
+        assertThat(version("BULK-001")).isEqualTo(1);
+    }
+
+    @Test
+    void upsert_rowWithNullVersion_startsCountingFromZero() {
+        productRepository.saveAndFlush(new ProductBuilder().withSku("BULK-002").build());
+        jdbcTemplate.update("update products set version = null where sku = ?", "BULK-002");
+
+        writer.upsert(List.of(upsert("BULK-002")));
+
+        assertThat(version("BULK-002")).isEqualTo(1);
+    }
+
+    private Integer version(String sku) {
+        return jdbcTemplate.queryForObject("select version from products where sku = ?", Integer.class, sku);
+    }
+
+    private static ProductBulkWriter.Upsert upsert(String sku) {
+        return new ProductBulkWriter.Upsert(sku, "Imported", "d", new BigDecimal("9.99"), Currency.EUR, 5, true);
+    }
+}
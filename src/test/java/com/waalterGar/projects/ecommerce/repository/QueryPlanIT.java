@@ -0,0 +1,226 @@
+package com.waalterGar.projects.ecommerce.repository;
+
+import com.waalterGar.projects.ecommerce.api.pagination.CursorRequest;
+import com.waalterGar.projects.ecommerce.api.pagination.KeysetPager;
+import com.waalterGar.projects.ecommerce.api.pagination.PageableFactory;
+import com.waalterGar.projects.ecommerce.api.pagination.config.CustomerSortConfig;
+import com.waalterGar.projects.ecommerce.api.pagination.config.OrderSortConfig;
+import com.waalterGar.projects.ecommerce.api.pagination.config.ProductSortConfig;
+import com.waalterGar.projects.ecommerce.config.PaginationProperties;
+import com.waalterGar.projects.ecommerce.entity.Cart;
+import com.waalterGar.projects.ecommerce.entity.Customer;
+import com.waalterGar.projects.ecommerce.entity.Order;
+import com.waalterGar.projects.ecommerce.entity.Payment;
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.testsupport.builders.CustomerBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.OrderBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.OrderItemBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.jdbc.StatementCounter;
+import com.waalterGar.projects.ecommerce.testsupport.jdbc.StatementCountingConfig;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+import com.waalterGar.projects.ecommerce.utils.OrderStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every request-path finder against a seeded schema built by the Flyway migrations, captures
+ * the SQL Hibernate sends, and fails if EXPLAIN shows a full table scan ({@code type = ALL}) on any
+ * table. Sorted listings are checked for each field in the AllowedSorts whitelists.
+ * <p>
+ * Not covered: the /all exports (they read whole tables by design). The customer search goes
+ * through the FULLTEXT index ({@code type = fulltext}).
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StatementCountingConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanIT {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.37");
+
+    // Large enough that the optimizer prefers an index to scanning a handful of pages
+    private static final int CUSTOMERS = 2_000;
+    private static final int PRODUCTS = 2_000;
+    private static final int ORDERS = 5_000;
+    private static final int PAYMENTS = 1_000;
+    private static final int CARTS = 1_000;
+
+    private static final PaginationProperties PROPS = new PaginationProperties(20, 100, null);
+
+    @Autowired CustomerRepository customerRepository;
+    @Autowired ProductRepository productRepository;
+    @Autowired OrderRepository orderRepository;
+    @Autowired PaymentRepository paymentRepository;
+    @Autowired CartRepository cartRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired StatementCounter statements;
+
+    private final List<UUID> someOrderIds = new ArrayList<>();
+
+    record Finder(String name, Runnable call) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Customer> customers = new ArrayList<>();
+            for (int i = 0; i < CUSTOMERS; i++) {
+                customers.add(new CustomerBuilder()
+                        .withExternalId("cust-" + i)
+                        .withEmail("customer" + i + "@example.com")
+                        .withLastName("Last" + (i % 300))
+                        .build());
+            }
+            customerRepository.saveAll(customers);
+
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < PRODUCTS; i++) {
+                products.add(new ProductBuilder()
+                        .withSku("SKU-" + i)
+                        .withName("Product " + i)
+                        .withPrice((1 + i % 500) + ".99")
+                        .build());
+            }
+            productRepository.saveAll(products);
+
+            OrderStatus[] statuses = OrderStatus.values();
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < ORDERS; i++) {
+                orders.add(new OrderBuilder()
+                        .withExternalId("ord-" + i)
+                        .withCustomer(customers.get(i % CUSTOMERS))
+                        .withStatus(statuses[i % statuses.length])
+                        .addItem(new OrderItemBuilder().withSku("SKU-" + (i % PRODUCTS)).build())
+                        .build());
+            }
+            orderRepository.saveAll(orders);
+            orders.stream().limit(20).map(Order::getId).forEach(someOrderIds::add);
+
+            for (int i = 0; i < PAYMENTS; i++) {
+                Payment payment = new Payment();
+                payment.setOrder(orders.get(i));
+                payment.setAmount(orders.get(i).getTotalAmount());
+                payment.setCurrency(Currency.EUR);
+                payment.setProvider("test");
+                payment.setTransactionReference("tx-" + i);
+                payment.setPaidAt(LocalDateTime.now());
+                paymentRepository.save(payment);
+            }
+
+            for (int i = 0; i < CARTS; i++) {
+                Cart cart = new Cart();
+                cart.setExternalId("cart-" + i);
+                cart.setCurrency(Currency.EUR);
+                cartRepository.save(cart);
+            }
+        });
+        for (String table : List.of("customers", "products", "orders", "order_items", "payments", "carts", "cart_items")) {
+            jdbc.execute("analyze table " + table);
+        }
+    }
+
+    Stream<Finder> finders() {
+        List<Finder> finders = new ArrayList<>(List.of(
+                new Finder("customers.findByExternalId", () -> customerRepository.findByExternalId("cust-7")),
+                new Finder("customers.findByEmail", () -> customerRepository.findByEmail("customer7@example.com")),
+                new Finder("customers.existsByEmail", () -> customerRepository.existsByEmail("customer7@example.com")),
+                new Finder("products.findBySku", () -> productRepository.findBySku("SKU-7")),
+                new Finder("products.findAllBySkuIn", () -> productRepository.findAllBySkuIn(Set.of("SKU-1", "SKU-2", "SKU-3"))),
+                new Finder("products.findAllBySkuInForUpdate",
+                        () -> productRepository.findAllBySkuInForUpdate(Set.of("SKU-1", "SKU-2", "SKU-3"))),
+                new Finder("orders.findByExternalId", () -> orderRepository.findByExternalId("ord-7")),
+                new Finder("orders.findIdsByCustomerExternalId",
+                        () -> orderRepository.findIdsByCustomerExternalId("cust-7", defaultPage())),
+                new Finder("orders.findAllWithItemsAndCustomerByIdIn",
+                        () -> orderRepository.findAllWithItemsAndCustomerByIdIn(someOrderIds)),
+                new Finder("payments.findByTransactionReference", () -> paymentRepository.findByTransactionReference("tx-7")),
+                new Finder("payments.findByOrder_ExternalIdAndTransactionReference",
+                        () -> paymentRepository.findByOrder_ExternalIdAndTransactionReference("ord-7", "tx-7")),
+                new Finder("carts.findByExternalId", () -> cartRepository.findByExternalId("cart-7")),
+                new Finder("products keyset (default sort)",
+                        () -> KeysetPager.fetch(productRepository, null, firstKeysetPage(), Function.identity())),
+                new Finder("customers.search", () -> customerRepository.search("+last7*", defaultPage())),
+                new Finder("customers.searchSlice", () -> customerRepository.searchSlice("+last7*", defaultPage())),
+                new Finder("customers keyset (default sort)",
+                        () -> KeysetPager.fetch(customerRepository, null, firstKeysetPage(), Function.identity()))
+        ));
+        for (String field : new ProductSortConfig().productsAllowedSorts().fields()) {
+            finders.add(new Finder("products.findAll sort=" + field, () -> productRepository.findAll(page(field))));
+            finders.add(new Finder("products.findSliceBy sort=" + field, () -> productRepository.findSliceBy(page(field))));
+        }
+        for (String field : new OrderSortConfig().ordersAllowedSorts().fields()) {
+            finders.add(new Finder("orders.findIdsBy sort=" + field, () -> orderRepository.findIdsBy(page(field))));
+            finders.add(new Finder("orders.findIdSliceBy sort=" + field, () -> orderRepository.findIdSliceBy(page(field))));
+        }
+        for (String field : new CustomerSortConfig().customersAllowedSorts().fields()) {
+            finders.add(new Finder("customers.findAll sort=" + field, () -> customerRepository.findAll(page(field))));
+            finders.add(new Finder("customers.findSliceBy sort=" + field, () -> customerRepository.findSliceBy(page(field))));
+        }
+        return finders.stream();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void finder_neverScansAWholeTable(Finder finder) {
+        statements.reset();
+        transactionTemplate.executeWithoutResult(status -> finder.call().run());
+
+        List<StatementCounter.Execution> selects = statements.executions("select");
+        assertThat(selects).as("%s issued no SELECT", finder).isNotEmpty();
+        for (StatementCounter.Execution select : selects) {
+            List<Map<String, Object>> plan = jdbc.queryForList("explain " + select.sql(), select.parameters().toArray());
+            assertThat(plan)
+                    .as("%s%n%s%n%s", finder, select.sql(), plan)
+                    .noneMatch(row -> "ALL".equals(row.get("type")));
+        }
+    }
+
+    private static PageRequest defaultPage() {
+        return PageRequest.of(0, 20, Sort.by("createdAt").descending());
+    }
+
+    private static PageRequest page(String field) {
+        return PageRequest.of(0, 20, Sort.by(field));
+    }
+
+    private static CursorRequest firstKeysetPage() {
+        return PageableFactory.cursorFrom(null, 20, List.of(), "createdAt,desc", PROPS);
+    }
+}
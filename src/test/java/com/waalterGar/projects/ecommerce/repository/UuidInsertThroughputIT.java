@@ -0,0 +1,100 @@
+package com.waalterGar.projects.ecommerce.repository;
+
+import com.waalterGar.projects.ecommerce.entity.id.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert throughput into an InnoDB table keyed by BINARY(16), random UUIDv4 versus UUIDv7, as the
+ * table grows. Random keys slow down once the index no longer fits the buffer pool; time-ordered
+ * keys keep appending to the last page. Shaped like order_items (PK + FK-sized column + payload).
+ * <p>
+ * Defaults to 200k rows per table so it finishes in a couple of minutes; for the 10M-row comparison:
+ * ./mvnw -Dtest=UuidInsertThroughputIT -Dbench.rows=10000000 test
+ */
+@JdbcTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UuidInsertThroughputIT {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.37")
+            .withUrlParam("rewriteBatchedStatements", "true")
+            // small buffer pool so the random-key penalty shows up well before 10M rows
+            .withCommand("--innodb-buffer-pool-size=64M");
+
+    private static final int ROWS = Integer.getInteger("bench.rows", 200_000);
+    private static final int BATCH = 1_000;
+    private static final int SEGMENTS = 10;
+
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void timeOrderedKeys_insertAtLeastAsFastAsRandomKeys() {
+        List<Double> random = run("bench_uuid_v4", UUID::randomUUID);
+        List<Double> ordered = run("bench_uuid_v7", UuidV7Generator::next);
+
+        for (int s = 0; s < SEGMENTS; s++) {
+            System.out.printf("[uuid-insert] rows %,11d-%,11d: v4 %,10.0f rows/s  v7 %,10.0f rows/s%n",
+                    (long) s * ROWS / SEGMENTS, (long) (s + 1) * ROWS / SEGMENTS, random.get(s), ordered.get(s));
+        }
+        // Compare the last segment, where the tables are largest
+        assertThat(ordered.get(SEGMENTS - 1)).isGreaterThanOrEqualTo(random.get(SEGMENTS - 1) * 0.9);
+    }
+
+    /** Inserts ROWS rows and returns the throughput of each tenth. */
+    private List<Double> run(String table, Supplier<UUID> ids) {
+        jdbc.execute("drop table if exists " + table);
+        jdbc.execute("create table " + table + " ("
+                + " id binary(16) not null primary key,"
+                + " order_id binary(16) not null,"
+                + " product_sku varchar(64) not null,"
+                + " quantity int not null,"
+                + " unit_price decimal(12,2) not null"
+                + ") engine=InnoDB");
+
+        UUID orderId = UuidV7Generator.next();
+        List<Double> rates = new ArrayList<>();
+        int perSegment = ROWS / SEGMENTS;
+        for (int s = 0; s < SEGMENTS; s++) {
+            long started = System.nanoTime();
+            for (int done = 0; done < perSegment; done += BATCH) {
+                List<Object[]> batch = new ArrayList<>(BATCH);
+                for (int i = 0; i < BATCH; i++) {
+                    batch.add(new Object[]{bytes(ids.get()), bytes(orderId), "SKU-" + (i % 500), 1 + i % 4, "9.99"});
+                }
+                jdbc.batchUpdate("insert into " + table
+                        + " (id, order_id, product_sku, quantity, unit_price) values (?, ?, ?, ?, ?)", batch);
+            }
+            rates.add(perSegment / ((System.nanoTime() - started) / 1_000_000_000.0));
+        }
+        jdbc.execute("drop table " + table);
+        return rates;
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -1,6 +1,9 @@
 package com.waalterGar.projects.ecommerce.service.Implementation;
 
 import com.waalterGar.projects.ecommerce.Dto.CartDto;
+import com.waalterGar.projects.ecommerce.Dto.CartItemDto;
+import com.waalterGar.projects.ecommerce.Dto.CartItemOperationDto;
+import com.waalterGar.projects.ecommerce.config.ProductCacheProperties;
 import com.waalterGar.projects.ecommerce.entity.Cart;
 import com.waalterGar.projects.ecommerce.Dto.CartDto;
 import com.waalterGar.projects.ecommerce.entity.Cart;
@@ -10,9 +13,13 @@ import com.waalterGar.projects.ecommerce.mapper.CartMapper;
 import com.waalterGar.projects.ecommerce.repository.CartRepository;
 import com.waalterGar.projects.ecommerce.repository.ProductRepository;
 import com.waalterGar.projects.ecommerce.service.CartService;
+import com.waalterGar.projects.ecommerce.service.cache.ProductCache;
 import com.waalterGar.projects.ecommerce.service.exception.InactiveProductException;
+import com.waalterGar.projects.ecommerce.utils.CartItemOperationType;
 import com.waalterGar.projects.ecommerce.utils.Currency;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,8 +27,10 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.waalterGar.projects.ecommerce.utils.Currency.EUR;
@@ -36,7 +45,15 @@ class CartServiceImplTest {
     @Mock CartRepository cartRepository;
     @Mock ProductRepository productRepository;
 
-    @InjectMocks CartServiceImpl service;
+    CartServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        // Fresh read-through cache per test, loading from the mocked repository
+        ProductCache productCache = new ProductCache(
+                productRepository, new ProductCacheProperties(100, null), new SimpleMeterRegistry());
+        service = new CartServiceImpl(cartRepository, productCache);
+    }
 
     private static final String CART_EXT_ID = "cart-123";
     private static final String SKU = "MUG-LOGO-001";
@@ -251,6 +268,76 @@ class CartServiceImplTest {
         verify(cartRepository, never()).save(any());
     }
 
+    // ---------------- applyItemOperations ----------------
+    @Test
+    @DisplayName("applyItemOperations: applies ADD/SET/REMOVE in order with one product query and one save")
+    void applyItemOperations_appliesAll_withOneLookup() {
+        Cart cart = emptyCart(CART_EXT_ID, EUR);
+        addItem(cart, SKU, NAME, PRICE, 1);
+        addItem(cart, "CAP-001", "Cap", new BigDecimal("5.00"), 2);
+        when(cartRepository.findByExternalId(CART_EXT_ID)).thenReturn(Optional.of(cart));
+        when(productRepository.findAllBySkuIn(Set.of(SKU, "TEE-001"))).thenReturn(List.of(
+                activeProduct(SKU, NAME, PRICE, EUR),
+                activeProduct("TEE-001", "Logo Tee", new BigDecimal("29.99"), EUR)));
+        when(cartRepository.save(any(Cart.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        CartDto dto = service.applyItemOperations(CART_EXT_ID, List.of(
+                new CartItemOperationDto(CartItemOperationType.ADD, SKU, 2),
+                new CartItemOperationDto(CartItemOperationType.SET, "TEE-001", 4),
+                new CartItemOperationDto(CartItemOperationType.REMOVE, "CAP-001", null)));
+
+        assertThat(dto.getItems()).extracting(CartItemDto::getProductSku, CartItemDto::getQuantity)
+                .containsExactlyInAnyOrder(tuple(SKU, 3), tuple("TEE-001", 4));
+        verify(productRepository, times(1)).findAllBySkuIn(any());
+        verify(productRepository, never()).findBySku(any());
+        verify(cartRepository, times(1)).save(cart);
+    }
+
+    @Test
+    @DisplayName("applyItemOperations: a line removed and added back keeps its entity")
+    void applyItemOperations_removeThenAdd_reusesLine() {
+        Cart cart = emptyCart(CART_EXT_ID, EUR);
+        addItem(cart, SKU, NAME, PRICE, 5);
+        CartItem original = cart.getItems().get(0);
+        when(cartRepository.findByExternalId(CART_EXT_ID)).thenReturn(Optional.of(cart));
+        when(productRepository.findAllBySkuIn(Set.of(SKU))).thenReturn(List.of(activeProduct(SKU, NAME, PRICE, EUR)));
+        when(cartRepository.save(any(Cart.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.applyItemOperations(CART_EXT_ID, List.of(
+                new CartItemOperationDto(CartItemOperationType.REMOVE, SKU, null),
+                new CartItemOperationDto(CartItemOperationType.ADD, SKU, 1)));
+
+        assertThat(cart.getItems()).containsExactly(original);
+        assertThat(original.getQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("applyItemOperations: one unknown SKU rejects the whole request, naming the operation")
+    void applyItemOperations_unknownSku_rejectsAll() {
+        Cart cart = emptyCart(CART_EXT_ID, EUR);
+        when(cartRepository.findByExternalId(CART_EXT_ID)).thenReturn(Optional.of(cart));
+        when(productRepository.findAllBySkuIn(any())).thenReturn(List.of(activeProduct(SKU, NAME, PRICE, EUR)));
+
+        assertThatThrownBy(() -> service.applyItemOperations(CART_EXT_ID, List.of(
+                new CartItemOperationDto(CartItemOperationType.ADD, SKU, 1),
+                new CartItemOperationDto(CartItemOperationType.ADD, "NOPE-001", 1))))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessageContaining("operations[1]");
+        verify(cartRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("applyItemOperations: ADD without qty rejected")
+    void applyItemOperations_missingQty_rejected() {
+        when(cartRepository.findByExternalId(CART_EXT_ID)).thenReturn(Optional.of(emptyCart(CART_EXT_ID, EUR)));
+        when(productRepository.findAllBySkuIn(any())).thenReturn(List.of(activeProduct(SKU, NAME, PRICE, EUR)));
+
+        assertThatThrownBy(() -> service.applyItemOperations(CART_EXT_ID, List.of(
+                new CartItemOperationDto(CartItemOperationType.ADD, SKU, null))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("greater than zero");
+    }
+
     // ---------------- helpers ----------------
     private static Cart emptyCart(String externalId, Currency currency) {
         Cart c = new Cart();
@@ -2,8 +2,10 @@ package com.waalterGar.projects.ecommerce.service.Implementation;
 
 import com.waalterGar.projects.ecommerce.Dto.CreateCustomerDto;
 import com.waalterGar.projects.ecommerce.Dto.CustomerDto;
+import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
 import com.waalterGar.projects.ecommerce.entity.Customer;
 import com.waalterGar.projects.ecommerce.repository.CustomerRepository;
+import com.waalterGar.projects.ecommerce.service.cache.CountEstimates;
 import com.waalterGar.projects.ecommerce.utils.CountryCode;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,6 +13,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -24,6 +30,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +40,9 @@ class CustomerServiceImplTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private CountEstimates countEstimates;
+
     @InjectMocks
     private CustomerServiceImpl customerService;
 
@@ -249,4 +259,40 @@ class CustomerServiceImplTest {
         dto.setCountryCode(COUNTRY);
         return dto;
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("listWithoutTotal: filtered slices carry no estimate, unfiltered ones do")
+    void listWithoutTotal_estimateOnlyWhenUnfiltered() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(customerRepository.findSliceByEmailContainingIgnoreCase(eq("acme"), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        when(customerRepository.findSliceBy(pageable)).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        when(countEstimates.get(CountEstimates.CUSTOMERS)).thenReturn(7L);
+
+        assertThat(customerService.listWithoutTotal(" acme ", null, pageable).estimatedTotalItems()).isNull();
+        assertThat(customerService.listWithoutTotal(null, null, pageable).estimatedTotalItems()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("list with q: runs the full-text search with one required prefix term per word")
+    void list_withQ_usesFullTextSearch() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(customerRepository.search(eq("+ana* +garcía*"), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(defaultEntity()), pageable, 1));
+
+        PageEnvelope<CustomerDto> result = customerService.list(null, "Ana García", pageable);
+
+        assertThat(result.items()).extracting(CustomerDto::getExternalId).containsExactly(EXT_ID);
+        assertThat(result.totalItems()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("list with q: nothing searchable -> empty page without a query")
+    void list_withUnsearchableQ_returnsEmptyPage() {
+        Pageable pageable = PageRequest.of(0, 20);
+
+        assertThat(customerService.list(null, "@@", pageable).items()).isEmpty();
+        assertThat(customerService.listWithoutTotal(null, "@@", pageable).items()).isEmpty();
+        verifyNoInteractions(customerRepository);
+    }
+}
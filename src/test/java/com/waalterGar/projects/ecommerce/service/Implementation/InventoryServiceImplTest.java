@@ -0,0 +1,156 @@
+package com.waalterGar.projects.ecommerce.service.Implementation;
+
+import com.waalterGar.projects.ecommerce.config.InventoryProperties;
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.exception.InsufficientStockException;
+import com.waalterGar.projects.ecommerce.service.inventory.InventoryLedger;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import com.waalterGar.projects.ecommerce.utils.InventoryStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryServiceImplTest {
+
+    @Mock ProductRepository productRepository;
+    @Mock InventoryLedger inventoryLedger;
+
+    private static final String FIRST_PRODUCT_SKU = "MUG-LOGO-001";
+    private static final String SECOND_PRODUCT_SKU = "TSHIRT-LOGO-001";
+
+    private InventoryServiceImpl service(InventoryStrategy strategy) {
+        return new InventoryServiceImpl(productRepository, new InventoryProperties(strategy), inventoryLedger);
+    }
+
+    @Test
+    @DisplayName("properties: strategy defaults to PESSIMISTIC when not configured")
+    void properties_defaultStrategy_isPessimistic() {
+        assertThat(new InventoryProperties(null).strategy()).isEqualTo(InventoryStrategy.PESSIMISTIC);
+    }
+
+    @Test
+    @DisplayName("loadProducts: PESSIMISTIC reads with the locking query")
+    void loadProducts_pessimistic_usesLockingQuery() {
+        Product product = new ProductBuilder().withSku(FIRST_PRODUCT_SKU).build();
+        when(productRepository.findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU))).thenReturn(List.of(product));
+
+        Map<String, Product> products = service(InventoryStrategy.PESSIMISTIC).loadProducts(Set.of(FIRST_PRODUCT_SKU));
+
+        assertThat(products).containsEntry(FIRST_PRODUCT_SKU, product);
+        verify(productRepository, never()).findAllBySkuIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("lockRows: locks every non-ledger SKU with the locking query, whatever the strategy")
+    void lockRows_locksRowSkusOnly() {
+        when(inventoryLedger.isManaged(FIRST_PRODUCT_SKU)).thenReturn(true);
+
+        service(InventoryStrategy.ATOMIC).lockRows(List.of(SECOND_PRODUCT_SKU, FIRST_PRODUCT_SKU));
+
+        verify(productRepository).findAllBySkuInForUpdate(Set.of(SECOND_PRODUCT_SKU));
+    }
+
+    @Test
+    @DisplayName("loadProducts: OPTIMISTIC and ATOMIC read without row locks")
+    void loadProducts_optimisticAndAtomic_doNotLock() {
+        Product product = new ProductBuilder().withSku(FIRST_PRODUCT_SKU).build();
+        when(productRepository.findAllBySkuIn(Set.of(FIRST_PRODUCT_SKU))).thenReturn(List.of(product));
+
+        assertThat(service(InventoryStrategy.OPTIMISTIC).loadProducts(Set.of(FIRST_PRODUCT_SKU)))
+                .containsEntry(FIRST_PRODUCT_SKU, product);
+        assertThat(service(InventoryStrategy.ATOMIC).loadProducts(Set.of(FIRST_PRODUCT_SKU)))
+                .containsEntry(FIRST_PRODUCT_SKU, product);
+
+        verify(productRepository, never()).findAllBySkuInForUpdate(anyCollection());
+    }
+
+    @Test
+    @DisplayName("reserve: OPTIMISTIC decrements the loaded entity and leaves the version check to the flush")
+    void reserve_optimistic_decrementsEntity() {
+        Product product = new ProductBuilder().withSku(FIRST_PRODUCT_SKU).withStockQuantity(5).build();
+
+        service(InventoryStrategy.OPTIMISTIC).reserve(Map.of(FIRST_PRODUCT_SKU, product), Map.of(FIRST_PRODUCT_SKU, 3));
+
+        assertThat(product.getStockQuantity()).isEqualTo(2);
+        verify(productRepository, never()).decrementStockIfAvailable(anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("reserve: ATOMIC issues one conditional UPDATE per SKU in SKU order and leaves entities clean")
+    void reserve_atomic_conditionalUpdatePerSku_inSkuOrder() {
+        Product first = new ProductBuilder().withSku(FIRST_PRODUCT_SKU).withStockQuantity(5).build();
+        Product second = new ProductBuilder().withSku(SECOND_PRODUCT_SKU).withStockQuantity(5).build();
+        when(productRepository.decrementStockIfAvailable(anyString(), anyInt())).thenReturn(1);
+
+        service(InventoryStrategy.ATOMIC).reserve(
+                Map.of(FIRST_PRODUCT_SKU, first, SECOND_PRODUCT_SKU, second),
+                Map.of(SECOND_PRODUCT_SKU, 1, FIRST_PRODUCT_SKU, 2));
+
+        InOrder inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).decrementStockIfAvailable(FIRST_PRODUCT_SKU, 2);
+        inOrder.verify(productRepository).decrementStockIfAvailable(SECOND_PRODUCT_SKU, 1);
+        assertThat(first.getStockQuantity()).isEqualTo(5);
+        assertThat(second.getStockQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("reserve: ATOMIC throws when the conditional UPDATE matches no row")
+    void reserve_atomic_noRowUpdated_throwsInsufficientStock() {
+        Product product = new ProductBuilder().withSku(FIRST_PRODUCT_SKU).withStockQuantity(5).build();
+        when(productRepository.decrementStockIfAvailable(FIRST_PRODUCT_SKU, 9)).thenReturn(0);
+
+        assertThatThrownBy(() -> service(InventoryStrategy.ATOMIC)
+                .reserve(Map.of(FIRST_PRODUCT_SKU, product), Map.of(FIRST_PRODUCT_SKU, 9)))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining(FIRST_PRODUCT_SKU)
+                .hasMessageContaining("requested 9");
+    }
+
+    @Test
+    @DisplayName("release: ATOMIC increments stock without loading products")
+    void release_atomic_incrementsWithoutLoading() {
+        when(productRepository.incrementStock(FIRST_PRODUCT_SKU, 2)).thenReturn(1);
+
+        service(InventoryStrategy.ATOMIC).release(Map.of(FIRST_PRODUCT_SKU, 2));
+
+        verify(productRepository).incrementStock(FIRST_PRODUCT_SKU, 2);
+        verify(productRepository, never()).findAllBySkuIn(anyCollection());
+        verify(productRepository, never()).findAllBySkuInForUpdate(anyCollection());
+    }
+
+    @Test
+    @DisplayName("release: ATOMIC throws when the product no longer exists")
+    void release_atomic_missingProduct_throws() {
+        when(productRepository.incrementStock(FIRST_PRODUCT_SKU, 2)).thenReturn(0);
+
+        assertThatThrownBy(() -> service(InventoryStrategy.ATOMIC).release(Map.of(FIRST_PRODUCT_SKU, 2)))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessage("Product not found: " + FIRST_PRODUCT_SKU);
+    }
+
+    @Test
+    @DisplayName("release: OPTIMISTIC adds the quantity back to the unlocked entity")
+    void release_optimistic_restocksEntity() {
+        Product product = new ProductBuilder().withSku(FIRST_PRODUCT_SKU).withStockQuantity(1).build();
+        when(productRepository.findAllBySkuIn(Set.of(FIRST_PRODUCT_SKU))).thenReturn(List.of(product));
+
+        service(InventoryStrategy.OPTIMISTIC).release(Map.of(FIRST_PRODUCT_SKU, 4));
+
+        assertThat(product.getStockQuantity()).isEqualTo(5);
+        verify(productRepository, never()).incrementStock(anyString(), anyInt());
+    }
+}
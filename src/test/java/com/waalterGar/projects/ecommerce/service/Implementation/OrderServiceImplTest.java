@@ -1,9 +1,12 @@
 package com.waalterGar.projects.ecommerce.service.Implementation;
 
 import com.waalterGar.projects.ecommerce.Dto.OrderDto;
+import com.waalterGar.projects.ecommerce.Dto.OrderLookupDto;
 import com.waalterGar.projects.ecommerce.Dto.PayOrderRequestDto;
 import com.waalterGar.projects.ecommerce.Dto.createOrderDto;
 import com.waalterGar.projects.ecommerce.Dto.createOrderItemDto;
+import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
+import com.waalterGar.projects.ecommerce.config.InventoryProperties;
 import com.waalterGar.projects.ecommerce.entity.Customer;
 import com.waalterGar.projects.ecommerce.entity.Order;
 import com.waalterGar.projects.ecommerce.entity.Payment;
@@ -12,26 +15,36 @@ import com.waalterGar.projects.ecommerce.repository.CustomerRepository;
 import com.waalterGar.projects.ecommerce.repository.OrderRepository;
 import com.waalterGar.projects.ecommerce.repository.PaymentRepository;
 import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.cache.CountEstimates;
 import com.waalterGar.projects.ecommerce.service.exception.InactiveProductException;
 import com.waalterGar.projects.ecommerce.service.exception.InsufficientStockException;
+import com.waalterGar.projects.ecommerce.service.export.ChunkedExporter;
+import com.waalterGar.projects.ecommerce.service.inventory.InventoryLedger;
 import com.waalterGar.projects.ecommerce.testsupport.builders.CustomerBuilder;
 import com.waalterGar.projects.ecommerce.testsupport.builders.OrderBuilder;
 import com.waalterGar.projects.ecommerce.testsupport.builders.OrderItemBuilder;
 import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
 import com.waalterGar.projects.ecommerce.utils.Currency;
+import com.waalterGar.projects.ecommerce.utils.InventoryStrategy;
 import com.waalterGar.projects.ecommerce.utils.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 import static com.waalterGar.projects.ecommerce.utils.Currency.EUR;
 import static com.waalterGar.projects.ecommerce.utils.Currency.USD;
@@ -46,8 +59,19 @@ class OrderServiceImplTest {
     @Mock CustomerRepository customerRepository;
     @Mock ProductRepository productRepository;
     @Mock PaymentRepository paymentRepository;
-
-    @InjectMocks OrderServiceImpl orderService;
+    @Mock InventoryLedger inventoryLedger;
+    @Mock CountEstimates countEstimates;
+    @Mock ChunkedExporter chunkedExporter;
+
+    OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        // Real inventory engine over the mocked repository, so stock checks and decrements stay observable here
+        InventoryServiceImpl inventoryService =
+                new InventoryServiceImpl(productRepository, new InventoryProperties(InventoryStrategy.PESSIMISTIC), inventoryLedger);
+        orderService = new OrderServiceImpl(orderRepository, customerRepository, paymentRepository, inventoryService, countEstimates, chunkedExporter);
+    }
 
     private static final String ORDER_EXT_ID = "ord-123";
     private static final String CUSTOMER_EXT_ID = "cust-123";
@@ -114,6 +138,32 @@ class OrderServiceImplTest {
         verify(orderRepository).findByExternalId(ORDER_EXT_ID);
     }
 
+    @Test
+    @DisplayName("getOrdersByExternalIds: one query, requested order kept, unknown ids reported as missing")
+    void getOrdersByExternalIds_keepsRequestOrder_andReportsMissing() {
+        Customer customer = new CustomerBuilder().withExternalId(CUSTOMER_EXT_ID).build();
+        Order first = new OrderBuilder().withExternalId("ord-1").withCustomer(customer).build();
+        Order second = new OrderBuilder().withExternalId("ord-2").withCustomer(customer).build();
+        when(orderRepository.findAllByExternalIdIn(any())).thenReturn(List.of(first, second));
+
+        OrderLookupDto result = orderService.getOrdersByExternalIds(List.of("ord-2", "ord-404", " ord-1 ", "ord-2", ""));
+
+        assertThat(result.getOrders()).extracting(OrderDto::getExternalId).containsExactly("ord-2", "ord-1");
+        assertThat(result.getMissing()).containsExactly("ord-404");
+        verify(orderRepository).findAllByExternalIdIn(Set.of("ord-2", "ord-404", "ord-1"));
+        verifyNoMoreInteractions(orderRepository);
+    }
+
+    @Test
+    @DisplayName("getOrdersByExternalIds: throws IllegalArgumentException when no id is given")
+    void getOrdersByExternalIds_whenNoIds_throws() {
+        assertThatThrownBy(() -> orderService.getOrdersByExternalIds(List.of(" ")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("ids must not be empty");
+
+        verifyNoInteractions(orderRepository);
+    }
+
     @Test
     @DisplayName("getAllOrders: returns empty list when repo has no orders")
     void getAllOrders_whenNoOrders_returnsEmptyList() {
@@ -141,7 +191,7 @@ class OrderServiceImplTest {
         createOrderDto dto = singleItemOrderDto(CUSTOMER_EXT_ID, FIRST_PRODUCT_SKU, FIRST_ITEM_QUANTITY);
 
         when(customerRepository.findByExternalId(CUSTOMER_EXT_ID)).thenReturn(Optional.of(customer));
-        when(productRepository.findBySku(FIRST_PRODUCT_SKU)).thenReturn(Optional.of(product));
+        when(productRepository.findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU))).thenReturn(List.of(product));
 
         // Simulate persistence assigning the externalId
         when(orderRepository.save(any(Order.class))).thenAnswer(inv -> {
@@ -166,7 +216,7 @@ class OrderServiceImplTest {
         assertThat(result.getTotalAmount()).isEqualByComparingTo(expectedOrderTotal);
 
         verify(customerRepository).findByExternalId(CUSTOMER_EXT_ID);
-        verify(productRepository).findBySku(FIRST_PRODUCT_SKU);
+        verify(productRepository).findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU));
         verify(orderRepository).save(any(Order.class));
     }
 
@@ -191,13 +241,13 @@ class OrderServiceImplTest {
 
         when(customerRepository.findByExternalId(CUSTOMER_EXT_ID))
                 .thenReturn(Optional.of(new CustomerBuilder().withExternalId(CUSTOMER_EXT_ID).build()));
-        when(productRepository.findBySku(FIRST_PRODUCT_SKU)).thenReturn(Optional.empty());
+        when(productRepository.findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU))).thenReturn(List.of());
 
         assertThatThrownBy(() -> orderService.createOrder(dto))
                 .isInstanceOf(NoSuchElementException.class);
 
         verify(customerRepository).findByExternalId(CUSTOMER_EXT_ID);
-        verify(productRepository).findBySku(FIRST_PRODUCT_SKU);
+        verify(productRepository).findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU));
         verify(orderRepository, never()).save(any(Order.class));
     }
 
@@ -234,8 +284,8 @@ class OrderServiceImplTest {
                 .withStockQuantity(5)
                 .build();
 
-        when(productRepository.findBySku(FIRST_PRODUCT_SKU)).thenReturn(Optional.of(firstProduct));
-        when(productRepository.findBySku(SECOND_PRODUCT_SKU)).thenReturn(Optional.of(secondProduct));
+        when(productRepository.findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU, SECOND_PRODUCT_SKU)))
+                .thenReturn(List.of(firstProduct, secondProduct));
 
         when (orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -289,7 +339,7 @@ class OrderServiceImplTest {
                 .withStockQuantity(availableStock) // less than requested
                 .build();
 
-        when(productRepository.findBySku(FIRST_PRODUCT_SKU)).thenReturn(Optional.of(firstProduct));
+        when(productRepository.findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU))).thenReturn(List.of(firstProduct));
 
         // When / Then
         assertThatThrownBy(() -> orderService.createOrder(order))
@@ -299,6 +349,78 @@ class OrderServiceImplTest {
     }
 
 
+    @Test
+    @DisplayName("createOrder: repeated SKU lines are locked once and decremented by their combined quantity")
+    void createOrder_repeatedSku_singleLockedLookup_decrementsCombinedQuantity() {
+        createOrderItemDto firstLine = new createOrderItemDto();
+        firstLine.setProductSku(FIRST_PRODUCT_SKU);
+        firstLine.setQuantity(FIRST_ITEM_QUANTITY);
+
+        createOrderItemDto secondLine = new createOrderItemDto();
+        secondLine.setProductSku(FIRST_PRODUCT_SKU);
+        secondLine.setQuantity(SECOND_ITEM_QUANTITY);
+
+        createOrderDto order = new createOrderDto();
+        order.setCustomerExternalId(CUSTOMER_EXT_ID);
+        order.setItems(List.of(firstLine, secondLine));
+
+        when(customerRepository.findByExternalId(CUSTOMER_EXT_ID)).thenReturn(Optional.of(new Customer()));
+
+        Product product = new ProductBuilder()
+                .withSku(FIRST_PRODUCT_SKU)
+                .withName(FIRST_PRODUCT_NAME)
+                .withPrice(FIRST_PRODUCT_PRICE.toPlainString())
+                .withCurrency(PRODUCT_CURRENCY)
+                .withStockQuantity(10)
+                .build();
+
+        when(productRepository.findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU))).thenReturn(List.of(product));
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        OrderDto result = orderService.createOrder(order);
+
+        assertThat(result.getItems()).hasSize(2);
+        assertThat(product.getStockQuantity()).isEqualTo(10 - FIRST_ITEM_QUANTITY - SECOND_ITEM_QUANTITY);
+
+        verify(productRepository, times(1)).findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU));
+        verify(productRepository, never()).findBySku(anyString());
+    }
+
+    @Test
+    @DisplayName("createOrder: repeated SKU lines exceeding stock together -> InsufficientStockException, stock untouched")
+    void createOrder_repeatedSku_combinedQuantityExceedsStock_throws() {
+        createOrderItemDto firstLine = new createOrderItemDto();
+        firstLine.setProductSku(FIRST_PRODUCT_SKU);
+        firstLine.setQuantity(2);
+
+        createOrderItemDto secondLine = new createOrderItemDto();
+        secondLine.setProductSku(FIRST_PRODUCT_SKU);
+        secondLine.setQuantity(2);
+
+        createOrderDto order = new createOrderDto();
+        order.setCustomerExternalId(CUSTOMER_EXT_ID);
+        order.setItems(List.of(firstLine, secondLine));
+
+        when(customerRepository.findByExternalId(CUSTOMER_EXT_ID)).thenReturn(Optional.of(new Customer()));
+
+        Product product = new ProductBuilder()
+                .withSku(FIRST_PRODUCT_SKU)
+                .withName(FIRST_PRODUCT_NAME)
+                .withPrice(FIRST_PRODUCT_PRICE.toPlainString())
+                .withCurrency(PRODUCT_CURRENCY)
+                .withStockQuantity(3)
+                .build();
+
+        when(productRepository.findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU))).thenReturn(List.of(product));
+
+        assertThatThrownBy(() -> orderService.createOrder(order))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("available 1");
+
+        assertThat(product.getStockQuantity()).isEqualTo(3);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void createOrder_mixedCurrencies_rejected_noSave(){
         // Given
@@ -332,8 +454,8 @@ class OrderServiceImplTest {
                 .withStockQuantity(5)
                 .build();
 
-        when(productRepository.findBySku(FIRST_PRODUCT_SKU)).thenReturn(Optional.of(firstProduct));
-        when(productRepository.findBySku(SECOND_PRODUCT_SKU)).thenReturn(Optional.of(secondProduct));
+        when(productRepository.findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU, SECOND_PRODUCT_SKU)))
+                .thenReturn(List.of(firstProduct, secondProduct));
 
         // When / Then
         assertThatThrownBy(() -> orderService.createOrder(order))
@@ -377,7 +499,7 @@ class OrderServiceImplTest {
                 .build();
         inactive.setIsActive(false);  // INACTIVE
 
-        when(productRepository.findBySku(FIRST_PRODUCT_SKU)).thenReturn(Optional.of(inactive));
+        when(productRepository.findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU))).thenReturn(List.of(inactive));
 
         // Act + Assert
         assertThatThrownBy(() -> orderService.createOrder(dto))
@@ -386,7 +508,7 @@ class OrderServiceImplTest {
 
         // And: no persistence attempted
         verify(customerRepository).findByExternalId(CUSTOMER_EXT_ID);
-        verify(productRepository).findBySku(FIRST_PRODUCT_SKU);
+        verify(productRepository).findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU));
         verify(orderRepository, never()).save(any(Order.class));
     }
 
@@ -565,8 +687,8 @@ class OrderServiceImplTest {
                 .withStockQuantity(10).build(); // will become 11
 
         when(orderRepository.findByExternalId(ORDER_EXT_ID)).thenReturn(Optional.of(order));
-        when(productRepository.findBySku(FIRST_PRODUCT_SKU)).thenReturn(Optional.of(p1));
-        when(productRepository.findBySku(SECOND_PRODUCT_SKU)).thenReturn(Optional.of(p2));
+        when(productRepository.findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU, SECOND_PRODUCT_SKU)))
+                .thenReturn(List.of(p1, p2));
 
         OrderDto out = orderService.cancelOrder(ORDER_EXT_ID);
 
@@ -577,8 +699,7 @@ class OrderServiceImplTest {
         assertThat(out.getExternalId()).isEqualTo(ORDER_EXT_ID);
 
         verify(orderRepository).findByExternalId(ORDER_EXT_ID);
-        verify(productRepository).findBySku(FIRST_PRODUCT_SKU);
-        verify(productRepository).findBySku(SECOND_PRODUCT_SKU);
+        verify(productRepository).findAllBySkuInForUpdate(Set.of(FIRST_PRODUCT_SKU, SECOND_PRODUCT_SKU));
     }
 
     @Test
@@ -629,6 +750,70 @@ class OrderServiceImplTest {
         verifyNoInteractions(productRepository);
     }
 
+    @Test
+    @DisplayName("list: pages ids first, then hydrates them in one query keeping the page order")
+    void list_pagesIds_thenHydratesInPageOrder() {
+        Customer customer = new CustomerBuilder().withExternalId(CUSTOMER_EXT_ID).build();
+        Order first = new OrderBuilder().withExternalId("ord-1").withCustomer(customer).build();
+        Order second = new OrderBuilder().withExternalId("ord-2").withCustomer(customer).build();
+        first.setId(UUID.randomUUID());
+        second.setId(UUID.randomUUID());
+        Pageable pageable = PageRequest.of(0, 2);
+        List<UUID> ids = List.of(first.getId(), second.getId());
+
+        when(orderRepository.findIdsBy(pageable)).thenReturn(new PageImpl<>(ids, pageable, 5));
+        // the IN query gives no ordering guarantee
+        when(orderRepository.findAllWithItemsAndCustomerByIdIn(ids)).thenReturn(List.of(second, first));
+
+        PageEnvelope<OrderDto> result = orderService.list(pageable);
+
+        assertThat(result.items()).extracting(OrderDto::getExternalId).containsExactly("ord-1", "ord-2");
+        assertThat(result.totalItems()).isEqualTo(5L);
+        verify(orderRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("listByCustomer: an empty id page skips the hydration query")
+    void listByCustomer_emptyPage_skipsHydration() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(customerRepository.existsByExternalId(CUSTOMER_EXT_ID)).thenReturn(true);
+        when(orderRepository.findIdsByCustomerExternalId(CUSTOMER_EXT_ID, pageable)).thenReturn(Page.empty(pageable));
+
+        PageEnvelope<OrderDto> result = orderService.listByCustomer(CUSTOMER_EXT_ID, pageable);
+
+        assertThat(result.items()).isEmpty();
+        verify(orderRepository, never()).findAllWithItemsAndCustomerByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("listByCustomer: a page with orders does not look the customer up")
+    void listByCustomer_withOrders_skipsCustomerLookup() {
+        Customer customer = new CustomerBuilder().withExternalId(CUSTOMER_EXT_ID).build();
+        Order order = new OrderBuilder().withExternalId("ord-1").withCustomer(customer).build();
+        order.setId(UUID.randomUUID());
+        Pageable pageable = PageRequest.of(0, 20);
+        when(orderRepository.findIdsByCustomerExternalId(CUSTOMER_EXT_ID, pageable))
+                .thenReturn(new PageImpl<>(List.of(order.getId()), pageable, 1));
+        when(orderRepository.findAllWithItemsAndCustomerByIdIn(List.of(order.getId()))).thenReturn(List.of(order));
+
+        PageEnvelope<OrderDto> result = orderService.listByCustomer(CUSTOMER_EXT_ID, pageable);
+
+        assertThat(result.items()).extracting(OrderDto::getExternalId).containsExactly("ord-1");
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    @DisplayName("listByCustomer: no orders and unknown customer → 404")
+    void listByCustomer_unknownCustomer_throws() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(orderRepository.findIdsByCustomerExternalId(CUSTOMER_EXT_ID, pageable)).thenReturn(Page.empty(pageable));
+        when(customerRepository.existsByExternalId(CUSTOMER_EXT_ID)).thenReturn(false);
+
+        assertThatThrownBy(() -> orderService.listByCustomer(CUSTOMER_EXT_ID, pageable))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessage("Customer not found");
+    }
+
     private createOrderDto singleItemOrderDto(String customerExternalId, String sku, int quantity) {
         createOrderDto dto = new createOrderDto();
         dto.setCustomerExternalId(customerExternalId);
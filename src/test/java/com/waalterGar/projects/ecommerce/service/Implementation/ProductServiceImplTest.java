@@ -3,15 +3,30 @@ package com.waalterGar.projects.ecommerce.service.Implementation;
 import com.waalterGar.projects.ecommerce.Dto.ActivationProductDto;
 import com.waalterGar.projects.ecommerce.Dto.UpdateProductDto;
 import com.waalterGar.projects.ecommerce.Dto.ProductDto;
+import com.waalterGar.projects.ecommerce.config.ProductCacheProperties;
+import com.waalterGar.projects.ecommerce.api.pagination.PageEnvelope;
 import com.waalterGar.projects.ecommerce.entity.Product;
 import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.cache.CountEstimates;
+import com.waalterGar.projects.ecommerce.service.export.ChunkedExporter;
+import com.waalterGar.projects.ecommerce.service.search.ProductSearchIndex;
+import com.waalterGar.projects.ecommerce.service.cache.ProductCache;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import com.waalterGar.projects.ecommerce.service.exception.PreconditionFailedException;
 import com.waalterGar.projects.ecommerce.utils.Currency;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import java.math.BigDecimal;
@@ -36,9 +51,28 @@ class ProductServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CountEstimates countEstimates;
+
+    @Mock
+    private ChunkedExporter chunkedExporter;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
     private ProductServiceImpl productService;
 
+    @BeforeEach
+    void setUp() {
+        ProductCache productCache = new ProductCache(
+                productRepository, new ProductCacheProperties(100, null), new SimpleMeterRegistry());
+        productService = new ProductServiceImpl(productRepository, eventPublisher, productCache, countEstimates, chunkedExporter,
+                productSearchIndex);
+    }
+
     // Defaults used across tests (kept simple)
     private static final String DEFAULT_SKU = "SKU123";
     private static final String DEFAULT_NAME = "Test Product";
@@ -127,7 +161,7 @@ class ProductServiceImplTest {
         );
 
         // When
-        ProductDto out = productService.updateProduct(DEFAULT_SKU, dto);
+        ProductDto out = productService.updateProduct(DEFAULT_SKU, dto, null);
 
         // Then (returned DTO reflects updates)
         assertThat(out).isNotNull();
@@ -146,6 +180,7 @@ class ProductServiceImplTest {
 
         verify(productRepository).findBySku(eq(DEFAULT_SKU));
         verifyNoMoreInteractions(productRepository); // relying on JPA dirty checking (no save)
+        verify(eventPublisher).publishEvent(ProductsChangedEvent.of(DEFAULT_SKU));
     }
 
     @Test
@@ -160,7 +195,7 @@ class ProductServiceImplTest {
         );
 
         // When / Then
-        assertThatThrownBy(() -> productService.updateProduct(missing, dto))
+        assertThatThrownBy(() -> productService.updateProduct(missing, dto, null))
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessageContaining("Product not found");
         verify(productRepository).findBySku(eq(missing));
@@ -174,12 +209,33 @@ class ProductServiceImplTest {
                 "Name", "Desc", new BigDecimal("1.00"), 1, true
         );
 
-        assertThatThrownBy(() -> productService.updateProduct("   ", dto))
+        assertThatThrownBy(() -> productService.updateProduct("   ", dto, null))
                 .isInstanceOf(IllegalArgumentException.class);
         // repo should not be called
         verifyNoMoreInteractions(productRepository);
     }
 
+    @Test
+    @DisplayName("updateProduct: throws PreconditionFailedException and leaves the entity alone when the version moved on")
+    void updateProduct_withStaleExpectedVersion_throwsPreconditionFailed() {
+        Product existing = createDefaultProductEntity();
+        existing.setVersion(4);
+        when(productRepository.findBySku(eq(DEFAULT_SKU))).thenReturn(Optional.of(existing));
+
+        UpdateProductDto dto = new UpdateProductDto(
+                "New Name", "Desc", new BigDecimal("1.00"), 1, true
+        );
+
+        assertThatThrownBy(() -> productService.updateProduct(DEFAULT_SKU, dto, 3L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("version 3");
+        assertThat(existing.getName()).isNotEqualTo("New Name");
+        verifyNoInteractions(eventPublisher);
+
+        ProductDto out = productService.updateProduct(DEFAULT_SKU, dto, 4L);
+        assertThat(out.getName()).isEqualTo("New Name");
+    }
+
     @Test
     @DisplayName("setProductActive: flips flag on managed entity and returns updated DTO")
     void setProductActive_happyPath_updatesEntityAndReturnsDto() {
@@ -274,4 +330,27 @@ class ProductServiceImplTest {
         dto.setIsActive(DEFAULT_ACTIVE);
         return dto;
     }
+
+    @Test
+    @DisplayName("listWithoutTotal: reads a Slice (no count query) and reports the cached estimate")
+    void listWithoutTotal_usesSlice_andEstimate() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("createdAt").descending());
+        Product product = createDefaultProductEntity();
+        when(productRepository.findSliceBy(pageable)).thenReturn(new SliceImpl<>(List.of(product), pageable, true));
+        when(countEstimates.get(CountEstimates.PRODUCTS)).thenReturn(42L);
+
+        // When
+        PageEnvelope<ProductDto> result = productService.listWithoutTotal(pageable);
+
+        // Then
+        assertThat(result.items()).extracting(ProductDto::getSku).containsExactly(DEFAULT_SKU);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.totalItems()).isNull();
+        assertThat(result.totalPages()).isNull();
+        assertThat(result.estimatedTotalItems()).isEqualTo(42L);
+        assertThat(result.sort()).containsExactly("createdAt,desc");
+        verify(productRepository).findSliceBy(pageable);
+        verifyNoMoreInteractions(productRepository);
+    }
 }
@@ -0,0 +1,169 @@
+package com.waalterGar.projects.ecommerce.service;
+
+import com.waalterGar.projects.ecommerce.Dto.createOrderDto;
+import com.waalterGar.projects.ecommerce.Dto.createOrderItemDto;
+import com.waalterGar.projects.ecommerce.repository.CustomerRepository;
+import com.waalterGar.projects.ecommerce.repository.OrderRepository;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.exception.InsufficientStockException;
+import com.waalterGar.projects.ecommerce.testsupport.builders.CustomerBuilder;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers a single hot SKU from many threads under each {@code inventory.strategy} and reports
+ * throughput and conflict rate, so the strategies can be compared side by side.
+ * Run with: ./mvnw -Dtest=OrderServiceConcurrencyIT test
+ */
+@SpringBootTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderServiceConcurrencyIT {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.37");
+
+    private static final String CUSTOMER_EXT_ID = "cust-hot";
+    private static final String HOT_SKU = "FLASH-SALE-001";
+    private static final int INITIAL_STOCK = 200;
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 20;
+    private static final int ATTEMPTS = THREADS * ORDERS_PER_THREAD;
+
+    @Nested
+    @TestPropertySource(properties = "inventory.strategy=optimistic")
+    class Optimistic extends HotSkuScenario {
+        @Test
+        void hotSku_concurrentOrders_neverOversell() throws Exception {
+            LoadResult result = run("optimistic");
+
+            // Version conflicts are expected here; they are what the other strategies avoid
+            assertNoOversell(result);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "inventory.strategy=pessimistic")
+    class Pessimistic extends HotSkuScenario {
+        @Test
+        void hotSku_concurrentOrders_neverOversell_andDoNotConflict() throws Exception {
+            LoadResult result = run("pessimistic");
+
+            assertNoOversell(result);
+            assertThat(result.conflicts()).isZero();
+            assertThat(result.created()).isEqualTo(INITIAL_STOCK);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "inventory.strategy=atomic")
+    class Atomic extends HotSkuScenario {
+        @Test
+        void hotSku_concurrentOrders_neverOversell_andDoNotConflict() throws Exception {
+            LoadResult result = run("atomic");
+
+            assertNoOversell(result);
+            assertThat(result.conflicts()).isZero();
+            assertThat(result.created()).isEqualTo(INITIAL_STOCK);
+        }
+    }
+
+    abstract class HotSkuScenario {
+        @Autowired OrderService orderService;
+        @Autowired ProductRepository productRepository;
+        @Autowired CustomerRepository customerRepository;
+        @Autowired OrderRepository orderRepository;
+
+        @AfterEach
+        void cleanup() { orderRepository.deleteAll(); productRepository.deleteAll(); customerRepository.deleteAll(); }
+
+        LoadResult run(String strategy) throws Exception {
+            customerRepository.save(new CustomerBuilder().withExternalId(CUSTOMER_EXT_ID).build());
+            productRepository.save(new ProductBuilder().withSku(HOT_SKU).withStockQuantity(INITIAL_STOCK).build());
+
+            AtomicInteger created = new AtomicInteger();
+            AtomicInteger outOfStock = new AtomicInteger();
+            AtomicInteger conflicts = new AtomicInteger();
+
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        try {
+                            orderService.createOrder(singleItemOrderDto(CUSTOMER_EXT_ID, HOT_SKU, 1));
+                            created.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            outOfStock.incrementAndGet();
+                        } catch (ConcurrencyFailureException e) {
+                            // optimistic-lock failures, lock wait timeouts and deadlocks all land here
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> f : futures) f.get(2, TimeUnit.MINUTES);
+            long elapsedNanos = System.nanoTime() - startedAt;
+            pool.shutdown();
+
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            System.out.printf("[%s] hot SKU: %d attempts in %.2fs -> %.1f orders/s, created=%d, outOfStock=%d, conflicts=%d (%.1f%%)%n",
+                    strategy, ATTEMPTS, seconds, ATTEMPTS / seconds, created.get(), outOfStock.get(), conflicts.get(),
+                    100.0 * conflicts.get() / ATTEMPTS);
+
+            int finalStock = productRepository.findBySku(HOT_SKU).orElseThrow().getStockQuantity();
+            return new LoadResult(created.get(), outOfStock.get(), conflicts.get(), finalStock, orderRepository.count());
+        }
+
+        void assertNoOversell(LoadResult result) {
+            assertThat(result.created() + result.outOfStock() + result.conflicts()).isEqualTo(ATTEMPTS);
+            assertThat(result.finalStock()).isEqualTo(INITIAL_STOCK - result.created());
+            assertThat(result.finalStock()).isGreaterThanOrEqualTo(0);
+            assertThat(result.ordersSaved()).isEqualTo(result.created());
+        }
+    }
+
+    record LoadResult(int created, int outOfStock, int conflicts, int finalStock, long ordersSaved) {}
+
+    private static createOrderDto singleItemOrderDto(String customerExternalId, String sku, int quantity) {
+        createOrderDto dto = new createOrderDto();
+        dto.setCustomerExternalId(customerExternalId);
+
+        createOrderItemDto item = new createOrderItemDto();
+        item.setProductSku(sku);
+        item.setQuantity(quantity);
+
+        dto.setItems(List.of(item));
+
+        return dto;
+    }
+}
@@ -0,0 +1,64 @@
+package com.waalterGar.projects.ecommerce.service.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CountEstimatesTest {
+
+    @Mock JdbcTemplate jdbcTemplate;
+
+    @InjectMocks CountEstimates countEstimates;
+
+    @Test
+    @DisplayName("get: null until the first refresh, then the last estimate without querying again")
+    void refresh_cachesTableRowEstimates() {
+        when(jdbcTemplate.queryForList(CountEstimates.TABLE_ROWS)).thenReturn(List.of(
+                row("products", BigInteger.valueOf(10)),
+                row("ORDERS", BigInteger.valueOf(20)),
+                row("customers", BigInteger.valueOf(30))));
+
+        assertThat(countEstimates.get(CountEstimates.ORDERS)).isNull();
+
+        countEstimates.refresh();
+
+        assertThat(countEstimates.get(CountEstimates.PRODUCTS)).isEqualTo(10L);
+        assertThat(countEstimates.get(CountEstimates.ORDERS)).isEqualTo(20L);
+        assertThat(countEstimates.get(CountEstimates.CUSTOMERS)).isEqualTo(30L);
+        assertThat(countEstimates.get(CountEstimates.ORDERS)).isEqualTo(20L);
+        verify(jdbcTemplate, times(1)).queryForList(CountEstimates.TABLE_ROWS);
+    }
+
+    @Test
+    @DisplayName("refresh: a table without statistics keeps its previous estimate")
+    void refresh_missingStatistics_keepsPreviousEstimate() {
+        when(jdbcTemplate.queryForList(CountEstimates.TABLE_ROWS))
+                .thenReturn(List.of(row("orders", BigInteger.valueOf(20))))
+                .thenReturn(List.of(row("orders", null)));
+
+        countEstimates.refresh();
+        countEstimates.refresh();
+
+        assertThat(countEstimates.get(CountEstimates.ORDERS)).isEqualTo(20L);
+    }
+
+    private static Map<String, Object> row(String name, Object estimate) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("name", name);
+        row.put("estimate", estimate);
+        return row;
+    }
+}
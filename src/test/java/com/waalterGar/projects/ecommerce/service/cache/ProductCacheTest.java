@@ -0,0 +1,152 @@
+package com.waalterGar.projects.ecommerce.service.cache;
+
+import com.waalterGar.projects.ecommerce.config.ProductCacheProperties;
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheTest {
+
+    @Mock ProductRepository productRepository;
+
+    private static final String SKU = "MUG-LOGO-001";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductCache(productRepository, new ProductCacheProperties(100, null), meterRegistry);
+    }
+
+    private static Product product(String name, int version) {
+        Product product = new ProductBuilder().withSku(SKU).withName(name).build();
+        product.setVersion(version);
+        return product;
+    }
+
+    @Test
+    @DisplayName("get: loads once, then serves the snapshot from memory")
+    void get_readThrough_loadsOnce() {
+        when(productRepository.findBySku(SKU)).thenReturn(Optional.of(product("Logo Mug", 0)));
+
+        assertThat(cache.get(SKU)).get().extracting(ProductSnapshot::name).isEqualTo("Logo Mug");
+        assertThat(cache.get(SKU)).isPresent();
+
+        verify(productRepository, times(1)).findBySku(SKU);
+    }
+
+    @Test
+    @DisplayName("get: a missing SKU is not cached")
+    void get_missing_notCached() {
+        when(productRepository.findBySku(SKU)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(SKU)).isEmpty();
+        assertThat(cache.get(SKU)).isEmpty();
+
+        verify(productRepository, times(2)).findBySku(SKU);
+    }
+
+    @Test
+    @DisplayName("get(minVersion): a snapshot behind the row's version is reloaded and replaced")
+    void get_minVersion_staleSnapshot_reloads() {
+        cache.put(ProductSnapshot.of(product("Logo Mug", 3)));
+        when(productRepository.findBySku(SKU)).thenReturn(Optional.of(product("Logo Mug v2", 4)));
+
+        assertThat(cache.get(SKU, 4)).get().extracting(ProductSnapshot::version).isEqualTo(4);
+        assertThat(cache.get(SKU)).get().extracting(ProductSnapshot::name).isEqualTo("Logo Mug v2");
+        verify(productRepository, times(1)).findBySku(SKU);
+    }
+
+    @Test
+    @DisplayName("get(minVersion): a current snapshot is served without touching the database")
+    void get_minVersion_currentSnapshot_servedFromMemory() {
+        cache.put(ProductSnapshot.of(product("Logo Mug", 4)));
+
+        assertThat(cache.get(SKU, 4)).get().extracting(ProductSnapshot::version).isEqualTo(4);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("getAll: loads only the uncached SKUs, in one query, and skips missing ones")
+    void getAll_loadsMissingInOneQuery() {
+        Product other = new ProductBuilder().withSku("TEE-001").withName("Tee").build();
+        cache.put(ProductSnapshot.of(product("Logo Mug", 0)));
+        when(productRepository.findAllBySkuIn(Set.of("TEE-001", "GONE-001"))).thenReturn(List.of(other));
+
+        Map<String, ProductSnapshot> found = cache.getAll(List.of(SKU, "TEE-001", "GONE-001"));
+
+        assertThat(found).containsOnlyKeys(SKU, "TEE-001");
+        verify(productRepository, times(1)).findAllBySkuIn(any());
+        verify(productRepository, never()).findBySku(any());
+        assertThat(cache.get("TEE-001")).isPresent();
+    }
+
+    @Test
+    @DisplayName("onProductsChanged: replaces the cached snapshot with the committed one")
+    void onProductsChanged_replacesSnapshot() {
+        when(productRepository.findBySku(SKU)).thenReturn(Optional.of(product("Logo Mug", 0)));
+        cache.get(SKU);
+        when(productRepository.findAllBySkuIn(Set.of(SKU))).thenReturn(List.of(product("Logo Mug v2", 1)));
+
+        cache.onProductsChanged(ProductsChangedEvent.of(SKU));
+
+        assertThat(cache.get(SKU)).get().extracting(ProductSnapshot::name).isEqualTo("Logo Mug v2");
+        verify(productRepository, times(1)).findBySku(SKU);
+    }
+
+    @Test
+    @DisplayName("put: an older version never replaces a newer cached snapshot")
+    void put_olderVersion_ignored() {
+        cache.put(ProductSnapshot.of(product("new", 3)));
+        cache.put(ProductSnapshot.of(product("stale", 2)));
+
+        assertThat(cache.get(SKU)).get().extracting(ProductSnapshot::name).isEqualTo("new");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("onProductsChanged: SKUs no longer in the database are evicted")
+    void onProductsChanged_missing_evicted() {
+        cache.put(ProductSnapshot.of(product("Logo Mug", 0)));
+        when(productRepository.findAllBySkuIn(Set.of(SKU))).thenReturn(List.of());
+        when(productRepository.findBySku(SKU)).thenReturn(Optional.empty());
+
+        cache.onProductsChanged(ProductsChangedEvent.of(SKU));
+
+        assertThat(cache.get(SKU)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("metrics: hits and misses are published under cache=products")
+    void metrics_hitsAndMisses_published() {
+        when(productRepository.findBySku(SKU)).thenReturn(Optional.of(product("Logo Mug", 0)));
+
+        cache.get(SKU);
+        cache.get(SKU);
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,104 @@
+package com.waalterGar.projects.ecommerce.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waalterGar.projects.ecommerce.Dto.ProductDto;
+import com.waalterGar.projects.ecommerce.config.ProductPageCacheProperties;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductPageCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger loads = new AtomicInteger();
+    private ProductPageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = cache(true);
+    }
+
+    private ProductPageCache cache(boolean enabled) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", new SimpleMeterRegistry());
+        return new ProductPageCache(objectMapper,
+                new ProductPageCacheProperties(enabled, 1024 * 1024, Duration.ofMinutes(1), 2048),
+                beans.getBeanProvider(MeterRegistry.class));
+    }
+
+    private List<ProductDto> products(int count) {
+        loads.incrementAndGet();
+        return IntStream.range(0, count)
+                .mapToObj(i -> new ProductDto(String.format("SKU-%05d", i), "Product " + i, "Description " + i,
+                        new BigDecimal("9.99"), Currency.EUR, 10, true))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("get: serializes once per key and hands every request the same array")
+    void get_servesSameBytes_untilKeyChanges() throws IOException {
+        ProductPageCache.Key key = ProductPageCache.Key.page(PageRequest.of(0, 20, Sort.by("createdAt").descending()), true);
+
+        SerializedPage first = cache.get(key, () -> products(2));
+        SerializedPage second = cache.get(key, () -> products(2));
+        cache.get(ProductPageCache.Key.page(PageRequest.of(1, 20, Sort.by("createdAt").descending()), true), () -> products(2));
+
+        assertThat(second.json()).isSameAs(first.json());
+        assertThat(loads).hasValue(2);
+        assertThat(objectMapper.readTree(first.json()).get(0).get("sku").asText()).isEqualTo("SKU-00000");
+        assertThat(first.gzip()).as("small bodies are not worth gzipping").isNull();
+    }
+
+    @Test
+    @DisplayName("onProductsChanged: the next read reloads instead of serving the page from before the change")
+    void productsChanged_movesCatalogVersion() {
+        cache.get(ProductPageCache.Key.all(), () -> products(2));
+
+        cache.onProductsChanged(ProductsChangedEvent.of("SKU-00000"));
+        cache.get(ProductPageCache.Key.all(), () -> products(2));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("get: bodies over gzip-min-bytes keep a gzipped copy of the same JSON")
+    void get_largeBody_isGzippedOnce() throws IOException {
+        SerializedPage page = cache.get(ProductPageCache.Key.all(), () -> products(200));
+
+        assertThat(page.gzip()).isNotNull();
+        assertThat(page.gzip().length).isLessThan(page.json().length / 4);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(page.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(page.json());
+        }
+    }
+
+    @Test
+    @DisplayName("get: when disabled, loads and serializes on every call and leaves gzip to the server")
+    void get_disabled_loadsEveryTime() {
+        ProductPageCache disabled = cache(false);
+
+        SerializedPage page = disabled.get(ProductPageCache.Key.all(), () -> products(200));
+        disabled.get(ProductPageCache.Key.all(), () -> products(200));
+
+        assertThat(loads).hasValue(2);
+        assertThat(page.gzip()).isNull();
+    }
+}
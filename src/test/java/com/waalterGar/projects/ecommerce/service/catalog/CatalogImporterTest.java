@@ -0,0 +1,182 @@
+package com.waalterGar.projects.ecommerce.service.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waalterGar.projects.ecommerce.Dto.ProductImportErrorDto;
+import com.waalterGar.projects.ecommerce.Dto.ProductImportResultDto;
+import com.waalterGar.projects.ecommerce.config.ProductImportProperties;
+import com.waalterGar.projects.ecommerce.repository.ProductBulkWriter;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogImporterTest {
+
+    @Mock ProductBulkWriter writer;
+    @Mock TransactionTemplate transactionTemplate;
+    @Mock ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogImporter importer;
+
+    private static final String HEADER = "sku,name,description,price,currency,stockQuantity,isActive\n";
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        importer = importer(2, 100);
+        lenient().doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private CatalogImporter importer(int batchSize, int maxReportedErrors) {
+        return new CatalogImporter(writer, transactionTemplate, eventPublisher, new ObjectMapper(),
+                new ProductImportProperties(batchSize, maxReportedErrors, 1_000), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("importCsv upserts rows in batches of batch-size and publishes the SKUs of each batch")
+    @SuppressWarnings("unchecked")
+    void importCsv_upsertsInBatches() {
+        ProductImportResultDto result = importer.importCsv(body(HEADER
+                + "MUG-001,Mug,Ceramic,9.99,EUR,10,true\n"
+                + "MUG-002,Mug 2,,10,usd,5,\n"
+                + "TEE-001,Tee,Cotton,19.5,EUR,0,false\n"));
+
+        ArgumentCaptor<List<ProductBulkWriter.Upsert>> batches = ArgumentCaptor.forClass(List.class);
+        verify(writer, times(2)).upsert(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+
+        ProductBulkWriter.Upsert second = batches.getAllValues().get(0).get(1);
+        assertThat(second.sku()).isEqualTo("MUG-002");
+        assertThat(second.description()).isNull();
+        assertThat(second.price()).isEqualByComparingTo(new BigDecimal("10.00"));
+        assertThat(second.currency()).isEqualTo(Currency.USD);
+        assertThat(second.isActive()).isTrue();
+        assertThat(batches.getAllValues().get(1).get(0).isActive()).isFalse();
+
+        verify(eventPublisher).publishEvent(new ProductsChangedEvent(Set.of("MUG-001", "MUG-002")));
+        verify(eventPublisher).publishEvent(new ProductsChangedEvent(Set.of("TEE-001")));
+
+        assertThat(result.getRowsRead()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isZero();
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(meterRegistry.get(CatalogImporter.ROWS).tag("result", "imported").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(CatalogImporter.BATCH).timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("invalid rows are reported with their row number and skipped; the others are imported")
+    void importCsv_invalidRows_reportedAndSkipped() {
+        ProductImportResultDto result = importer.importCsv(body(HEADER
+                + "MUG-001,Mug,,abc,EUR,10,true\n"
+                + "MUG-002,,,9.99,EUR,10,true\n"
+                + "MUG-003,Mug 3,,9.99,GBP,10,true\n"
+                + "MUG-004,Mug 4,,9.99,EUR,-1,true\n"
+                + "MUG-005,Mug 5,,9.99,EUR,10,true,extra\n"
+                + "MUG-006,Mug 6,,9.99,EUR,10,true\n"));
+
+        assertThat(result.getRowsRead()).isEqualTo(6);
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(5);
+        assertThat(result.getErrors()).extracting(ProductImportErrorDto::getRow).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(result.getErrors().get(0).getSku()).isEqualTo("MUG-001");
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("price is not a number");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("name is required");
+        assertThat(result.getErrors().get(2).getMessage()).isEqualTo("currency must be one of EUR, USD");
+        assertThat(result.getErrors().get(3).getMessage()).isEqualTo("stockQuantity must not be negative");
+        verify(writer).upsert(argThat(rows -> rows.size() == 1 && rows.get(0).sku().equals("MUG-006")));
+    }
+
+    @Test
+    @DisplayName("a batch rejected by the database is replayed row by row and only the failing row is reported")
+    void importCsv_batchFails_retriedRowByRow() {
+        doThrow(new DataIntegrityViolationException("Data too long for column 'name'"))
+                .when(writer).upsert(argThat(rows -> rows.stream().anyMatch(r -> r.sku().equals("BAD-001"))));
+
+        ProductImportResultDto result = importer.importCsv(body(HEADER
+                + "MUG-001,Mug,,9.99,EUR,10,true\n"
+                + "BAD-001,Bad,,9.99,EUR,10,true\n"));
+
+        // the batch, then each row on its own
+        verify(writer, times(3)).upsert(anyList());
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement().satisfies(e -> {
+            assertThat(e.getRow()).isEqualTo(2);
+            assertThat(e.getSku()).isEqualTo("BAD-001");
+            assertThat(e.getMessage()).contains("Data too long");
+        });
+        assertThat(meterRegistry.get(CatalogImporter.ROWS).tag("result", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("importCsv -> IllegalArgumentException when the header lacks a required column")
+    void importCsv_missingColumns_throws() {
+        assertThatThrownBy(() -> importer.importCsv(body("sku,name\nMUG-001,Mug\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("CSV header is missing columns: currency, price, stockQuantity");
+        verifyNoInteractions(writer);
+    }
+
+    @Test
+    @DisplayName("importNdjson skips blank lines and reports malformed ones without stopping")
+    void importNdjson_blankAndMalformedLines() {
+        ProductImportResultDto result = importer.importNdjson(body("""
+                {"sku":"MUG-001","name":"Mug","price":9.99,"currency":"EUR","stockQuantity":10}
+
+                {"sku":"MUG-002","name":
+                [1,2]
+                {"sku":"MUG-003","name":"Mug 3","price":"5","currency":"USD","stockQuantity":1,"isActive":false}
+                """));
+
+        assertThat(result.getRowsRead()).isEqualTo(4);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ProductImportErrorDto::getRow).containsExactly(2L, 3L);
+        assertThat(result.getErrors().get(0).getMessage()).startsWith("malformed JSON");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("line is not a JSON object");
+    }
+
+    @Test
+    @DisplayName("only max-reported-errors errors are listed, but every failure is counted")
+    void errorsList_isCapped() {
+        meterRegistry = new SimpleMeterRegistry();
+        importer = importer(2, 1);
+
+        ProductImportResultDto result = importer.importCsv(body(HEADER
+                + "MUG-001,,,9.99,EUR,10,true\n"
+                + "MUG-002,,,9.99,EUR,10,true\n"));
+
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).singleElement().extracting(ProductImportErrorDto::getRow).isEqualTo(1L);
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
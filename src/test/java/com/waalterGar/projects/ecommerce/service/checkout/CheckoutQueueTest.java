@@ -0,0 +1,220 @@
+package com.waalterGar.projects.ecommerce.service.checkout;
+
+import com.waalterGar.projects.ecommerce.Dto.CheckoutTicketDto;
+import com.waalterGar.projects.ecommerce.Dto.OrderDto;
+import com.waalterGar.projects.ecommerce.config.CheckoutMetricsProperties;
+import com.waalterGar.projects.ecommerce.config.CheckoutQueueProperties;
+import com.waalterGar.projects.ecommerce.entity.Cart;
+import com.waalterGar.projects.ecommerce.entity.CartItem;
+import com.waalterGar.projects.ecommerce.repository.CartRepository;
+import com.waalterGar.projects.ecommerce.service.CheckoutService;
+import com.waalterGar.projects.ecommerce.service.InventoryService;
+import com.waalterGar.projects.ecommerce.service.exception.CheckoutQueueFullException;
+import com.waalterGar.projects.ecommerce.service.exception.InsufficientStockException;
+import com.waalterGar.projects.ecommerce.service.metrics.CheckoutFunnelMetrics;
+import com.waalterGar.projects.ecommerce.utils.CartStatus;
+import com.waalterGar.projects.ecommerce.utils.CheckoutStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutQueueTest {
+
+    @Mock CartRepository cartRepository;
+    @Mock CheckoutService checkoutService;
+    @Mock InventoryService inventoryService;
+    @Mock TransactionTemplate transactionTemplate;
+
+    private static final String CUSTOMER = "cust-1";
+    private static final String SKU = "MUG-001";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CheckoutFunnelMetrics funnelMetrics =
+            new CheckoutFunnelMetrics(meterRegistry, new CheckoutMetricsProperties(10));
+    private CheckoutQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = queue(4, 100);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.stop();
+    }
+
+    private CheckoutQueue queue(int workers, int capacity) {
+        return new CheckoutQueue(cartRepository, checkoutService, inventoryService, transactionTemplate, funnelMetrics,
+                new CheckoutQueueProperties(workers, capacity, 20, Duration.ofMinutes(5)));
+    }
+
+    @Test
+    @DisplayName("submit returns a PENDING ticket that completes with the order once drained")
+    void submit_thenDrain_completesTicket() {
+        stubCart("cart-1", SKU);
+        when(checkoutService.checkout("cart-1", CUSTOMER)).thenReturn(order("ord-1"));
+
+        CheckoutTicketDto pending = queue.submit("cart-1", CUSTOMER);
+        assertThat(pending.getStatus()).isEqualTo(CheckoutStatus.PENDING);
+        assertThat(queue.find(pending.getTicket())).get().extracting(CheckoutTicketDto::getStatus).isEqualTo(CheckoutStatus.PENDING);
+
+        queue.drain(queue.partitionOf(SKU));
+
+        CheckoutTicketDto done = queue.find(pending.getTicket()).orElseThrow();
+        assertThat(done.getStatus()).isEqualTo(CheckoutStatus.COMPLETED);
+        assertThat(done.getOrder().getExternalId()).isEqualTo("ord-1");
+        assertThat(done.getCompletedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("checkouts for the same SKU share a worker and commit in one transaction")
+    void sameSku_isBatchedInOneTransaction() {
+        stubCart("cart-1", SKU);
+        stubCart("cart-2", "ZZZ-999", SKU);
+        when(checkoutService.checkout(anyString(), eq(CUSTOMER))).thenReturn(order("ord"));
+
+        queue.submit("cart-1", CUSTOMER);
+        queue.submit("cart-2", CUSTOMER);
+        queue.drain(queue.partitionOf(SKU));
+
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(checkoutService, times(2)).checkout(anyString(), eq(CUSTOMER));
+    }
+
+    @Test
+    @DisplayName("a batch locks every SKU of its carts up front, before any checkout runs")
+    void batch_locksAllSkusBeforeCheckingOut() {
+        stubCart("cart-1", SKU, "TEE-001");
+        stubCart("cart-2", SKU, "ZZZ-001");
+        List<String> skus = List.of(SKU, "TEE-001", "ZZZ-001");
+        when(cartRepository.findSkusByCartExternalIdIn(List.of("cart-1", "cart-2"))).thenReturn(skus);
+        when(checkoutService.checkout(anyString(), eq(CUSTOMER))).thenReturn(order("ord"));
+
+        queue.submit("cart-1", CUSTOMER);
+        queue.submit("cart-2", CUSTOMER);
+        queue.drain(queue.partitionOf(SKU));
+
+        InOrder inOrder = inOrder(inventoryService, checkoutService);
+        inOrder.verify(inventoryService).lockRows(skus);
+        inOrder.verify(checkoutService, times(2)).checkout(anyString(), eq(CUSTOMER));
+    }
+
+    @Test
+    @DisplayName("a single checkout is not locked up front: it already takes its own rows in SKU order")
+    void singleCheckout_doesNotLockUpFront() {
+        stubCart("cart-1", SKU);
+        when(checkoutService.checkout("cart-1", CUSTOMER)).thenReturn(order("ord-1"));
+
+        queue.submit("cart-1", CUSTOMER);
+        queue.drain(queue.partitionOf(SKU));
+
+        verifyNoInteractions(inventoryService);
+    }
+
+    @Test
+    @DisplayName("a failing checkout rolls its batch back and only that ticket is FAILED")
+    void failingCheckout_isRetriedAlone_andReportedWithProblem() {
+        stubCart("cart-ok", SKU);
+        stubCart("cart-short", SKU);
+        when(checkoutService.checkout("cart-ok", CUSTOMER)).thenReturn(order("ord-ok"));
+        when(checkoutService.checkout("cart-short", CUSTOMER)).thenThrow(new InsufficientStockException(SKU, "Insufficient stock"));
+
+        String ok = queue.submit("cart-ok", CUSTOMER).getTicket();
+        String shortTicket = queue.submit("cart-short", CUSTOMER).getTicket();
+        queue.drain(queue.partitionOf(SKU));
+
+        assertThat(queue.find(ok).orElseThrow().getStatus()).isEqualTo(CheckoutStatus.COMPLETED);
+        CheckoutTicketDto failed = queue.find(shortTicket).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(CheckoutStatus.FAILED);
+        assertThat(failed.getError().getStatus()).isEqualTo(422);
+        assertThat(failed.getError().getType().toString()).isEqualTo("urn:problem:insufficient-stock");
+        // batch of two, then each on its own
+        verify(transactionTemplate, times(3)).execute(any());
+        // counted once, not once per attempt
+        assertThat(meterRegistry.get("checkout.rejections").tags("reason", "insufficient_stock", "sku", SKU)
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("submit -> CheckoutQueueFullException once the worker's queue is full")
+    void submit_whenQueueFull_throws() {
+        queue = queue(1, 1);
+        stubCart("cart-1", SKU);
+        stubCart("cart-2", SKU);
+
+        String first = queue.submit("cart-1", CUSTOMER).getTicket();
+
+        assertThatThrownBy(() -> queue.submit("cart-2", CUSTOMER)).isInstanceOf(CheckoutQueueFullException.class);
+        assertThat(queue.find(first)).isPresent();
+    }
+
+    @Test
+    @DisplayName("submit rejects empty or already checked-out carts without queueing them")
+    void submit_invalidCart_throwsWithoutQueueing() {
+        Cart empty = cart("cart-empty");
+        when(cartRepository.findByExternalId("cart-empty")).thenReturn(Optional.of(empty));
+        Cart done = cart("cart-done", SKU);
+        done.setStatus(CartStatus.CHECKED_OUT);
+        when(cartRepository.findByExternalId("cart-done")).thenReturn(Optional.of(done));
+
+        assertThatThrownBy(() -> queue.submit("cart-empty", CUSTOMER)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> queue.submit("cart-done", CUSTOMER)).isInstanceOf(IllegalStateException.class);
+        verifyNoInteractions(checkoutService);
+    }
+
+    @Test
+    @DisplayName("stop finishes checkouts already queued and then rejects new ones")
+    void stop_drainsQueuedCheckouts() {
+        stubCart("cart-1", SKU);
+        when(checkoutService.checkout("cart-1", CUSTOMER)).thenReturn(order("ord-1"));
+
+        queue.start();
+        String ticket = queue.submit("cart-1", CUSTOMER).getTicket();
+        queue.stop();
+
+        assertThat(queue.find(ticket).orElseThrow().getStatus()).isEqualTo(CheckoutStatus.COMPLETED);
+        assertThatThrownBy(() -> queue.submit("cart-1", CUSTOMER)).isInstanceOf(CheckoutQueueFullException.class);
+    }
+
+    private void stubCart(String externalId, String... skus) {
+        when(cartRepository.findByExternalId(externalId)).thenReturn(Optional.of(cart(externalId, skus)));
+    }
+
+    private static Cart cart(String externalId, String... skus) {
+        Cart cart = new Cart();
+        cart.setExternalId(externalId);
+        cart.setStatus(CartStatus.NEW);
+        for (String sku : skus) {
+            CartItem item = new CartItem();
+            item.setProductSku(sku);
+            item.setQuantity(1);
+            cart.addItem(item);
+        }
+        return cart;
+    }
+
+    private static OrderDto order(String externalId) {
+        OrderDto dto = new OrderDto();
+        dto.setExternalId(externalId);
+        return dto;
+    }
+}
@@ -0,0 +1,64 @@
+package com.waalterGar.projects.ecommerce.service.diagnostics;
+
+import com.waalterGar.projects.ecommerce.config.PinningMonitorProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private VirtualThreadPinningMonitor monitor;
+
+    @AfterEach
+    void tearDown() {
+        if (monitor != null) {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("a virtual thread sleeping inside synchronized is counted as pinned in application code")
+    void pinnedVirtualThread_isCounted() throws Exception {
+        monitor = new VirtualThreadPinningMonitor(new PinningMonitorProperties(true, Duration.ofMillis(10)), registry);
+        monitor.start();
+
+        Object lock = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        // JFR hands events to the stream about once a second
+        long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+        while (pinnedCount("application") == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(pinnedCount("application")).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("disabled: no JFR stream is started")
+    void disabled_doesNothing() {
+        monitor = new VirtualThreadPinningMonitor(new PinningMonitorProperties(false, null), registry);
+        monitor.start();
+
+        assertThat(registry.find(VirtualThreadPinningMonitor.METER).counters()).isEmpty();
+    }
+
+    private double pinnedCount(String location) {
+        Counter counter = registry.find(VirtualThreadPinningMonitor.METER).tag("location", location).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
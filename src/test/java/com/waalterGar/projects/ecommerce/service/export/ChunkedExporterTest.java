@@ -0,0 +1,75 @@
+package com.waalterGar.projects.ecommerce.service.export;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedExporterTest {
+
+    @Mock EntityManager entityManager;
+    @InjectMocks ChunkedExporter exporter;
+
+    @Test
+    @DisplayName("export: maps full chunks plus the remainder, clearing the persistence context after each")
+    void export_chunksAndClears() {
+        int rows = ChunkedExporter.CHUNK_SIZE * 2 + 7;
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<String> out = new ArrayList<>();
+
+        exporter.export(IntStream.range(0, rows).boxed(), chunk -> {
+            chunkSizes.add(chunk.size());
+            return chunk.stream().map(i -> "row-" + i).toList();
+        }, out::add);
+
+        assertThat(chunkSizes).containsExactly(ChunkedExporter.CHUNK_SIZE, ChunkedExporter.CHUNK_SIZE, 7);
+        assertThat(out).hasSize(rows).startsWith("row-0").endsWith("row-" + (rows - 1));
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    @DisplayName("export: closes the repository stream even when the sink fails")
+    void export_sinkFails_closesStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Integer> rows = Stream.of(1, 2, 3).onClose(() -> closed.set(true));
+
+        try {
+            exporter.export(rows, chunk -> chunk, i -> { throw new IllegalStateException("client went away"); });
+        } catch (IllegalStateException expected) {
+            // propagated to the response writer
+        }
+
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("exportByKey: asks for the next chunk after the previous one's last key and stops on a short chunk")
+    void exportByKey_walksChunksByLastKey() {
+        int rows = ChunkedExporter.CHUNK_SIZE + 3;
+        List<Integer> afters = new ArrayList<>();
+        List<Integer> out = new ArrayList<>();
+
+        exporter.<Integer, Integer>exportByKey(after -> {
+            afters.add(after);
+            int from = after == null ? 0 : after + 1;
+            return IntStream.range(from, Math.min(from + ChunkedExporter.CHUNK_SIZE, rows)).boxed().toList();
+        }, chunk -> List.copyOf(chunk), out::add);
+
+        assertThat(afters).containsExactly(null, ChunkedExporter.CHUNK_SIZE - 1);
+        assertThat(out).hasSize(rows).startsWith(0).endsWith(rows - 1);
+        verify(entityManager, times(2)).clear();
+    }
+}
@@ -0,0 +1,174 @@
+package com.waalterGar.projects.ecommerce.service.idempotency;
+
+import com.waalterGar.projects.ecommerce.config.IdempotencyProperties;
+import com.waalterGar.projects.ecommerce.entity.IdempotencyRecord;
+import com.waalterGar.projects.ecommerce.repository.IdempotencyRecordRepository;
+import com.waalterGar.projects.ecommerce.service.exception.IdempotencyKeyInProgressException;
+import com.waalterGar.projects.ecommerce.service.exception.IdempotencyKeyReuseException;
+import com.waalterGar.projects.ecommerce.utils.IdempotencyStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    @Mock IdempotencyRecordRepository repository;
+
+    private static final String KEY = "key-1";
+    private static final String HASH = "a".repeat(64);
+    private static final StoredResponse CREATED =
+            new StoredResponse(HASH, 201, "application/json", "{\"externalId\":\"ord-1\"}".getBytes(StandardCharsets.UTF_8));
+
+    private IdempotencyStore store;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        store = storeWithWaitTimeout(Duration.ofSeconds(5));
+        pool = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private IdempotencyStore storeWithWaitTimeout(Duration waitTimeout) {
+        return new IdempotencyStore(repository,
+                new IdempotencyProperties(null, waitTimeout, Duration.ofMinutes(1), 100),
+                new SimpleMeterRegistry());
+    }
+
+    private static IdempotencyRecord row(IdempotencyStatus status, String hash, LocalDateTime createdAt) {
+        IdempotencyRecord row = new IdempotencyRecord();
+        row.setIdempotencyKey(KEY);
+        row.setRequestHash(hash);
+        row.setStatus(status);
+        row.setCreatedAt(createdAt);
+        row.setExpiresAt(LocalDateTime.now().plusHours(1));
+        if (status == IdempotencyStatus.COMPLETED) {
+            row.setResponseStatus(CREATED.status());
+            row.setResponseContentType(CREATED.contentType());
+            row.setResponseBody(CREATED.body());
+        }
+        return row;
+    }
+
+    @Test
+    @DisplayName("begin: a new key is claimed and the caller runs the request")
+    void begin_newKey_claims() {
+        when(repository.claim(eq(KEY), eq(HASH), any(), any())).thenReturn(1);
+
+        assertThat(store.begin(KEY, HASH)).isEmpty();
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("complete: retries are answered from memory without touching the table")
+    void complete_thenBegin_replaysFromMemory() {
+        when(repository.claim(eq(KEY), eq(HASH), any(), any())).thenReturn(1);
+        store.begin(KEY, HASH);
+
+        store.complete(KEY, CREATED);
+
+        assertThat(store.begin(KEY, HASH)).contains(CREATED);
+        verify(repository, times(1)).claim(any(), any(), any(), any());
+        verify(repository).complete(eq(KEY), eq(201), eq("application/json"), eq(CREATED.body()), any());
+    }
+
+    @Test
+    @DisplayName("begin: the same key with a different request is rejected")
+    void begin_differentHash_rejected() {
+        when(repository.claim(eq(KEY), eq(HASH), any(), any())).thenReturn(1);
+        store.begin(KEY, HASH);
+        store.complete(KEY, CREATED);
+
+        assertThatThrownBy(() -> store.begin(KEY, "b".repeat(64)))
+                .isInstanceOf(IdempotencyKeyReuseException.class);
+    }
+
+    @Test
+    @DisplayName("begin: a response recorded by another instance is replayed")
+    void begin_completedElsewhere_replays() {
+        when(repository.claim(eq(KEY), eq(HASH), any(), any())).thenReturn(0);
+        when(repository.findById(KEY)).thenReturn(Optional.of(row(IdempotencyStatus.COMPLETED, HASH, LocalDateTime.now())));
+
+        Optional<StoredResponse> replay = store.begin(KEY, HASH);
+
+        assertThat(replay).get().extracting(StoredResponse::status).isEqualTo(201);
+        assertThat(replay.get().body()).isEqualTo(CREATED.body());
+    }
+
+    @Test
+    @DisplayName("begin: a concurrent duplicate on this instance waits for the first request's response")
+    void begin_concurrentDuplicate_waitsForOwner() throws Exception {
+        when(repository.claim(eq(KEY), eq(HASH), any(), any())).thenReturn(1);
+        assertThat(store.begin(KEY, HASH)).isEmpty();
+
+        Future<Optional<StoredResponse>> duplicate = pool.submit(() -> store.begin(KEY, HASH));
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+
+        store.complete(KEY, CREATED);
+
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).contains(CREATED);
+        verify(repository, times(1)).claim(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("release: a waiting duplicate becomes the owner and runs the request itself")
+    void release_waitingDuplicateTakesOver() throws Exception {
+        when(repository.claim(eq(KEY), eq(HASH), any(), any())).thenReturn(1);
+        assertThat(store.begin(KEY, HASH)).isEmpty();
+
+        Future<Optional<StoredResponse>> duplicate = pool.submit(() -> store.begin(KEY, HASH));
+        Thread.sleep(100);
+        store.release(KEY);
+
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEmpty();
+        verify(repository).release(KEY);
+        verify(repository, times(2)).claim(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("begin: gives up with 'in progress' when another instance does not finish in time")
+    void begin_inProgressElsewhere_timesOut() {
+        IdempotencyStore impatient = storeWithWaitTimeout(Duration.ofMillis(100));
+        when(repository.claim(eq(KEY), eq(HASH), any(), any())).thenReturn(0);
+        when(repository.findById(KEY)).thenReturn(Optional.of(row(IdempotencyStatus.IN_PROGRESS, HASH, LocalDateTime.now())));
+
+        assertThatThrownBy(() -> impatient.begin(KEY, HASH))
+                .isInstanceOf(IdempotencyKeyInProgressException.class);
+        verify(repository, never()).takeOver(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("begin: an IN_PROGRESS key older than the lock timeout is taken over")
+    void begin_abandonedKey_takenOver() {
+        when(repository.claim(eq(KEY), eq(HASH), any(), any())).thenReturn(0);
+        when(repository.findById(KEY)).thenReturn(Optional.of(
+                row(IdempotencyStatus.IN_PROGRESS, HASH, LocalDateTime.now().minusMinutes(5))));
+        when(repository.takeOver(eq(KEY), eq(HASH), any(), any())).thenReturn(1);
+
+        assertThat(store.begin(KEY, HASH)).isEmpty();
+    }
+}
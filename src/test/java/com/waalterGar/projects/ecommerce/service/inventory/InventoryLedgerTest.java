@@ -0,0 +1,246 @@
+package com.waalterGar.projects.ecommerce.service.inventory;
+
+import com.waalterGar.projects.ecommerce.config.InventoryLedgerProperties;
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryLedgerTest {
+
+    @Mock ProductRepository productRepository;
+    @Mock TransactionTemplate transactionTemplate;
+
+    private static final String HOT_SKU = "FLASH-SALE-001";
+    private static final String OTHER_SKU = "MUG-LOGO-001";
+
+    private InventoryLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new InventoryLedger(
+                new InventoryLedgerProperties(true, Set.of(HOT_SKU), Duration.ofSeconds(1)),
+                productRepository, transactionTemplate);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void rebuildWithStock(int stock) {
+        Product product = new ProductBuilder().withSku(HOT_SKU).withStockQuantity(stock).build();
+        when(productRepository.findAllBySkuIn(Set.of(HOT_SKU))).thenReturn(List.of(product));
+        ledger.rebuild();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionCallbacks() {
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("rebuild: only flagged SKUs found in the database are managed")
+    void rebuild_managesFlaggedSkusFromDatabase() {
+        rebuildWithStock(40);
+
+        assertThat(ledger.isManaged(HOT_SKU)).isTrue();
+        assertThat(ledger.isManaged(OTHER_SKU)).isFalse();
+        assertThat(ledger.available(HOT_SKU)).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("isManaged: false for every SKU when the ledger is disabled")
+    void disabled_managesNothing() {
+        InventoryLedger disabled = new InventoryLedger(
+                new InventoryLedgerProperties(false, Set.of(HOT_SKU), null), productRepository, transactionTemplate);
+
+        disabled.rebuild();
+
+        assertThat(disabled.isManaged(HOT_SKU)).isFalse();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("tryReserve: takes from stock and fails without side effects when short")
+    void tryReserve_takesUntilEmpty() {
+        rebuildWithStock(5);
+
+        assertThat(ledger.tryReserve(HOT_SKU, 3)).isTrue();
+        assertThat(ledger.tryReserve(HOT_SKU, 3)).isFalse();
+        assertThat(ledger.available(HOT_SKU)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("tryReserve: a quantity larger than any single stripe is served by pooling the stripes")
+    void tryReserve_largerThanOneStripe_pools() {
+        rebuildWithStock(InventoryLedger.STRIPES * 2);
+
+        assertThat(ledger.tryReserve(HOT_SKU, InventoryLedger.STRIPES * 2 - 1)).isTrue();
+        assertThat(ledger.available(HOT_SKU)).isEqualTo(1);
+        assertThat(ledger.tryReserve(HOT_SKU, 1)).isTrue();
+        assertThat(ledger.available(HOT_SKU)).isZero();
+    }
+
+    @Test
+    @DisplayName("tryReserve: many threads never oversell")
+    void tryReserve_concurrent_neverOversells() throws Exception {
+        rebuildWithStock(100);
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 50; i++) {
+                    if (ledger.tryReserve(HOT_SKU, 1)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertThat(reserved.get()).isEqualTo(100);
+        assertThat(ledger.available(HOT_SKU)).isZero();
+    }
+
+    @Test
+    @DisplayName("flush: writes the aggregated committed delta once, then nothing")
+    void flush_writesAggregatedDelta() {
+        rebuildWithStock(10);
+        runTransactionCallbacks();
+
+        ledger.tryReserve(HOT_SKU, 2);
+        ledger.tryReserve(HOT_SKU, 3);
+        ledger.release(HOT_SKU, 1);
+        ledger.flush();
+        ledger.flush();
+
+        verify(productRepository, times(1)).incrementStock(HOT_SKU, -4);
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("flush: a failed write keeps the delta for the next flush")
+    void flush_failure_retainsDelta() {
+        rebuildWithStock(10);
+        doThrow(new IllegalStateException("db down")).doNothing()
+                .when(transactionTemplate).executeWithoutResult(any());
+
+        ledger.tryReserve(HOT_SKU, 2);
+        ledger.flush();
+        runTransactionCallbacks();
+        ledger.flush();
+
+        verify(productRepository).incrementStock(HOT_SKU, -2);
+    }
+
+    @Test
+    @DisplayName("tryReserve: a rolled back transaction gives the stock back and flushes nothing")
+    void tryReserve_rollback_compensates() {
+        rebuildWithStock(10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.tryReserve(HOT_SKU, 4);
+        assertThat(ledger.available(HOT_SKU)).isEqualTo(6);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        ledger.flush();
+
+        assertThat(ledger.available(HOT_SKU)).isEqualTo(10);
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("onProductsChanged: a rename keeps unflushed reservations and the flush still decrements the row")
+    void onProductsChanged_rename_keepsPendingReservations() {
+        rebuildWithStock(10);
+        runTransactionCallbacks();
+        ledger.tryReserve(HOT_SKU, 4);
+        Product renamed = new ProductBuilder().withSku(HOT_SKU).withName("Renamed").withStockQuantity(10).build();
+        when(productRepository.findAllBySkuIn(Set.of(HOT_SKU))).thenReturn(List.of(renamed));
+
+        ledger.onProductsChanged(new ProductsChangedEvent(Set.of(HOT_SKU, OTHER_SKU)));
+        ledger.flush();
+
+        assertThat(ledger.available(HOT_SKU)).isEqualTo(6);
+        verify(productRepository).incrementStock(HOT_SKU, -4);
+    }
+
+    @Test
+    @DisplayName("onProductsChanged: admin stock edits move the ledger by the difference and keep unflushed deltas")
+    void onProductsChanged_stockEdit_rebasesOnPending() {
+        rebuildWithStock(10);
+        runTransactionCallbacks();
+        ledger.tryReserve(HOT_SKU, 4);
+        Product edited = new ProductBuilder().withSku(HOT_SKU).withStockQuantity(50).build();
+        when(productRepository.findAllBySkuIn(Set.of(HOT_SKU))).thenReturn(List.of(edited));
+
+        ledger.onProductsChanged(ProductsChangedEvent.of(HOT_SKU));
+        ledger.flush();
+
+        assertThat(ledger.available(HOT_SKU)).isEqualTo(46);
+        verify(productRepository).incrementStock(HOT_SKU, -4);
+    }
+
+    @Test
+    @DisplayName("onProductsChanged: stock edits after a flush are compared with the flushed value")
+    void onProductsChanged_afterFlush_comparesWithFlushedStock() {
+        rebuildWithStock(10);
+        runTransactionCallbacks();
+        ledger.tryReserve(HOT_SKU, 4);
+        ledger.flush();
+        Product flushed = new ProductBuilder().withSku(HOT_SKU).withStockQuantity(6).build();
+        when(productRepository.findAllBySkuIn(Set.of(HOT_SKU))).thenReturn(List.of(flushed));
+
+        ledger.onProductsChanged(ProductsChangedEvent.of(HOT_SKU));
+
+        assertThat(ledger.available(HOT_SKU)).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("onProductsChanged: unflagged SKUs are ignored")
+    void onProductsChanged_unflaggedSku_ignored() {
+        ledger.onProductsChanged(ProductsChangedEvent.of(OTHER_SKU));
+
+        verifyNoInteractions(productRepository);
+    }
+}
@@ -0,0 +1,52 @@
+package com.waalterGar.projects.ecommerce.service.metrics;
+
+import com.waalterGar.projects.ecommerce.config.CheckoutMetricsProperties;
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.service.exception.InactiveProductException;
+import com.waalterGar.projects.ecommerce.service.exception.InsufficientStockException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckoutFunnelMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CheckoutFunnelMetrics metrics = new CheckoutFunnelMetrics(registry, new CheckoutMetricsProperties(2));
+
+    @Test
+    @DisplayName("each step has its own checkout.funnel counter, registered up front")
+    void steps_areCountedByTag() {
+        metrics.step(CheckoutFunnelMetrics.Step.CHECKOUT);
+        metrics.step(CheckoutFunnelMetrics.Step.CHECKOUT);
+
+        assertThat(registry.get(CheckoutFunnelMetrics.FUNNEL).tag("step", "checkout").counter().count()).isEqualTo(2);
+        assertThat(registry.get(CheckoutFunnelMetrics.FUNNEL).counters()).hasSize(CheckoutFunnelMetrics.Step.values().length);
+    }
+
+    @Test
+    @DisplayName("rejections are tagged by SKU up to max-sku-tags, then grouped under sku=other")
+    void rejections_skuTagsAreCapped() {
+        metrics.failed(new InsufficientStockException("A", "out"));
+        metrics.failed(new InsufficientStockException("B", "out"));
+        metrics.failed(new InsufficientStockException("C", "out"));
+        metrics.failed(new InactiveProductException("A", "inactive"));
+        metrics.failed(new InsufficientStockException("A", "out"));
+
+        assertThat(registry.get(CheckoutFunnelMetrics.REJECTIONS).tags("reason", "insufficient_stock", "sku", "A").counter().count()).isEqualTo(2);
+        assertThat(registry.get(CheckoutFunnelMetrics.REJECTIONS).tags("reason", "insufficient_stock", "sku", "other").counter().count()).isEqualTo(1);
+        assertThat(registry.get(CheckoutFunnelMetrics.REJECTIONS).tags("reason", "inactive_product", "sku", "A").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("optimistic-lock conflicts are tagged by entity; other exceptions are ignored")
+    void conflicts_areTaggedByEntity() {
+        metrics.failed(new ObjectOptimisticLockingFailureException(Product.class, "id"));
+        metrics.failed(new IllegalStateException("not a funnel failure"));
+
+        assertThat(registry.get(CheckoutFunnelMetrics.CONFLICTS).tag("entity", "Product").counter().count()).isEqualTo(1);
+        assertThat(registry.find(CheckoutFunnelMetrics.REJECTIONS).counters()).isEmpty();
+    }
+}
@@ -0,0 +1,83 @@
+package com.waalterGar.projects.ecommerce.service.metrics;
+
+import com.waalterGar.projects.ecommerce.config.CheckoutMetricsProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ServiceMetricsInterceptorTest {
+
+    private SimpleMeterRegistry registry;
+    private FakeServiceImpl service;
+
+    static class FakeServiceImpl {
+        @FunnelStep(CheckoutFunnelMetrics.Step.PAYMENT)
+        public String pay(boolean fail) {
+            if (fail) {
+                throw new IllegalStateException("boom");
+            }
+            return "paid";
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", registry);
+        beans.addBean("funnel", new CheckoutFunnelMetrics(registry, new CheckoutMetricsProperties(10)));
+
+        ProxyFactory factory = new ProxyFactory(new FakeServiceImpl());
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(new ServiceMetricsInterceptor(beans.getBeanProvider(MeterRegistry.class),
+                beans.getBeanProvider(CheckoutFunnelMetrics.class)));
+        service = (FakeServiceImpl) factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("calls are timed per class, method and outcome; a successful FunnelStep method counts its step")
+    void timesCalls_andCountsFunnelStep() {
+        service.pay(false);
+        service.pay(false);
+        assertThatThrownBy(() -> service.pay(true)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.get(ServiceMetricsInterceptor.METER)
+                .tags("class", "FakeServiceImpl", "method", "pay", "outcome", "success").timer().count()).isEqualTo(2);
+        assertThat(registry.get(ServiceMetricsInterceptor.METER)
+                .tags("class", "FakeServiceImpl", "method", "pay", "outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(paymentSteps()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("inside an enclosing transaction the step is only counted after commit")
+    void insideTransaction_countsStepAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.pay(false);
+        assertThat(paymentSteps()).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(paymentSteps()).isEqualTo(1);
+    }
+
+    private double paymentSteps() {
+        return registry.get(CheckoutFunnelMetrics.FUNNEL).tag("step", "payment").counter().count();
+    }
+}
@@ -0,0 +1,32 @@
+package com.waalterGar.projects.ecommerce.service.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerSearchQueryTest {
+
+    @Test
+    @DisplayName("each word becomes a required prefix term, lower-cased")
+    void words_becomeRequiredPrefixTerms() {
+        assertThat(CustomerSearchQuery.from("  Ana  García ")).contains("+ana* +garcía*");
+    }
+
+    @Test
+    @DisplayName("punctuation and boolean-mode operators only separate words")
+    void operators_separateWords() {
+        assertThat(CustomerSearchQuery.from("ana@shop.es")).contains("+ana* +shop* +es*");
+        assertThat(CustomerSearchQuery.from("-walter +\"garrido\"~")).contains("+walter* +garrido*");
+    }
+
+    @Test
+    @DisplayName("nothing to search for -> empty; repeated words count once and at most MAX_TERMS are kept")
+    void emptyAndLongQueries() {
+        assertThat(CustomerSearchQuery.from("@@ -- **")).isEmpty();
+        assertThat(CustomerSearchQuery.from(null)).isEmpty();
+        assertThat(CustomerSearchQuery.from("ana ana")).contains("+ana*");
+        assertThat(CustomerSearchQuery.from("a b c d e f g h i j").orElseThrow().split(" "))
+                .hasSize(CustomerSearchQuery.MAX_TERMS);
+    }
+}
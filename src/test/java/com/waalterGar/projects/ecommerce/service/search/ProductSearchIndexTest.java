@@ -0,0 +1,127 @@
+package com.waalterGar.projects.ecommerce.service.search;
+
+import com.waalterGar.projects.ecommerce.entity.Product;
+import com.waalterGar.projects.ecommerce.repository.ProductRepository;
+import com.waalterGar.projects.ecommerce.service.cache.ProductSnapshot;
+import com.waalterGar.projects.ecommerce.service.event.ProductsChangedEvent;
+import com.waalterGar.projects.ecommerce.service.export.ChunkedExporter;
+import com.waalterGar.projects.ecommerce.testsupport.builders.ProductBuilder;
+import com.waalterGar.projects.ecommerce.utils.Currency;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock ProductRepository productRepository;
+    @Mock TransactionTemplate transactionTemplate;
+    @Mock ChunkedExporter chunkedExporter;
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository, transactionTemplate, chunkedExporter, new SimpleMeterRegistry());
+        index.put(product("MUG-1", "Taza cerámica", "Taza blanca de 300 ml", "9.99", Currency.EUR, true, 0));
+        index.put(product("MUG-2", "Mug logo", "Taza con el logo", "12.50", Currency.EUR, true, 0));
+        index.put(product("TEE-1", "Camiseta básica", "Algodón, blanca", "15.00", Currency.USD, true, 0));
+        index.put(product("TEE-2", "Camiseta logo", "Edición antigua", "15.00", Currency.EUR, false, 0));
+    }
+
+    @Test
+    @DisplayName("every query word must prefix a name or description word; accents and case are ignored")
+    void words_areRequiredPrefixes_accentInsensitive() {
+        assertThat(skus(search("taz"))).containsExactlyInAnyOrder("MUG-1", "MUG-2");
+        assertThat(skus(search("CERAMICA"))).containsExactly("MUG-1");
+        assertThat(skus(search("blanca taza"))).containsExactly("MUG-1");
+        assertThat(search("taza zzz").total()).isZero();
+    }
+
+    @Test
+    @DisplayName("matches in the name rank above matches only in the description")
+    void nameMatches_rankFirst() {
+        // MUG-1 has "taza" in its name, MUG-2 only in its description
+        assertThat(skus(search("taza"))).containsExactly("MUG-1", "MUG-2");
+        assertThat(skus(search("logo"))).containsExactly("MUG-2", "TEE-2");
+    }
+
+    @Test
+    @DisplayName("currency, active and price range filter; each facet is counted without its own filter")
+    void filtersAndFacets() {
+        ProductSearchIndex.Result result = index.search(
+                new ProductSearchCriteria("camiseta", Currency.EUR, null, null, null), 0, 20);
+
+        assertThat(skus(result)).containsExactly("TEE-2");
+        assertThat(result.currencies()).containsEntry(Currency.EUR, 1L).containsEntry(Currency.USD, 1L);
+        assertThat(result.active()).containsEntry(true, 0L).containsEntry(false, 1L);
+
+        assertThat(skus(index.search(new ProductSearchCriteria(null, null, true,
+                new BigDecimal("10"), new BigDecimal("15")), 0, 20))).containsExactlyInAnyOrder("MUG-2", "TEE-1");
+        assertThat(skus(index.search(new ProductSearchCriteria(null, null, false, null, null), 0, 20)))
+                .containsExactly("TEE-2");
+        assertThat(index.search(new ProductSearchCriteria(null, null, null, new BigDecimal("15.01"), null), 0, 20).total())
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("pages are cut from the ranked matches")
+    void paging() {
+        ProductSearchIndex.Result second = index.search(new ProductSearchCriteria("taza", null, null, null, null), 1, 1);
+
+        assertThat(second.total()).isEqualTo(2);
+        assertThat(skus(second)).containsExactly("MUG-2");
+        assertThat(index.search(new ProductSearchCriteria("taza", null, null, null, null), 2, 1).items()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a change replaces the old words, price and flags; an older version is ignored")
+    void updates_reindex_byVersion() {
+        index.put(product("MUG-1", "Vaso", "Vidrio", "3.00", Currency.USD, false, 1));
+        index.put(product("MUG-1", "Taza cerámica", "Taza blanca de 300 ml", "9.99", Currency.EUR, true, 0));
+
+        assertThat(skus(search("ceramica"))).isEmpty();
+        assertThat(skus(index.search(new ProductSearchCriteria("vaso", Currency.USD, false,
+                new BigDecimal("3"), new BigDecimal("3")), 0, 20))).containsExactly("MUG-1");
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("onProductsChanged reloads the changed SKUs and drops the ones that no longer exist")
+    void onProductsChanged_reloadsAndRemoves() {
+        Product renamed = new ProductBuilder().withSku("MUG-2").withName("Mug grande").withPrice("14.00").build();
+        renamed.setVersion(1);
+        when(productRepository.findAllBySkuIn(Set.of("MUG-2", "TEE-2"))).thenReturn(List.of(renamed));
+
+        index.onProductsChanged(new ProductsChangedEvent(Set.of("MUG-2", "TEE-2")));
+
+        assertThat(skus(search("grande"))).containsExactly("MUG-2");
+        assertThat(skus(search("camiseta"))).containsExactly("TEE-1");
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    private ProductSearchIndex.Result search(String q) {
+        return index.search(new ProductSearchCriteria(q, null, null, null, null), 0, 20);
+    }
+
+    private static List<String> skus(ProductSearchIndex.Result result) {
+        return result.items().stream().map(ProductSnapshot::sku).toList();
+    }
+
+    private static ProductSnapshot product(String sku, String name, String description, String price,
+                                           Currency currency, boolean active, int version) {
+        return new ProductSnapshot(sku, name, description, new BigDecimal(price), currency, 10, active, version);
+    }
+}
@@ -0,0 +1,19 @@
+package com.waalterGar.projects.ecommerce.testsupport.jdbc;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test if its body makes more JDBC round trips than {@link #maxStatements()}. Only the test method
+ * is measured, so seed data in {@code @BeforeEach}. Needs {@code sql.budget.enabled=true} in the test context.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(SqlBudgetExtension.class)
+public @interface SqlBudget {
+    int maxStatements();
+}
@@ -0,0 +1,34 @@
+package com.waalterGar.projects.ecommerce.testsupport.jdbc;
+
+import com.waalterGar.projects.ecommerce.service.diagnostics.SqlStatementStats;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks {@link SqlBudget} using the per-thread counts from {@link SqlStatementStats}. MockMvc runs the
+ * request on the test thread, so everything the endpoint sends to the database is counted.
+ */
+public class SqlBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(SqlBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), SqlStatementStats.statements());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        SqlBudget budget = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), SqlBudget.class).orElseThrow();
+        long before = context.getStore(NAMESPACE).remove(context.getUniqueId(), Long.class);
+        assertThat(SqlStatementStats.statements() - before)
+                .as("JDBC round trips in %s", context.getDisplayName())
+                .isLessThanOrEqualTo(budget.maxStatements());
+    }
+}
@@ -0,0 +1,78 @@
+package com.waalterGar.projects.ecommerce.testsupport.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records every JDBC execution (one {@code execute*} or {@code executeBatch} call, i.e. one round trip)
+ * seen by the proxied DataSource. A batch of 50 INSERTs counts once. The first parameter set of
+ * each execution is kept so the statement can be replayed, e.g. under EXPLAIN.
+ */
+public class StatementCounter implements QueryExecutionListener {
+
+    public record Execution(String sql, boolean batch, int batchSize, List<Object> parameters) {
+        boolean is(String verb) {
+            return sql.stripLeading().toLowerCase(Locale.ROOT).startsWith(verb);
+        }
+    }
+
+    private final List<Execution> executions = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            executions.add(new Execution("", execInfo.isBatch(), execInfo.getBatchSize(), List.of()));
+            return;
+        }
+        QueryInfo query = queryInfoList.get(0);
+        List<Object> parameters = query.getParametersList().isEmpty()
+                ? List.of()
+                : parameters(query.getParametersList().get(0));
+        executions.add(new Execution(query.getQuery(), execInfo.isBatch(), execInfo.getBatchSize(), parameters));
+    }
+
+    /** Bound values in index order; setNull(index, sqlType) becomes null. */
+    private static List<Object> parameters(List<ParameterSetOperation> operations) {
+        List<ParameterSetOperation> ordered = new ArrayList<>(operations);
+        ordered.sort(Comparator.comparingInt(op -> (Integer) op.getArgs()[0]));
+        List<Object> values = new ArrayList<>(ordered.size());
+        for (ParameterSetOperation op : ordered) {
+            values.add(op.getMethod().getName().equals("setNull") ? null : op.getArgs()[1]);
+        }
+        return values;
+    }
+
+    public void reset() {
+        executions.clear();
+    }
+
+    public long roundTrips() {
+        return executions.size();
+    }
+
+    /** Round trips whose statement starts with {@code verb} ("insert", "update", "select", ...). */
+    public long roundTrips(String verb) {
+        return executions.stream().filter(e -> e.is(verb)).count();
+    }
+
+    public List<Execution> executions() {
+        return List.copyOf(executions);
+    }
+
+    /** Executions whose statement starts with {@code verb}. */
+    public List<Execution> executions(String verb) {
+        return executions.stream().filter(e -> e.is(verb)).toList();
+    }
+}